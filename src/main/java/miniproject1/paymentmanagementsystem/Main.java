@@ -5,6 +5,9 @@ import miniproject1.paymentmanagementsystem.controller.AdminController;
 import miniproject1.paymentmanagementsystem.controller.AuthController;
 import miniproject1.paymentmanagementsystem.controller.PaymentController;
 import miniproject1.paymentmanagementsystem.model.User;
+import miniproject1.paymentmanagementsystem.repository.IndexAdvisor;
+import miniproject1.paymentmanagementsystem.repository.PaymentColumnStore;
+import miniproject1.paymentmanagementsystem.service.ArchiveService;
 
 import java.util.Scanner;
 
@@ -20,9 +23,23 @@ public class Main {
             System.out.println("Initializing application...");
 
             // Initialize database
-            DatabaseConfig.getInstance();
+            DatabaseConfig dbConfig = DatabaseConfig.getInstance();
             System.out.println("Database initialized successfully!");
 
+            if (Boolean.parseBoolean(dbConfig.getProperty("index.advisor.enabled", "false"))) {
+                new IndexAdvisor().report();
+            }
+
+            // Keep payments in memory column by column so monthly and quarterly reports skip the database
+            if (Boolean.parseBoolean(dbConfig.getProperty("analytics.enabled", "false"))) {
+                PaymentColumnStore columnStore = PaymentColumnStore.getInstance();
+                columnStore.load(dbConfig);
+                System.out.println("Loaded " + columnStore.size() + " payments into the analytics store.");
+            }
+
+            // Move closed payments past the interactive window to the archive in the background
+            new ArchiveService().start(dbConfig.getIntProperty("archive.interval.hours", 24));
+
             initializeControllers();
             showWelcomeMessage();
             runApplication();
@@ -1,6 +1,9 @@
 package miniproject1.paymentmanagementsystem.config;
 
 import miniproject1.paymentmanagementsystem.util.DatabaseInitializer;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
+import miniproject1.paymentmanagementsystem.util.PartitionManager;
+import miniproject1.paymentmanagementsystem.util.PasswordUtil;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
@@ -9,26 +12,46 @@ import java.sql.SQLException;
 import java.util.Properties;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DatabaseConfig {
-    private static final String PROPERTIES_FILE = "/application.properties";
+    private static final String INVALID_CATALOG_NAME = "3D000";
+    // Console-app settings; application.properties belongs to the Spring Boot app and has no db.* keys
+    private static final String PROPERTIES_FILE = "/database.properties";
     private static DatabaseConfig instance;
     private final Properties properties;
     private final BlockingQueue<Connection> connectionPool;
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final PartitionManager partitionManager;
 
     private DatabaseConfig() throws SQLException, IOException {
         properties = loadProperties();
+        PasswordUtil.configure(properties);
 
-        // Use DatabaseInitializer for complete database setup
         try {
-            DatabaseInitializer.initializeDatabase(properties);
+            Class.forName(properties.getProperty("db.driver"));
         } catch (ClassNotFoundException e) {
             throw new SQLException("Database driver not found", e);
         }
 
         int poolSize = Integer.parseInt(properties.getProperty("db.pool.size", "10"));
         connectionPool = new ArrayBlockingQueue<>(poolSize);
-        initializePool(poolSize);
+        try {
+            initializePool(poolSize);
+        } catch (SQLException e) {
+            // Only a missing database is worth a round trip to the postgres maintenance database
+            if (!INVALID_CATALOG_NAME.equals(e.getSQLState())) {
+                throw e;
+            }
+            DatabaseInitializer.createDatabase(properties);
+            initializePool(poolSize);
+        }
+        initializeSchema();
+        registerPoolMetrics(poolSize);
+
+        partitionManager = new PartitionManager(this);
+        partitionManager.start(getIntProperty("partition.maintenance.interval.hours", 24));
     }
 
     public static synchronized DatabaseConfig getInstance() throws SQLException, IOException {
@@ -60,12 +83,44 @@ public class DatabaseConfig {
         }
     }
 
+    private void initializeSchema() throws SQLException {
+        Connection conn = connectionPool.poll();
+        try {
+            DatabaseInitializer.initializeSchema(conn);
+        } finally {
+            returnConnection(conn);
+        }
+    }
+
+    private void registerPoolMetrics(int poolSize) {
+        metrics.gauge("db.pool.size", () -> poolSize);
+        metrics.gauge("db.pool.idle", connectionPool::size);
+        metrics.gauge("db.pool.active", () -> poolSize - connectionPool.size());
+        metrics.gauge("db.pool.waiting", waitingThreads::get);
+        metrics.startPeriodicDump(
+                getIntProperty("metrics.dump.interval.seconds", 60),
+                getProperty("metrics.dump.file", "metrics.log"));
+    }
+
+    public String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    public int getIntProperty(String key, int defaultValue) {
+        return Integer.parseInt(properties.getProperty(key, String.valueOf(defaultValue)));
+    }
+
     public Connection getConnection() throws SQLException {
+        long startNanos = System.nanoTime();
+        waitingThreads.incrementAndGet();
         try {
             return connectionPool.take();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new SQLException("Connection pool interrupted", e);
+        } finally {
+            waitingThreads.decrementAndGet();
+            metrics.recordTime("db.pool.wait", startNanos);
         }
     }
 
@@ -82,6 +137,7 @@ public class DatabaseConfig {
     }
 
     public void closeAllConnections() {
+        partitionManager.shutdown();
         while (!connectionPool.isEmpty()) {
             try {
                 Connection conn = connectionPool.poll();
@@ -1,22 +1,34 @@
 package miniproject1.paymentmanagementsystem.controller;
 
+import miniproject1.paymentmanagementsystem.exception.PaymentException;
+import miniproject1.paymentmanagementsystem.model.Balance;
 import miniproject1.paymentmanagementsystem.model.Payment;
+import miniproject1.paymentmanagementsystem.model.ReportJob;
 import miniproject1.paymentmanagementsystem.model.Team;
 import miniproject1.paymentmanagementsystem.model.User;
 import miniproject1.paymentmanagementsystem.repository.PaymentRepository;
 import miniproject1.paymentmanagementsystem.repository.TeamRepository;
 import miniproject1.paymentmanagementsystem.repository.UserRepository;
 import miniproject1.paymentmanagementsystem.service.PaymentService;
+import miniproject1.paymentmanagementsystem.service.ReportJobService;
 import miniproject1.paymentmanagementsystem.service.SalaryService;
 import miniproject1.paymentmanagementsystem.service.ReportService;
+import miniproject1.paymentmanagementsystem.util.AmountSketch;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public class AdminController {
     private final PaymentService paymentService;
@@ -273,14 +285,17 @@ public class AdminController {
             if (myTeams.isEmpty()) {
                 System.out.println("You haven't created any teams yet.");
             } else {
+                // Members of every team in one query
+                UserRepository userRepo = new UserRepository();
+                Map<Integer, List<User>> membersByTeam = userRepo.findByTeamIds(
+                        myTeams.stream().map(Team::getTeamId).toList());
+
                 for (Team team : myTeams) {
                     System.out.println("• " + team.getTeamName() + " (Created: " +
                             team.getCreatedDate().toLocalDate() + ")");
 
                     // Show team member count
-                    UserRepository userRepo = new UserRepository();
-                    List<User> members = userRepo.findByTeamId(team.getTeamId());
-                    System.out.println("  Members: " + members.size());
+                    System.out.println("  Members: " + membersByTeam.get(team.getTeamId()).size());
                 }
             }
         } catch (Exception e) {
@@ -302,24 +317,27 @@ public class AdminController {
                 System.out.println("Total teams: " + allTeams.size());
                 System.out.println();
 
+                // Members and creators of every team, one query each
+                Map<Integer, List<User>> membersByTeam = userRepo.findByTeamIds(
+                        allTeams.stream().map(Team::getTeamId).toList());
+                Map<Integer, User> creators = userRepo.findByIds(
+                        allTeams.stream().map(Team::getCreatedByUserId).collect(Collectors.toSet()));
+
                 for (Team team : allTeams) {
                     System.out.println("🏢 Team: " + team.getTeamName());
                     System.out.println("   Team ID: " + team.getTeamId());
                     System.out.println("   Created: " + team.getCreatedDate().toLocalDate());
 
                     // Get creator information
-                    try {
-                        var creatorOptional = userRepo.findByEmail(getUserEmailById(team.getCreatedByUserId(), userRepo));
-                        if (creatorOptional.isPresent()) {
-                            User creator = creatorOptional.get();
-                            System.out.println("   Created by: " + creator.getName() + " (" + creator.getRole().getRoleName() + ")");
-                        }
-                    } catch (Exception e) {
+                    User creator = creators.get(team.getCreatedByUserId());
+                    if (creator != null) {
+                        System.out.println("   Created by: " + creator.getName() + " (" + creator.getRole().getRoleName() + ")");
+                    } else {
                         System.out.println("   Created by: User ID " + team.getCreatedByUserId());
                     }
 
                     // Get team member count
-                    List<User> members = userRepo.findByTeamId(team.getTeamId());
+                    List<User> members = membersByTeam.get(team.getTeamId());
                     System.out.println("   Members: " + members.size());
 
                     if (!members.isEmpty()) {
@@ -384,14 +402,11 @@ public class AdminController {
         System.out.println("Created: " + team.getCreatedDate());
 
         // Get creator information
-        try {
-            String creatorEmail = getUserEmailById(team.getCreatedByUserId(), userRepo);
-            var creatorOptional = userRepo.findByEmail(creatorEmail);
-            if (creatorOptional.isPresent()) {
-                User creator = creatorOptional.get();
-                System.out.println("Created by: " + creator.getName() + " (" + creator.getEmail() + ")");
-            }
-        } catch (Exception e) {
+        var creatorOptional = userRepo.findById(team.getCreatedByUserId());
+        if (creatorOptional.isPresent()) {
+            User creator = creatorOptional.get();
+            System.out.println("Created by: " + creator.getName() + " (" + creator.getEmail() + ")");
+        } else {
             System.out.println("Created by: User ID " + team.getCreatedByUserId());
         }
 
@@ -436,7 +451,7 @@ public class AdminController {
             System.out.println("  No finance managers found.");
         } else {
             for (User user : financeManagers) {
-                String teamInfo = user.getTeamId() != null ? " [Team: " + user.getTeamId() + "]" : " [No team]";
+                String teamInfo = user.getTeam() != null ? " [Team: " + user.getTeam().getTeamName() + "]" : " [No team]";
                 System.out.println("  • " + user.getName() + " (" + user.getEmail() + ")" + teamInfo);
             }
         }
@@ -446,7 +461,7 @@ public class AdminController {
             System.out.println("  No viewers found.");
         } else {
             for (User user : viewers) {
-                String teamInfo = user.getTeamId() != null ? " [Team: " + user.getTeamId() + "]" : " [No team assigned]";
+                String teamInfo = user.getTeam() != null ? " [Team: " + user.getTeam().getTeamName() + "]" : " [No team assigned]";
                 System.out.println("  • " + user.getName() + " (" + user.getEmail() + ")" + teamInfo);
             }
         }
@@ -460,7 +475,8 @@ public class AdminController {
                 System.out.println("1. View All Users with Salaries");
                 System.out.println("2. Set/Update User Salary");
                 System.out.println("3. View Salary Payments History");
-                System.out.println("4. Back to Main Menu");
+                System.out.println("4. Re-run Payroll for Selected Users");
+                System.out.println("5. Back to Main Menu");
                 System.out.print("Choose option: ");
 
                 int choice = Integer.parseInt(scanner.nextLine());
@@ -476,6 +492,9 @@ public class AdminController {
                         viewSalaryPaymentsHistory();
                         break;
                     case 4:
+                        rerunPayrollForUsers();
+                        break;
+                    case 5:
                         return;
                     default:
                         System.out.println("Invalid option.");
@@ -603,6 +622,30 @@ public class AdminController {
         }
     }
 
+    private void rerunPayrollForUsers() throws Exception {
+        System.out.println("\n=== RE-RUN PAYROLL FOR SELECTED USERS ===");
+        System.out.print("Enter user IDs separated by commas: ");
+        String input = scanner.nextLine().trim();
+
+        Set<Integer> userIds = new LinkedHashSet<>();
+        for (String part : input.split(",")) {
+            if (!part.isBlank()) {
+                userIds.add(Integer.parseInt(part.trim()));
+            }
+        }
+        if (userIds.isEmpty()) {
+            System.out.println("No user IDs entered.");
+            return;
+        }
+
+        System.out.print("Enter month as YYYY-MM (blank for current month): ");
+        String monthInput = scanner.nextLine().trim();
+        YearMonth month = monthInput.isEmpty() ? YearMonth.now() : YearMonth.parse(monthInput);
+
+        SalaryService salaryService = new SalaryService();
+        salaryService.generateSalaryPaymentsForUsers(userIds, month);
+    }
+
     public void handleGenerateMonthlySalaries(User currentUser) {
         try {
             System.out.println("\n=== GENERATE MONTHLY SALARY PAYMENTS ===");
@@ -632,7 +675,12 @@ public class AdminController {
                 System.out.println("2. Generate Quarterly Report");
                 System.out.println("3. Generate Current Month Report");
                 System.out.println("4. Generate Current Quarter Report");
-                System.out.println("5. Back to Main Menu");
+                System.out.println("5. View Team Balances");
+                System.out.println("6. Generate Organization Report by Team");
+                System.out.println("7. Generate Yearly Report");
+                System.out.println("8. Background Report Jobs");
+                System.out.println("9. Largest Payments by Category");
+                System.out.println("10. Back to Main Menu");
                 System.out.print("Choose option: ");
 
                 int choice = Integer.parseInt(scanner.nextLine());
@@ -651,6 +699,21 @@ public class AdminController {
                         generateCurrentQuarterReport();
                         break;
                     case 5:
+                        viewTeamBalances();
+                        break;
+                    case 6:
+                        generateOrgReport();
+                        break;
+                    case 7:
+                        generateYearlyReport();
+                        break;
+                    case 8:
+                        handleReportJobs(currentUser);
+                        break;
+                    case 9:
+                        viewLargestPayments();
+                        break;
+                    case 10:
                         return;
                     default:
                         System.out.println("Invalid option.");
@@ -719,6 +782,262 @@ public class AdminController {
         displayQuarterlyReport(report);
     }
 
+    private void generateYearlyReport() throws Exception {
+        System.out.println("\n=== GENERATE YEARLY REPORT ===");
+        System.out.print("Enter year (e.g., 2025): ");
+        int year = Integer.parseInt(scanner.nextLine());
+
+        ReportService reportService = new ReportService();
+        ReportService.PeriodReport report = reportService.generateYearlyReport(year);
+
+        displayPeriodReport(report);
+    }
+
+    private void viewLargestPayments() throws Exception {
+        System.out.println("\n=== LARGEST PAYMENTS BY CATEGORY ===");
+        System.out.print("Enter start month as YYYY-MM: ");
+        YearMonth startMonth = YearMonth.parse(scanner.nextLine().trim());
+        System.out.print("Enter end month as YYYY-MM (blank for same as start): ");
+        String endInput = scanner.nextLine().trim();
+        YearMonth endMonth = endInput.isEmpty() ? startMonth : YearMonth.parse(endInput);
+        System.out.print("How many per category (e.g., 100): ");
+        int limit = Integer.parseInt(scanner.nextLine().trim());
+
+        ReportService reportService = new ReportService();
+        Map<String, List<Payment>> largest;
+        try {
+            largest = reportService.getLargestPayments(startMonth, endMonth, limit);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        if (largest.isEmpty()) {
+            System.out.println("No payments found for this period.");
+            return;
+        }
+        for (Map.Entry<String, List<Payment>> category : largest.entrySet()) {
+            System.out.println("\n📂 " + category.getKey() + " (" + startMonth + " to " + endMonth + "):");
+            System.out.printf("%-6s %-10s %-15s %-12s %-12s %-20s%n", "Rank", "ID", "Amount", "Date", "Status", "Created By");
+            System.out.println("-".repeat(80));
+            int rank = 1;
+            for (Payment payment : category.getValue()) {
+                System.out.printf("%-6d %-10d $%-14s %-12s %-12s %-20s%n",
+                    rank++,
+                    payment.getPaymentId(),
+                    payment.getAmount(),
+                    payment.getPaymentDate().toLocalDate(),
+                    payment.getStatus().getStatusName(),
+                    payment.getCreatedBy().getName());
+            }
+        }
+    }
+
+    private void handleReportJobs(User currentUser) throws Exception {
+        ReportJobService reportJobService = ReportJobService.getInstance();
+        while (true) {
+            System.out.println("\n=== BACKGROUND REPORT JOBS ===");
+            System.out.println("1. Submit Period Report Job");
+            System.out.println("2. Submit Organization Report Job");
+            System.out.println("3. View My Report Jobs");
+            System.out.println("4. Open Report Job Result");
+            System.out.println("5. Back");
+            System.out.print("Choose option: ");
+
+            int choice = Integer.parseInt(scanner.nextLine());
+
+            switch (choice) {
+                case 1:
+                    submitReportJob(reportJobService, ReportJob.TYPE_PERIOD, currentUser);
+                    break;
+                case 2:
+                    submitReportJob(reportJobService, ReportJob.TYPE_ORG, currentUser);
+                    break;
+                case 3:
+                    viewReportJobs(reportJobService, currentUser);
+                    break;
+                case 4:
+                    openReportJobResult(reportJobService);
+                    break;
+                case 5:
+                    return;
+                default:
+                    System.out.println("Invalid option.");
+            }
+        }
+    }
+
+    private void submitReportJob(ReportJobService reportJobService, String reportType, User currentUser) throws Exception {
+        System.out.print("Enter start month as YYYY-MM: ");
+        YearMonth startMonth = YearMonth.parse(scanner.nextLine().trim());
+        System.out.print("Enter end month as YYYY-MM (blank for same as start): ");
+        String endInput = scanner.nextLine().trim();
+        YearMonth endMonth = endInput.isEmpty() ? startMonth : YearMonth.parse(endInput);
+
+        try {
+            ReportJob job = reportJobService.submit(reportType, startMonth, endMonth, currentUser);
+            System.out.println("Report job " + job.getJobId() + " queued. Check its progress under View My Report Jobs.");
+        } catch (PaymentException e) {
+            System.out.println("Could not submit report job: " + e.getMessage());
+        }
+    }
+
+    private void viewReportJobs(ReportJobService reportJobService, User currentUser) throws Exception {
+        List<ReportJob> jobs = reportJobService.getJobsForUser(currentUser, 20);
+        if (jobs.isEmpty()) {
+            System.out.println("You have no report jobs.");
+            return;
+        }
+
+        System.out.printf("%-8s %-8s %-17s %-10s %-9s %-20s%n", "Job ID", "Type", "Months", "Status", "Progress", "Submitted");
+        System.out.println("-".repeat(75));
+        for (ReportJob job : jobs) {
+            System.out.printf("%-8d %-8s %-17s %-10s %-9s %-20s%n",
+                    job.getJobId(),
+                    job.getReportType(),
+                    job.getStartMonth() + " to " + job.getEndMonth(),
+                    job.getStatus(),
+                    job.getProgress() + "%",
+                    job.getCreatedAt().withNano(0));
+            if (ReportJob.FAILED.equals(job.getStatus())) {
+                System.out.println("         Error: " + job.getErrorMessage());
+            }
+        }
+    }
+
+    private void openReportJobResult(ReportJobService reportJobService) throws Exception {
+        System.out.print("Enter job ID: ");
+        long jobId = Long.parseLong(scanner.nextLine().trim());
+
+        Optional<ReportJob> job = reportJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            System.out.println("Report job not found.");
+            return;
+        }
+        if (!ReportJob.COMPLETED.equals(job.get().getStatus())) {
+            System.out.println("Report job is " + job.get().getStatus().toLowerCase() + " (" + job.get().getProgress() + "%).");
+            return;
+        }
+
+        Optional<Object> result = reportJobService.getResult(job.get());
+        if (result.isEmpty()) {
+            System.out.println("The result of this job has expired. Please submit it again.");
+        } else if (result.get() instanceof ReportService.OrgReport orgReport) {
+            displayOrgReport(orgReport);
+        } else {
+            displayPeriodReport((ReportService.PeriodReport) result.get());
+        }
+    }
+
+    private void viewTeamBalances() throws Exception {
+        System.out.println("\n=== TEAM BALANCES ===");
+        System.out.print("Enter team ID: ");
+        int teamId = Integer.parseInt(scanner.nextLine());
+
+        System.out.print("Enter month as YYYY-MM (blank for current month): ");
+        String input = scanner.nextLine().trim();
+        YearMonth month = input.isEmpty() ? YearMonth.now() : YearMonth.parse(input);
+
+        ReportService reportService = new ReportService();
+        List<Balance> balances = reportService.getTeamBalances(teamId, month);
+
+        if (balances.isEmpty()) {
+            System.out.println("No payments for team " + teamId + " in " + month + ".");
+            return;
+        }
+
+        System.out.printf("%-15s %-12s %-8s %-15s%n", "Type", "Status", "Count", "Total");
+        System.out.println("-".repeat(55));
+        for (Balance balance : balances) {
+            System.out.printf("%-15s %-12s %-8d $%-14.2f%n",
+                    balance.getType(),
+                    balance.getStatusName(),
+                    balance.getPaymentCount(),
+                    balance.getTotalAmount());
+        }
+    }
+
+    private void generateOrgReport() throws Exception {
+        System.out.println("\n=== ORGANIZATION REPORT BY TEAM ===");
+        System.out.print("Enter start month as YYYY-MM (blank for current month): ");
+        String startInput = scanner.nextLine().trim();
+        YearMonth startMonth = startInput.isEmpty() ? YearMonth.now() : YearMonth.parse(startInput);
+
+        System.out.print("Enter end month as YYYY-MM (blank for same as start): ");
+        String endInput = scanner.nextLine().trim();
+        YearMonth endMonth = endInput.isEmpty() ? startMonth : YearMonth.parse(endInput);
+
+        if (endMonth.isBefore(startMonth)) {
+            System.out.println("End month must not be before start month.");
+            return;
+        }
+
+        ReportService reportService = new ReportService();
+        ReportService.OrgReport report = reportService.generateOrgReport(startMonth, endMonth);
+
+        displayOrgReport(report);
+    }
+
+    private void displayOrgReport(ReportService.OrgReport report) {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("                 ORGANIZATION PAYMENT REPORT BY TEAM");
+        System.out.println("=".repeat(80));
+        System.out.println("Period: " + report.getStartMonth() + " to " + report.getEndMonth());
+        System.out.println("Generated on: " + LocalDate.now());
+        System.out.println("-".repeat(80));
+
+        // Summary
+        System.out.println("\n📊 SUMMARY:");
+        System.out.println("Total Payments: " + report.getTotalPayments());
+        System.out.println("Total Amount: $" + report.getTotalAmount());
+
+        if (report.getTeams().isEmpty()) {
+            System.out.println("\nNo payments found for this period.");
+            System.out.println("\n" + "=".repeat(80));
+            return;
+        }
+
+        for (ReportService.TeamReport team : report.getTeams()) {
+            System.out.println("\n🏢 " + team.getTeamName() +
+                    (team.getTeamId() != null ? " (ID: " + team.getTeamId() + ")" : "") +
+                    " - " + team.getTotalPayments() + " payments, $" + team.getTotalAmount());
+
+            for (ReportService.TeamMonthReport month : team.getMonthlyBreakdown().values()) {
+                System.out.printf("   📅 %-10s %-10d $%-14s%n",
+                        month.getMonth(), month.getTotalPayments(), month.getTotalAmount());
+
+                for (String status : month.getPaymentsByStatus().keySet()) {
+                    System.out.printf("      Status   %-20s %-10d $%-14s%n", status,
+                            month.getPaymentsByStatus().get(status),
+                            month.getAmountsByStatus().getOrDefault(status, BigDecimal.ZERO));
+                }
+                for (String category : month.getPaymentsByCategory().keySet()) {
+                    System.out.printf("      Category %-20s %-10d $%-14s%n", category,
+                            month.getPaymentsByCategory().get(category),
+                            month.getAmountsByCategory().getOrDefault(category, BigDecimal.ZERO));
+                }
+            }
+        }
+
+        System.out.println("\n" + "=".repeat(80));
+    }
+
+    private void displayAmountPercentiles(String title, String label, Map<String, AmountSketch> sketches) {
+        System.out.println(title);
+        // Reports stored before sketches existed have none
+        if (sketches == null || sketches.isEmpty()) {
+            System.out.println("No payments found for this period.");
+            return;
+        }
+        System.out.printf("%-20s %-10s %-14s %-14s %-14s%n", label, "Count", "p50", "p95", "p99");
+        System.out.println("-".repeat(72));
+        for (String key : new TreeMap<>(sketches).keySet()) {
+            AmountSketch sketch = sketches.get(key);
+            System.out.printf("%-20s %-10d $%-13s $%-13s $%-13s%n",
+                key, sketch.getCount(), sketch.getP50(), sketch.getP95(), sketch.getP99());
+        }
+    }
+
     private void displayMonthlyReport(ReportService.MonthlyReport report) {
         System.out.println("\n" + "=".repeat(80));
         System.out.println("                    MONTHLY PAYMENT REPORT");
@@ -774,6 +1093,9 @@ public class AdminController {
             }
         }
 
+        displayAmountPercentiles("\n📏 AMOUNT PERCENTILES BY CATEGORY:", "Category", report.getAmountSketchesByCategory());
+        displayAmountPercentiles("\n👥 AMOUNT PERCENTILES BY TEAM:", "Team", report.getAmountSketchesByTeam());
+
         System.out.println("\n" + "=".repeat(80));
     }
 
@@ -835,17 +1157,86 @@ public class AdminController {
             }
         }
 
+        displayAmountPercentiles("\n📏 AMOUNT PERCENTILES BY CATEGORY:", "Category", report.getAmountSketchesByCategory());
+        displayAmountPercentiles("\n👥 AMOUNT PERCENTILES BY TEAM:", "Team", report.getAmountSketchesByTeam());
+
         System.out.println("\n" + "=".repeat(80));
     }
 
-    private String getUserEmailById(int userId, UserRepository userRepo) throws Exception {
-        // This is a helper method to get user email by ID
-        // Since we don't have a direct findById method, we'll use findAll and filter
-        List<User> allUsers = userRepo.findAll();
-        return allUsers.stream()
-                .filter(u -> u.getUserId() == userId)
-                .map(User::getEmail)
-                .findFirst()
-                .orElse("unknown@unknown.com");
+    private void displayPeriodReport(ReportService.PeriodReport report) {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("                     PERIOD PAYMENT REPORT");
+        System.out.println("=".repeat(80));
+        System.out.println("Date Range: " + report.getStartDate() + " to " + report.getEndDate());
+        System.out.println("Generated on: " + LocalDate.now());
+        System.out.println("-".repeat(80));
+
+        // Summary
+        System.out.println("\n📊 SUMMARY:");
+        System.out.println("Total Payments: " + report.getTotalPayments());
+        System.out.println("Total Amount: $" + report.getTotalAmount());
+
+        // Monthly Breakdown
+        System.out.println("\n📅 MONTHLY BREAKDOWN:");
+        if (report.getMonthlyBreakdown().isEmpty()) {
+            System.out.println("No payments found for this period.");
+        } else {
+            System.out.printf("%-12s %-10s %-15s%n", "Month", "Count", "Amount");
+            System.out.println("-".repeat(37));
+            for (String monthKey : report.getMonthlyBreakdown().keySet()) {
+                ReportService.MonthlyReport monthlyReport = report.getMonthlyBreakdown().get(monthKey);
+                System.out.printf("%-12s %-10d $%-14s%n",
+                    monthKey,
+                    monthlyReport.getTotalPayments(),
+                    monthlyReport.getTotalAmount());
+            }
+        }
+
+        // By Status
+        System.out.println("\n📈 PAYMENTS BY STATUS:");
+        if (report.getPaymentsByStatus().isEmpty()) {
+            System.out.println("No payments found for this period.");
+        } else {
+            System.out.printf("%-15s %-10s %-15s%n", "Status", "Count", "Amount");
+            System.out.println("-".repeat(40));
+            for (String status : report.getPaymentsByStatus().keySet()) {
+                int count = report.getPaymentsByStatus().get(status);
+                BigDecimal amount = report.getAmountsByStatus().getOrDefault(status, BigDecimal.ZERO);
+                System.out.printf("%-15s %-10d $%-14s%n", status, count, amount);
+            }
+        }
+
+        // By Type
+        System.out.println("\n🏷️ PAYMENTS BY TYPE:");
+        if (report.getPaymentsByType().isEmpty()) {
+            System.out.println("No payment types found.");
+        } else {
+            System.out.printf("%-15s %-10s %-15s%n", "Type", "Count", "Amount");
+            System.out.println("-".repeat(40));
+            for (String type : report.getPaymentsByType().keySet()) {
+                int count = report.getPaymentsByType().get(type);
+                BigDecimal amount = report.getAmountsByType().getOrDefault(type, BigDecimal.ZERO);
+                System.out.printf("%-15s %-10d $%-14s%n", type, count, amount);
+            }
+        }
+
+        // By Category
+        System.out.println("\n📂 PAYMENTS BY CATEGORY:");
+        if (report.getPaymentsByCategory().isEmpty()) {
+            System.out.println("No categories found.");
+        } else {
+            System.out.printf("%-20s %-10s %-15s%n", "Category", "Count", "Amount");
+            System.out.println("-".repeat(45));
+            for (String category : report.getPaymentsByCategory().keySet()) {
+                int count = report.getPaymentsByCategory().get(category);
+                BigDecimal amount = report.getAmountsByCategory().getOrDefault(category, BigDecimal.ZERO);
+                System.out.printf("%-20s %-10d $%-14s%n", category, count, amount);
+            }
+        }
+
+        displayAmountPercentiles("\n📏 AMOUNT PERCENTILES BY CATEGORY:", "Category", report.getAmountSketchesByCategory());
+        displayAmountPercentiles("\n👥 AMOUNT PERCENTILES BY TEAM:", "Team", report.getAmountSketchesByTeam());
+
+        System.out.println("\n" + "=".repeat(80));
     }
 }
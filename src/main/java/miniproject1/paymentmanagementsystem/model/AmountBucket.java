@@ -0,0 +1,41 @@
+package miniproject1.paymentmanagementsystem.model;
+
+import java.time.LocalDate;
+
+/**
+ * Payments of one month and one category or team that fall into the same AmountSketch bucket.
+ * Dimension is CATEGORY or TEAM and key is the category or team name.
+ */
+public class AmountBucket {
+    private LocalDate month;
+    private ReportDimension dimension;
+    private String key;
+    private int bucket;
+    private int paymentCount;
+    private long minCents;
+    private long maxCents;
+
+    public AmountBucket() {}
+
+    // Getters and Setters
+    public LocalDate getMonth() { return month; }
+    public void setMonth(LocalDate month) { this.month = month; }
+
+    public ReportDimension getDimension() { return dimension; }
+    public void setDimension(ReportDimension dimension) { this.dimension = dimension; }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public int getBucket() { return bucket; }
+    public void setBucket(int bucket) { this.bucket = bucket; }
+
+    public int getPaymentCount() { return paymentCount; }
+    public void setPaymentCount(int paymentCount) { this.paymentCount = paymentCount; }
+
+    public long getMinCents() { return minCents; }
+    public void setMinCents(long minCents) { this.minCents = minCents; }
+
+    public long getMaxCents() { return maxCents; }
+    public void setMaxCents(long maxCents) { this.maxCents = maxCents; }
+}
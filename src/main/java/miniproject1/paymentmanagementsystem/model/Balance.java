@@ -0,0 +1,49 @@
+package miniproject1.paymentmanagementsystem.model;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Running total of one user's or team's payments for a month, type and status
+ */
+public class Balance {
+    private int ownerId;
+    private YearMonth month;
+    private String type;
+    private String statusName;
+    private int paymentCount;
+    private BigDecimal totalAmount;
+
+    public Balance() {}
+
+    // Getters and Setters
+    public int getOwnerId() { return ownerId; }
+    public void setOwnerId(int ownerId) { this.ownerId = ownerId; }
+
+    public YearMonth getMonth() { return month; }
+    public void setMonth(YearMonth month) { this.month = month; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getStatusName() { return statusName; }
+    public void setStatusName(String statusName) { this.statusName = statusName; }
+
+    public int getPaymentCount() { return paymentCount; }
+    public void setPaymentCount(int paymentCount) { this.paymentCount = paymentCount; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    @Override
+    public String toString() {
+        return "Balance{" +
+                "ownerId=" + ownerId +
+                ", month=" + month +
+                ", type='" + type + '\'' +
+                ", statusName='" + statusName + '\'' +
+                ", paymentCount=" + paymentCount +
+                ", totalAmount=" + totalAmount +
+                '}';
+    }
+}
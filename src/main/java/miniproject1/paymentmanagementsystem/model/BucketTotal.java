@@ -0,0 +1,45 @@
+package miniproject1.paymentmanagementsystem.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row of a time series aggregation. A null dimension means the row totals the whole bucket;
+ * otherwise key is the dimension value the row counts, e.g. a status name.
+ */
+public class BucketTotal {
+    private LocalDate bucketStart;
+    private ReportDimension dimension;
+    private String key;
+    private int paymentCount;
+    private BigDecimal totalAmount;
+
+    public BucketTotal() {}
+
+    // Getters and Setters
+    public LocalDate getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDate bucketStart) { this.bucketStart = bucketStart; }
+
+    public ReportDimension getDimension() { return dimension; }
+    public void setDimension(ReportDimension dimension) { this.dimension = dimension; }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public int getPaymentCount() { return paymentCount; }
+    public void setPaymentCount(int paymentCount) { this.paymentCount = paymentCount; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    @Override
+    public String toString() {
+        return "BucketTotal{" +
+                "bucketStart=" + bucketStart +
+                ", dimension=" + dimension +
+                ", key='" + key + '\'' +
+                ", paymentCount=" + paymentCount +
+                ", totalAmount=" + totalAmount +
+                '}';
+    }
+}
@@ -0,0 +1,11 @@
+package miniproject1.paymentmanagementsystem.model;
+
+/**
+ * Attribute a time series report can break each bucket down by
+ */
+public enum ReportDimension {
+    STATUS,
+    CATEGORY,
+    TYPE,
+    TEAM
+}
@@ -0,0 +1,62 @@
+package miniproject1.paymentmanagementsystem.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Width of the time buckets in a time series report. Buckets start where PostgreSQL's date_trunc
+ * puts them; weeks start on Monday.
+ */
+public enum ReportGranularity {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month"),
+    QUARTER("quarter"),
+    YEAR("year");
+
+    private final String sqlUnit;
+
+    ReportGranularity(String sqlUnit) {
+        this.sqlUnit = sqlUnit;
+    }
+
+    public String getSqlUnit() { return sqlUnit; }
+
+    /**
+     * Start of the bucket containing the date, matching date_trunc
+     */
+    public LocalDate truncate(LocalDate date) {
+        switch (this) {
+            case DAY:
+                return date;
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            case QUARTER:
+                return date.with(IsoFields.DAY_OF_QUARTER, 1);
+            default:
+                return date.withDayOfYear(1);
+        }
+    }
+
+    /**
+     * Start of the bucket after the one starting at bucketStart
+     */
+    public LocalDate next(LocalDate bucketStart) {
+        switch (this) {
+            case DAY:
+                return bucketStart.plusDays(1);
+            case WEEK:
+                return bucketStart.plusWeeks(1);
+            case MONTH:
+                return bucketStart.plusMonths(1);
+            case QUARTER:
+                return bucketStart.plusMonths(3);
+            default:
+                return bucketStart.plusYears(1);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package miniproject1.paymentmanagementsystem.model;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * A report computed in the background. The report itself is stored separately, compressed,
+ * once the job completes.
+ */
+public class ReportJob {
+    public static final String TYPE_PERIOD = "PERIOD";
+    public static final String TYPE_ORG = "ORG";
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private long jobId;
+    private String reportType;
+    private YearMonth startMonth;
+    private YearMonth endMonth;
+    private int requestedByUserId;
+    private String status;
+    private int progress;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+
+    public ReportJob() {}
+
+    public ReportJob(String reportType, YearMonth startMonth, YearMonth endMonth, int requestedByUserId) {
+        this.reportType = reportType;
+        this.startMonth = startMonth;
+        this.endMonth = endMonth;
+        this.requestedByUserId = requestedByUserId;
+        this.status = QUEUED;
+    }
+
+    public boolean isFinished() {
+        return COMPLETED.equals(status) || FAILED.equals(status);
+    }
+
+    // Getters and Setters
+    public long getJobId() { return jobId; }
+    public void setJobId(long jobId) { this.jobId = jobId; }
+
+    public String getReportType() { return reportType; }
+    public void setReportType(String reportType) { this.reportType = reportType; }
+
+    public YearMonth getStartMonth() { return startMonth; }
+    public void setStartMonth(YearMonth startMonth) { this.startMonth = startMonth; }
+
+    public YearMonth getEndMonth() { return endMonth; }
+    public void setEndMonth(YearMonth endMonth) { this.endMonth = endMonth; }
+
+    public int getRequestedByUserId() { return requestedByUserId; }
+    public void setRequestedByUserId(int requestedByUserId) { this.requestedByUserId = requestedByUserId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getProgress() { return progress; }
+    public void setProgress(int progress) { this.progress = progress; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    @Override
+    public String toString() {
+        return "ReportJob{" +
+                "jobId=" + jobId +
+                ", reportType='" + reportType + '\'' +
+                ", startMonth=" + startMonth +
+                ", endMonth=" + endMonth +
+                ", status='" + status + '\'' +
+                ", progress=" + progress +
+                '}';
+    }
+}
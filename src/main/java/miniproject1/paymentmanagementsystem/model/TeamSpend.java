@@ -0,0 +1,60 @@
+package miniproject1.paymentmanagementsystem.model;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * One row of the team spend rollup. A null month, status or category means the row totals over that
+ * dimension; allTeams marks the organization-wide total, since a null teamId alone means "no team".
+ */
+public class TeamSpend {
+    private Integer teamId;
+    private String teamName;
+    private boolean allTeams;
+    private YearMonth month;
+    private String statusName;
+    private String categoryName;
+    private int paymentCount;
+    private BigDecimal totalAmount;
+
+    public TeamSpend() {}
+
+    // Getters and Setters
+    public Integer getTeamId() { return teamId; }
+    public void setTeamId(Integer teamId) { this.teamId = teamId; }
+
+    public String getTeamName() { return teamName; }
+    public void setTeamName(String teamName) { this.teamName = teamName; }
+
+    public boolean isAllTeams() { return allTeams; }
+    public void setAllTeams(boolean allTeams) { this.allTeams = allTeams; }
+
+    public YearMonth getMonth() { return month; }
+    public void setMonth(YearMonth month) { this.month = month; }
+
+    public String getStatusName() { return statusName; }
+    public void setStatusName(String statusName) { this.statusName = statusName; }
+
+    public String getCategoryName() { return categoryName; }
+    public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
+
+    public int getPaymentCount() { return paymentCount; }
+    public void setPaymentCount(int paymentCount) { this.paymentCount = paymentCount; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    @Override
+    public String toString() {
+        return "TeamSpend{" +
+                "teamId=" + teamId +
+                ", teamName='" + teamName + '\'' +
+                ", allTeams=" + allTeams +
+                ", month=" + month +
+                ", statusName='" + statusName + '\'' +
+                ", categoryName='" + categoryName + '\'' +
+                ", paymentCount=" + paymentCount +
+                ", totalAmount=" + totalAmount +
+                '}';
+    }
+}
@@ -4,15 +4,40 @@ import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
 import miniproject1.paymentmanagementsystem.model.AuditTrail;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class AuditTrailRepository {
+    static final String FIND_BY_PAYMENT_ID_SQL = """
+            SELECT audit_id, payment_id, user_id, action, change_timestamp, old_value, new_value
+            FROM audit_trail
+            WHERE payment_id = ?
+            ORDER BY change_timestamp DESC
+            """;
+
+    // Audit rows are never older than their payment, so a lower bound lets the planner skip older partitions
+    static final String FIND_BY_PAYMENT_ID_SINCE_SQL = """
+            SELECT audit_id, payment_id, user_id, action, change_timestamp, old_value, new_value
+            FROM audit_trail
+            WHERE payment_id = ? AND change_timestamp >= ?
+            ORDER BY change_timestamp DESC
+            """;
+
+    static final String FIND_BY_PAYMENT_IDS_SQL = """
+            SELECT audit_id, payment_id, user_id, action, change_timestamp, old_value, new_value
+            FROM audit_trail
+            WHERE payment_id = ANY(?)
+            """;
+
     private final DatabaseConfig dbConfig;
+    private final PaymentArchive archive;
 
     public AuditTrailRepository() throws SQLException, IOException {
         this.dbConfig = DatabaseConfig.getInstance();
+        this.archive = new PaymentArchive(Paths.get(dbConfig.getProperty("archive.dir", "archive")));
     }
 
     public AuditTrail save(AuditTrail auditTrail) throws SQLException {
@@ -44,36 +69,72 @@ public class AuditTrailRepository {
     }
 
     public List<AuditTrail> findByPaymentId(int paymentId) throws SQLException {
-        String sql = """
-            SELECT audit_id, payment_id, user_id, action, change_timestamp, old_value, new_value
-            FROM audit_trail
-            WHERE payment_id = ?
-            ORDER BY change_timestamp DESC
-            """;
-
         Connection conn = null;
-        List<AuditTrail> auditTrails = new ArrayList<>();
+        try {
+            conn = dbConfig.getConnection();
+            PreparedStatement stmt = conn.prepareStatement(FIND_BY_PAYMENT_ID_SQL);
+            stmt.setInt(1, paymentId);
+            return mapResultSetToAuditTrails(stmt.executeQuery());
+        } finally {
+            dbConfig.returnConnection(conn);
+        }
+    }
 
+    /**
+     * Audit entries for a payment recorded at or after since, normally the payment's own date
+     */
+    public List<AuditTrail> findByPaymentId(int paymentId, LocalDateTime since) throws SQLException {
+        Connection conn = null;
         try {
             conn = dbConfig.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
+            PreparedStatement stmt = conn.prepareStatement(FIND_BY_PAYMENT_ID_SINCE_SQL);
             stmt.setInt(1, paymentId);
+            stmt.setTimestamp(2, Timestamp.valueOf(since));
+            return mapResultSetToAuditTrails(stmt.executeQuery());
+        } finally {
+            dbConfig.returnConnection(conn);
+        }
+    }
 
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                AuditTrail auditTrail = new AuditTrail();
-                auditTrail.setAuditId(rs.getInt("audit_id"));
-                auditTrail.setPaymentId(rs.getInt("payment_id"));
-                auditTrail.setUserId(rs.getInt("user_id"));
-                auditTrail.setAction(rs.getString("action"));
-                auditTrail.setChangeTimestamp(rs.getTimestamp("change_timestamp").toLocalDateTime());
-                auditTrail.setOldValue(rs.getString("old_value"));
-                auditTrail.setNewValue(rs.getString("new_value"));
-                auditTrails.add(auditTrail);
-            }
-            return auditTrails;
+    /**
+     * Audit entries of several payments at once, in no particular order
+     */
+    public List<AuditTrail> findByPaymentIds(List<Integer> paymentIds) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            PreparedStatement stmt = conn.prepareStatement(FIND_BY_PAYMENT_IDS_SQL);
+            stmt.setArray(1, conn.createArrayOf("integer", paymentIds.toArray()));
+            return mapResultSetToAuditTrails(stmt.executeQuery());
         } finally {
             dbConfig.returnConnection(conn);
         }
     }
+
+    /**
+     * Audit entries of a payment that has been moved to the cold-storage archive
+     */
+    public List<AuditTrail> findArchivedByPaymentId(int paymentId) throws SQLException {
+        try {
+            return archive.findAuditTrails(paymentId);
+        } catch (IOException e) {
+            throw new SQLException("Failed to read audit archive", e);
+        }
+    }
+
+    private List<AuditTrail> mapResultSetToAuditTrails(ResultSet rs) throws SQLException {
+        List<AuditTrail> auditTrails = new ArrayList<>();
+        while (rs.next()) {
+            AuditTrail auditTrail = new AuditTrail();
+            auditTrail.setAuditId(rs.getInt("audit_id"));
+            auditTrail.setPaymentId(rs.getInt("payment_id"));
+            auditTrail.setUserId(rs.getInt("user_id"));
+            auditTrail.setAction(rs.getString("action"));
+            auditTrail.setChangeTimestamp(rs.getTimestamp("change_timestamp").toLocalDateTime());
+            auditTrail.setOldValue(rs.getString("old_value"));
+            auditTrail.setNewValue(rs.getString("new_value"));
+            auditTrails.add(auditTrail);
+        }
+        return auditTrails;
+    }
 }
@@ -0,0 +1,86 @@
+package miniproject1.paymentmanagementsystem.repository;
+
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+import miniproject1.paymentmanagementsystem.model.Balance;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the running balances that PaymentRepository maintains. Each lookup is a primary-key range
+ * scan over at most a handful of rows, regardless of how many payments are behind it.
+ */
+public class BalanceRepository {
+    static final String FIND_USER_BALANCES_SQL = """
+            SELECT b.user_id AS owner_id, b.balance_month, b.type, s.status_name, b.payment_count, b.total_amount
+            FROM user_balances b
+            JOIN status s ON b.status_id = s.status_id
+            WHERE b.user_id = ? AND b.balance_month = ? AND b.payment_count > 0
+            ORDER BY b.type, s.status_name
+            """;
+
+    static final String FIND_TEAM_BALANCES_SQL = """
+            SELECT b.team_id AS owner_id, b.balance_month, b.type, s.status_name, b.payment_count, b.total_amount
+            FROM team_balances b
+            JOIN status s ON b.status_id = s.status_id
+            WHERE b.team_id = ? AND b.balance_month = ? AND b.payment_count > 0
+            ORDER BY b.type, s.status_name
+            """;
+
+    private final DatabaseConfig dbConfig;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    public BalanceRepository() throws SQLException, IOException {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+
+    public List<Balance> findUserBalances(int userId, YearMonth month) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            return findBalances(FIND_USER_BALANCES_SQL, userId, month);
+        } finally {
+            metrics.recordTime("balance.repository.findUserBalances", startNanos);
+        }
+    }
+
+    public List<Balance> findTeamBalances(int teamId, YearMonth month) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            return findBalances(FIND_TEAM_BALANCES_SQL, teamId, month);
+        } finally {
+            metrics.recordTime("balance.repository.findTeamBalances", startNanos);
+        }
+    }
+
+    private List<Balance> findBalances(String sql, int ownerId, YearMonth month) throws SQLException {
+        Connection conn = null;
+        List<Balance> balances = new ArrayList<>();
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, ownerId);
+                stmt.setDate(2, Date.valueOf(month.atDay(1)));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Balance balance = new Balance();
+                        balance.setOwnerId(rs.getInt("owner_id"));
+                        balance.setMonth(YearMonth.from(rs.getDate("balance_month").toLocalDate()));
+                        balance.setType(rs.getString("type"));
+                        balance.setStatusName(rs.getString("status_name"));
+                        balance.setPaymentCount(rs.getInt("payment_count"));
+                        balance.setTotalAmount(rs.getBigDecimal("total_amount"));
+                        balances.add(balance);
+                    }
+                }
+            }
+            return balances;
+        } finally {
+            dbConfig.returnConnection(conn);
+        }
+    }
+}
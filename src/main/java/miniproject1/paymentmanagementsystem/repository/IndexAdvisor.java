@@ -0,0 +1,138 @@
+package miniproject1.paymentmanagementsystem.repository;
+
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+import miniproject1.paymentmanagementsystem.model.ReportDimension;
+import miniproject1.paymentmanagementsystem.model.ReportGranularity;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs EXPLAIN on the repository read queries against the live schema and reports any that still plan a
+ * sequential scan. Sequential scans are discouraged for the session so that a scan in the plan means no
+ * usable index exists, rather than the table simply being small enough to read in full.
+ */
+public class IndexAdvisor {
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    private final DatabaseConfig dbConfig;
+
+    public IndexAdvisor() throws SQLException, IOException {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+
+    /**
+     * EXPLAIN every query and return one finding per query that scans a table sequentially
+     */
+    public List<String> analyze() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp from = Timestamp.valueOf(now.minusMonths(1));
+        Timestamp to = Timestamp.valueOf(now);
+
+        List<QueryPlan> queries = List.of(
+                new QueryPlan("PaymentRepository.findById", PaymentRepository.FIND_BY_ID_SQL, 1),
+                new QueryPlan("PaymentRepository.findByUserId", PaymentRepository.FIND_BY_USER_ID_SQL, 1),
+                new QueryPlan("PaymentRepository.findByDateRange", PaymentRepository.FIND_BY_DATE_RANGE_SQL, from, to),
+                new QueryPlan("PaymentRepository.findLargestByCategory",
+                        PaymentRepository.FIND_LARGEST_BY_CATEGORY_SQL, from, to, 100),
+                new QueryPlan("PaymentRepository.findSalaryPaidUserIds",
+                        PaymentRepository.FIND_SALARY_PAID_USER_IDS_SQL, new Integer[] {1}, from, to),
+                new QueryPlan("UserRepository.findByEmail", UserRepository.FIND_BY_EMAIL_SQL, "admin@admin.tech"),
+                new QueryPlan("UserRepository.findById", UserRepository.FIND_BY_ID_SQL, 1),
+                new QueryPlan("UserRepository.findByTeamId", UserRepository.FIND_BY_TEAM_ID_SQL, 1),
+                new QueryPlan("UserRepository.findUsersWithSalary", UserRepository.FIND_USERS_WITH_SALARY_SQL),
+                new QueryPlan("AuditTrailRepository.findByPaymentId", AuditTrailRepository.FIND_BY_PAYMENT_ID_SQL, 1),
+                new QueryPlan("AuditTrailRepository.findByPaymentIdSince",
+                        AuditTrailRepository.FIND_BY_PAYMENT_ID_SINCE_SQL, 1, from),
+                new QueryPlan("TeamReportRepository.findTeamRollup",
+                        TeamReportRepository.FIND_TEAM_ROLLUP_SQL, from, to),
+                new QueryPlan("TimeSeriesRepository.findBucketTotals",
+                        TimeSeriesRepository.buildBucketTotalsSql(ReportGranularity.MONTH,
+                                EnumSet.allOf(ReportDimension.class)), from, to),
+                new QueryPlan("TimeSeriesRepository.findAmountBuckets",
+                        TimeSeriesRepository.AMOUNT_BUCKETS_SQL, from, to)
+        );
+
+        List<String> findings = new ArrayList<>();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET LOCAL enable_seqscan = off");
+            }
+
+            for (QueryPlan query : queries) {
+                Set<String> scannedTables = explain(conn, query);
+                if (!scannedTables.isEmpty()) {
+                    findings.add(query.name + ": sequential scan on " + String.join(", ", scannedTables));
+                }
+            }
+        } finally {
+            if (conn != null) {
+                // Nothing was written; rolling back just discards the SET LOCAL
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+            dbConfig.returnConnection(conn);
+        }
+        return findings;
+    }
+
+    /**
+     * Analyze and print the findings, never failing startup because of the advisor itself
+     */
+    public void report() {
+        try {
+            List<String> findings = analyze();
+            if (findings.isEmpty()) {
+                System.out.println("Index advisor: all repository queries are index-backed.");
+                return;
+            }
+            System.out.println("Index advisor found " + findings.size() + " query(ies) without a usable index:");
+            for (String finding : findings) {
+                System.out.println("  - " + finding);
+            }
+        } catch (SQLException e) {
+            System.err.println("Index advisor failed: " + e.getMessage());
+        }
+    }
+
+    private Set<String> explain(Connection conn, QueryPlan query) throws SQLException {
+        Set<String> scannedTables = new LinkedHashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + query.sql)) {
+            for (int i = 0; i < query.parameters.length; i++) {
+                stmt.setObject(i + 1, query.parameters[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Matcher matcher = SEQ_SCAN.matcher(rs.getString(1));
+                    if (matcher.find()) {
+                        scannedTables.add(matcher.group(1));
+                    }
+                }
+            }
+        }
+        return scannedTables;
+    }
+
+    private static final class QueryPlan {
+        private final String name;
+        private final String sql;
+        private final Object[] parameters;
+
+        private QueryPlan(String name, String sql, Object... parameters) {
+            this.name = name;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+}
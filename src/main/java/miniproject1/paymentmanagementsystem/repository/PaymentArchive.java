@@ -0,0 +1,541 @@
+package miniproject1.paymentmanagementsystem.repository;
+
+import miniproject1.paymentmanagementsystem.model.AuditTrail;
+import miniproject1.paymentmanagementsystem.model.Category;
+import miniproject1.paymentmanagementsystem.model.Payment;
+import miniproject1.paymentmanagementsystem.model.Status;
+import miniproject1.paymentmanagementsystem.model.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only archive of closed payments and their audit trail, one file per payment month
+ * (payments-2024-03.pma, audit-2024-03.pma). Each file is a sequence of independently deflated chunks.
+ * Inside a chunk the rows are stored column by column, which keeps similar values together and compresses
+ * far better than row-wise records. Every chunk header carries the payment id range it covers, so a lookup
+ * only inflates the chunks that can contain the id.
+ *
+ * Chunks are fsynced before the archived rows are deleted from the database. A crash between the two
+ * leaves the same rows archived twice, which is harmless because readers stop at the first match.
+ * A crash during the write itself leaves a torn chunk at the end of the file; before the first append
+ * to a file its chunks are checked and the file is cut back to the last complete one. The check and the
+ * append run under an exclusive file lock, so two processes never write at the same offset.
+ *
+ * Readers keep the chunk headers of each file in memory, reloaded when the file changes, so a lookup
+ * opens only the files and inflates only the chunks whose id range covers the id.
+ */
+public class PaymentArchive {
+    private static final int MAGIC = 0x504d4131; // "PMA1"
+    // magic, row count, min payment id, max payment id, raw length, compressed length, crc32
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 4 + 4 + 4 + 8;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    // Chunk headers per file, shared by every archive instance and reloaded when the file changes
+    private static final Map<Path, FileIndex> INDEXES = new ConcurrentHashMap<>();
+    // File locks belong to the whole JVM and throw if a second thread asks; threads queue here instead
+    private static final Object APPEND_LOCK = new Object();
+
+    private final Path directory;
+    // Files this instance has verified and appended to since, by their length after the last append
+    private final Map<Path, Long> verifiedLengths = new ConcurrentHashMap<>();
+
+    public PaymentArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    public void appendPayments(YearMonth month, List<Payment> payments) throws IOException {
+        if (payments.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(raw);
+        out.writeInt(payments.size());
+        for (Payment p : payments) out.writeInt(p.getPaymentId());
+        for (Payment p : payments) out.writeInt(p.getAmount().scale());
+        for (Payment p : payments) writeBytes(out, p.getAmount().unscaledValue().toByteArray());
+        for (Payment p : payments) writeString(out, p.getType());
+        for (Payment p : payments) out.writeLong(toEpochMicros(p.getPaymentDate()));
+        for (Payment p : payments) writeString(out, p.getDescription());
+        for (Payment p : payments) out.writeInt(p.getCategoryId());
+        for (Payment p : payments) out.writeInt(p.getStatusId());
+        for (Payment p : payments) out.writeInt(p.getCreatedByUserId());
+        for (Payment p : payments) out.writeInt(p.getTeamId() == null ? NULL_INT : p.getTeamId());
+        for (Payment p : payments) writeString(out, p.getCategory() == null ? null : p.getCategory().getCategoryName());
+        for (Payment p : payments) writeString(out, p.getStatus() == null ? null : p.getStatus().getStatusName());
+        for (Payment p : payments) writeString(out, p.getCreatedBy() == null ? null : p.getCreatedBy().getName());
+        out.flush();
+
+        int minId = payments.stream().mapToInt(Payment::getPaymentId).min().getAsInt();
+        int maxId = payments.stream().mapToInt(Payment::getPaymentId).max().getAsInt();
+        appendChunk(paymentFile(month), payments.size(), minId, maxId, raw.toByteArray());
+    }
+
+    public void appendAuditTrails(YearMonth month, List<AuditTrail> auditTrails) throws IOException {
+        if (auditTrails.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(raw);
+        out.writeInt(auditTrails.size());
+        for (AuditTrail a : auditTrails) out.writeInt(a.getAuditId());
+        for (AuditTrail a : auditTrails) out.writeInt(a.getPaymentId());
+        for (AuditTrail a : auditTrails) out.writeInt(a.getUserId());
+        for (AuditTrail a : auditTrails) writeString(out, a.getAction());
+        for (AuditTrail a : auditTrails) out.writeLong(toEpochMicros(a.getChangeTimestamp()));
+        for (AuditTrail a : auditTrails) writeString(out, a.getOldValue());
+        for (AuditTrail a : auditTrails) writeString(out, a.getNewValue());
+        out.flush();
+
+        int minId = auditTrails.stream().mapToInt(AuditTrail::getPaymentId).min().getAsInt();
+        int maxId = auditTrails.stream().mapToInt(AuditTrail::getPaymentId).max().getAsInt();
+        appendChunk(auditFile(month), auditTrails.size(), minId, maxId, raw.toByteArray());
+    }
+
+    public Optional<Payment> findPayment(int paymentId) throws IOException {
+        for (Path file : listFiles("payments-")) {
+            for (byte[] chunk : readChunks(file, paymentId)) {
+                for (Payment payment : decodePayments(chunk)) {
+                    if (payment.getPaymentId() == paymentId) {
+                        return Optional.of(payment);
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Archived audit entries for a payment, newest first like AuditTrailRepository.findByPaymentId
+     */
+    public List<AuditTrail> findAuditTrails(int paymentId) throws IOException {
+        for (Path file : listFiles("audit-")) {
+            // Keyed by audit id so a chunk written twice by an interrupted run is only reported once
+            Map<Integer, AuditTrail> matches = new LinkedHashMap<>();
+            for (byte[] chunk : readChunks(file, paymentId)) {
+                for (AuditTrail auditTrail : decodeAuditTrails(chunk)) {
+                    if (auditTrail.getPaymentId() == paymentId) {
+                        matches.putIfAbsent(auditTrail.getAuditId(), auditTrail);
+                    }
+                }
+            }
+            if (!matches.isEmpty()) {
+                // A payment's audit rows are archived together, so the first file holding any holds all
+                List<AuditTrail> history = new ArrayList<>(matches.values());
+                history.sort(Comparator.comparing(AuditTrail::getChangeTimestamp).reversed());
+                return history;
+            }
+        }
+        return List.of();
+    }
+
+    private void appendChunk(Path file, int rowCount, int minId, int maxId, byte[] raw) throws IOException {
+        byte[] compressed = deflate(raw);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + compressed.length);
+        buffer.putInt(MAGIC)
+                .putInt(rowCount)
+                .putInt(minId)
+                .putInt(maxId)
+                .putInt(raw.length)
+                .putInt(compressed.length)
+                .putLong(checksum(compressed))
+                .put(compressed)
+                .flip();
+
+        Files.createDirectories(directory);
+        synchronized (APPEND_LOCK) {
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                // Another process may have appended since this one last did; the length check catches it
+                long end = channel.size();
+                Long verified = verifiedLengths.get(file);
+                if (verified == null || verified != end) {
+                    end = recover(file, channel);
+                }
+                long position = end;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                channel.force(true);
+                verifiedLengths.put(file, position);
+            }
+        }
+    }
+
+    /**
+     * Check every chunk's length and checksum and cut the file back after the last complete chunk, so an
+     * append never lands behind a torn one. Corruption with readable chunks after it is not a torn write
+     * and is reported instead, since truncating there would throw those chunks away.
+     *
+     * @return the length of the file after recovery
+     */
+    private long recover(Path file, FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            ChunkHeader chunk = ChunkHeader.read(header, position);
+            if (chunk == null || chunk.end() > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(chunk.compressedLength);
+            readFully(channel, payload, chunk.payloadStart());
+            if (checksum(payload.array()) != chunk.checksum) {
+                if (chunk.end() < size) {
+                    throw new IOException("Checksum mismatch in " + file + " at offset " + position);
+                }
+                break;
+            }
+            position = chunk.end();
+        }
+
+        if (position < size) {
+            System.err.println("Truncating torn archive chunk in " + file + " at offset " + position
+                    + " (" + (size - position) + " bytes)");
+            channel.truncate(position);
+            channel.force(true);
+        }
+        return position;
+    }
+
+    /**
+     * Inflate the chunks of a file whose id range covers paymentId, found through the file's header index
+     */
+    private List<byte[]> readChunks(Path file, int paymentId) throws IOException {
+        FileIndex index = index(file);
+        List<byte[]> chunks = new ArrayList<>();
+        if (!index.covers(paymentId)) {
+            return chunks;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (ChunkHeader chunk : index.chunks) {
+                if (!chunk.covers(paymentId)) {
+                    continue;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(chunk.compressedLength);
+                readFully(channel, payload, chunk.payloadStart());
+                byte[] compressed = payload.array();
+                if (checksum(compressed) != chunk.checksum) {
+                    throw new IOException("Checksum mismatch in " + file + " at offset " + chunk.offset);
+                }
+                chunks.add(inflate(compressed, chunk.rawLength));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Chunk headers of a file, read once and again only after the file has changed
+     */
+    private FileIndex index(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        FileIndex cached = INDEXES.get(file);
+        if (cached != null && cached.matches(attributes)) {
+            return cached;
+        }
+
+        List<ChunkHeader> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            long position = 0;
+            long size = channel.size();
+            while (position + HEADER_BYTES <= size) {
+                header.clear();
+                readFully(channel, header, position);
+                header.flip();
+                ChunkHeader chunk = ChunkHeader.read(header, position);
+                if (chunk == null) {
+                    throw new IOException("Corrupt archive chunk in " + file + " at offset " + position);
+                }
+                if (chunk.end() > size) {
+                    break; // chunk still being appended
+                }
+                chunks.add(chunk);
+                position = chunk.end();
+            }
+        }
+        FileIndex index = new FileIndex(attributes, chunks);
+        INDEXES.put(file, index);
+        return index;
+    }
+
+    private List<Payment> decodePayments(byte[] chunk) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(chunk));
+        int rows = in.readInt();
+        List<Payment> payments = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Payment payment = new Payment();
+            payment.setPaymentId(in.readInt());
+            payments.add(payment);
+        }
+        int[] scales = new int[rows];
+        for (int i = 0; i < rows; i++) scales[i] = in.readInt();
+        for (int i = 0; i < rows; i++) payments.get(i).setAmount(new BigDecimal(new BigInteger(readBytes(in)), scales[i]));
+        for (Payment p : payments) p.setType(readString(in));
+        for (Payment p : payments) p.setPaymentDate(fromEpochMicros(in.readLong()));
+        for (Payment p : payments) p.setDescription(readString(in));
+        for (Payment p : payments) p.setCategoryId(in.readInt());
+        for (Payment p : payments) p.setStatusId(in.readInt());
+        for (Payment p : payments) p.setCreatedByUserId(in.readInt());
+        for (Payment p : payments) {
+            int teamId = in.readInt();
+            p.setTeamId(teamId == NULL_INT ? null : teamId);
+        }
+        for (Payment p : payments) {
+            Category category = new Category();
+            category.setCategoryId(p.getCategoryId());
+            category.setCategoryName(readString(in));
+            p.setCategory(category);
+        }
+        for (Payment p : payments) {
+            Status status = new Status();
+            status.setStatusId(p.getStatusId());
+            status.setStatusName(readString(in));
+            p.setStatus(status);
+        }
+        for (Payment p : payments) {
+            User createdBy = new User();
+            createdBy.setUserId(p.getCreatedByUserId());
+            createdBy.setName(readString(in));
+            p.setCreatedBy(createdBy);
+        }
+        return payments;
+    }
+
+    private List<AuditTrail> decodeAuditTrails(byte[] chunk) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(chunk));
+        int rows = in.readInt();
+        List<AuditTrail> auditTrails = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            AuditTrail auditTrail = new AuditTrail();
+            auditTrail.setAuditId(in.readInt());
+            auditTrails.add(auditTrail);
+        }
+        for (AuditTrail a : auditTrails) a.setPaymentId(in.readInt());
+        for (AuditTrail a : auditTrails) a.setUserId(in.readInt());
+        for (AuditTrail a : auditTrails) a.setAction(readString(in));
+        for (AuditTrail a : auditTrails) a.setChangeTimestamp(fromEpochMicros(in.readLong()));
+        for (AuditTrail a : auditTrails) a.setOldValue(readString(in));
+        for (AuditTrail a : auditTrails) a.setNewValue(readString(in));
+        return auditTrails;
+    }
+
+    private List<Path> listFiles(String prefix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*.pma")) {
+            stream.forEach(files::add);
+        }
+        // Newest months first, recent payments are the likelier lookups
+        files.sort(Comparator.comparing(Path::getFileName).reversed());
+        return files;
+    }
+
+    private Path paymentFile(YearMonth month) {
+        return directory.resolve("payments-" + month + ".pma");
+    }
+
+    private Path auditFile(YearMonth month) {
+        return directory.resolve("audit-" + month + ".pma");
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive file");
+            }
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int offset = 0;
+            while (offset < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, offset, rawLength - offset);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated archive chunk");
+                }
+                offset += inflated;
+            }
+            if (offset != rawLength) {
+                throw new IOException("Archive chunk inflated to " + offset + " bytes, expected " + rawLength);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive chunk", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static final class ChunkHeader {
+        private final long offset;
+        private final int minId;
+        private final int maxId;
+        private final int rawLength;
+        private final int compressedLength;
+        private final long checksum;
+
+        private ChunkHeader(long offset, int minId, int maxId, int rawLength, int compressedLength, long checksum) {
+            this.offset = offset;
+            this.minId = minId;
+            this.maxId = maxId;
+            this.rawLength = rawLength;
+            this.compressedLength = compressedLength;
+            this.checksum = checksum;
+        }
+
+        /**
+         * Parse a header, or null when it is not one: wrong magic or impossible lengths
+         */
+        private static ChunkHeader read(ByteBuffer header, long offset) {
+            if (header.getInt() != MAGIC) {
+                return null;
+            }
+            header.getInt(); // row count
+            int minId = header.getInt();
+            int maxId = header.getInt();
+            int rawLength = header.getInt();
+            int compressedLength = header.getInt();
+            long checksum = header.getLong();
+            if (rawLength < 0 || compressedLength < 0 || minId > maxId) {
+                return null;
+            }
+            return new ChunkHeader(offset, minId, maxId, rawLength, compressedLength, checksum);
+        }
+
+        private long payloadStart() {
+            return offset + HEADER_BYTES;
+        }
+
+        private long end() {
+            return payloadStart() + compressedLength;
+        }
+
+        private boolean covers(int paymentId) {
+            return paymentId >= minId && paymentId <= maxId;
+        }
+    }
+
+    private static final class FileIndex {
+        private final long size;
+        private final FileTime lastModified;
+        private final List<ChunkHeader> chunks;
+        private final int minId;
+        private final int maxId;
+
+        private FileIndex(BasicFileAttributes attributes, List<ChunkHeader> chunks) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime();
+            this.chunks = chunks;
+            this.minId = chunks.stream().mapToInt(chunk -> chunk.minId).min().orElse(Integer.MAX_VALUE);
+            this.maxId = chunks.stream().mapToInt(chunk -> chunk.maxId).max().orElse(Integer.MIN_VALUE);
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified.equals(attributes.lastModifiedTime());
+        }
+
+        private boolean covers(int paymentId) {
+            return paymentId >= minId && paymentId <= maxId;
+        }
+    }
+}
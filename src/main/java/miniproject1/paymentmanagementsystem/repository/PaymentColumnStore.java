@@ -0,0 +1,753 @@
+package miniproject1.paymentmanagementsystem.repository;
+
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+import miniproject1.paymentmanagementsystem.model.Payment;
+import miniproject1.paymentmanagementsystem.util.AmountSketch;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory copy of the payments table laid out column by column in primitive arrays, so report
+ * aggregation is a tight loop over a few megabytes instead of a query returning millions of Payment objects.
+ * Amounts are held in cents, dates as epoch days, and status, category and type as short codes.
+ * Like the payments table itself, rows are split into one segment per payment month, so a monthly report
+ * only reads that month's arrays.
+ *
+ * The shared instance is filled once at startup with a streaming cursor and then kept current by
+ * PaymentRepository, which calls the on* hooks after each committed write. Until it has been loaded the
+ * hooks do nothing and ReportService keeps querying the database.
+ */
+public class PaymentColumnStore {
+    private static final PaymentColumnStore INSTANCE = new PaymentColumnStore();
+
+    static final String LOAD_SQL = """
+            SELECT payment_id, amount, payment_date, type, status_id, category_id, created_by_user_id, team_id
+            FROM payments
+            """;
+
+    private static final int FETCH_SIZE = 10_000;
+    private static final int NO_TEAM = 0;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private volatile boolean loaded;
+    private DatabaseConfig dbConfig;
+
+    private final Map<YearMonth, Segment> segments = new HashMap<>();
+    private final Map<Integer, Segment> segmentByPaymentId = new HashMap<>();
+
+    // Status, category and team codes are their database ids; type codes index typeNames
+    private final Map<Integer, String> statusNames = new HashMap<>();
+    private final Map<Integer, String> categoryNames = new HashMap<>();
+    private final Map<Integer, String> teamNames = new HashMap<>();
+    private final List<String> typeNames = new ArrayList<>();
+    private final Map<String, Short> typeCodesByName = new HashMap<>();
+    private int maxStatusCode;
+    private int maxCategoryCode;
+    private int maxTeamCode;
+    // Widest amount ever stored, which bounds the amount histogram buckets
+    private long maxAmountCents;
+
+    /**
+     * A standalone store, filled through upsert; the application uses getInstance()
+     */
+    public PaymentColumnStore() {
+    }
+
+    public static PaymentColumnStore getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segmentByPaymentId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the contents with every row of the payments table. Hooks wait on the lock until the load
+     * finishes and then apply their change on top, so a write that commits after the rows were read is
+     * not lost. The connection is taken before the lock, so the load never waits on a pool drained by
+     * writers that are themselves waiting for the load.
+     */
+    public void load(DatabaseConfig dbConfig) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = dbConfig.getConnection();
+        lock.writeLock().lock();
+        try {
+            this.dbConfig = dbConfig;
+            // The driver only streams with a fetch size inside a transaction; otherwise it buffers every row
+            conn.setAutoCommit(false);
+            try {
+                loadDictionaries(conn);
+                segments.clear();
+                segmentByPaymentId.clear();
+                try (PreparedStatement stmt = conn.prepareStatement(LOAD_SQL)) {
+                    stmt.setFetchSize(FETCH_SIZE);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            int teamId = rs.getInt("team_id");
+                            upsertRow(rs.getInt("payment_id"), rs.getBigDecimal("amount"),
+                                    rs.getTimestamp("payment_date").toLocalDateTime().toLocalDate(),
+                                    rs.getString("type"), rs.getInt("status_id"), rs.getInt("category_id"),
+                                    rs.getInt("created_by_user_id"), rs.wasNull() ? NO_TEAM : teamId);
+                        }
+                    }
+                }
+                conn.commit();
+                loaded = true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+            metrics.recordTime("payment.column.store.load", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    // Hooks called by PaymentRepository after a write commits. The write cannot be undone by then, so a
+    // hook never throws: on any failure the store unloads itself and reports go back to the database.
+
+    public void onSaved(Payment payment) {
+        try {
+            if (!awaitLoaded() || !refreshDictionariesIfUnknown(payment.getStatusId(), payment.getCategoryId(), payment.getTeamId())) {
+                return;
+            }
+            upsert(payment.getPaymentId(), payment.getAmount(), payment.getPaymentDate().toLocalDate(), payment.getType(),
+                    payment.getStatusId(), payment.getCategoryId(), payment.getCreatedByUserId(), payment.getTeamId());
+        } catch (RuntimeException e) {
+            unload(e);
+        }
+    }
+
+    public void onStatusChanged(int paymentId, int statusId) {
+        try {
+            if (!awaitLoaded() || !refreshDictionariesIfUnknown(statusId, null, null)) {
+                return;
+            }
+            updateStatus(paymentId, statusId);
+        } catch (RuntimeException e) {
+            unload(e);
+        }
+    }
+
+    public void onDeleted(Collection<Integer> paymentIds) {
+        try {
+            if (!awaitLoaded()) {
+                return;
+            }
+            remove(paymentIds);
+        } catch (RuntimeException e) {
+            unload(e);
+        }
+    }
+
+    /**
+     * Whether the store is loaded, waiting first for a load in progress, which holds the write lock.
+     * Every change applied after this is an idempotent upsert, update or remove by payment id, so one
+     * already in the loaded rows is harmlessly applied again.
+     */
+    private boolean awaitLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Direct mutation, used by the hooks and to fill standalone stores
+
+    public void putStatusName(int statusId, String statusName) {
+        lock.writeLock().lock();
+        try {
+            statusNames.put(statusId, statusName);
+            maxStatusCode = Math.max(maxStatusCode, statusId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putCategoryName(int categoryId, String categoryName) {
+        lock.writeLock().lock();
+        try {
+            categoryNames.put(categoryId, categoryName);
+            maxCategoryCode = Math.max(maxCategoryCode, categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putTeamName(int teamId, String teamName) {
+        lock.writeLock().lock();
+        try {
+            teamNames.put(teamId, teamName);
+            maxTeamCode = Math.max(maxTeamCode, teamId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(int paymentId, BigDecimal amount, LocalDate paymentDate, String type,
+                       int statusId, int categoryId, int userId, Integer teamId) {
+        lock.writeLock().lock();
+        try {
+            upsertRow(paymentId, amount, paymentDate, type, statusId, categoryId, userId,
+                    teamId != null ? teamId : NO_TEAM);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateStatus(int paymentId, int statusId) {
+        lock.writeLock().lock();
+        try {
+            Segment segment = segmentByPaymentId.get(paymentId);
+            if (segment != null) {
+                segment.statusCodes[segment.rowByPaymentId.get(paymentId)] = (short) statusId;
+                maxStatusCode = Math.max(maxStatusCode, statusId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Integer> paymentIds) {
+        lock.writeLock().lock();
+        try {
+            for (Integer paymentId : paymentIds) {
+                Segment segment = segmentByPaymentId.remove(paymentId);
+                if (segment != null) {
+                    segment.remove(paymentId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aggregate the payments dated in each month from first to last inclusive, reading only those
+     * months' segments. Returns one summary per month, in order, including months without payments.
+     */
+    public List<Summary> summarizeMonths(YearMonth first, YearMonth last) {
+        long startNanos = System.nanoTime();
+        int months = (int) ChronoUnit.MONTHS.between(first, last) + 1;
+
+        lock.readLock().lock();
+        try {
+            int statusSlots = maxStatusCode + 1;
+            int categorySlots = maxCategoryCode + 1;
+            int typeSlots = typeNames.size();
+            int teamSlots = maxTeamCode + 1;
+            int[] countByStatus = new int[statusSlots];
+            long[] centsByStatus = new long[statusSlots];
+            int[] countByCategory = new int[categorySlots];
+            long[] centsByCategory = new long[categorySlots];
+            int[] countByType = new int[typeSlots];
+            long[] centsByType = new long[typeSlots];
+            // Dense histograms, one per category and per team, turned into sparse sketches after each month
+            int bucketSlots = AmountSketch.bucketIndex(maxAmountCents) + 1;
+            int[][] bucketsByCategory = new int[categorySlots][];
+            int[][] bucketsByTeam = new int[teamSlots][];
+            // The histograms only place an amount within 0.4%; the sketches also get the exact extremes
+            long[] minCentsByCategory = new long[categorySlots];
+            long[] maxCentsByCategory = new long[categorySlots];
+            long[] minCentsByTeam = new long[teamSlots];
+            long[] maxCentsByTeam = new long[teamSlots];
+
+            List<Summary> summaries = new ArrayList<>(months);
+            for (int m = 0; m < months; m++) {
+                YearMonth month = first.plusMonths(m);
+                Summary summary = new Summary(month);
+                summaries.add(summary);
+
+                Segment segment = segments.get(month);
+                if (segment == null || segment.size == 0) {
+                    continue;
+                }
+
+                Arrays.fill(countByStatus, 0);
+                Arrays.fill(centsByStatus, 0);
+                Arrays.fill(countByCategory, 0);
+                Arrays.fill(centsByCategory, 0);
+                Arrays.fill(countByType, 0);
+                Arrays.fill(centsByType, 0);
+                for (int[] buckets : bucketsByCategory) {
+                    if (buckets != null) {
+                        Arrays.fill(buckets, 0);
+                    }
+                }
+                for (int[] buckets : bucketsByTeam) {
+                    if (buckets != null) {
+                        Arrays.fill(buckets, 0);
+                    }
+                }
+                Arrays.fill(minCentsByCategory, Long.MAX_VALUE);
+                Arrays.fill(maxCentsByCategory, Long.MIN_VALUE);
+                Arrays.fill(minCentsByTeam, Long.MAX_VALUE);
+                Arrays.fill(maxCentsByTeam, Long.MIN_VALUE);
+
+                // Locals let the JIT keep the arrays in registers instead of re-reading the fields every row
+                int rows = segment.size;
+                long[] amounts = segment.amountCents;
+                short[] statuses = segment.statusCodes;
+                short[] categories = segment.categoryCodes;
+                short[] types = segment.typeCodes;
+                int[] teams = segment.teamIds;
+                for (int row = 0; row < rows; row++) {
+                    long cents = amounts[row];
+                    int bucket = AmountSketch.bucketIndex(cents);
+                    int category = categories[row];
+                    int team = teams[row];
+                    int[] categoryBuckets = bucketsByCategory[category];
+                    if (categoryBuckets == null) {
+                        categoryBuckets = bucketsByCategory[category] = new int[bucketSlots];
+                    }
+                    categoryBuckets[bucket]++;
+                    int[] teamBuckets = bucketsByTeam[team];
+                    if (teamBuckets == null) {
+                        teamBuckets = bucketsByTeam[team] = new int[bucketSlots];
+                    }
+                    teamBuckets[bucket]++;
+                    minCentsByCategory[category] = Math.min(minCentsByCategory[category], cents);
+                    maxCentsByCategory[category] = Math.max(maxCentsByCategory[category], cents);
+                    minCentsByTeam[team] = Math.min(minCentsByTeam[team], cents);
+                    maxCentsByTeam[team] = Math.max(maxCentsByTeam[team], cents);
+                    countByStatus[statuses[row]]++;
+                    centsByStatus[statuses[row]] += cents;
+                    countByCategory[categories[row]]++;
+                    centsByCategory[categories[row]] += cents;
+                    countByType[types[row]]++;
+                    centsByType[types[row]] += cents;
+                }
+
+                for (int code = 0; code < statusSlots; code++) {
+                    if (countByStatus[code] > 0) {
+                        summary.add(summary.paymentsByStatus, summary.amountsByStatus, statusNames.get(code),
+                                countByStatus[code], centsByStatus[code]);
+                        summary.paymentCount += countByStatus[code];
+                        summary.amountCents += centsByStatus[code];
+                    }
+                }
+                for (int code = 0; code < categorySlots; code++) {
+                    if (countByCategory[code] > 0) {
+                        summary.add(summary.paymentsByCategory, summary.amountsByCategory, categoryNames.get(code),
+                                countByCategory[code], centsByCategory[code]);
+                    }
+                }
+                for (int code = 0; code < typeSlots; code++) {
+                    if (countByType[code] > 0) {
+                        summary.add(summary.paymentsByType, summary.amountsByType, typeNames.get(code),
+                                countByType[code], centsByType[code]);
+                    }
+                }
+                for (int code = 0; code < categorySlots; code++) {
+                    if (countByCategory[code] > 0) {
+                        summary.addSketch(summary.amountSketchesByCategory, categoryNames.get(code), bucketsByCategory[code],
+                                minCentsByCategory[code], maxCentsByCategory[code]);
+                    }
+                }
+                for (int code = 0; code < teamSlots; code++) {
+                    if (maxCentsByTeam[code] >= minCentsByTeam[code]) {
+                        String teamName = code == NO_TEAM ? "Unassigned" : teamNames.get(code);
+                        summary.addSketch(summary.amountSketchesByTeam, teamName, bucketsByTeam[code],
+                                minCentsByTeam[code], maxCentsByTeam[code]);
+                    }
+                }
+            }
+            return summaries;
+        } finally {
+            lock.readLock().unlock();
+            metrics.recordTime("payment.column.store.summarizeMonths", startNanos);
+        }
+    }
+
+    /**
+     * Ids of the limit largest payments of each category dated from first to last inclusive, largest
+     * first, keyed by category name. Each category keeps a min-heap of at most limit rows, so memory is
+     * bounded by limit times the number of categories however many payments the months hold.
+     */
+    public Map<String, int[]> largestPaymentIds(YearMonth first, YearMonth last, int limit) {
+        long startNanos = System.nanoTime();
+        int months = (int) ChronoUnit.MONTHS.between(first, last) + 1;
+
+        lock.readLock().lock();
+        try {
+            TopAmounts[] topByCategory = new TopAmounts[maxCategoryCode + 1];
+            for (int m = 0; m < months; m++) {
+                Segment segment = segments.get(first.plusMonths(m));
+                if (segment == null) {
+                    continue;
+                }
+
+                int rows = segment.size;
+                long[] amounts = segment.amountCents;
+                short[] categories = segment.categoryCodes;
+                int[] paymentIds = segment.paymentIds;
+                for (int row = 0; row < rows; row++) {
+                    TopAmounts top = topByCategory[categories[row]];
+                    if (top == null) {
+                        top = topByCategory[categories[row]] = new TopAmounts(limit);
+                    }
+                    top.offer(amounts[row], paymentIds[row]);
+                }
+            }
+
+            Map<String, int[]> largest = new HashMap<>();
+            for (int code = 0; code < topByCategory.length; code++) {
+                if (topByCategory[code] != null) {
+                    largest.put(categoryNames.get(code), topByCategory[code].drainLargestFirst());
+                }
+            }
+            return largest;
+        } finally {
+            lock.readLock().unlock();
+            metrics.recordTime("payment.column.store.largestPaymentIds", startNanos);
+        }
+    }
+
+    private void upsertRow(int paymentId, BigDecimal amount, LocalDate paymentDate, String type,
+                           int statusId, int categoryId, int userId, int teamId) {
+        YearMonth month = YearMonth.from(paymentDate);
+        Segment segment = segmentByPaymentId.get(paymentId);
+        if (segment != null && !segment.month.equals(month)) {
+            segment.remove(paymentId);
+            segment = null;
+        }
+        if (segment == null) {
+            segment = segments.computeIfAbsent(month, Segment::new);
+            segmentByPaymentId.put(paymentId, segment);
+        }
+
+        // Rounded like the DECIMAL(15,2) column, so an amount with more decimals matches what was stored
+        long cents = amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        segment.set(paymentId, cents, (int) paymentDate.toEpochDay(),
+                (short) statusId, (short) categoryId, typeCode(type), userId, teamId);
+        maxAmountCents = Math.max(maxAmountCents, cents);
+
+        // Keep the aggregation arrays wide enough even for ids seen before their names
+        maxStatusCode = Math.max(maxStatusCode, statusId);
+        maxCategoryCode = Math.max(maxCategoryCode, categoryId);
+        maxTeamCode = Math.max(maxTeamCode, teamId);
+    }
+
+    private short typeCode(String type) {
+        Short code = typeCodesByName.get(type);
+        if (code == null) {
+            code = (short) typeNames.size();
+            typeNames.add(type);
+            typeCodesByName.put(type, code);
+        }
+        return code;
+    }
+
+    /**
+     * Categories can be created at runtime (SalaryService adds "Salary"), so a write may reference an id
+     * the store has no name for yet. The write has already committed by the time a hook runs, so a failed
+     * refresh must not fail the caller; the store unloads itself and reports go back to the database.
+     */
+    private boolean refreshDictionariesIfUnknown(int statusId, Integer categoryId, Integer teamId) {
+        lock.readLock().lock();
+        try {
+            if (statusNames.containsKey(statusId) && (categoryId == null || categoryNames.containsKey(categoryId))
+                    && (teamId == null || teamNames.containsKey(teamId))) {
+                return true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            lock.writeLock().lock();
+            try {
+                loadDictionaries(conn);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        } catch (SQLException e) {
+            unload(e);
+            return false;
+        } finally {
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    private void unload(Exception e) {
+        loaded = false;
+        System.err.println("Payment column store disabled, reports will query the database: " + e.getMessage());
+    }
+
+    private void loadDictionaries(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT status_id, status_name FROM status")) {
+                while (rs.next()) {
+                    statusNames.put(rs.getInt("status_id"), rs.getString("status_name"));
+                    maxStatusCode = Math.max(maxStatusCode, rs.getInt("status_id"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT category_id, category_name FROM categories")) {
+                while (rs.next()) {
+                    categoryNames.put(rs.getInt("category_id"), rs.getString("category_name"));
+                    maxCategoryCode = Math.max(maxCategoryCode, rs.getInt("category_id"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT team_id, team_name FROM teams")) {
+                while (rs.next()) {
+                    teamNames.put(rs.getInt("team_id"), rs.getString("team_name"));
+                    maxTeamCode = Math.max(maxTeamCode, rs.getInt("team_id"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Bounded min-heap of (amount, payment id) pairs in parallel arrays. The root is the smallest amount
+     * kept, so a row that doesn't beat it is rejected with one comparison and no allocation. Equal amounts
+     * rank the lower payment id higher, like the SQL path.
+     */
+    private static class TopAmounts {
+        private final long[] cents;
+        private final int[] paymentIds;
+        private int size;
+
+        private TopAmounts(int limit) {
+            this.cents = new long[limit];
+            this.paymentIds = new int[limit];
+        }
+
+        private void offer(long amountCents, int paymentId) {
+            if (size < cents.length) {
+                cents[size] = amountCents;
+                paymentIds[size] = paymentId;
+                siftUp(size++);
+            } else if (ranksBelow(0, amountCents, paymentId)) {
+                cents[0] = amountCents;
+                paymentIds[0] = paymentId;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * The kept payment ids, largest amount first; empties the heap
+         */
+        private int[] drainLargestFirst() {
+            int[] largest = new int[size];
+            for (int i = largest.length - 1; i >= 0; i--) {
+                largest[i] = paymentIds[0];
+                size--;
+                swap(0, size);
+                siftDown(0);
+            }
+            return largest;
+        }
+
+        // Whether the row at index ranks below the given amount and payment id
+        private boolean ranksBelow(int index, long amountCents, int paymentId) {
+            return cents[index] < amountCents || (cents[index] == amountCents && paymentIds[index] > paymentId);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!ranksBelow(index, cents[parent], paymentIds[parent])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int lowest = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    if (ranksBelow(child, cents[lowest], paymentIds[lowest])) {
+                        lowest = child;
+                    }
+                }
+                if (lowest == index) {
+                    return;
+                }
+                swap(index, lowest);
+                index = lowest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long swappedCents = cents[a];
+            cents[a] = cents[b];
+            cents[b] = swappedCents;
+            int swappedId = paymentIds[a];
+            paymentIds[a] = paymentIds[b];
+            paymentIds[b] = swappedId;
+        }
+    }
+
+    /**
+     * The columns for one payment month; only rows [0, size) are live
+     */
+    private static class Segment {
+        private static final int INITIAL_CAPACITY = 256;
+
+        private final YearMonth month;
+        private final Map<Integer, Integer> rowByPaymentId = new HashMap<>();
+        private int size;
+        private int[] paymentIds = new int[INITIAL_CAPACITY];
+        private long[] amountCents = new long[INITIAL_CAPACITY];
+        private int[] epochDays = new int[INITIAL_CAPACITY];
+        private short[] statusCodes = new short[INITIAL_CAPACITY];
+        private short[] categoryCodes = new short[INITIAL_CAPACITY];
+        private short[] typeCodes = new short[INITIAL_CAPACITY];
+        private int[] userIds = new int[INITIAL_CAPACITY];
+        private int[] teamIds = new int[INITIAL_CAPACITY];
+
+        private Segment(YearMonth month) {
+            this.month = month;
+        }
+
+        private void set(int paymentId, long cents, int epochDay, short status, short category, short type,
+                         int userId, int teamId) {
+            Integer existing = rowByPaymentId.get(paymentId);
+            int row;
+            if (existing != null) {
+                row = existing;
+            } else {
+                if (size == paymentIds.length) {
+                    grow();
+                }
+                row = size++;
+                rowByPaymentId.put(paymentId, row);
+            }
+
+            paymentIds[row] = paymentId;
+            amountCents[row] = cents;
+            epochDays[row] = epochDay;
+            statusCodes[row] = status;
+            categoryCodes[row] = category;
+            typeCodes[row] = type;
+            userIds[row] = userId;
+            teamIds[row] = teamId;
+        }
+
+        private void remove(int paymentId) {
+            Integer row = rowByPaymentId.remove(paymentId);
+            if (row == null) {
+                return;
+            }
+            // Move the last row into the hole so the live rows stay contiguous
+            int last = --size;
+            if (row != last) {
+                paymentIds[row] = paymentIds[last];
+                amountCents[row] = amountCents[last];
+                epochDays[row] = epochDays[last];
+                statusCodes[row] = statusCodes[last];
+                categoryCodes[row] = categoryCodes[last];
+                typeCodes[row] = typeCodes[last];
+                userIds[row] = userIds[last];
+                teamIds[row] = teamIds[last];
+                rowByPaymentId.put(paymentIds[row], row);
+            }
+        }
+
+        private void grow() {
+            int capacity = paymentIds.length + (paymentIds.length >> 1);
+            paymentIds = Arrays.copyOf(paymentIds, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            typeCodes = Arrays.copyOf(typeCodes, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            teamIds = Arrays.copyOf(teamIds, capacity);
+        }
+    }
+
+    /**
+     * Counts and totals for one month, by status, type and category, and amount sketches by category and team
+     */
+    public static class Summary {
+        private final YearMonth month;
+        private int paymentCount;
+        private long amountCents;
+        private final Map<String, Integer> paymentsByStatus = new HashMap<>();
+        private final Map<String, BigDecimal> amountsByStatus = new HashMap<>();
+        private final Map<String, Integer> paymentsByType = new HashMap<>();
+        private final Map<String, BigDecimal> amountsByType = new HashMap<>();
+        private final Map<String, Integer> paymentsByCategory = new HashMap<>();
+        private final Map<String, BigDecimal> amountsByCategory = new HashMap<>();
+        private final Map<String, AmountSketch> amountSketchesByCategory = new HashMap<>();
+        private final Map<String, AmountSketch> amountSketchesByTeam = new HashMap<>();
+
+        private Summary(YearMonth month) {
+            this.month = month;
+        }
+
+        private void add(Map<String, Integer> counts, Map<String, BigDecimal> amounts, String name, int count, long cents) {
+            String key = name != null ? name : "Unknown";
+            counts.merge(key, count, Integer::sum);
+            amounts.merge(key, BigDecimal.valueOf(cents, 2), BigDecimal::add);
+        }
+
+        private void addSketch(Map<String, AmountSketch> sketches, String name, int[] buckets,
+                               long minCents, long maxCents) {
+            AmountSketch sketch = sketches.computeIfAbsent(name != null ? name : "Unknown", key -> new AmountSketch());
+            for (int index = 0; index < buckets.length; index++) {
+                if (buckets[index] > 0) {
+                    // Only the lowest and highest buckets hold an extreme; clamping the bounds gives them theirs
+                    sketch.addBucket(index, buckets[index], Math.max(minCents, AmountSketch.bucketLowerCents(index)),
+                            Math.min(maxCents, AmountSketch.bucketUpperCents(index)));
+                }
+            }
+        }
+
+        public YearMonth getMonth() { return month; }
+
+        public int getTotalPayments() { return paymentCount; }
+
+        public BigDecimal getTotalAmount() { return BigDecimal.valueOf(amountCents, 2); }
+
+        public Map<String, Integer> getPaymentsByStatus() { return paymentsByStatus; }
+
+        public Map<String, BigDecimal> getAmountsByStatus() { return amountsByStatus; }
+
+        public Map<String, Integer> getPaymentsByType() { return paymentsByType; }
+
+        public Map<String, BigDecimal> getAmountsByType() { return amountsByType; }
+
+        public Map<String, Integer> getPaymentsByCategory() { return paymentsByCategory; }
+
+        public Map<String, BigDecimal> getAmountsByCategory() { return amountsByCategory; }
+
+        public Map<String, AmountSketch> getAmountSketchesByCategory() { return amountSketchesByCategory; }
+
+        public Map<String, AmountSketch> getAmountSketchesByTeam() { return amountSketchesByTeam; }
+    }
+}
@@ -5,66 +5,195 @@ import miniproject1.paymentmanagementsystem.model.Category;
 import miniproject1.paymentmanagementsystem.model.Payment;
 import miniproject1.paymentmanagementsystem.model.Status;
 import miniproject1.paymentmanagementsystem.model.User;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
+import miniproject1.paymentmanagementsystem.util.ReportCache;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class PaymentRepository {
+    // Callers only have the id, so this probes the primary key index of every partition once.
+    // payment_id is unique because save() always takes it from payments_payment_id_seq; the
+    // partitioned primary key (payment_id, payment_date) does not enforce that on its own.
+    static final String FIND_BY_ID_SQL = """
+            SELECT p.payment_id, p.amount, p.type, p.payment_date, p.description,
+                   p.category_id, p.status_id, p.created_by_user_id,
+                   c.category_name, s.status_name, u.name as created_by_name
+            FROM payments p
+            JOIN categories c ON p.category_id = c.category_id
+            JOIN status s ON p.status_id = s.status_id
+            JOIN users u ON p.created_by_user_id = u.user_id
+            WHERE p.payment_id = ?
+            """;
+
+    static final String FIND_ALL_SQL = """
+            SELECT p.payment_id, p.amount, p.type, p.payment_date, p.description,
+                   p.category_id, p.status_id, p.created_by_user_id,
+                   c.category_name, s.status_name, u.name as created_by_name
+            FROM payments p
+            JOIN categories c ON p.category_id = c.category_id
+            JOIN status s ON p.status_id = s.status_id
+            JOIN users u ON p.created_by_user_id = u.user_id
+            ORDER BY p.payment_date DESC
+            """;
+
+    static final String FIND_BY_USER_ID_SQL = """
+            SELECT p.payment_id, p.amount, p.type, p.payment_date, p.description,
+                   p.category_id, p.status_id, p.created_by_user_id,
+                   c.category_name, s.status_name, u.name as created_by_name
+            FROM payments p
+            JOIN categories c ON p.category_id = c.category_id
+            JOIN status s ON p.status_id = s.status_id
+            JOIN users u ON p.created_by_user_id = u.user_id
+            WHERE p.created_by_user_id = ?
+            ORDER BY p.payment_date DESC
+            """;
+
+    // Half-open range on the partition key so the planner prunes to the months involved
+    static final String FIND_BY_DATE_RANGE_SQL = """
+            SELECT p.payment_id, p.amount, p.type, p.payment_date, p.description,
+                   p.category_id, p.status_id, p.created_by_user_id,
+                   c.category_name, s.status_name, u.name as created_by_name
+            FROM payments p
+            JOIN categories c ON p.category_id = c.category_id
+            JOIN status s ON p.status_id = s.status_id
+            JOIN users u ON p.created_by_user_id = u.user_id
+            WHERE p.payment_date >= ? AND p.payment_date < ?
+            ORDER BY p.payment_date DESC
+            """;
+
+    // Ranked per category in the database, so only each category's top rows are joined and returned
+    static final String FIND_LARGEST_BY_CATEGORY_SQL = """
+            SELECT p.payment_id, p.amount, p.type, p.payment_date, p.description,
+                   p.category_id, p.status_id, p.created_by_user_id,
+                   c.category_name, s.status_name, u.name as created_by_name
+            FROM (
+                SELECT payment_id, amount, type, payment_date, description,
+                       category_id, status_id, created_by_user_id,
+                       row_number() OVER (PARTITION BY category_id ORDER BY amount DESC, payment_id) AS amount_rank
+                FROM payments
+                WHERE payment_date >= ? AND payment_date < ?
+            ) p
+            JOIN categories c ON p.category_id = c.category_id
+            JOIN status s ON p.status_id = s.status_id
+            JOIN users u ON p.created_by_user_id = u.user_id
+            WHERE p.amount_rank <= ?
+            ORDER BY c.category_name, p.amount_rank
+            """;
+
+    static final String FIND_BY_IDS_SQL = """
+            SELECT p.payment_id, p.amount, p.type, p.payment_date, p.description,
+                   p.category_id, p.status_id, p.created_by_user_id,
+                   c.category_name, s.status_name, u.name as created_by_name
+            FROM payments p
+            JOIN categories c ON p.category_id = c.category_id
+            JOIN status s ON p.status_id = s.status_id
+            JOIN users u ON p.created_by_user_id = u.user_id
+            WHERE p.payment_id = ANY(?)
+            """;
+
+    static final String FIND_SALARY_PAID_USER_IDS_SQL = """
+            SELECT DISTINCT created_by_user_id FROM payments
+            WHERE created_by_user_id = ANY(?)
+            AND type = 'SALARY'
+            AND payment_date >= ?
+            AND payment_date < ?
+            """;
+
+    static final String FIND_CLOSED_BEFORE_SQL = """
+            SELECT p.payment_id, p.amount, p.type, p.payment_date, p.description,
+                   p.category_id, p.status_id, p.created_by_user_id, p.team_id,
+                   c.category_name, s.status_name, u.name as created_by_name
+            FROM payments p
+            JOIN categories c ON p.category_id = c.category_id
+            JOIN status s ON p.status_id = s.status_id
+            JOIN users u ON p.created_by_user_id = u.user_id
+            WHERE s.status_name IN ('APPROVED', 'REJECTED') AND p.payment_date < ?
+            ORDER BY p.payment_date, p.payment_id
+            LIMIT ?
+            """;
+
     private final DatabaseConfig dbConfig;
+    private final PaymentArchive archive;
+    private final PaymentColumnStore columnStore = PaymentColumnStore.getInstance();
+    private final ReportCache reportCache;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
 
     public PaymentRepository() throws SQLException, IOException {
         this.dbConfig = DatabaseConfig.getInstance();
+        this.reportCache = ReportCache.getInstance();
+        this.archive = new PaymentArchive(Paths.get(dbConfig.getProperty("archive.dir", "archive")));
     }
 
     public Payment save(Payment payment) throws SQLException {
+        long startNanos = System.nanoTime();
+        // Payments without an explicit team belong to the creator's team at the time of creation
         String sql = """
-            INSERT INTO payments (amount, type, payment_date, description, category_id, status_id, created_by_user_id)
-            VALUES (?, ?, ?, ?, ?, ?, ?)
-            RETURNING payment_id
+            INSERT INTO payments (amount, type, payment_date, description, category_id, status_id, created_by_user_id, team_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, COALESCE(?, (SELECT team_id FROM users WHERE user_id = ?)))
+            RETURNING payment_id, team_id, amount
             """;
 
         Connection conn = null;
         try {
             conn = dbConfig.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            stmt.setBigDecimal(1, payment.getAmount());
-            stmt.setString(2, payment.getType());
-            stmt.setTimestamp(3, Timestamp.valueOf(payment.getPaymentDate()));
-            stmt.setString(4, payment.getDescription());
-            stmt.setInt(5, payment.getCategoryId());
-            stmt.setInt(6, payment.getStatusId());
-            stmt.setInt(7, payment.getCreatedByUserId());
+            conn.setAutoCommit(false);
+            try {
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                stmt.setBigDecimal(1, payment.getAmount());
+                stmt.setString(2, payment.getType());
+                stmt.setTimestamp(3, Timestamp.valueOf(payment.getPaymentDate()));
+                stmt.setString(4, payment.getDescription());
+                stmt.setInt(5, payment.getCategoryId());
+                stmt.setInt(6, payment.getStatusId());
+                stmt.setInt(7, payment.getCreatedByUserId());
+                stmt.setObject(8, payment.getTeamId(), Types.INTEGER);
+                stmt.setInt(9, payment.getCreatedByUserId());
 
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                payment.setPaymentId(rs.getInt("payment_id"));
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    payment.setPaymentId(rs.getInt("payment_id"));
+                    int teamId = rs.getInt("team_id");
+                    payment.setTeamId(rs.wasNull() ? null : teamId);
+                    // The column rounds to cents; carry on with the amount that was stored
+                    payment.setAmount(rs.getBigDecimal("amount"));
+                }
+
+                applyBalanceDelta(conn, payment.getCreatedByUserId(), payment.getTeamId(), payment.getPaymentDate(),
+                        payment.getType(), payment.getStatusId(), 1, payment.getAmount());
+                conn.commit();
+                reportCache.invalidate(YearMonth.from(payment.getPaymentDate()));
+                columnStore.onSaved(payment);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             return payment;
         } finally {
+            metrics.recordTime("payment.repository.save", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
     public Optional<Payment> findById(int paymentId) throws SQLException {
-        String sql = """
-            SELECT p.payment_id, p.amount, p.type, p.payment_date, p.description,
-                   p.category_id, p.status_id, p.created_by_user_id,
-                   c.category_name, s.status_name, u.name as created_by_name
-            FROM payments p
-            JOIN categories c ON p.category_id = c.category_id
-            JOIN status s ON p.status_id = s.status_id
-            JOIN users u ON p.created_by_user_id = u.user_id
-            WHERE p.payment_id = ?
-            """;
-
+        long startNanos = System.nanoTime();
         Connection conn = null;
         try {
             conn = dbConfig.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
+            PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID_SQL);
             stmt.setInt(1, paymentId);
 
             ResultSet rs = stmt.executeQuery();
@@ -74,58 +203,59 @@ public class PaymentRepository {
             }
             return Optional.empty();
         } finally {
+            metrics.recordTime("payment.repository.findById", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
-    public List<Payment> findAll() throws SQLException {
-        String sql = """
-            SELECT p.payment_id, p.amount, p.type, p.payment_date, p.description,
-                   p.category_id, p.status_id, p.created_by_user_id,
-                   c.category_name, s.status_name, u.name as created_by_name
-            FROM payments p
-            JOIN categories c ON p.category_id = c.category_id
-            JOIN status s ON p.status_id = s.status_id
-            JOIN users u ON p.created_by_user_id = u.user_id
-            ORDER BY p.payment_date DESC
-            """;
+    /**
+     * Like findById, but falls back to the cold-storage archive for payments that have been moved out of
+     * the database. Only for read paths: archived payments are closed and cannot be updated or deleted.
+     */
+    public Optional<Payment> findByIdIncludingArchive(int paymentId) throws SQLException {
+        Optional<Payment> payment = findById(paymentId);
+        if (payment.isPresent()) {
+            return payment;
+        }
 
+        long startNanos = System.nanoTime();
+        try {
+            return archive.findPayment(paymentId);
+        } catch (IOException e) {
+            throw new SQLException("Failed to read payment archive", e);
+        } finally {
+            metrics.recordTime("payment.repository.findArchivedById", startNanos);
+        }
+    }
+
+    public List<Payment> findAll() throws SQLException {
+        long startNanos = System.nanoTime();
         Connection conn = null;
         List<Payment> payments = new ArrayList<>();
 
         try {
             conn = dbConfig.getConnection();
             Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
+            ResultSet rs = stmt.executeQuery(FIND_ALL_SQL);
 
             while (rs.next()) {
                 payments.add(mapResultSetToPayment(rs));
             }
             return payments;
         } finally {
+            metrics.recordTime("payment.repository.findAll", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
     public List<Payment> findByUserId(int userId) throws SQLException {
-        String sql = """
-            SELECT p.payment_id, p.amount, p.type, p.payment_date, p.description,
-                   p.category_id, p.status_id, p.created_by_user_id,
-                   c.category_name, s.status_name, u.name as created_by_name
-            FROM payments p
-            JOIN categories c ON p.category_id = c.category_id
-            JOIN status s ON p.status_id = s.status_id
-            JOIN users u ON p.created_by_user_id = u.user_id
-            WHERE p.created_by_user_id = ?
-            ORDER BY p.payment_date DESC
-            """;
-
+        long startNanos = System.nanoTime();
         Connection conn = null;
         List<Payment> payments = new ArrayList<>();
 
         try {
             conn = dbConfig.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
+            PreparedStatement stmt = conn.prepareStatement(FIND_BY_USER_ID_SQL);
             stmt.setInt(1, userId);
 
             ResultSet rs = stmt.executeQuery();
@@ -134,66 +264,334 @@ public class PaymentRepository {
             }
             return payments;
         } finally {
+            metrics.recordTime("payment.repository.findByUserId", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
-    public void updateStatus(int paymentId, int statusId) throws SQLException {
-        String sql = "UPDATE payments SET status_id = ? WHERE payment_id = ?";
+    /**
+     * Payments dated from (inclusive) up to to (exclusive)
+     */
+    public List<Payment> findByDateRange(LocalDateTime from, LocalDateTime to) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        List<Payment> payments = new ArrayList<>();
+
+        try {
+            conn = dbConfig.getConnection();
+            PreparedStatement stmt = conn.prepareStatement(FIND_BY_DATE_RANGE_SQL);
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
 
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                payments.add(mapResultSetToPayment(rs));
+            }
+            return payments;
+        } finally {
+            metrics.recordTime("payment.repository.findByDateRange", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * The limit largest payments of each category dated from (inclusive) up to to (exclusive), ordered by
+     * category name and then by amount, largest first
+     */
+    public List<Payment> findLargestByCategory(LocalDateTime from, LocalDateTime to, int limit) throws SQLException {
+        long startNanos = System.nanoTime();
         Connection conn = null;
+        List<Payment> payments = new ArrayList<>();
+
         try {
             conn = dbConfig.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            stmt.setInt(1, statusId);
-            stmt.setInt(2, paymentId);
-            stmt.executeUpdate();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_LARGEST_BY_CATEGORY_SQL)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(from));
+                stmt.setTimestamp(2, Timestamp.valueOf(to));
+                stmt.setInt(3, limit);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        payments.add(mapResultSetToPayment(rs));
+                    }
+                }
+            }
+            return payments;
         } finally {
+            metrics.recordTime("payment.repository.findLargestByCategory", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
-    public void deleteById(int paymentId) throws SQLException {
-        String sql = "DELETE FROM payments WHERE payment_id = ?";
+    /**
+     * The payments with the given ids, in no particular order, in one query
+     */
+    public List<Payment> findByIds(Collection<Integer> paymentIds) throws SQLException {
+        List<Payment> payments = new ArrayList<>();
+        if (paymentIds.isEmpty()) {
+            return payments;
+        }
 
+        long startNanos = System.nanoTime();
         Connection conn = null;
         try {
             conn = dbConfig.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            stmt.setInt(1, paymentId);
-            stmt.executeUpdate();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_IDS_SQL)) {
+                stmt.setArray(1, conn.createArrayOf("integer", paymentIds.toArray()));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        payments.add(mapResultSetToPayment(rs));
+                    }
+                }
+            }
+            return payments;
+        } finally {
+            metrics.recordTime("payment.repository.findByIds", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * Oldest APPROVED or REJECTED payments dated before the cutoff, at most limit of them
+     */
+    public List<Payment> findClosedBefore(LocalDateTime cutoff, int limit) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        List<Payment> payments = new ArrayList<>();
+
+        try {
+            conn = dbConfig.getConnection();
+            PreparedStatement stmt = conn.prepareStatement(FIND_CLOSED_BEFORE_SQL);
+            stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            stmt.setInt(2, limit);
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Payment payment = mapResultSetToPayment(rs);
+                int teamId = rs.getInt("team_id");
+                payment.setTeamId(rs.wasNull() ? null : teamId);
+                payments.add(payment);
+            }
+            return payments;
+        } finally {
+            metrics.recordTime("payment.repository.findClosedBefore", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * Remove payments and audit rows that have been written to the archive, in one transaction
+     */
+    public void deleteArchived(List<Integer> paymentIds, List<Integer> auditIds, LocalDateTime cutoff) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            conn.setAutoCommit(false);
+            try {
+                Array paymentIdArray = conn.createArrayOf("integer", paymentIds.toArray());
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "DELETE FROM audit_trail WHERE payment_id = ANY(?) AND audit_id = ANY(?)")) {
+                    stmt.setArray(1, paymentIdArray);
+                    stmt.setArray(2, conn.createArrayOf("integer", auditIds.toArray()));
+                    stmt.executeUpdate();
+                }
+                // The date bound lets the planner skip partitions newer than the cutoff
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "DELETE FROM payments WHERE payment_id = ANY(?) AND payment_date < ?")) {
+                    stmt.setArray(1, paymentIdArray);
+                    stmt.setTimestamp(2, Timestamp.valueOf(cutoff));
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+                reportCache.invalidateBefore(YearMonth.from(cutoff).plusMonths(1));
+                columnStore.onDeleted(paymentIds);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            metrics.recordTime("payment.repository.deleteArchived", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * Change a payment's status. paymentDate is the payment's partition key, so only its month is touched.
+     */
+    public void updateStatus(int paymentId, LocalDateTime paymentDate, int statusId) throws SQLException {
+        long startNanos = System.nanoTime();
+        // The sub-select locks the row and hands back the status being replaced
+        String sql = """
+            UPDATE payments p SET status_id = ?
+            FROM (SELECT status_id FROM payments WHERE payment_id = ? AND payment_date = ? FOR UPDATE) old
+            WHERE p.payment_id = ? AND p.payment_date = ?
+            RETURNING old.status_id AS old_status_id, p.created_by_user_id, p.team_id, p.type, p.amount
+            """;
+
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            conn.setAutoCommit(false);
+            try {
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                stmt.setInt(1, statusId);
+                stmt.setInt(2, paymentId);
+                stmt.setTimestamp(3, Timestamp.valueOf(paymentDate));
+                stmt.setInt(4, paymentId);
+                stmt.setTimestamp(5, Timestamp.valueOf(paymentDate));
+
+                YearMonth changedMonth = null;
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next() && rs.getInt("old_status_id") != statusId) {
+                    int userId = rs.getInt("created_by_user_id");
+                    int teamId = rs.getInt("team_id");
+                    Integer team = rs.wasNull() ? null : teamId;
+                    String type = rs.getString("type");
+                    BigDecimal amount = rs.getBigDecimal("amount");
+
+                    applyBalanceDelta(conn, userId, team, paymentDate, type, rs.getInt("old_status_id"), -1, amount.negate());
+                    applyBalanceDelta(conn, userId, team, paymentDate, type, statusId, 1, amount);
+                    changedMonth = YearMonth.from(paymentDate);
+                }
+                conn.commit();
+                if (changedMonth != null) {
+                    reportCache.invalidate(changedMonth);
+                }
+                columnStore.onStatusChanged(paymentId, statusId);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } finally {
+            metrics.recordTime("payment.repository.updateStatus", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
-    public boolean existsSalaryPaymentForUserInPeriod(int userId, LocalDate startDate, LocalDate endDate) throws SQLException {
+    /**
+     * Delete a payment. paymentDate is the payment's partition key, so only its month is touched.
+     */
+    public void deleteById(int paymentId, LocalDateTime paymentDate) throws SQLException {
+        long startNanos = System.nanoTime();
         String sql = """
-            SELECT COUNT(*) FROM payments 
-            WHERE created_by_user_id = ? 
-            AND type = 'SALARY' 
-            AND payment_date >= ? 
-            AND payment_date <= ?
+            DELETE FROM payments WHERE payment_id = ? AND payment_date = ?
+            RETURNING created_by_user_id, team_id, type, status_id, amount
             """;
 
         Connection conn = null;
         try {
             conn = dbConfig.getConnection();
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, userId);
+            conn.setAutoCommit(false);
+            try {
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                stmt.setInt(1, paymentId);
+                stmt.setTimestamp(2, Timestamp.valueOf(paymentDate));
+
+                YearMonth deletedMonth = null;
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    int teamId = rs.getInt("team_id");
+                    Integer team = rs.wasNull() ? null : teamId;
+                    applyBalanceDelta(conn, rs.getInt("created_by_user_id"), team, paymentDate, rs.getString("type"),
+                            rs.getInt("status_id"), -1, rs.getBigDecimal("amount").negate());
+                    deletedMonth = YearMonth.from(paymentDate);
+                }
+                conn.commit();
+                if (deletedMonth != null) {
+                    reportCache.invalidate(deletedMonth);
+                }
+                columnStore.onDeleted(List.of(paymentId));
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            metrics.recordTime("payment.repository.deleteById", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * Of the given users, the ones who already have a salary payment dated within the period, in one query
+     */
+    public Set<Integer> findSalaryPaidUserIds(Collection<Integer> userIds, LocalDate startDate, LocalDate endDate) throws SQLException {
+        Set<Integer> paidUserIds = new HashSet<>();
+        if (userIds.isEmpty()) {
+            return paidUserIds;
+        }
+
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_SALARY_PAID_USER_IDS_SQL)) {
+                stmt.setArray(1, conn.createArrayOf("integer", userIds.toArray()));
                 stmt.setTimestamp(2, Timestamp.valueOf(startDate.atStartOfDay()));
-                stmt.setTimestamp(3, Timestamp.valueOf(endDate.atTime(23, 59, 59)));
+                stmt.setTimestamp(3, Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
 
                 try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        return rs.getInt(1) > 0;
+                    while (rs.next()) {
+                        paidUserIds.add(rs.getInt(1));
                     }
                 }
             }
         } finally {
+            metrics.recordTime("payment.repository.findSalaryPaidUserIds", startNanos);
             dbConfig.returnConnection(conn);
         }
-        return false;
+        return paidUserIds;
+    }
+
+    /**
+     * Add count and amount to the user's (and team's, when set) balance row for the payment's month,
+     * on the caller's connection so the balance moves in the same transaction as the payment
+     */
+    private void applyBalanceDelta(Connection conn, int userId, Integer teamId, LocalDateTime paymentDate,
+                                   String type, int statusId, int count, BigDecimal amount) throws SQLException {
+        Date month = Date.valueOf(paymentDate.toLocalDate().withDayOfMonth(1));
+        String userSql = """
+            INSERT INTO user_balances (user_id, balance_month, type, status_id, payment_count, total_amount)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, balance_month, type, status_id) DO UPDATE
+            SET payment_count = user_balances.payment_count + EXCLUDED.payment_count,
+                total_amount = user_balances.total_amount + EXCLUDED.total_amount
+            """;
+        String teamSql = """
+            INSERT INTO team_balances (team_id, balance_month, type, status_id, payment_count, total_amount)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (team_id, balance_month, type, status_id) DO UPDATE
+            SET payment_count = team_balances.payment_count + EXCLUDED.payment_count,
+                total_amount = team_balances.total_amount + EXCLUDED.total_amount
+            """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(userSql)) {
+            bindBalanceDelta(stmt, userId, month, type, statusId, count, amount);
+            stmt.executeUpdate();
+        }
+        if (teamId != null) {
+            try (PreparedStatement stmt = conn.prepareStatement(teamSql)) {
+                bindBalanceDelta(stmt, teamId, month, type, statusId, count, amount);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private void bindBalanceDelta(PreparedStatement stmt, int ownerId, Date month, String type, int statusId,
+                                  int count, BigDecimal amount) throws SQLException {
+        stmt.setInt(1, ownerId);
+        stmt.setDate(2, month);
+        stmt.setString(3, type);
+        stmt.setInt(4, statusId);
+        stmt.setInt(5, count);
+        stmt.setBigDecimal(6, amount);
     }
 
     private Payment mapResultSetToPayment(ResultSet rs) throws SQLException {
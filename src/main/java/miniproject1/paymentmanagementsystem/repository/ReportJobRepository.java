@@ -0,0 +1,284 @@
+package miniproject1.paymentmanagementsystem.repository;
+
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+import miniproject1.paymentmanagementsystem.model.ReportJob;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Background report jobs and their compressed results in report_results. Job lookups never read the
+ * result column; only findResult does.
+ */
+public class ReportJobRepository {
+    static final String JOB_COLUMNS = """
+            job_id, report_type, start_month, end_month, requested_by_user_id, status, progress,
+            error_message, created_at, completed_at, expires_at
+            """;
+
+    static final String FIND_BY_ID_SQL = "SELECT " + JOB_COLUMNS + " FROM report_results WHERE job_id = ?";
+
+    static final String FIND_BY_REQUESTER_SQL = "SELECT " + JOB_COLUMNS + """
+             FROM report_results
+            WHERE requested_by_user_id = ?
+            ORDER BY created_at DESC
+            LIMIT ?
+            """;
+
+    private final DatabaseConfig dbConfig;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    public ReportJobRepository() throws SQLException, IOException {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+
+    public ReportJob save(ReportJob job) throws SQLException {
+        long startNanos = System.nanoTime();
+        String sql = """
+            INSERT INTO report_results (report_type, start_month, end_month, requested_by_user_id, status)
+            VALUES (?, ?, ?, ?, ?)
+            RETURNING job_id, created_at
+            """;
+
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, job.getReportType());
+                stmt.setDate(2, Date.valueOf(job.getStartMonth().atDay(1)));
+                stmt.setDate(3, Date.valueOf(job.getEndMonth().atDay(1)));
+                stmt.setInt(4, job.getRequestedByUserId());
+                stmt.setString(5, job.getStatus());
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        job.setJobId(rs.getLong("job_id"));
+                        job.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                    }
+                }
+            }
+            return job;
+        } finally {
+            metrics.recordTime("report.job.repository.save", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    public Optional<ReportJob> findById(long jobId) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID_SQL)) {
+                stmt.setLong(1, jobId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? Optional.of(mapResultSetToReportJob(rs)) : Optional.empty();
+                }
+            }
+        } finally {
+            metrics.recordTime("report.job.repository.findById", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * The user's most recent jobs, newest first
+     */
+    public List<ReportJob> findByRequester(int userId, int limit) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        List<ReportJob> jobs = new ArrayList<>();
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_REQUESTER_SQL)) {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        jobs.add(mapResultSetToReportJob(rs));
+                    }
+                }
+            }
+            return jobs;
+        } finally {
+            metrics.recordTime("report.job.repository.findByRequester", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * The gzipped JSON report of a completed job that has not expired yet
+     */
+    public Optional<byte[]> findResult(long jobId) throws SQLException {
+        long startNanos = System.nanoTime();
+        String sql = """
+            SELECT result FROM report_results
+            WHERE job_id = ? AND result IS NOT NULL AND expires_at > LOCALTIMESTAMP
+            """;
+
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, jobId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? Optional.of(rs.getBytes("result")) : Optional.empty();
+                }
+            }
+        } finally {
+            metrics.recordTime("report.job.repository.findResult", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    public void markRunning(long jobId) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement("UPDATE report_results SET status = ? WHERE job_id = ?")) {
+                stmt.setString(1, ReportJob.RUNNING);
+                stmt.setLong(2, jobId);
+                stmt.executeUpdate();
+            }
+        } finally {
+            metrics.recordTime("report.job.repository.markRunning", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    public void updateProgress(long jobId, int progress) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement("UPDATE report_results SET progress = ? WHERE job_id = ?")) {
+                stmt.setInt(1, progress);
+                stmt.setLong(2, jobId);
+                stmt.executeUpdate();
+            }
+        } finally {
+            metrics.recordTime("report.job.repository.updateProgress", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    public void complete(long jobId, byte[] result, LocalDateTime expiresAt) throws SQLException {
+        long startNanos = System.nanoTime();
+        String sql = """
+            UPDATE report_results
+            SET status = ?, progress = 100, result = ?, completed_at = LOCALTIMESTAMP, expires_at = ?
+            WHERE job_id = ?
+            """;
+
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, ReportJob.COMPLETED);
+                stmt.setBytes(2, result);
+                stmt.setTimestamp(3, Timestamp.valueOf(expiresAt));
+                stmt.setLong(4, jobId);
+                stmt.executeUpdate();
+            }
+        } finally {
+            metrics.recordTime("report.job.repository.complete", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    public void fail(long jobId, String errorMessage, LocalDateTime expiresAt) throws SQLException {
+        long startNanos = System.nanoTime();
+        String sql = """
+            UPDATE report_results
+            SET status = ?, error_message = ?, completed_at = LOCALTIMESTAMP, expires_at = ?
+            WHERE job_id = ?
+            """;
+
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, ReportJob.FAILED);
+                stmt.setString(2, errorMessage);
+                stmt.setTimestamp(3, Timestamp.valueOf(expiresAt));
+                stmt.setLong(4, jobId);
+                stmt.executeUpdate();
+            }
+        } finally {
+            metrics.recordTime("report.job.repository.fail", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * Fail jobs a previous run left queued or running; their worker is gone
+     *
+     * @return number of jobs failed
+     */
+    public int failUnfinished(LocalDateTime expiresAt) throws SQLException {
+        long startNanos = System.nanoTime();
+        String sql = """
+            UPDATE report_results
+            SET status = ?, error_message = 'Interrupted by shutdown', completed_at = LOCALTIMESTAMP, expires_at = ?
+            WHERE status IN (?, ?)
+            """;
+
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, ReportJob.FAILED);
+                stmt.setTimestamp(2, Timestamp.valueOf(expiresAt));
+                stmt.setString(3, ReportJob.QUEUED);
+                stmt.setString(4, ReportJob.RUNNING);
+                return stmt.executeUpdate();
+            }
+        } finally {
+            metrics.recordTime("report.job.repository.failUnfinished", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * @return number of jobs removed
+     */
+    public int deleteExpired() throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "DELETE FROM report_results WHERE expires_at <= LOCALTIMESTAMP")) {
+                return stmt.executeUpdate();
+            }
+        } finally {
+            metrics.recordTime("report.job.repository.deleteExpired", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    private ReportJob mapResultSetToReportJob(ResultSet rs) throws SQLException {
+        ReportJob job = new ReportJob();
+        job.setJobId(rs.getLong("job_id"));
+        job.setReportType(rs.getString("report_type"));
+        job.setStartMonth(YearMonth.from(rs.getDate("start_month").toLocalDate()));
+        job.setEndMonth(YearMonth.from(rs.getDate("end_month").toLocalDate()));
+        job.setRequestedByUserId(rs.getInt("requested_by_user_id"));
+        job.setStatus(rs.getString("status"));
+        job.setProgress(rs.getInt("progress"));
+        job.setErrorMessage(rs.getString("error_message"));
+        job.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        Timestamp completedAt = rs.getTimestamp("completed_at");
+        job.setCompletedAt(completedAt == null ? null : completedAt.toLocalDateTime());
+        Timestamp expiresAt = rs.getTimestamp("expires_at");
+        job.setExpiresAt(expiresAt == null ? null : expiresAt.toLocalDateTime());
+        return job;
+    }
+}
@@ -0,0 +1,98 @@
+package miniproject1.paymentmanagementsystem.repository;
+
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+import miniproject1.paymentmanagementsystem.model.TeamSpend;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregates payments by team for the organization report. Every breakdown the report needs comes back
+ * from a single GROUPING SETS query, so the report costs one round trip however many teams there are.
+ */
+public class TeamReportRepository {
+    /**
+     * Grouping sets, finest first: team/month/status, team/month/category, team/month, team, and the
+     * organization total. The GROUPING() flags tell rolled-up columns apart from a real NULL team_id.
+     */
+    static final String FIND_TEAM_ROLLUP_SQL = """
+            SELECT p.team_id, MAX(t.team_name) AS team_name, p.payment_month, s.status_name, c.category_name,
+                   GROUPING(p.team_id) AS team_grouped, GROUPING(p.payment_month) AS month_grouped,
+                   GROUPING(s.status_name) AS status_grouped, GROUPING(c.category_name) AS category_grouped,
+                   COUNT(*) AS payment_count, SUM(p.amount) AS total_amount
+            FROM (
+                SELECT team_id, date_trunc('month', payment_date)::date AS payment_month,
+                       status_id, category_id, amount
+                FROM payments
+                WHERE payment_date >= ? AND payment_date < ?
+            ) p
+            JOIN status s ON p.status_id = s.status_id
+            JOIN categories c ON p.category_id = c.category_id
+            LEFT JOIN teams t ON p.team_id = t.team_id
+            GROUP BY GROUPING SETS (
+                (p.team_id, p.payment_month, s.status_name),
+                (p.team_id, p.payment_month, c.category_name),
+                (p.team_id, p.payment_month),
+                (p.team_id),
+                ()
+            )
+            """;
+
+    private final DatabaseConfig dbConfig;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    public TeamReportRepository() throws SQLException, IOException {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+
+    /**
+     * Spend per team, month, status and category for payments dated in [from, to)
+     */
+    public List<TeamSpend> findTeamRollup(LocalDateTime from, LocalDateTime to) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        List<TeamSpend> rows = new ArrayList<>();
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_TEAM_ROLLUP_SQL)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(from));
+                stmt.setTimestamp(2, Timestamp.valueOf(to));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapResultSetToTeamSpend(rs));
+                    }
+                }
+            }
+            return rows;
+        } finally {
+            metrics.recordTime("team.report.repository.findTeamRollup", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    private TeamSpend mapResultSetToTeamSpend(ResultSet rs) throws SQLException {
+        TeamSpend row = new TeamSpend();
+        row.setAllTeams(rs.getInt("team_grouped") == 1);
+        int teamId = rs.getInt("team_id");
+        row.setTeamId(rs.wasNull() ? null : teamId);
+        row.setTeamName(rs.getString("team_name"));
+        if (rs.getInt("month_grouped") == 0) {
+            row.setMonth(YearMonth.from(rs.getDate("payment_month").toLocalDate()));
+        }
+        if (rs.getInt("status_grouped") == 0) {
+            row.setStatusName(rs.getString("status_name"));
+        }
+        if (rs.getInt("category_grouped") == 0) {
+            row.setCategoryName(rs.getString("category_name"));
+        }
+        row.setPaymentCount(rs.getInt("payment_count"));
+        row.setTotalAmount(rs.getBigDecimal("total_amount"));
+        return row;
+    }
+}
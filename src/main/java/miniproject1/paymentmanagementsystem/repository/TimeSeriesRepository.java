@@ -0,0 +1,192 @@
+package miniproject1.paymentmanagementsystem.repository;
+
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+import miniproject1.paymentmanagementsystem.model.AmountBucket;
+import miniproject1.paymentmanagementsystem.model.BucketTotal;
+import miniproject1.paymentmanagementsystem.model.ReportDimension;
+import miniproject1.paymentmanagementsystem.model.ReportGranularity;
+import miniproject1.paymentmanagementsystem.util.AmountSketch;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Aggregates payments into time buckets in the database. Bucketing is done with date_trunc and every
+ * requested breakdown comes back from one GROUPING SETS query, so no payment rows leave the server.
+ */
+public class TimeSeriesRepository {
+    /**
+     * AmountSketch.bucketIndex in SQL: bits is the position of the highest set bit of the amount in
+     * cents, so amounts of at least SUB_BUCKETS cents keep their top SUB_BUCKET_BITS + 1 bits
+     */
+    static final String AMOUNT_BUCKETS_SQL = """
+            SELECT p.month, c.category_name, t.team_name, GROUPING(t.team_name) AS team_grouped, p.bucket,
+                   COUNT(*) AS payment_count, MIN(p.cents) AS min_cents, MAX(p.cents) AS max_cents
+            FROM (
+                SELECT month, category_id, team_id, cents,
+                       CASE WHEN cents < %1$d THEN cents
+                            ELSE (bits - %2$d) * %1$d + (cents >> (bits - %2$d)) END AS bucket
+                FROM (
+                    SELECT date_trunc('month', payment_date)::date AS month, category_id, team_id,
+                           round(amount * 100)::bigint AS cents,
+                           length(ltrim(round(amount * 100)::bigint::bit(64)::text, '0')) AS bits
+                    FROM payments
+                    WHERE payment_date >= ? AND payment_date < ?
+                ) a
+            ) p
+            JOIN categories c ON p.category_id = c.category_id
+            LEFT JOIN teams t ON p.team_id = t.team_id
+            GROUP BY GROUPING SETS ((p.month, c.category_name, p.bucket), (p.month, t.team_name, p.bucket))
+            """.formatted(AmountSketch.SUB_BUCKETS, AmountSketch.SUB_BUCKET_BITS + 1);
+
+    private final DatabaseConfig dbConfig;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    public TimeSeriesRepository() throws SQLException, IOException {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+
+    /**
+     * Grouping sets: the bucket total, plus bucket/value for each dimension. Only the lookup tables a
+     * dimension needs are joined. The unit comes from the enum, never from user input.
+     */
+    static String buildBucketTotalsSql(ReportGranularity granularity, Set<ReportDimension> dimensions) {
+        StringBuilder select = new StringBuilder("SELECT p.bucket");
+        StringBuilder joins = new StringBuilder();
+        StringBuilder groupingSets = new StringBuilder("(p.bucket)");
+        for (ReportDimension dimension : ReportDimension.values()) {
+            if (!dimensions.contains(dimension)) {
+                continue;
+            }
+            String column = dimensionColumn(dimension);
+            String alias = dimension.name().toLowerCase();
+            select.append(", ").append(column).append(" AS ").append(alias)
+                    .append(", GROUPING(").append(column).append(") AS ").append(alias).append("_grouped");
+            groupingSets.append(", (p.bucket, ").append(column).append(")");
+            if (dimension == ReportDimension.STATUS) {
+                joins.append("\nJOIN status s ON p.status_id = s.status_id");
+            } else if (dimension == ReportDimension.CATEGORY) {
+                joins.append("\nJOIN categories c ON p.category_id = c.category_id");
+            } else if (dimension == ReportDimension.TEAM) {
+                joins.append("\nLEFT JOIN teams t ON p.team_id = t.team_id");
+            }
+        }
+
+        return select + ", COUNT(*) AS payment_count, SUM(p.amount) AS total_amount\n"
+                + "FROM (\n"
+                + "    SELECT date_trunc('" + granularity.getSqlUnit() + "', payment_date)::date AS bucket,\n"
+                + "           status_id, category_id, type, team_id, amount\n"
+                + "    FROM payments\n"
+                + "    WHERE payment_date >= ? AND payment_date < ?\n"
+                + ") p" + joins + "\n"
+                + "GROUP BY GROUPING SETS (" + groupingSets + ")";
+    }
+
+    private static String dimensionColumn(ReportDimension dimension) {
+        switch (dimension) {
+            case STATUS:
+                return "s.status_name";
+            case CATEGORY:
+                return "c.category_name";
+            case TYPE:
+                return "p.type";
+            default:
+                return "t.team_name";
+        }
+    }
+
+    /**
+     * Totals per bucket, and per bucket and dimension value, for payments dated in [from, to).
+     * Buckets without payments are not returned.
+     */
+    public List<BucketTotal> findBucketTotals(LocalDateTime from, LocalDateTime to, ReportGranularity granularity,
+                                              Set<ReportDimension> dimensions) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        List<BucketTotal> rows = new ArrayList<>();
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(buildBucketTotalsSql(granularity, dimensions))) {
+                stmt.setTimestamp(1, Timestamp.valueOf(from));
+                stmt.setTimestamp(2, Timestamp.valueOf(to));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapResultSetToBucketTotal(rs, dimensions));
+                    }
+                }
+            }
+            return rows;
+        } finally {
+            metrics.recordTime("time.series.repository.findBucketTotals", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * Amount histogram buckets per month and category, and per month and team, for payments dated in
+     * [from, to). One pass over the range in the database; only bucket counts come back.
+     */
+    public List<AmountBucket> findAmountBuckets(LocalDateTime from, LocalDateTime to) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        List<AmountBucket> rows = new ArrayList<>();
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(AMOUNT_BUCKETS_SQL)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(from));
+                stmt.setTimestamp(2, Timestamp.valueOf(to));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapResultSetToAmountBucket(rs));
+                    }
+                }
+            }
+            return rows;
+        } finally {
+            metrics.recordTime("time.series.repository.findAmountBuckets", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    private AmountBucket mapResultSetToAmountBucket(ResultSet rs) throws SQLException {
+        AmountBucket row = new AmountBucket();
+        row.setMonth(rs.getDate("month").toLocalDate());
+        if (rs.getInt("team_grouped") == 0) {
+            row.setDimension(ReportDimension.TEAM);
+            String teamName = rs.getString("team_name");
+            row.setKey(teamName == null ? "Unassigned" : teamName);
+        } else {
+            row.setDimension(ReportDimension.CATEGORY);
+            row.setKey(rs.getString("category_name"));
+        }
+        row.setBucket(rs.getInt("bucket"));
+        row.setPaymentCount(rs.getInt("payment_count"));
+        row.setMinCents(rs.getLong("min_cents"));
+        row.setMaxCents(rs.getLong("max_cents"));
+        return row;
+    }
+
+    private BucketTotal mapResultSetToBucketTotal(ResultSet rs, Set<ReportDimension> dimensions) throws SQLException {
+        BucketTotal row = new BucketTotal();
+        row.setBucketStart(rs.getDate("bucket").toLocalDate());
+        // At most one dimension is not rolled up in any row
+        for (ReportDimension dimension : dimensions) {
+            String alias = dimension.name().toLowerCase();
+            if (rs.getInt(alias + "_grouped") == 0) {
+                row.setDimension(dimension);
+                String key = rs.getString(alias);
+                row.setKey(key == null && dimension == ReportDimension.TEAM ? "Unassigned" : key);
+            }
+        }
+        row.setPaymentCount(rs.getInt("payment_count"));
+        row.setTotalAmount(rs.getBigDecimal("total_amount"));
+        return row;
+    }
+}
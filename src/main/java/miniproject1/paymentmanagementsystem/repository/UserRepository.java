@@ -4,35 +4,92 @@ import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
 import miniproject1.paymentmanagementsystem.model.Role;
 import miniproject1.paymentmanagementsystem.model.Team;
 import miniproject1.paymentmanagementsystem.model.User;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class UserRepository {
-    private final DatabaseConfig dbConfig;
+    static final String FIND_BY_EMAIL_SQL = """
+            SELECT u.*, r.role_name, t.team_name 
+            FROM users u 
+            LEFT JOIN roles r ON u.role_id = r.role_id 
+            LEFT JOIN teams t ON u.team_id = t.team_id 
+            WHERE u.email = ?
+            """;
 
-    public UserRepository() throws SQLException, IOException {
-        this.dbConfig = DatabaseConfig.getInstance();
-    }
+    static final String FIND_BY_ID_SQL = """
+            SELECT u.*, r.role_name, t.team_name
+            FROM users u
+            LEFT JOIN roles r ON u.role_id = r.role_id
+            LEFT JOIN teams t ON u.team_id = t.team_id
+            WHERE u.user_id = ?
+            """;
 
-    public Optional<User> findByEmail(String email) throws SQLException {
-        String sql = """
+    static final String FIND_BY_IDS_SQL = """
+            SELECT u.*, r.role_name, t.team_name
+            FROM users u
+            LEFT JOIN roles r ON u.role_id = r.role_id
+            LEFT JOIN teams t ON u.team_id = t.team_id
+            WHERE u.user_id = ANY(?)
+            """;
+
+    static final String FIND_ALL_SQL = """
+            SELECT u.*, r.role_name, t.team_name
+            FROM users u
+            JOIN roles r ON u.role_id = r.role_id
+            LEFT JOIN teams t ON u.team_id = t.team_id
+            ORDER BY u.name
+            """;
+
+    static final String FIND_BY_TEAM_IDS_SQL = """
+            SELECT u.*, r.role_name, t.team_name
+            FROM users u
+            LEFT JOIN roles r ON u.role_id = r.role_id
+            LEFT JOIN teams t ON u.team_id = t.team_id
+            WHERE u.team_id = ANY(?)
+            ORDER BY u.team_id, u.name
+            """;
+
+    static final String FIND_BY_TEAM_ID_SQL = """
             SELECT u.*, r.role_name, t.team_name 
             FROM users u 
             LEFT JOIN roles r ON u.role_id = r.role_id 
             LEFT JOIN teams t ON u.team_id = t.team_id 
-            WHERE u.email = ?
+            WHERE u.team_id = ?
+            ORDER BY u.name
+            """;
+
+    static final String FIND_USERS_WITH_SALARY_SQL = """
+            SELECT u.*, r.role_name, t.team_name 
+            FROM users u 
+            LEFT JOIN roles r ON u.role_id = r.role_id 
+            LEFT JOIN teams t ON u.team_id = t.team_id 
+            WHERE u.monthly_salary > 0 AND u.salary_effective_date IS NOT NULL
+            ORDER BY u.name
             """;
 
+    private final DatabaseConfig dbConfig;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    public UserRepository() throws SQLException, IOException {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+
+    public Optional<User> findByEmail(String email) throws SQLException {
+        long startNanos = System.nanoTime();
         Connection conn = null;
         try {
             conn = dbConfig.getConnection();
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_EMAIL_SQL)) {
                 stmt.setString(1, email);
 
                 try (ResultSet rs = stmt.executeQuery()) {
@@ -42,12 +99,65 @@ public class UserRepository {
                 }
             }
         } finally {
+            metrics.recordTime("user.repository.findByEmail", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+        return Optional.empty();
+    }
+
+    public Optional<User> findById(int userId) throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID_SQL)) {
+                stmt.setInt(1, userId);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToUser(rs));
+                    }
+                }
+            }
+        } finally {
+            metrics.recordTime("user.repository.findById", startNanos);
             dbConfig.returnConnection(conn);
         }
         return Optional.empty();
     }
 
+    /**
+     * Load several users in one query, keyed by user id. Ids with no user are absent from the map.
+     */
+    public Map<Integer, User> findByIds(Collection<Integer> userIds) throws SQLException {
+        Map<Integer, User> users = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return users;
+        }
+
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_IDS_SQL)) {
+                stmt.setArray(1, conn.createArrayOf("integer", userIds.toArray()));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        User user = mapResultSetToUser(rs);
+                        users.put(user.getUserId(), user);
+                    }
+                }
+            }
+        } finally {
+            metrics.recordTime("user.repository.findByIds", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+        return users;
+    }
+
     public User save(User user) throws SQLException {
+        long startNanos = System.nanoTime();
         String sql = "INSERT INTO users (name, email, password_hash, role_id) VALUES (?, ?, ?, ?) RETURNING user_id";
 
         Connection conn = null;
@@ -65,11 +175,13 @@ public class UserRepository {
             }
             return user;
         } finally {
+            metrics.recordTime("user.repository.save", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
     public User createUser(User user) throws SQLException {
+        long startNanos = System.nanoTime();
         String sql = """
             INSERT INTO users (name, email, password_hash, role_id, team_id, monthly_salary, salary_effective_date)
             VALUES (?, ?, ?, ?, ?, ?, ?)
@@ -111,51 +223,39 @@ public class UserRepository {
                 }
             }
         } finally {
+            metrics.recordTime("user.repository.createUser", startNanos);
             dbConfig.returnConnection(conn);
         }
         return null;
     }
 
     public List<User> findAll() throws SQLException {
-        String sql = """
-            SELECT u.user_id, u.name, u.email, u.password_hash, u.role_id,
-                   r.role_name
-            FROM users u
-            JOIN roles r ON u.role_id = r.role_id
-            """;
-
+        long startNanos = System.nanoTime();
         Connection conn = null;
         List<User> users = new ArrayList<>();
 
         try {
             conn = dbConfig.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-
-            while (rs.next()) {
-                users.add(mapResultSetToUser(rs));
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(FIND_ALL_SQL)) {
+                while (rs.next()) {
+                    users.add(mapResultSetToUser(rs));
+                }
             }
             return users;
         } finally {
+            metrics.recordTime("user.repository.findAll", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
     public List<User> findByTeamId(int teamId) throws SQLException {
-        String sql = """
-            SELECT u.*, r.role_name, t.team_name 
-            FROM users u 
-            LEFT JOIN roles r ON u.role_id = r.role_id 
-            LEFT JOIN teams t ON u.team_id = t.team_id 
-            WHERE u.team_id = ?
-            ORDER BY u.name
-            """;
-
+        long startNanos = System.nanoTime();
         Connection conn = null;
         List<User> users = new ArrayList<>();
         try {
             conn = dbConfig.getConnection();
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_TEAM_ID_SQL)) {
                 stmt.setInt(1, teamId);
 
                 try (ResultSet rs = stmt.executeQuery()) {
@@ -165,12 +265,48 @@ public class UserRepository {
                 }
             }
         } finally {
+            metrics.recordTime("user.repository.findByTeamId", startNanos);
             dbConfig.returnConnection(conn);
         }
         return users;
     }
 
+    /**
+     * Load the members of several teams in one query. Every requested team id is present in the
+     * result, mapped to an empty list when the team has no members.
+     */
+    public Map<Integer, List<User>> findByTeamIds(Collection<Integer> teamIds) throws SQLException {
+        Map<Integer, List<User>> membersByTeam = new HashMap<>();
+        for (Integer teamId : teamIds) {
+            membersByTeam.put(teamId, new ArrayList<>());
+        }
+        if (teamIds.isEmpty()) {
+            return membersByTeam;
+        }
+
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_TEAM_IDS_SQL)) {
+                stmt.setArray(1, conn.createArrayOf("integer", teamIds.toArray()));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        User user = mapResultSetToUser(rs);
+                        membersByTeam.get(user.getTeamId()).add(user);
+                    }
+                }
+            }
+        } finally {
+            metrics.recordTime("user.repository.findByTeamIds", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+        return membersByTeam;
+    }
+
     public void deleteById(int userId) throws SQLException {
+        long startNanos = System.nanoTime();
         String sql = "DELETE FROM users WHERE user_id = ?";
 
         Connection conn = null;
@@ -180,11 +316,13 @@ public class UserRepository {
             stmt.setInt(1, userId);
             stmt.executeUpdate();
         } finally {
+            metrics.recordTime("user.repository.deleteById", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
     public boolean assignUserToTeam(int userId, Integer teamId) throws SQLException {
+        long startNanos = System.nanoTime();
         String sql = "UPDATE users SET team_id = ? WHERE user_id = ?";
 
         Connection conn = null;
@@ -201,11 +339,13 @@ public class UserRepository {
                 return stmt.executeUpdate() > 0;
             }
         } finally {
+            metrics.recordTime("user.repository.assignUserToTeam", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
     public boolean updateUserSalary(int userId, BigDecimal monthlySalary, LocalDate effectiveDate) throws SQLException {
+        long startNanos = System.nanoTime();
         String sql = "UPDATE users SET monthly_salary = ?, salary_effective_date = ? WHERE user_id = ?";
 
         Connection conn = null;
@@ -219,25 +359,37 @@ public class UserRepository {
                 return stmt.executeUpdate() > 0;
             }
         } finally {
+            metrics.recordTime("user.repository.updateUserSalary", startNanos);
             dbConfig.returnConnection(conn);
         }
     }
 
-    public List<User> findUsersWithSalary() throws SQLException {
-        String sql = """
-            SELECT u.*, r.role_name, t.team_name 
-            FROM users u 
-            LEFT JOIN roles r ON u.role_id = r.role_id 
-            LEFT JOIN teams t ON u.team_id = t.team_id 
-            WHERE u.monthly_salary > 0 AND u.salary_effective_date IS NOT NULL
-            ORDER BY u.name
-            """;
+    public boolean updatePasswordHash(int userId, String passwordHash) throws SQLException {
+        long startNanos = System.nanoTime();
+        String sql = "UPDATE users SET password_hash = ? WHERE user_id = ?";
 
         Connection conn = null;
-        List<User> users = new ArrayList<>();
         try {
             conn = dbConfig.getConnection();
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, passwordHash);
+                stmt.setInt(2, userId);
+
+                return stmt.executeUpdate() > 0;
+            }
+        } finally {
+            metrics.recordTime("user.repository.updatePasswordHash", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    public List<User> findUsersWithSalary() throws SQLException {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        List<User> users = new ArrayList<>();
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_USERS_WITH_SALARY_SQL)) {
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
                         users.add(mapResultSetToUser(rs));
@@ -245,6 +397,7 @@ public class UserRepository {
                 }
             }
         } finally {
+            metrics.recordTime("user.repository.findUsersWithSalary", startNanos);
             dbConfig.returnConnection(conn);
         }
         return users;
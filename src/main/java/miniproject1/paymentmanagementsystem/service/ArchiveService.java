@@ -0,0 +1,147 @@
+package miniproject1.paymentmanagementsystem.service;
+
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+import miniproject1.paymentmanagementsystem.model.AuditTrail;
+import miniproject1.paymentmanagementsystem.model.Payment;
+import miniproject1.paymentmanagementsystem.repository.AuditTrailRepository;
+import miniproject1.paymentmanagementsystem.repository.PaymentArchive;
+import miniproject1.paymentmanagementsystem.repository.PaymentRepository;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Moves closed payments older than archive.after.months, together with their audit trail, from the
+ * database into the PaymentArchive files. Each batch is written and fsynced before it is deleted.
+ * Every console instance starts an archiver, so a pass runs only while it holds a database advisory
+ * lock; the others skip theirs instead of archiving the same rows twice.
+ */
+public class ArchiveService {
+    // Session-level advisory lock, released explicitly before the connection goes back to the pool
+    private static final long ARCHIVE_LOCK_KEY = 0x504d41L;
+
+    private final DatabaseConfig dbConfig;
+    private final PaymentRepository paymentRepository;
+    private final AuditTrailRepository auditTrailRepository;
+    private final PaymentArchive archive;
+    private final int archiveAfterMonths;
+    private final int chunkRows;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private ScheduledExecutorService archiveExecutor;
+
+    public ArchiveService() throws SQLException, IOException {
+        this.dbConfig = DatabaseConfig.getInstance();
+        this.paymentRepository = new PaymentRepository();
+        this.auditTrailRepository = new AuditTrailRepository();
+        this.archive = new PaymentArchive(Paths.get(dbConfig.getProperty("archive.dir", "archive")));
+        this.archiveAfterMonths = dbConfig.getIntProperty("archive.after.months", 18);
+        this.chunkRows = dbConfig.getIntProperty("archive.chunk.rows", 1000);
+    }
+
+    /**
+     * Archive every eligible payment in batches of archive.chunk.rows
+     *
+     * @return number of payments archived, 0 when another instance is archiving
+     */
+    public int archiveClosedPayments() throws SQLException, IOException {
+        long startNanos = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(archiveAfterMonths);
+        int archived = 0;
+        Connection lockConn = null;
+        try {
+            lockConn = dbConfig.getConnection();
+            if (!advisoryLock(lockConn, "pg_try_advisory_lock")) {
+                metrics.increment("archive.pass.skipped");
+                return 0;
+            }
+            try {
+                List<Payment> batch;
+                while (!(batch = paymentRepository.findClosedBefore(cutoff, chunkRows)).isEmpty()) {
+                    archiveBatch(batch, cutoff);
+                    archived += batch.size();
+                }
+                return archived;
+            } finally {
+                advisoryLock(lockConn, "pg_advisory_unlock");
+            }
+        } finally {
+            metrics.recordTime("archive.service.archiveClosedPayments", startNanos);
+            dbConfig.returnConnection(lockConn);
+        }
+    }
+
+    private static boolean advisoryLock(Connection conn, String function) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT " + function + "(" + ARCHIVE_LOCK_KEY + ")")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private void archiveBatch(List<Payment> batch, LocalDateTime cutoff) throws SQLException, IOException {
+        List<Integer> paymentIds = batch.stream().map(Payment::getPaymentId).collect(Collectors.toList());
+        List<AuditTrail> auditTrails = auditTrailRepository.findByPaymentIds(paymentIds);
+
+        // Audit rows are filed under their payment's month so both halves of a payment share a file suffix
+        Map<Integer, YearMonth> paymentMonths = batch.stream()
+                .collect(Collectors.toMap(Payment::getPaymentId, p -> YearMonth.from(p.getPaymentDate())));
+        Map<YearMonth, List<Payment>> paymentsByMonth = batch.stream()
+                .collect(Collectors.groupingBy(p -> YearMonth.from(p.getPaymentDate()), TreeMap::new, Collectors.toList()));
+        Map<YearMonth, List<AuditTrail>> auditsByMonth = auditTrails.stream()
+                .collect(Collectors.groupingBy(a -> paymentMonths.get(a.getPaymentId()), TreeMap::new, Collectors.toList()));
+
+        for (Map.Entry<YearMonth, List<Payment>> entry : paymentsByMonth.entrySet()) {
+            archive.appendAuditTrails(entry.getKey(), auditsByMonth.getOrDefault(entry.getKey(), List.of()));
+            archive.appendPayments(entry.getKey(), entry.getValue());
+        }
+
+        List<Integer> auditIds = auditTrails.stream().map(AuditTrail::getAuditId).collect(Collectors.toList());
+        paymentRepository.deleteArchived(paymentIds, auditIds, cutoff);
+        metrics.increment("archive.payments.archived", batch.size());
+        metrics.increment("archive.audit.archived", auditTrails.size());
+    }
+
+    /**
+     * Run the archival job every intervalHours on a daemon thread
+     */
+    public synchronized void start(long intervalHours) {
+        if (intervalHours <= 0 || archiveExecutor != null) {
+            return;
+        }
+        archiveExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        archiveExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                int archived = archiveClosedPayments();
+                if (archived > 0) {
+                    System.out.println("Archived " + archived + " closed payments");
+                }
+            } catch (SQLException | IOException e) {
+                System.err.println("Payment archival failed: " + e.getMessage());
+            }
+        }, 0, intervalHours, TimeUnit.HOURS);
+    }
+
+    public synchronized void shutdown() {
+        if (archiveExecutor != null) {
+            archiveExecutor.shutdown();
+            archiveExecutor = null;
+        }
+    }
+}
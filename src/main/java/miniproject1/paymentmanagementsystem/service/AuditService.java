@@ -4,6 +4,7 @@ import miniproject1.paymentmanagementsystem.model.AuditTrail;
 import miniproject1.paymentmanagementsystem.model.Payment;
 import miniproject1.paymentmanagementsystem.model.User;
 import miniproject1.paymentmanagementsystem.repository.AuditTrailRepository;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
 
 import java.io.IOException;
 import java.sql.SQLException;
@@ -15,6 +16,7 @@ import java.util.concurrent.Executors;
 public class AuditService {
     private final AuditTrailRepository auditTrailRepository;
     private final ExecutorService executorService;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
 
     public AuditService() throws SQLException, IOException {
         this.auditTrailRepository = new AuditTrailRepository();
@@ -22,6 +24,7 @@ public class AuditService {
     }
 
     public CompletableFuture<Void> logPaymentCreation(Payment payment, User user) {
+        long startNanos = System.nanoTime();
         return CompletableFuture.runAsync(() -> {
             try {
                 AuditTrail auditTrail = new AuditTrail(
@@ -36,10 +39,12 @@ public class AuditService {
                 // Log error (you might want to use a logging framework)
                 System.err.println("Failed to log payment creation: " + e.getMessage());
             }
-        }, executorService);
+        }, executorService)
+                .whenComplete((result, error) -> metrics.recordTime("audit.service.logPaymentCreation", startNanos));
     }
 
     public CompletableFuture<Void> logStatusChange(Payment payment, User user, String newStatus) {
+        long startNanos = System.nanoTime();
         return CompletableFuture.runAsync(() -> {
             try {
                 AuditTrail auditTrail = new AuditTrail(
@@ -54,10 +59,12 @@ public class AuditService {
                 // Log error
                 System.err.println("Failed to log status change: " + e.getMessage());
             }
-        }, executorService);
+        }, executorService)
+                .whenComplete((result, error) -> metrics.recordTime("audit.service.logStatusChange", startNanos));
     }
 
     public CompletableFuture<Void> logPaymentDeletion(Payment payment, User user) {
+        long startNanos = System.nanoTime();
         return CompletableFuture.runAsync(() -> {
             try {
                 AuditTrail auditTrail = new AuditTrail(
@@ -72,11 +79,33 @@ public class AuditService {
                 // Log error
                 System.err.println("Failed to log payment deletion: " + e.getMessage());
             }
-        }, executorService);
+        }, executorService)
+                .whenComplete((result, error) -> metrics.recordTime("audit.service.logPaymentDeletion", startNanos));
     }
 
     public List<AuditTrail> getPaymentAuditHistory(int paymentId) throws SQLException {
-        return auditTrailRepository.findByPaymentId(paymentId);
+        long startNanos = System.nanoTime();
+        try {
+            List<AuditTrail> history = auditTrailRepository.findByPaymentId(paymentId);
+            // Archived payments take their audit rows with them
+            return history.isEmpty() ? auditTrailRepository.findArchivedByPaymentId(paymentId) : history;
+        } finally {
+            metrics.recordTime("audit.service.getPaymentAuditHistory", startNanos);
+        }
+    }
+
+    /**
+     * Same as getPaymentAuditHistory(int) but bounded by the payment's date, so only the partitions
+     * from that month onwards are read
+     */
+    public List<AuditTrail> getPaymentAuditHistory(Payment payment) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            List<AuditTrail> history = auditTrailRepository.findByPaymentId(payment.getPaymentId(), payment.getPaymentDate());
+            return history.isEmpty() ? auditTrailRepository.findArchivedByPaymentId(payment.getPaymentId()) : history;
+        } finally {
+            metrics.recordTime("audit.service.getPaymentAuditHistory", startNanos);
+        }
     }
 
     public void shutdown() {
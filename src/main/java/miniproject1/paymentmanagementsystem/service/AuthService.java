@@ -1,54 +1,87 @@
 package miniproject1.paymentmanagementsystem.service;
 
 
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
 import miniproject1.paymentmanagementsystem.dto.LoginRequestDTO;
 import miniproject1.paymentmanagementsystem.dto.UserDTO;
 import miniproject1.paymentmanagementsystem.exception.AuthenticationException;
 import miniproject1.paymentmanagementsystem.model.User;
 import miniproject1.paymentmanagementsystem.repository.UserRepository;
+import miniproject1.paymentmanagementsystem.util.LoginRateLimiter;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
 import miniproject1.paymentmanagementsystem.util.PasswordUtil;
 import miniproject1.paymentmanagementsystem.util.ValidationUtil;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class AuthService {
     private final UserRepository userRepository;
     private final ConcurrentHashMap<String, User> loggedInUsers;
+    private final LoginRateLimiter loginRateLimiter;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
 
     public AuthService() throws SQLException, IOException {
         this.userRepository = new UserRepository();
         this.loggedInUsers = new ConcurrentHashMap<>();
+
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        this.loginRateLimiter = new LoginRateLimiter(
+                config.getIntProperty("login.max.attempts", 5),
+                config.getIntProperty("login.window.seconds", 300) * 1000L,
+                config.getIntProperty("login.max.tracked.keys", 10000));
+        metrics.gauge("auth.login.throttled", loginRateLimiter::getThrottledAttempts);
+        metrics.gauge("auth.login.tracked.keys", loginRateLimiter::getTrackedKeys);
     }
 
     public User authenticate(LoginRequestDTO loginRequest) throws AuthenticationException {
+        long startNanos = System.nanoTime();
         try {
             if (!ValidationUtil.isValidEmail(loginRequest.getEmail())) {
                 throw new AuthenticationException("Invalid email format");
             }
 
+            // Reject over-limit attempts before spending a DB lookup or BCrypt verify on them
+            String throttleKey = loginRequest.getEmail().toLowerCase(Locale.ROOT);
+            if (!loginRateLimiter.tryAcquire(throttleKey)) {
+                throw new AuthenticationException("Too many login attempts. Please try again later");
+            }
+
             Optional<User> userOpt = userRepository.findByEmail(loginRequest.getEmail());
             if (userOpt.isEmpty()) {
                 throw new AuthenticationException("User not found");
             }
 
             User user = userOpt.get();
-            if (!PasswordUtil.verifyPassword(loginRequest.getPassword(), user.getPasswordHash())) {
+            if (!awaitHashing(PasswordUtil.verifyPasswordAsync(loginRequest.getPassword(), user.getPasswordHash()))) {
                 throw new AuthenticationException("Invalid password");
             }
 
+            // Upgrade hashes created with an older cost factor while we still have the plain password
+            if (PasswordUtil.needsRehash(user.getPasswordHash())) {
+                rehashPassword(user, loginRequest.getPassword());
+            }
+
             // Store logged in user
+            loginRateLimiter.reset(throttleKey);
             loggedInUsers.put(user.getEmail(), user);
             return user;
 
         } catch (SQLException e) {
             throw new AuthenticationException("Database error during authentication", e);
+        } finally {
+            metrics.recordTime("auth.service.authenticate", startNanos);
         }
     }
 
     public User registerUser(UserDTO userDTO) throws AuthenticationException {
+        long startNanos = System.nanoTime();
         try {
             // Validate input
             if (!ValidationUtil.isValidEmail(userDTO.getEmail())) {
@@ -70,7 +103,7 @@ public class AuthService {
             }
 
             // Create new user
-            String hashedPassword = PasswordUtil.hashPassword(userDTO.getPassword());
+            String hashedPassword = awaitHashing(PasswordUtil.hashPasswordAsync(userDTO.getPassword()));
             int roleId = getRoleIdByName(userDTO.getRoleName());
 
             User user = new User(userDTO.getName(), userDTO.getEmail(), hashedPassword, roleId);
@@ -78,6 +111,8 @@ public class AuthService {
 
         } catch (SQLException e) {
             throw new AuthenticationException("Database error during registration", e);
+        } finally {
+            metrics.recordTime("auth.service.registerUser", startNanos);
         }
     }
 
@@ -93,6 +128,36 @@ public class AuthService {
         return loggedInUsers.get(email);
     }
 
+    public long getThrottledLoginAttempts() {
+        return loginRateLimiter.getThrottledAttempts();
+    }
+
+    private <T> T awaitHashing(CompletableFuture<T> future) throws AuthenticationException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationException("Authentication interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new AuthenticationException("Authentication service is busy, please try again", e.getCause());
+            }
+            throw new AuthenticationException("Error during password hashing", e.getCause());
+        }
+    }
+
+    private void rehashPassword(User user, String password) {
+        // Fire and forget: a failed or rejected rehash is simply retried on the next login
+        PasswordUtil.hashPasswordAsync(password).thenAccept(newHash -> {
+            try {
+                userRepository.updatePasswordHash(user.getUserId(), newHash);
+                user.setPasswordHash(newHash);
+            } catch (SQLException e) {
+                System.err.println("Failed to rehash password for " + user.getEmail() + ": " + e.getMessage());
+            }
+        });
+    }
+
     private int getRoleIdByName(String roleName) {
         // Default role mapping - you might want to make this dynamic
         switch (roleName.toLowerCase()) {
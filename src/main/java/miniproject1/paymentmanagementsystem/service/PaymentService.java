@@ -8,6 +8,7 @@ import miniproject1.paymentmanagementsystem.model.Payment;
 import miniproject1.paymentmanagementsystem.model.User;
 import miniproject1.paymentmanagementsystem.repository.PaymentRepository;
 import miniproject1.paymentmanagementsystem.repository.StatusRepository;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
 import miniproject1.paymentmanagementsystem.util.ValidationUtil;
 
 import java.io.IOException;
@@ -24,6 +25,7 @@ public class PaymentService {
     private final StatusRepository statusRepository;
     private final AuditService auditService;
     private final ExecutorService executorService;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
 
     public PaymentService() throws SQLException, IOException {
         this.paymentRepository = new PaymentRepository();
@@ -33,6 +35,7 @@ public class PaymentService {
     }
 
     public CompletableFuture<Payment> createPayment(PaymentDTO paymentDTO, User currentUser) {
+        long startNanos = System.nanoTime();
         return CompletableFuture.supplyAsync(() -> {
             try {
                 // Validate input
@@ -70,10 +73,12 @@ public class PaymentService {
             } catch (Exception e) {
                 throw new RuntimeException("Error creating payment", e);
             }
-        }, executorService);
+        }, executorService)
+                .whenComplete((result, error) -> metrics.recordTime("payment.service.createPayment", startNanos));
     }
 
     public List<Payment> getPaymentsByUser(User currentUser) throws PaymentException {
+        long startNanos = System.nanoTime();
         try {
             String role = currentUser.getRole().getRoleName().toLowerCase();
 
@@ -88,10 +93,13 @@ public class PaymentService {
             }
         } catch (SQLException | AuthorizationException e) {
             throw new PaymentException("Error retrieving payments", e);
+        } finally {
+            metrics.recordTime("payment.service.getPaymentsByUser", startNanos);
         }
     }
 
     public CompletableFuture<Void> approvePayment(int paymentId, User currentUser) {
+        long startNanos = System.nanoTime();
         return CompletableFuture.runAsync(() -> {
             try {
                 if (!hasApprovalPermission(currentUser)) {
@@ -112,7 +120,7 @@ public class PaymentService {
                 }
 
                 // Update status
-                paymentRepository.updateStatus(paymentId, approvedStatus.getStatusId());
+                paymentRepository.updateStatus(paymentId, payment.getPaymentDate(), approvedStatus.getStatusId());
 
                 // Log audit trail
                 auditService.logStatusChange(payment, currentUser, "APPROVED");
@@ -120,10 +128,12 @@ public class PaymentService {
             } catch (Exception e) {
                 throw new RuntimeException("Error approving payment", e);
             }
-        }, executorService);
+        }, executorService)
+                .whenComplete((result, error) -> metrics.recordTime("payment.service.approvePayment", startNanos));
     }
 
     public CompletableFuture<Void> rejectPayment(int paymentId, User currentUser) {
+        long startNanos = System.nanoTime();
         return CompletableFuture.runAsync(() -> {
             try {
                 if (!hasApprovalPermission(currentUser)) {
@@ -144,7 +154,7 @@ public class PaymentService {
                 }
 
                 // Update status
-                paymentRepository.updateStatus(paymentId, rejectedStatus.getStatusId());
+                paymentRepository.updateStatus(paymentId, payment.getPaymentDate(), rejectedStatus.getStatusId());
 
                 // Log audit trail
                 auditService.logStatusChange(payment, currentUser, "REJECTED");
@@ -152,10 +162,31 @@ public class PaymentService {
             } catch (Exception e) {
                 throw new RuntimeException("Error rejecting payment", e);
             }
-        }, executorService);
+        }, executorService)
+                .whenComplete((result, error) -> metrics.recordTime("payment.service.rejectPayment", startNanos));
+    }
+
+    /**
+     * Look up a single payment, including ones already moved to the archive
+     */
+    public Optional<Payment> getPaymentById(int paymentId, User currentUser) throws PaymentException {
+        long startNanos = System.nanoTime();
+        try {
+            Optional<Payment> payment = paymentRepository.findByIdIncludingArchive(paymentId);
+            boolean isViewer = "viewer".equalsIgnoreCase(currentUser.getRole().getRoleName());
+            if (payment.isPresent() && isViewer && payment.get().getCreatedByUserId() != currentUser.getUserId()) {
+                throw new AuthorizationException("Viewers can only see their own payments");
+            }
+            return payment;
+        } catch (SQLException | AuthorizationException e) {
+            throw new PaymentException("Error retrieving payment", e);
+        } finally {
+            metrics.recordTime("payment.service.getPaymentById", startNanos);
+        }
     }
 
     public List<Payment> getPaymentsByStatus(String statusName, User currentUser) throws PaymentException {
+        long startNanos = System.nanoTime();
         try {
             List<Payment> allPayments = getPaymentsByUser(currentUser);
 
@@ -165,10 +196,13 @@ public class PaymentService {
 
         } catch (Exception e) {
             throw new PaymentException("Error filtering payments by status", e);
+        } finally {
+            metrics.recordTime("payment.service.getPaymentsByStatus", startNanos);
         }
     }
 
     public CompletableFuture<Void> deletePayment(int paymentId, User currentUser) {
+        long startNanos = System.nanoTime();
         return CompletableFuture.runAsync(() -> {
             try {
                 if (!hasDeletePermission(currentUser)) {
@@ -186,12 +220,13 @@ public class PaymentService {
                 auditService.logPaymentDeletion(payment, currentUser);
 
                 // Delete payment
-                paymentRepository.deleteById(paymentId);
+                paymentRepository.deleteById(paymentId, payment.getPaymentDate());
 
             } catch (Exception e) {
                 throw new RuntimeException("Error deleting payment", e);
             }
-        }, executorService);
+        }, executorService)
+                .whenComplete((result, error) -> metrics.recordTime("payment.service.deletePayment", startNanos));
     }
 
     private boolean hasApprovalPermission(User user) {
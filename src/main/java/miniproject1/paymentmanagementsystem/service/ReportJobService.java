@@ -0,0 +1,217 @@
+package miniproject1.paymentmanagementsystem.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+import miniproject1.paymentmanagementsystem.exception.PaymentException;
+import miniproject1.paymentmanagementsystem.model.ReportJob;
+import miniproject1.paymentmanagementsystem.model.User;
+import miniproject1.paymentmanagementsystem.repository.ReportJobRepository;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs heavy reports in the background and keeps their results, as gzipped JSON, in report_results
+ * until report.jobs.result.ttl.hours after completion. Jobs run on report.jobs.workers threads behind a
+ * bounded queue, and each job builds its report one month at a time, so report jobs never hold more
+ * than report.jobs.workers pooled connections between them.
+ */
+public class ReportJobService {
+    private static ReportJobService instance;
+
+    private final ReportJobRepository reportJobRepository;
+    private final ThreadPoolExecutor jobExecutor;
+    private final ScheduledExecutorService cleanupExecutor;
+    private final long resultTtlHours;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    private ReportJobService() throws SQLException, IOException {
+        DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+        this.reportJobRepository = new ReportJobRepository();
+        this.resultTtlHours = dbConfig.getIntProperty("report.jobs.result.ttl.hours", 24);
+
+        int workers = dbConfig.getIntProperty("report.jobs.workers", 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.jobExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(dbConfig.getIntProperty("report.jobs.queue.capacity", 16)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        metrics.gauge("report.jobs.queued", () -> jobExecutor.getQueue().size());
+        metrics.gauge("report.jobs.running", jobExecutor::getActiveCount);
+
+        // Workers from a previous run are gone, so their jobs can never finish
+        int abandoned = reportJobRepository.failUnfinished(LocalDateTime.now().plusHours(resultTtlHours));
+        if (abandoned > 0) {
+            System.out.println("Marked " + abandoned + " interrupted report jobs as failed");
+        }
+
+        this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "report-result-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long cleanupMinutes = dbConfig.getIntProperty("report.jobs.cleanup.interval.minutes", 60);
+        cleanupExecutor.scheduleWithFixedDelay(this::deleteExpiredResults, cleanupMinutes, cleanupMinutes, TimeUnit.MINUTES);
+    }
+
+    public static synchronized ReportJobService getInstance() throws SQLException, IOException {
+        if (instance == null) {
+            instance = new ReportJobService();
+        }
+        return instance;
+    }
+
+    /**
+     * Queue a report for the months from startMonth to endMonth inclusive
+     *
+     * @param reportType ReportJob.TYPE_PERIOD or ReportJob.TYPE_ORG
+     */
+    public ReportJob submit(String reportType, YearMonth startMonth, YearMonth endMonth, User requester)
+            throws SQLException, PaymentException {
+        if (!ReportJob.TYPE_PERIOD.equals(reportType) && !ReportJob.TYPE_ORG.equals(reportType)) {
+            throw new PaymentException("Unknown report type: " + reportType);
+        }
+        if (endMonth.isBefore(startMonth)) {
+            throw new PaymentException("End month must not be before start month");
+        }
+
+        ReportJob job = reportJobRepository.save(new ReportJob(reportType, startMonth, endMonth, requester.getUserId()));
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            reportJobRepository.fail(job.getJobId(), "Report job queue is full", expiry());
+            metrics.increment("report.jobs.rejected");
+            throw new PaymentException("Too many report jobs are waiting, please try again later");
+        }
+        metrics.increment("report.jobs.submitted");
+        return job;
+    }
+
+    public Optional<ReportJob> getJob(long jobId) throws SQLException {
+        return reportJobRepository.findById(jobId);
+    }
+
+    public List<ReportJob> getJobsForUser(User user, int limit) throws SQLException {
+        return reportJobRepository.findByRequester(user.getUserId(), limit);
+    }
+
+    /**
+     * The report of a completed, unexpired job: a ReportService.PeriodReport or ReportService.OrgReport
+     * depending on the job's type
+     */
+    public Optional<Object> getResult(ReportJob job) throws SQLException, IOException {
+        Optional<byte[]> compressed = reportJobRepository.findResult(job.getJobId());
+        if (compressed.isEmpty()) {
+            return Optional.empty();
+        }
+        Class<?> reportClass = ReportJob.TYPE_ORG.equals(job.getReportType())
+                ? ReportService.OrgReport.class : ReportService.PeriodReport.class;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.get()))) {
+            return Optional.of(objectMapper.readValue(in, reportClass));
+        }
+    }
+
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        cleanupExecutor.shutdownNow();
+    }
+
+    private void run(ReportJob job) {
+        long startNanos = System.nanoTime();
+        try {
+            reportJobRepository.markRunning(job.getJobId());
+            Object report = ReportJob.TYPE_ORG.equals(job.getReportType()) ? runOrgReport(job) : runPeriodReport(job);
+            reportJobRepository.complete(job.getJobId(), compress(report), expiry());
+            metrics.increment("report.jobs.completed");
+        } catch (Exception e) {
+            metrics.increment("report.jobs.failed");
+            System.err.println("Report job " + job.getJobId() + " failed: " + e.getMessage());
+            try {
+                reportJobRepository.fail(job.getJobId(), e.getMessage(), expiry());
+            } catch (SQLException failError) {
+                System.err.println("Could not record failure of report job " + job.getJobId() + ": " + failError.getMessage());
+            }
+        } finally {
+            metrics.recordTime("report.jobs.run", startNanos);
+        }
+    }
+
+    /**
+     * One month at a time: each step holds a single connection, is answered from the report cache
+     * when the month is closed and already computed, and advances the job's progress
+     */
+    private ReportService.PeriodReport runPeriodReport(ReportJob job) throws Exception {
+        ReportService reportService = new ReportService();
+        int totalMonths = (int) job.getStartMonth().until(job.getEndMonth(), ChronoUnit.MONTHS) + 1;
+        List<ReportService.MonthlyReport> months = new ArrayList<>(totalMonths);
+        int lastProgress = 0;
+        for (int i = 0; i < totalMonths; i++) {
+            YearMonth month = job.getStartMonth().plusMonths(i);
+            months.add(reportService.generateMonthlyReport(month.getYear(), month.getMonthValue()));
+
+            // Progress is written in steps of at least 5% so long jobs don't flood the table with updates
+            int progress = (i + 1) * 99 / totalMonths;
+            if (progress - lastProgress >= 5) {
+                reportJobRepository.updateProgress(job.getJobId(), progress);
+                lastProgress = progress;
+            }
+        }
+        return reportService.combineMonthlyReports(months, job.getStartMonth(), job.getEndMonth());
+    }
+
+    private ReportService.OrgReport runOrgReport(ReportJob job) throws Exception {
+        return new ReportService().generateOrgReport(job.getStartMonth(), job.getEndMonth());
+    }
+
+    private byte[] compress(Object report) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, report);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void deleteExpiredResults() {
+        try {
+            int deleted = reportJobRepository.deleteExpired();
+            metrics.increment("report.jobs.expired", deleted);
+        } catch (SQLException e) {
+            System.err.println("Report result cleanup failed: " + e.getMessage());
+        }
+    }
+
+    private LocalDateTime expiry() {
+        return LocalDateTime.now().plusHours(resultTtlHours);
+    }
+}
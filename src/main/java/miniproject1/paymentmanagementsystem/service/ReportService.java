@@ -1,58 +1,223 @@
 package miniproject1.paymentmanagementsystem.service;
 
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+import miniproject1.paymentmanagementsystem.model.AmountBucket;
+import miniproject1.paymentmanagementsystem.model.Balance;
+import miniproject1.paymentmanagementsystem.model.BucketTotal;
 import miniproject1.paymentmanagementsystem.model.Payment;
+import miniproject1.paymentmanagementsystem.model.ReportDimension;
+import miniproject1.paymentmanagementsystem.model.ReportGranularity;
+import miniproject1.paymentmanagementsystem.model.TeamSpend;
+import miniproject1.paymentmanagementsystem.repository.BalanceRepository;
+import miniproject1.paymentmanagementsystem.repository.PaymentColumnStore;
 import miniproject1.paymentmanagementsystem.repository.PaymentRepository;
+import miniproject1.paymentmanagementsystem.repository.TeamReportRepository;
+import miniproject1.paymentmanagementsystem.repository.TimeSeriesRepository;
 import miniproject1.paymentmanagementsystem.repository.UserRepository;
+import miniproject1.paymentmanagementsystem.util.AmountSketch;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
+import miniproject1.paymentmanagementsystem.util.ReportCache;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class ReportService {
-    private final PaymentRepository paymentRepository;
+    // Shared by every ReportService; the admin console creates a new service per report
+    private static ForkJoinPool reportPool;
+    // Reports being computed right now, keyed by kind and range
+    private static final Map<String, CompletableFuture<Object>> IN_FLIGHT_REPORTS = new ConcurrentHashMap<>();
+
+    // Dimensions of the monthly and quarterly reports
+    private static final Set<ReportDimension> MONTHLY_DIMENSIONS =
+            EnumSet.of(ReportDimension.STATUS, ReportDimension.TYPE, ReportDimension.CATEGORY);
+
     private final UserRepository userRepository;
+    private final BalanceRepository balanceRepository;
+    private final TeamReportRepository teamReportRepository;
+    private final TimeSeriesRepository timeSeriesRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentColumnStore columnStore = PaymentColumnStore.getInstance();
+    private final ReportCache reportCache;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final int parallelThresholdMonths;
 
     public ReportService() throws Exception {
-        this.paymentRepository = new PaymentRepository();
         this.userRepository = new UserRepository();
+        this.balanceRepository = new BalanceRepository();
+        this.teamReportRepository = new TeamReportRepository();
+        this.timeSeriesRepository = new TimeSeriesRepository();
+        this.paymentRepository = new PaymentRepository();
+        this.reportCache = ReportCache.getInstance();
+        this.parallelThresholdMonths = DatabaseConfig.getInstance().getIntProperty("report.parallel.threshold.months", 6);
     }
 
     /**
-     * Generate monthly report for a specific month and year
+     * Each parallel segment holds a pooled connection while it queries, so by default the report pool is
+     * no wider than half the connection pool, leaving the rest for interactive work
      */
-    public MonthlyReport generateMonthlyReport(int year, int month) throws SQLException {
-        YearMonth yearMonth = YearMonth.of(year, month);
-        LocalDate startDate = yearMonth.atDay(1);
-        LocalDate endDate = yearMonth.atEndOfMonth();
+    private static synchronized ForkJoinPool reportPool() throws SQLException, IOException {
+        if (reportPool == null) {
+            DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+            int defaultParallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                    dbConfig.getIntProperty("db.pool.size", 10) / 2));
+            reportPool = new ForkJoinPool(dbConfig.getIntProperty("report.parallelism", defaultParallelism));
+        }
+        return reportPool;
+    }
 
-        List<Payment> payments = getPaymentsByDateRange(startDate, endDate);
-        return createMonthlyReport(payments, yearMonth);
+    /**
+     * Generate monthly report for a specific month and year. Reports for closed months are
+     * cached until a payment dated in that month changes.
+     */
+    public MonthlyReport generateMonthlyReport(int year, int month) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            YearMonth yearMonth = YearMonth.of(year, month);
+            return sharedReport("monthly", yearMonth, yearMonth, MonthlyReport.class, () -> {
+                if (columnStore.isLoaded()) {
+                    return createMonthlyReport(columnStore.summarizeMonths(yearMonth, yearMonth).get(0));
+                }
+                return generateMonthlyReports(yearMonth, yearMonth).get(0);
+            });
+        } finally {
+            metrics.recordTime("report.service.generateMonthlyReport", startNanos);
+        }
     }
 
     /**
      * Generate quarterly report for a specific quarter and year
      */
     public QuarterlyReport generateQuarterlyReport(int year, int quarter) throws SQLException {
-        if (quarter < 1 || quarter > 4) {
-            throw new IllegalArgumentException("Quarter must be between 1 and 4");
+        long startNanos = System.nanoTime();
+        try {
+            if (quarter < 1 || quarter > 4) {
+                throw new IllegalArgumentException("Quarter must be between 1 and 4");
+            }
+
+            // Calculate quarter date range
+            int startMonth = (quarter - 1) * 3 + 1;
+            YearMonth startYearMonth = YearMonth.of(year, startMonth);
+            YearMonth endYearMonth = startYearMonth.plusMonths(2);
+
+            return sharedReport("quarterly", startYearMonth, endYearMonth, QuarterlyReport.class, () -> {
+                ReportSegment segment = aggregateMonths(startYearMonth, endYearMonth);
+                return createQuarterlyReport(segment, year, quarter,
+                        startYearMonth.atDay(1), endYearMonth.atEndOfMonth());
+            });
+        } finally {
+            metrics.recordTime("report.service.generateQuarterlyReport", startNanos);
         }
+    }
 
-        // Calculate quarter date range
-        int startMonth = (quarter - 1) * 3 + 1;
-        YearMonth startYearMonth = YearMonth.of(year, startMonth);
-        YearMonth endYearMonth = startYearMonth.plusMonths(2);
+    /**
+     * Generate yearly report for a specific year
+     */
+    public PeriodReport generateYearlyReport(int year) throws SQLException {
+        return generatePeriodReport(YearMonth.of(year, 1), YearMonth.of(year, 12));
+    }
 
-        LocalDate startDate = startYearMonth.atDay(1);
-        LocalDate endDate = endYearMonth.atEndOfMonth();
+    /**
+     * Generate report for the months from startMonth to endMonth inclusive. Ranges of at least
+     * report.parallel.threshold.months months are aggregated month by month in parallel.
+     */
+    public PeriodReport generatePeriodReport(YearMonth startMonth, YearMonth endMonth) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            if (endMonth.isBefore(startMonth)) {
+                throw new IllegalArgumentException("End month must not be before start month");
+            }
+
+            return sharedReport("period", startMonth, endMonth, PeriodReport.class, () -> {
+                ReportSegment segment = aggregateMonths(startMonth, endMonth);
+                return createPeriodReport(segment, startMonth.atDay(1), endMonth.atEndOfMonth());
+            });
+        } finally {
+            metrics.recordTime("report.service.generatePeriodReport", startNanos);
+        }
+    }
+
+    /**
+     * The limit largest payments of each category dated from startMonth to endMonth inclusive, largest
+     * first, keyed by category name. Never loads the whole ledger: the database ranks payments per
+     * category with a window function, or, once the column store is loaded, its scan keeps a bounded
+     * heap per category and only the winning payments are fetched.
+     */
+    public Map<String, List<Payment>> getLargestPayments(YearMonth startMonth, YearMonth endMonth, int limit) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            if (endMonth.isBefore(startMonth)) {
+                throw new IllegalArgumentException("End month must not be before start month");
+            }
+            if (limit < 1) {
+                throw new IllegalArgumentException("Limit must be at least 1");
+            }
 
-        List<Payment> payments = getPaymentsByDateRange(startDate, endDate);
-        return createQuarterlyReport(payments, year, quarter, startDate, endDate);
+            Map<String, List<Payment>> largest = new TreeMap<>();
+            if (columnStore.isLoaded()) {
+                Map<String, int[]> largestIds = columnStore.largestPaymentIds(startMonth, endMonth, limit);
+                List<Integer> paymentIds = new ArrayList<>();
+                largestIds.values().forEach(ids -> Arrays.stream(ids).forEach(paymentIds::add));
+
+                Map<Integer, Payment> paymentsById = new HashMap<>();
+                for (Payment payment : paymentRepository.findByIds(paymentIds)) {
+                    paymentsById.put(payment.getPaymentId(), payment);
+                }
+                largestIds.forEach((category, ids) -> {
+                    List<Payment> payments = new ArrayList<>(ids.length);
+                    for (int paymentId : ids) {
+                        // Absent if deleted between the scan and the fetch
+                        Payment payment = paymentsById.get(paymentId);
+                        if (payment != null) {
+                            payments.add(payment);
+                        }
+                    }
+                    largest.put(category, payments);
+                });
+                return largest;
+            }
+
+            for (Payment payment : paymentRepository.findLargestByCategory(startMonth.atDay(1).atStartOfDay(),
+                    endMonth.plusMonths(1).atDay(1).atStartOfDay(), limit)) {
+                largest.computeIfAbsent(payment.getCategory().getCategoryName(), category -> new ArrayList<>()).add(payment);
+            }
+            return largest;
+        } finally {
+            metrics.recordTime("report.service.getLargestPayments", startNanos);
+        }
+    }
+
+    /**
+     * Combine monthly reports, e.g. ones generated one at a time, into the report for startMonth to endMonth
+     */
+    public PeriodReport combineMonthlyReports(List<MonthlyReport> months, YearMonth startMonth, YearMonth endMonth) {
+        ReportSegment segment = new ReportSegment();
+        for (MonthlyReport month : months) {
+            segment.addMonth(month);
+        }
+        return createPeriodReport(segment, startMonth.atDay(1), endMonth.atEndOfMonth());
     }
 
     /**
@@ -72,69 +237,318 @@ public class ReportService {
         return generateQuarterlyReport(today.getYear(), quarter);
     }
 
-    private List<Payment> getPaymentsByDateRange(LocalDate startDate, LocalDate endDate) throws SQLException {
-        List<Payment> allPayments = paymentRepository.findAll();
-        return allPayments.stream()
-                .filter(payment -> {
-                    LocalDate paymentDate = payment.getPaymentDate().toLocalDate();
-                    return !paymentDate.isBefore(startDate) && !paymentDate.isAfter(endDate);
-                })
-                .collect(Collectors.toList());
+    /**
+     * Running totals of a team's payments for a month, one entry per type and status
+     */
+    public List<Balance> getTeamBalances(int teamId, YearMonth month) throws SQLException {
+        return balanceRepository.findTeamBalances(teamId, month);
     }
 
-    private MonthlyReport createMonthlyReport(List<Payment> payments, YearMonth yearMonth) {
-        MonthlyReport report = new MonthlyReport();
-        report.setYear(yearMonth.getYear());
-        report.setMonth(yearMonth.getMonthValue());
-        report.setMonthName(yearMonth.getMonth().name());
+    /**
+     * Running totals of a user's payments for a month, one entry per type and status
+     */
+    public List<Balance> getUserBalances(int userId, YearMonth month) throws SQLException {
+        return balanceRepository.findUserBalances(userId, month);
+    }
 
-        // Calculate totals
-        report.setTotalPayments(payments.size());
-        report.setTotalAmount(calculateTotalAmount(payments));
+    /**
+     * Total amount of a team's payments of the given type and status for a month,
+     * e.g. approved DEBIT payments this month
+     */
+    public BigDecimal getTeamTotal(int teamId, YearMonth month, String type, String statusName) throws SQLException {
+        return getTeamBalances(teamId, month).stream()
+                .filter(balance -> balance.getType().equalsIgnoreCase(type)
+                        && balance.getStatusName().equalsIgnoreCase(statusName))
+                .map(Balance::getTotalAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
 
-        // Calculate by status
-        Map<String, Integer> paymentsByStatus = new HashMap<>();
-        Map<String, BigDecimal> amountsByStatus = new HashMap<>();
+    /**
+     * Generate organization report broken down by team, month, status and category for
+     * the months from startMonth to endMonth inclusive. All figures come from one query.
+     */
+    public OrgReport generateOrgReport(YearMonth startMonth, YearMonth endMonth) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            if (endMonth.isBefore(startMonth)) {
+                throw new IllegalArgumentException("End month must not be before start month");
+            }
 
-        for (Payment payment : payments) {
-            String status = payment.getStatus().getStatusName();
-            paymentsByStatus.merge(status, 1, Integer::sum);
-            amountsByStatus.merge(status, payment.getAmount(), BigDecimal::add);
+            List<TeamSpend> rows = teamReportRepository.findTeamRollup(
+                    startMonth.atDay(1).atStartOfDay(), endMonth.plusMonths(1).atDay(1).atStartOfDay());
+            return createOrgReport(rows, startMonth, endMonth);
+        } finally {
+            metrics.recordTime("report.service.generateOrgReport", startNanos);
         }
+    }
 
-        report.setPaymentsByStatus(paymentsByStatus);
-        report.setAmountsByStatus(amountsByStatus);
+    /**
+     * Serve a report from the cache, or compute it. Concurrent callers asking for the same report
+     * wait for the first caller's computation instead of starting their own.
+     */
+    private <T> T sharedReport(String kind, YearMonth first, YearMonth last, Class<T> type,
+                               ReportComputation<T> computation) throws SQLException {
+        T cached = reportCache.get(kind, first, last, type);
+        if (cached != null) {
+            return cached;
+        }
 
-        // Calculate by type
-        Map<String, Integer> paymentsByType = new HashMap<>();
-        Map<String, BigDecimal> amountsByType = new HashMap<>();
+        String key = kind + ":" + first + ":" + last;
+        CompletableFuture<Object> inFlight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = IN_FLIGHT_REPORTS.putIfAbsent(key, inFlight);
+        if (leader != null) {
+            metrics.increment("report.service.coalesced");
+            try {
+                return type.cast(leader.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+        }
 
-        for (Payment payment : payments) {
-            String type = payment.getType();
-            paymentsByType.merge(type, 1, Integer::sum);
-            amountsByType.merge(type, payment.getAmount(), BigDecimal::add);
+        metrics.increment("report.service.computed");
+        try {
+            long stamp = reportCache.stamp();
+            T report = computation.compute();
+            reportCache.put(kind, first, last, report, stamp);
+            inFlight.complete(report);
+            return report;
+        } catch (Throwable e) {
+            inFlight.completeExceptionally(e);
+            throw e;
+        } finally {
+            IN_FLIGHT_REPORTS.remove(key, inFlight);
         }
+    }
 
-        report.setPaymentsByType(paymentsByType);
-        report.setAmountsByType(amountsByType);
+    @FunctionalInterface
+    private interface ReportComputation<T> {
+        T compute() throws SQLException;
+    }
 
-        // Calculate by category
-        Map<String, Integer> paymentsByCategory = new HashMap<>();
-        Map<String, BigDecimal> amountsByCategory = new HashMap<>();
+    /**
+     * Monthly reports for every month from first to last that has payments, plus their totals
+     */
+    private ReportSegment aggregateMonths(YearMonth first, YearMonth last) throws SQLException {
+        // The column store answers any range in microseconds, so there is nothing to parallelize
+        if (columnStore.isLoaded()) {
+            ReportSegment segment = new ReportSegment();
+            for (PaymentColumnStore.Summary summary : columnStore.summarizeMonths(first, last)) {
+                segment.addMonth(createMonthlyReport(summary));
+            }
+            return segment;
+        }
+
+        ReportSegment cached = cachedSegment(first, last);
+        if (cached != null) {
+            return cached;
+        }
+
+        int months = (int) first.until(last, ChronoUnit.MONTHS) + 1;
+        if (months < parallelThresholdMonths) {
+            // One query for the whole range, bucketed by month in the database
+            ReportSegment segment = new ReportSegment();
+            for (MonthlyReport month : generateMonthlyReports(first, last)) {
+                segment.addMonth(month);
+            }
+            return segment;
+        }
+
+        metrics.increment("report.service.parallelReports");
+        try {
+            return reportPool().invoke(new MonthRangeTask(first, months));
+        } catch (IOException e) {
+            throw new SQLException("Could not read report configuration", e);
+        } catch (RuntimeException e) {
+            // Segments wrap their SQLException to get it through the pool; hand the original back
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Splits a month range in halves until each task covers one month, which it queries and aggregates
+     * on its own. Every task builds its own maps, so nothing is shared until the merge on the way back up.
+     */
+    private class MonthRangeTask extends RecursiveTask<ReportSegment> {
+        private final YearMonth first;
+        private final int months;
 
-        for (Payment payment : payments) {
-            String category = payment.getCategory().getCategoryName();
-            paymentsByCategory.merge(category, 1, Integer::sum);
-            amountsByCategory.merge(category, payment.getAmount(), BigDecimal::add);
+        private MonthRangeTask(YearMonth first, int months) {
+            this.first = first;
+            this.months = months;
         }
 
-        report.setPaymentsByCategory(paymentsByCategory);
-        report.setAmountsByCategory(amountsByCategory);
+        @Override
+        protected ReportSegment compute() {
+            if (months == 1) {
+                try {
+                    ReportSegment segment = new ReportSegment();
+                    segment.addMonth(generateMonthlyReports(first, first).get(0));
+                    return segment;
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
 
+            int half = months / 2;
+            MonthRangeTask left = new MonthRangeTask(first, half);
+            MonthRangeTask right = new MonthRangeTask(first.plusMonths(half), months - half);
+            left.fork();
+            ReportSegment rightSegment = right.compute();
+            return left.join().merge(rightSegment);
+        }
+    }
+
+    /**
+     * Aggregate payments dated in [from, to) into buckets of the given width, broken down by each of
+     * the dimensions. Bucketing and aggregation run in the database; every bucket overlapping the range
+     * is returned, empty or not, and the first and last may be partial.
+     */
+    public TimeSeriesReport generateTimeSeriesReport(LocalDateTime from, LocalDateTime to, ReportGranularity granularity,
+                                                     Set<ReportDimension> dimensions) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            if (!from.isBefore(to)) {
+                throw new IllegalArgumentException("Range start must be before range end");
+            }
+
+            List<BucketTotal> rows = timeSeriesRepository.findBucketTotals(from, to, granularity, dimensions);
+            return createTimeSeriesReport(rows, from, to, granularity, dimensions);
+        } finally {
+            metrics.recordTime("report.service.generateTimeSeriesReport", startNanos);
+        }
+    }
+
+    /**
+     * One monthly report per month from first to last, empty months included. Closed months are cached
+     * one by one, so later quarters and years over them are merged from the cache instead of queried.
+     */
+    private List<MonthlyReport> generateMonthlyReports(YearMonth first, YearMonth last) throws SQLException {
+        long stamp = reportCache.stamp();
+        LocalDateTime from = first.atDay(1).atStartOfDay();
+        LocalDateTime to = last.plusMonths(1).atDay(1).atStartOfDay();
+        TimeSeriesReport series = generateTimeSeriesReport(from, to, ReportGranularity.MONTH, MONTHLY_DIMENSIONS);
+
+        Map<YearMonth, MonthlyReport> reports = new LinkedHashMap<>();
+        for (TimeBucket bucket : series.getBuckets()) {
+            reports.put(YearMonth.from(bucket.getBucketStart()), createMonthlyReport(bucket));
+        }
+        for (AmountBucket row : timeSeriesRepository.findAmountBuckets(from, to)) {
+            MonthlyReport report = reports.get(YearMonth.from(row.getMonth()));
+            Map<String, AmountSketch> sketches = row.getDimension() == ReportDimension.TEAM
+                    ? report.getAmountSketchesByTeam() : report.getAmountSketchesByCategory();
+            sketches.computeIfAbsent(row.getKey(), key -> new AmountSketch())
+                    .addBucket(row.getBucket(), row.getPaymentCount(), row.getMinCents(), row.getMaxCents());
+        }
+
+        reports.forEach((month, report) -> reportCache.put("monthly", month, month, report, stamp));
+        return new ArrayList<>(reports.values());
+    }
+
+    /**
+     * The months from first to last merged from cached monthly reports, or null unless every one is cached
+     */
+    private ReportSegment cachedSegment(YearMonth first, YearMonth last) {
+        if (!ReportCache.isClosed(last)) {
+            return null;
+        }
+        ReportSegment segment = new ReportSegment();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            MonthlyReport report = reportCache.get("monthly", month, month, MonthlyReport.class);
+            if (report == null) {
+                return null;
+            }
+            segment.addMonth(report);
+        }
+        metrics.increment("report.service.mergedFromMonths");
+        return segment;
+    }
+
+    private TimeSeriesReport createTimeSeriesReport(List<BucketTotal> rows, LocalDateTime from, LocalDateTime to,
+                                                    ReportGranularity granularity, Set<ReportDimension> dimensions) {
+        Map<LocalDate, TimeBucket> buckets = new LinkedHashMap<>();
+        for (LocalDate start = granularity.truncate(from.toLocalDate()); start.atStartOfDay().isBefore(to);
+             start = granularity.next(start)) {
+            TimeBucket bucket = new TimeBucket();
+            bucket.setBucketStart(start);
+            bucket.setTotalAmount(BigDecimal.ZERO);
+            bucket.setPaymentsByDimension(new EnumMap<>(ReportDimension.class));
+            bucket.setAmountsByDimension(new EnumMap<>(ReportDimension.class));
+            for (ReportDimension dimension : dimensions) {
+                bucket.getPaymentsByDimension().put(dimension, new HashMap<>());
+                bucket.getAmountsByDimension().put(dimension, new HashMap<>());
+            }
+            buckets.put(start, bucket);
+        }
+
+        for (BucketTotal row : rows) {
+            TimeBucket bucket = buckets.get(row.getBucketStart());
+            if (row.getDimension() == null) {
+                bucket.setTotalPayments(row.getPaymentCount());
+                bucket.setTotalAmount(row.getTotalAmount());
+            } else {
+                bucket.getPaymentsByDimension().get(row.getDimension()).put(row.getKey(), row.getPaymentCount());
+                bucket.getAmountsByDimension().get(row.getDimension()).put(row.getKey(), row.getTotalAmount());
+            }
+        }
+
+        TimeSeriesReport report = new TimeSeriesReport();
+        report.setFrom(from);
+        report.setTo(to);
+        report.setGranularity(granularity);
+        report.setDimensions(dimensions);
+        report.setBuckets(new ArrayList<>(buckets.values()));
         return report;
     }
 
-    private QuarterlyReport createQuarterlyReport(List<Payment> payments, int year, int quarter,
+    private MonthlyReport createMonthlyReport(TimeBucket bucket) {
+        MonthlyReport report = new MonthlyReport();
+        YearMonth yearMonth = YearMonth.from(bucket.getBucketStart());
+        report.setYear(yearMonth.getYear());
+        report.setMonth(yearMonth.getMonthValue());
+        report.setMonthName(yearMonth.getMonth().name());
+        report.setTotalPayments(bucket.getTotalPayments());
+        report.setTotalAmount(bucket.getTotalAmount());
+        report.setPaymentsByStatus(bucket.getPayments(ReportDimension.STATUS));
+        report.setAmountsByStatus(bucket.getAmounts(ReportDimension.STATUS));
+        report.setPaymentsByType(bucket.getPayments(ReportDimension.TYPE));
+        report.setAmountsByType(bucket.getAmounts(ReportDimension.TYPE));
+        report.setPaymentsByCategory(bucket.getPayments(ReportDimension.CATEGORY));
+        report.setAmountsByCategory(bucket.getAmounts(ReportDimension.CATEGORY));
+        report.setAmountSketchesByCategory(new HashMap<>());
+        report.setAmountSketchesByTeam(new HashMap<>());
+        return report;
+    }
+
+    private MonthlyReport createMonthlyReport(PaymentColumnStore.Summary summary) {
+        MonthlyReport report = new MonthlyReport();
+        report.setYear(summary.getMonth().getYear());
+        report.setMonth(summary.getMonth().getMonthValue());
+        report.setMonthName(summary.getMonth().getMonth().name());
+        report.setTotalPayments(summary.getTotalPayments());
+        report.setTotalAmount(summary.getTotalAmount());
+        report.setPaymentsByStatus(summary.getPaymentsByStatus());
+        report.setAmountsByStatus(summary.getAmountsByStatus());
+        report.setPaymentsByType(summary.getPaymentsByType());
+        report.setAmountsByType(summary.getAmountsByType());
+        report.setPaymentsByCategory(summary.getPaymentsByCategory());
+        report.setAmountsByCategory(summary.getAmountsByCategory());
+        report.setAmountSketchesByCategory(summary.getAmountSketchesByCategory());
+        report.setAmountSketchesByTeam(summary.getAmountSketchesByTeam());
+        return report;
+    }
+
+    private QuarterlyReport createQuarterlyReport(ReportSegment segment, int year, int quarter,
                                                 LocalDate startDate, LocalDate endDate) {
         QuarterlyReport report = new QuarterlyReport();
         report.setYear(year);
@@ -142,58 +556,180 @@ public class ReportService {
         report.setStartDate(startDate);
         report.setEndDate(endDate);
 
-        // Calculate totals
-        report.setTotalPayments(payments.size());
-        report.setTotalAmount(calculateTotalAmount(payments));
+        MonthlyReport totals = segment.totals;
+        report.setTotalPayments(totals.getTotalPayments());
+        report.setTotalAmount(totals.getTotalAmount());
+        report.setMonthlyBreakdown(segment.months);
+        report.setPaymentsByStatus(totals.getPaymentsByStatus());
+        report.setAmountsByStatus(totals.getAmountsByStatus());
+        report.setPaymentsByType(totals.getPaymentsByType());
+        report.setAmountsByType(totals.getAmountsByType());
+        report.setAmountSketchesByCategory(totals.getAmountSketchesByCategory());
+        report.setAmountSketchesByTeam(totals.getAmountSketchesByTeam());
 
-        // Group payments by month within the quarter
-        Map<YearMonth, List<Payment>> paymentsByMonth = payments.stream()
-                .collect(Collectors.groupingBy(p -> YearMonth.from(p.getPaymentDate())));
+        return report;
+    }
 
-        Map<String, MonthlyReport> monthlyReports = new HashMap<>();
-        for (Map.Entry<YearMonth, List<Payment>> entry : paymentsByMonth.entrySet()) {
-            YearMonth month = entry.getKey();
-            String monthKey = month.format(DateTimeFormatter.ofPattern("yyyy-MM"));
-            monthlyReports.put(monthKey, createMonthlyReport(entry.getValue(), month));
-        }
+    private PeriodReport createPeriodReport(ReportSegment segment, LocalDate startDate, LocalDate endDate) {
+        PeriodReport report = new PeriodReport();
+        report.setStartDate(startDate);
+        report.setEndDate(endDate);
+
+        MonthlyReport totals = segment.totals;
+        report.setTotalPayments(totals.getTotalPayments());
+        report.setTotalAmount(totals.getTotalAmount());
+        report.setMonthlyBreakdown(segment.months);
+        report.setPaymentsByStatus(totals.getPaymentsByStatus());
+        report.setAmountsByStatus(totals.getAmountsByStatus());
+        report.setPaymentsByType(totals.getPaymentsByType());
+        report.setAmountsByType(totals.getAmountsByType());
+        report.setPaymentsByCategory(totals.getPaymentsByCategory());
+        report.setAmountsByCategory(totals.getAmountsByCategory());
+        report.setAmountSketchesByCategory(totals.getAmountSketchesByCategory());
+        report.setAmountSketchesByTeam(totals.getAmountSketchesByTeam());
+
+        return report;
+    }
+
+    /**
+     * Sum two reports into a new one. The merge is associative and commutative, so partial
+     * reports can be combined in whatever order parallel segments finish.
+     */
+    static MonthlyReport mergeMonthlyReports(MonthlyReport a, MonthlyReport b) {
+        MonthlyReport merged = new MonthlyReport();
+        merged.setYear(a.getYear());
+        merged.setMonth(a.getMonth());
+        merged.setMonthName(a.getMonthName());
+        merged.setTotalPayments(a.getTotalPayments() + b.getTotalPayments());
+        merged.setTotalAmount(a.getTotalAmount().add(b.getTotalAmount()));
+        merged.setPaymentsByStatus(mergeCounts(a.getPaymentsByStatus(), b.getPaymentsByStatus()));
+        merged.setAmountsByStatus(mergeAmounts(a.getAmountsByStatus(), b.getAmountsByStatus()));
+        merged.setPaymentsByType(mergeCounts(a.getPaymentsByType(), b.getPaymentsByType()));
+        merged.setAmountsByType(mergeAmounts(a.getAmountsByType(), b.getAmountsByType()));
+        merged.setPaymentsByCategory(mergeCounts(a.getPaymentsByCategory(), b.getPaymentsByCategory()));
+        merged.setAmountsByCategory(mergeAmounts(a.getAmountsByCategory(), b.getAmountsByCategory()));
+        merged.setAmountSketchesByCategory(mergeSketches(a.getAmountSketchesByCategory(), b.getAmountSketchesByCategory()));
+        merged.setAmountSketchesByTeam(mergeSketches(a.getAmountSketchesByTeam(), b.getAmountSketchesByTeam()));
+        return merged;
+    }
+
+    private static Map<String, Integer> mergeCounts(Map<String, Integer> a, Map<String, Integer> b) {
+        Map<String, Integer> merged = new HashMap<>(a);
+        b.forEach((key, count) -> merged.merge(key, count, Integer::sum));
+        return merged;
+    }
 
-        report.setMonthlyBreakdown(monthlyReports);
+    private static Map<String, BigDecimal> mergeAmounts(Map<String, BigDecimal> a, Map<String, BigDecimal> b) {
+        Map<String, BigDecimal> merged = new HashMap<>(a);
+        b.forEach((key, amount) -> merged.merge(key, amount, BigDecimal::add));
+        return merged;
+    }
 
-        // Calculate by status for entire quarter
-        Map<String, Integer> paymentsByStatus = new HashMap<>();
-        Map<String, BigDecimal> amountsByStatus = new HashMap<>();
+    private static Map<String, AmountSketch> mergeSketches(Map<String, AmountSketch> a, Map<String, AmountSketch> b) {
+        Map<String, AmountSketch> merged = new HashMap<>(a);
+        b.forEach((key, sketch) -> merged.merge(key, sketch, AmountSketch::merge));
+        return merged;
+    }
 
-        for (Payment payment : payments) {
-            String status = payment.getStatus().getStatusName();
-            paymentsByStatus.merge(status, 1, Integer::sum);
-            amountsByStatus.merge(status, payment.getAmount(), BigDecimal::add);
+    private static MonthlyReport emptyMonthlyReport() {
+        MonthlyReport report = new MonthlyReport();
+        report.setTotalAmount(BigDecimal.ZERO);
+        report.setPaymentsByStatus(new HashMap<>());
+        report.setAmountsByStatus(new HashMap<>());
+        report.setPaymentsByType(new HashMap<>());
+        report.setAmountsByType(new HashMap<>());
+        report.setPaymentsByCategory(new HashMap<>());
+        report.setAmountsByCategory(new HashMap<>());
+        report.setAmountSketchesByCategory(new HashMap<>());
+        report.setAmountSketchesByTeam(new HashMap<>());
+        return report;
+    }
+
+    /**
+     * Monthly reports for a run of months and their running totals
+     */
+    private static class ReportSegment {
+        private final Map<String, MonthlyReport> months = new TreeMap<>();
+        private MonthlyReport totals = emptyMonthlyReport();
+
+        private void addMonth(MonthlyReport month) {
+            // Reports only list months that had payments
+            if (month.getTotalPayments() == 0) {
+                return;
+            }
+            months.put(YearMonth.of(month.getYear(), month.getMonth()).format(DateTimeFormatter.ofPattern("yyyy-MM")), month);
+            totals = mergeMonthlyReports(totals, month);
+        }
+
+        private ReportSegment merge(ReportSegment other) {
+            months.putAll(other.months);
+            totals = mergeMonthlyReports(totals, other.totals);
+            return this;
         }
+    }
+
+    private OrgReport createOrgReport(List<TeamSpend> rows, YearMonth startMonth, YearMonth endMonth) {
+        OrgReport report = new OrgReport();
+        report.setStartMonth(startMonth);
+        report.setEndMonth(endMonth);
+        report.setTotalAmount(BigDecimal.ZERO);
+
+        // Rows arrive in no particular order; key teams by id, with null for payments without a team
+        Map<Integer, TeamReport> teams = new LinkedHashMap<>();
+
+        for (TeamSpend row : rows) {
+            if (row.isAllTeams()) {
+                report.setTotalPayments(row.getPaymentCount());
+                report.setTotalAmount(row.getTotalAmount());
+                continue;
+            }
+
+            TeamReport team = teams.computeIfAbsent(row.getTeamId(), id -> {
+                TeamReport created = new TeamReport();
+                created.setTeamId(id);
+                created.setTeamName(id == null ? "Unassigned" : row.getTeamName());
+                created.setMonthlyBreakdown(new TreeMap<>());
+                return created;
+            });
 
-        report.setPaymentsByStatus(paymentsByStatus);
-        report.setAmountsByStatus(amountsByStatus);
+            if (row.getMonth() == null) {
+                team.setTotalPayments(row.getPaymentCount());
+                team.setTotalAmount(row.getTotalAmount());
+                continue;
+            }
 
-        // Calculate by type for entire quarter
-        Map<String, Integer> paymentsByType = new HashMap<>();
-        Map<String, BigDecimal> amountsByType = new HashMap<>();
+            String monthKey = row.getMonth().format(DateTimeFormatter.ofPattern("yyyy-MM"));
+            TeamMonthReport month = team.getMonthlyBreakdown().computeIfAbsent(monthKey, key -> {
+                TeamMonthReport created = new TeamMonthReport();
+                created.setMonth(row.getMonth());
+                created.setPaymentsByStatus(new HashMap<>());
+                created.setAmountsByStatus(new HashMap<>());
+                created.setPaymentsByCategory(new HashMap<>());
+                created.setAmountsByCategory(new HashMap<>());
+                return created;
+            });
 
-        for (Payment payment : payments) {
-            String type = payment.getType();
-            paymentsByType.merge(type, 1, Integer::sum);
-            amountsByType.merge(type, payment.getAmount(), BigDecimal::add);
+            if (row.getStatusName() != null) {
+                month.getPaymentsByStatus().put(row.getStatusName(), row.getPaymentCount());
+                month.getAmountsByStatus().put(row.getStatusName(), row.getTotalAmount());
+            } else if (row.getCategoryName() != null) {
+                month.getPaymentsByCategory().put(row.getCategoryName(), row.getPaymentCount());
+                month.getAmountsByCategory().put(row.getCategoryName(), row.getTotalAmount());
+            } else {
+                month.setTotalPayments(row.getPaymentCount());
+                month.setTotalAmount(row.getTotalAmount());
+            }
         }
 
-        report.setPaymentsByType(paymentsByType);
-        report.setAmountsByType(amountsByType);
+        // Named teams alphabetically, unassigned payments last
+        List<TeamReport> teamReports = new ArrayList<>(teams.values());
+        teamReports.sort(Comparator.comparing((TeamReport team) -> team.getTeamId() == null)
+                .thenComparing(TeamReport::getTeamName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        report.setTeams(teamReports);
 
         return report;
     }
 
-    private BigDecimal calculateTotalAmount(List<Payment> payments) {
-        return payments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     // Inner classes for report data structures
     public static class MonthlyReport {
         private int year;
@@ -207,6 +743,8 @@ public class ReportService {
         private Map<String, BigDecimal> amountsByType;
         private Map<String, Integer> paymentsByCategory;
         private Map<String, BigDecimal> amountsByCategory;
+        private Map<String, AmountSketch> amountSketchesByCategory;
+        private Map<String, AmountSketch> amountSketchesByTeam;
 
         // Getters and setters
         public int getYear() { return year; }
@@ -241,6 +779,12 @@ public class ReportService {
 
         public Map<String, BigDecimal> getAmountsByCategory() { return amountsByCategory; }
         public void setAmountsByCategory(Map<String, BigDecimal> amountsByCategory) { this.amountsByCategory = amountsByCategory; }
+
+        public Map<String, AmountSketch> getAmountSketchesByCategory() { return amountSketchesByCategory; }
+        public void setAmountSketchesByCategory(Map<String, AmountSketch> amountSketchesByCategory) { this.amountSketchesByCategory = amountSketchesByCategory; }
+
+        public Map<String, AmountSketch> getAmountSketchesByTeam() { return amountSketchesByTeam; }
+        public void setAmountSketchesByTeam(Map<String, AmountSketch> amountSketchesByTeam) { this.amountSketchesByTeam = amountSketchesByTeam; }
     }
 
     public static class QuarterlyReport {
@@ -254,6 +798,8 @@ public class ReportService {
         private Map<String, BigDecimal> amountsByStatus;
         private Map<String, Integer> paymentsByType;
         private Map<String, BigDecimal> amountsByType;
+        private Map<String, AmountSketch> amountSketchesByCategory;
+        private Map<String, AmountSketch> amountSketchesByTeam;
         private Map<String, MonthlyReport> monthlyBreakdown;
 
         // Getters and setters
@@ -287,7 +833,205 @@ public class ReportService {
         public Map<String, BigDecimal> getAmountsByType() { return amountsByType; }
         public void setAmountsByType(Map<String, BigDecimal> amountsByType) { this.amountsByType = amountsByType; }
 
+        public Map<String, AmountSketch> getAmountSketchesByCategory() { return amountSketchesByCategory; }
+        public void setAmountSketchesByCategory(Map<String, AmountSketch> amountSketchesByCategory) { this.amountSketchesByCategory = amountSketchesByCategory; }
+
+        public Map<String, AmountSketch> getAmountSketchesByTeam() { return amountSketchesByTeam; }
+        public void setAmountSketchesByTeam(Map<String, AmountSketch> amountSketchesByTeam) { this.amountSketchesByTeam = amountSketchesByTeam; }
+
+        public Map<String, MonthlyReport> getMonthlyBreakdown() { return monthlyBreakdown; }
+        public void setMonthlyBreakdown(Map<String, MonthlyReport> monthlyBreakdown) { this.monthlyBreakdown = monthlyBreakdown; }
+    }
+
+    public static class OrgReport {
+        private YearMonth startMonth;
+        private YearMonth endMonth;
+        private int totalPayments;
+        private BigDecimal totalAmount;
+        private List<TeamReport> teams;
+
+        // Getters and setters
+        public YearMonth getStartMonth() { return startMonth; }
+        public void setStartMonth(YearMonth startMonth) { this.startMonth = startMonth; }
+
+        public YearMonth getEndMonth() { return endMonth; }
+        public void setEndMonth(YearMonth endMonth) { this.endMonth = endMonth; }
+
+        public int getTotalPayments() { return totalPayments; }
+        public void setTotalPayments(int totalPayments) { this.totalPayments = totalPayments; }
+
+        public BigDecimal getTotalAmount() { return totalAmount; }
+        public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+        public List<TeamReport> getTeams() { return teams; }
+        public void setTeams(List<TeamReport> teams) { this.teams = teams; }
+    }
+
+    public static class TeamReport {
+        private Integer teamId;
+        private String teamName;
+        private int totalPayments;
+        private BigDecimal totalAmount;
+        private Map<String, TeamMonthReport> monthlyBreakdown;
+
+        // Getters and setters
+        public Integer getTeamId() { return teamId; }
+        public void setTeamId(Integer teamId) { this.teamId = teamId; }
+
+        public String getTeamName() { return teamName; }
+        public void setTeamName(String teamName) { this.teamName = teamName; }
+
+        public int getTotalPayments() { return totalPayments; }
+        public void setTotalPayments(int totalPayments) { this.totalPayments = totalPayments; }
+
+        public BigDecimal getTotalAmount() { return totalAmount; }
+        public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+        public Map<String, TeamMonthReport> getMonthlyBreakdown() { return monthlyBreakdown; }
+        public void setMonthlyBreakdown(Map<String, TeamMonthReport> monthlyBreakdown) { this.monthlyBreakdown = monthlyBreakdown; }
+    }
+
+    public static class TeamMonthReport {
+        private YearMonth month;
+        private int totalPayments;
+        private BigDecimal totalAmount;
+        private Map<String, Integer> paymentsByStatus;
+        private Map<String, BigDecimal> amountsByStatus;
+        private Map<String, Integer> paymentsByCategory;
+        private Map<String, BigDecimal> amountsByCategory;
+
+        // Getters and setters
+        public YearMonth getMonth() { return month; }
+        public void setMonth(YearMonth month) { this.month = month; }
+
+        public int getTotalPayments() { return totalPayments; }
+        public void setTotalPayments(int totalPayments) { this.totalPayments = totalPayments; }
+
+        public BigDecimal getTotalAmount() { return totalAmount; }
+        public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+        public Map<String, Integer> getPaymentsByStatus() { return paymentsByStatus; }
+        public void setPaymentsByStatus(Map<String, Integer> paymentsByStatus) { this.paymentsByStatus = paymentsByStatus; }
+
+        public Map<String, BigDecimal> getAmountsByStatus() { return amountsByStatus; }
+        public void setAmountsByStatus(Map<String, BigDecimal> amountsByStatus) { this.amountsByStatus = amountsByStatus; }
+
+        public Map<String, Integer> getPaymentsByCategory() { return paymentsByCategory; }
+        public void setPaymentsByCategory(Map<String, Integer> paymentsByCategory) { this.paymentsByCategory = paymentsByCategory; }
+
+        public Map<String, BigDecimal> getAmountsByCategory() { return amountsByCategory; }
+        public void setAmountsByCategory(Map<String, BigDecimal> amountsByCategory) { this.amountsByCategory = amountsByCategory; }
+    }
+
+    public static class PeriodReport {
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private int totalPayments;
+        private BigDecimal totalAmount;
+        private Map<String, Integer> paymentsByStatus;
+        private Map<String, BigDecimal> amountsByStatus;
+        private Map<String, Integer> paymentsByType;
+        private Map<String, BigDecimal> amountsByType;
+        private Map<String, Integer> paymentsByCategory;
+        private Map<String, BigDecimal> amountsByCategory;
+        private Map<String, AmountSketch> amountSketchesByCategory;
+        private Map<String, AmountSketch> amountSketchesByTeam;
+        private Map<String, MonthlyReport> monthlyBreakdown;
+
+        // Getters and setters
+        public LocalDate getStartDate() { return startDate; }
+        public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+        public LocalDate getEndDate() { return endDate; }
+        public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+        public int getTotalPayments() { return totalPayments; }
+        public void setTotalPayments(int totalPayments) { this.totalPayments = totalPayments; }
+
+        public BigDecimal getTotalAmount() { return totalAmount; }
+        public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+        public Map<String, Integer> getPaymentsByStatus() { return paymentsByStatus; }
+        public void setPaymentsByStatus(Map<String, Integer> paymentsByStatus) { this.paymentsByStatus = paymentsByStatus; }
+
+        public Map<String, BigDecimal> getAmountsByStatus() { return amountsByStatus; }
+        public void setAmountsByStatus(Map<String, BigDecimal> amountsByStatus) { this.amountsByStatus = amountsByStatus; }
+
+        public Map<String, Integer> getPaymentsByType() { return paymentsByType; }
+        public void setPaymentsByType(Map<String, Integer> paymentsByType) { this.paymentsByType = paymentsByType; }
+
+        public Map<String, BigDecimal> getAmountsByType() { return amountsByType; }
+        public void setAmountsByType(Map<String, BigDecimal> amountsByType) { this.amountsByType = amountsByType; }
+
+        public Map<String, Integer> getPaymentsByCategory() { return paymentsByCategory; }
+        public void setPaymentsByCategory(Map<String, Integer> paymentsByCategory) { this.paymentsByCategory = paymentsByCategory; }
+
+        public Map<String, BigDecimal> getAmountsByCategory() { return amountsByCategory; }
+        public void setAmountsByCategory(Map<String, BigDecimal> amountsByCategory) { this.amountsByCategory = amountsByCategory; }
+
+        public Map<String, AmountSketch> getAmountSketchesByCategory() { return amountSketchesByCategory; }
+        public void setAmountSketchesByCategory(Map<String, AmountSketch> amountSketchesByCategory) { this.amountSketchesByCategory = amountSketchesByCategory; }
+
+        public Map<String, AmountSketch> getAmountSketchesByTeam() { return amountSketchesByTeam; }
+        public void setAmountSketchesByTeam(Map<String, AmountSketch> amountSketchesByTeam) { this.amountSketchesByTeam = amountSketchesByTeam; }
+
         public Map<String, MonthlyReport> getMonthlyBreakdown() { return monthlyBreakdown; }
         public void setMonthlyBreakdown(Map<String, MonthlyReport> monthlyBreakdown) { this.monthlyBreakdown = monthlyBreakdown; }
     }
+
+    public static class TimeSeriesReport {
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private ReportGranularity granularity;
+        private Set<ReportDimension> dimensions;
+        private List<TimeBucket> buckets;
+
+        // Getters and setters
+        public LocalDateTime getFrom() { return from; }
+        public void setFrom(LocalDateTime from) { this.from = from; }
+
+        public LocalDateTime getTo() { return to; }
+        public void setTo(LocalDateTime to) { this.to = to; }
+
+        public ReportGranularity getGranularity() { return granularity; }
+        public void setGranularity(ReportGranularity granularity) { this.granularity = granularity; }
+
+        public Set<ReportDimension> getDimensions() { return dimensions; }
+        public void setDimensions(Set<ReportDimension> dimensions) { this.dimensions = dimensions; }
+
+        public List<TimeBucket> getBuckets() { return buckets; }
+        public void setBuckets(List<TimeBucket> buckets) { this.buckets = buckets; }
+    }
+
+    public static class TimeBucket {
+        private LocalDate bucketStart;
+        private int totalPayments;
+        private BigDecimal totalAmount;
+        private Map<ReportDimension, Map<String, Integer>> paymentsByDimension;
+        private Map<ReportDimension, Map<String, BigDecimal>> amountsByDimension;
+
+        // Getters and setters
+        public LocalDate getBucketStart() { return bucketStart; }
+        public void setBucketStart(LocalDate bucketStart) { this.bucketStart = bucketStart; }
+
+        public int getTotalPayments() { return totalPayments; }
+        public void setTotalPayments(int totalPayments) { this.totalPayments = totalPayments; }
+
+        public BigDecimal getTotalAmount() { return totalAmount; }
+        public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+        public Map<ReportDimension, Map<String, Integer>> getPaymentsByDimension() { return paymentsByDimension; }
+        public void setPaymentsByDimension(Map<ReportDimension, Map<String, Integer>> paymentsByDimension) { this.paymentsByDimension = paymentsByDimension; }
+
+        public Map<ReportDimension, Map<String, BigDecimal>> getAmountsByDimension() { return amountsByDimension; }
+        public void setAmountsByDimension(Map<ReportDimension, Map<String, BigDecimal>> amountsByDimension) { this.amountsByDimension = amountsByDimension; }
+
+        public Map<String, Integer> getPayments(ReportDimension dimension) {
+            return paymentsByDimension.getOrDefault(dimension, Collections.emptyMap());
+        }
+
+        public Map<String, BigDecimal> getAmounts(ReportDimension dimension) {
+            return amountsByDimension.getOrDefault(dimension, Collections.emptyMap());
+        }
+    }
 }
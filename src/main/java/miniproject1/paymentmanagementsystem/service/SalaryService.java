@@ -6,13 +6,18 @@ import miniproject1.paymentmanagementsystem.repository.CategoryRepository;
 import miniproject1.paymentmanagementsystem.repository.PaymentRepository;
 import miniproject1.paymentmanagementsystem.repository.StatusRepository;
 import miniproject1.paymentmanagementsystem.repository.UserRepository;
+import miniproject1.paymentmanagementsystem.util.MetricsRegistry;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class SalaryService {
     private final UserRepository userRepository;
@@ -20,6 +25,7 @@ public class SalaryService {
     private final CategoryRepository categoryRepository;
     private final StatusRepository statusRepository;
     private final AuditService auditService;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
 
     public SalaryService() throws Exception {
         this.userRepository = new UserRepository();
@@ -35,11 +41,43 @@ public class SalaryService {
     }
 
     public void generateSalaryPaymentsForMonth(YearMonth yearMonth) throws SQLException {
-        List<User> usersWithSalary = userRepository.findUsersWithSalary();
+        long startNanos = System.nanoTime();
+        try {
+            List<User> usersWithSalary = userRepository.findUsersWithSalary();
+
+            System.out.println("\n=== GENERATING MONTHLY SALARY PAYMENTS ===");
+            generateSalaryPayments(usersWithSalary, yearMonth);
+        } finally {
+            metrics.recordTime("salary.service.generateSalaryPaymentsForMonth", startNanos);
+        }
+    }
+
+    /**
+     * Re-run payroll for the given users only, e.g. after correcting their salaries.
+     * Users are loaded in one query and users already paid for the month are skipped.
+     *
+     * @return the number of salary payments generated
+     */
+    public int generateSalaryPaymentsForUsers(Collection<Integer> userIds, YearMonth yearMonth) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            Map<Integer, User> users = userRepository.findByIds(userIds);
+
+            System.out.println("\n=== RE-RUNNING SALARY PAYMENTS ===");
+            for (Integer userId : userIds) {
+                if (!users.containsKey(userId)) {
+                    System.out.println("⚠️  Skipping user ID " + userId + " - User not found");
+                }
+            }
+            return generateSalaryPayments(new ArrayList<>(users.values()), yearMonth);
+        } finally {
+            metrics.recordTime("salary.service.generateSalaryPaymentsForUsers", startNanos);
+        }
+    }
 
-        System.out.println("\n=== GENERATING MONTHLY SALARY PAYMENTS ===");
+    private int generateSalaryPayments(List<User> users, YearMonth yearMonth) throws SQLException {
         System.out.println("Month: " + yearMonth);
-        System.out.println("Eligible users: " + usersWithSalary.size());
+        System.out.println("Eligible users: " + users.size());
 
         int successCount = 0;
         int skipCount = 0;
@@ -47,7 +85,11 @@ public class SalaryService {
         Integer salaryCategoryId = getSalaryCategoryId();
         Integer approvedStatusId = getApprovedStatusId();
 
-        for (User user : usersWithSalary) {
+        // One query for everyone already paid this month instead of one per user
+        Set<Integer> alreadyPaid = paymentRepository.findSalaryPaidUserIds(
+                users.stream().map(User::getUserId).toList(), yearMonth.atDay(1), yearMonth.atEndOfMonth());
+
+        for (User user : users) {
             try {
                 // Check if user has salary and effective date
                 if (user.getMonthlySalary() == null || user.getMonthlySalary().compareTo(BigDecimal.ZERO) <= 0) {
@@ -71,7 +113,7 @@ public class SalaryService {
                 }
 
                 // Check if salary payment already exists for this month
-                if (salaryPaymentExistsForMonth(user.getUserId(), yearMonth)) {
+                if (alreadyPaid.contains(user.getUserId())) {
                     System.out.println("⚠️  Skipping " + user.getName() + " - Salary already paid for " + yearMonth);
                     skipCount++;
                     continue;
@@ -86,7 +128,7 @@ public class SalaryService {
                 salaryPayment.setStatusId(approvedStatusId); // Auto-approve salary payments
                 salaryPayment.setCreatedByUserId(user.getUserId()); // Salary is "created by" the user receiving it
                 salaryPayment.setTeamId(user.getTeamId());
-                salaryPayment.setPaymentDate(LocalDateTime.now());
+                salaryPayment.setPaymentDate(salaryPaymentDate(yearMonth));
 
                 // Save the payment
                 Payment createdPayment = paymentRepository.save(salaryPayment);
@@ -113,17 +155,22 @@ public class SalaryService {
         System.out.println("✓ Successfully generated: " + successCount + " payments");
         System.out.println("⚠️  Skipped: " + skipCount + " users");
         System.out.println("Total processed: " + (successCount + skipCount) + " users");
+        return successCount;
     }
 
     /**
-     * Check if a salary payment already exists for a user in a specific month
+     * Date a salary payment inside the month it pays for, so the already-paid check finds it when that
+     * month is run again: now for the current month, otherwise the last day of a past month or the first
+     * day of a future one
      */
-    private boolean salaryPaymentExistsForMonth(int userId, YearMonth yearMonth) throws SQLException {
-        // Check if there's already a salary payment for this user this month
-        LocalDate startOfMonth = yearMonth.atDay(1);
-        LocalDate endOfMonth = yearMonth.atEndOfMonth();
-
-        return paymentRepository.existsSalaryPaymentForUserInPeriod(userId, startOfMonth, endOfMonth);
+    private static LocalDateTime salaryPaymentDate(YearMonth yearMonth) {
+        YearMonth currentMonth = YearMonth.now();
+        if (yearMonth.equals(currentMonth)) {
+            return LocalDateTime.now();
+        }
+        return yearMonth.isBefore(currentMonth)
+                ? yearMonth.atEndOfMonth().atStartOfDay()
+                : yearMonth.atDay(1).atStartOfDay();
     }
 
     /**
@@ -166,36 +213,11 @@ public class SalaryService {
      * Generate salary payments for a specific user for the current month
      */
     public boolean generateSalaryForUser(int userId) throws SQLException {
-        var userOptional = userRepository.findByEmail(getUserEmailById(userId));
-        if (userOptional.isEmpty()) {
-            return false;
-        }
-
-        User user = userOptional.get();
-        YearMonth currentMonth = YearMonth.now();
-
-        // Check eligibility
-        if (user.getMonthlySalary() == null || user.getMonthlySalary().compareTo(BigDecimal.ZERO) <= 0) {
-            return false;
-        }
-
-        if (salaryPaymentExistsForMonth(userId, currentMonth)) {
-            return false; // Already paid this month
+        long startNanos = System.nanoTime();
+        try {
+            return generateSalaryPaymentsForUsers(List.of(userId), YearMonth.now()) > 0;
+        } finally {
+            metrics.recordTime("salary.service.generateSalaryForUser", startNanos);
         }
-
-        // Generate payment for this user only
-        List<User> singleUserList = List.of(user);
-        generateSalaryPaymentsForMonth(currentMonth);
-
-        return true;
-    }
-
-    private String getUserEmailById(int userId) throws SQLException {
-        List<User> allUsers = userRepository.findAll();
-        return allUsers.stream()
-                .filter(u -> u.getUserId() == userId)
-                .map(User::getEmail)
-                .findFirst()
-                .orElse("unknown@unknown.com");
     }
 }
@@ -0,0 +1,129 @@
+package miniproject1.paymentmanagementsystem.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable histogram of payment amounts for percentile estimates, laid out like HdrHistogram.
+ * Amounts are counted in cents in log-linear buckets: one bucket per cent below 1.28, and above that
+ * SUB_BUCKETS buckets per power of two, so every estimate is within 0.4% of an amount that was added.
+ * Merging adds bucket counts, so monthly sketches combine into quarters and years exactly as if the
+ * whole range had been counted at once.
+ */
+public class AmountSketch {
+    public static final int SUB_BUCKET_BITS = 7;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Bucket index -> payments in that bucket; sparse, since amounts cluster
+    private final TreeMap<Integer, Long> counts = new TreeMap<>();
+    private long count;
+    private long minCents = Long.MAX_VALUE;
+    private long maxCents = Long.MIN_VALUE;
+
+    public AmountSketch() {}
+
+    /**
+     * Bucket of an amount in cents. TimeSeriesRepository computes the same index in SQL.
+     */
+    public static int bucketIndex(long cents) {
+        if (cents < SUB_BUCKETS) {
+            return (int) Math.max(cents, 0);
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(cents) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (cents >>> shift);
+    }
+
+    public static long bucketLowerCents(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (index - shift * SUB_BUCKETS) << shift;
+    }
+
+    public static long bucketUpperCents(int index) {
+        return bucketLowerCents(index + 1) - 1;
+    }
+
+    public void add(BigDecimal amount) {
+        addCents(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public void addCents(long cents) {
+        counts.merge(bucketIndex(cents), 1L, Long::sum);
+        count++;
+        minCents = Math.min(minCents, cents);
+        maxCents = Math.max(maxCents, cents);
+    }
+
+    /**
+     * Add a bucket counted elsewhere, e.g. grouped in the database, with the extremes of its amounts
+     */
+    public void addBucket(int index, long bucketCount, long bucketMinCents, long bucketMaxCents) {
+        if (bucketCount <= 0) {
+            return;
+        }
+        counts.merge(index, bucketCount, Long::sum);
+        count += bucketCount;
+        minCents = Math.min(minCents, bucketMinCents);
+        maxCents = Math.max(maxCents, bucketMaxCents);
+    }
+
+    /**
+     * A new sketch counting everything in a and b; neither is modified
+     */
+    public static AmountSketch merge(AmountSketch a, AmountSketch b) {
+        AmountSketch merged = new AmountSketch();
+        for (AmountSketch sketch : new AmountSketch[] {a, b}) {
+            sketch.counts.forEach((index, bucketCount) -> merged.counts.merge(index, bucketCount, Long::sum));
+            merged.count += sketch.count;
+            merged.minCents = Math.min(merged.minCents, sketch.minCents);
+            merged.maxCents = Math.max(merged.maxCents, sketch.maxCents);
+        }
+        return merged;
+    }
+
+    /**
+     * Estimated amount at quantile q (0..1), e.g. 0.95 for p95; null if nothing was counted
+     */
+    public BigDecimal quantile(double q) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = Math.max(1, Math.min(count, (long) Math.ceil(q * count)));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : counts.entrySet()) {
+            seen += bucket.getValue();
+            if (seen >= rank) {
+                long lower = bucketLowerCents(bucket.getKey());
+                long middle = lower + (bucketUpperCents(bucket.getKey()) - lower) / 2;
+                return BigDecimal.valueOf(Math.max(minCents, Math.min(maxCents, middle)), 2);
+            }
+        }
+        return BigDecimal.valueOf(maxCents, 2);
+    }
+
+    public BigDecimal getP50() { return quantile(0.50); }
+
+    public BigDecimal getP95() { return quantile(0.95); }
+
+    public BigDecimal getP99() { return quantile(0.99); }
+
+    // Getters and Setters for the sketch's state, so reports holding sketches can be stored as JSON
+    public Map<Integer, Long> getCounts() { return counts; }
+    public void setCounts(Map<Integer, Long> counts) {
+        this.counts.clear();
+        this.counts.putAll(counts);
+    }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getMinCents() { return minCents; }
+    public void setMinCents(long minCents) { this.minCents = minCents; }
+
+    public long getMaxCents() { return maxCents; }
+    public void setMaxCents(long maxCents) { this.maxCents = maxCents; }
+}
@@ -1,90 +1,28 @@
 package miniproject1.paymentmanagementsystem.util;
 
+import miniproject1.paymentmanagementsystem.util.SchemaMigrator.Migration;
+
 import java.sql.*;
+import java.util.List;
 import java.util.Properties;
 
 public class DatabaseInitializer {
 
-    public static void initializeDatabase(Properties dbProperties) throws SQLException, ClassNotFoundException {
-        String fullUrl = dbProperties.getProperty("db.url");
-        String username = dbProperties.getProperty("db.username");
-        String password = dbProperties.getProperty("db.password");
-        String driver = dbProperties.getProperty("db.driver");
-
-        // Load PostgreSQL driver
-        Class.forName(driver);
-
-        // Extract database name
-        String[] urlParts = fullUrl.split("/");
-        String databaseName = urlParts[urlParts.length - 1];
-        String postgresUrl = fullUrl.substring(0, fullUrl.lastIndexOf('/')) + "/postgres";
-
-        System.out.println("Checking database existence...");
-
-        // Connect to postgres database to create target database if needed
-        try (Connection conn = DriverManager.getConnection(postgresUrl, username, password);
-             Statement stmt = conn.createStatement()) {
-
-            // Check if database exists
-            String checkDbQuery = "SELECT 1 FROM pg_database WHERE datname = '" + databaseName + "'";
-            boolean dbExists = stmt.executeQuery(checkDbQuery).next();
-
-            if (!dbExists) {
-                System.out.println("Creating database: " + databaseName);
-                stmt.executeUpdate("CREATE DATABASE " + databaseName);
-                System.out.println("Database created successfully!");
-            } else {
-                System.out.println("Database already exists: " + databaseName);
-            }
-        }
-
-        // Now connect to the target database and create schema
-        try (Connection conn = DriverManager.getConnection(fullUrl, username, password)) {
-            boolean isFirstTimeSetup = !schemaExists(conn);
-
-            System.out.println("First time setup: " + isFirstTimeSetup);
-
-            if (isFirstTimeSetup) {
-                System.out.println("Creating database schema...");
-                createSchema(conn);
-                System.out.println("Database schema created successfully!");
-
-                // Create default admin user on first setup
-                createDefaultAdminUser(conn);
-            } else {
-                System.out.println("Database schema already exists.");
-            }
-        }
-    }
-
-    private static boolean schemaExists(Connection conn) throws SQLException {
-        String checkQuery = """
-            SELECT COUNT(*) FROM information_schema.tables 
-            WHERE table_schema = 'public' 
-            AND table_name IN ('roles', 'teams', 'users', 'categories', 'status', 'payments', 'audit_trail')
-            """;
-
-        try (Statement stmt = conn.createStatement()) {
-            ResultSet rs = stmt.executeQuery(checkQuery);
-            if (rs.next()) {
-                return rs.getInt(1) == 7; // All 7 tables must exist (including teams)
-            }
-        }
-        return false;
-    }
-
-    private static void createSchema(Connection conn) throws SQLException {
-        String[] schemaStatements = {
-                // Create roles table
-                """
+    /**
+     * Ordered schema history. Never edit a migration that has shipped, append a new version instead.
+     */
+    static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Baseline schema", List.of(
+                    // Create roles table
+                    """
             CREATE TABLE roles (
                 role_id SERIAL PRIMARY KEY,
                 role_name VARCHAR(50) NOT NULL UNIQUE
             )
             """,
 
-                // Create teams table (without foreign key initially)
-                """
+                    // Create teams table (without foreign key initially)
+                    """
             CREATE TABLE teams (
                 team_id SERIAL PRIMARY KEY,
                 team_name VARCHAR(100) NOT NULL UNIQUE,
@@ -93,8 +31,8 @@ public class DatabaseInitializer {
             )
             """,
 
-                // Create users table
-                """
+                    // Create users table
+                    """
             CREATE TABLE users (
                 user_id SERIAL PRIMARY KEY,
                 name VARCHAR(100) NOT NULL,
@@ -109,24 +47,24 @@ public class DatabaseInitializer {
             )
             """,
 
-                // Create categories table
-                """
+                    // Create categories table
+                    """
             CREATE TABLE categories (
                 category_id SERIAL PRIMARY KEY,
                 category_name VARCHAR(100) NOT NULL UNIQUE
             )
             """,
 
-                // Create status table
-                """
+                    // Create status table
+                    """
             CREATE TABLE status (
                 status_id SERIAL PRIMARY KEY,
                 status_name VARCHAR(50) NOT NULL UNIQUE
             )
             """,
 
-                // Create payments table
-                """
+                    // Create payments table
+                    """
             CREATE TABLE payments (
                 payment_id SERIAL PRIMARY KEY,
                 amount DECIMAL(15,2) NOT NULL,
@@ -144,8 +82,8 @@ public class DatabaseInitializer {
             )
             """,
 
-                // Create audit_trail table
-                """
+                    // Create audit_trail table
+                    """
             CREATE TABLE audit_trail (
                 audit_id SERIAL PRIMARY KEY,
                 payment_id INTEGER NOT NULL,
@@ -159,23 +97,23 @@ public class DatabaseInitializer {
             )
             """,
 
-                // Add foreign key constraint to teams table (after users table is created)
-                """
+                    // Add foreign key constraint to teams table (after users table is created)
+                    """
             ALTER TABLE teams 
             ADD CONSTRAINT fk_teams_created_by 
             FOREIGN KEY (created_by_user_id) REFERENCES users(user_id)
             """,
 
-                // Insert default roles
-                """
+                    // Insert default roles
+                    """
             INSERT INTO roles (role_name) VALUES 
             ('admin'),
             ('finance_manager'),
             ('viewer')
             """,
 
-                // Insert default categories
-                """
+                    // Insert default categories
+                    """
             INSERT INTO categories (category_name) VALUES 
             ('Office Supplies'),
             ('Travel'),
@@ -184,40 +122,258 @@ public class DatabaseInitializer {
             ('Utilities')
             """,
 
-                // Insert default status values
-                """
+                    // Insert default status values
+                    """
             INSERT INTO status (status_name) VALUES 
             ('PENDING'),
             ('APPROVED'),
             ('REJECTED')
             """,
 
-                // Create indexes for better performance
-                "CREATE INDEX idx_payments_created_by ON payments(created_by_user_id)",
-                "CREATE INDEX idx_payments_status ON payments(status_id)",
-                "CREATE INDEX idx_payments_date ON payments(payment_date)",
-                "CREATE INDEX idx_payments_team ON payments(team_id)",
-                "CREATE INDEX idx_users_team ON users(team_id)",
-                "CREATE INDEX idx_audit_trail_payment ON audit_trail(payment_id)"
-        };
+                    // Create indexes for better performance
+                    "CREATE INDEX idx_payments_created_by ON payments(created_by_user_id)",
+                    "CREATE INDEX idx_payments_status ON payments(status_id)",
+                    "CREATE INDEX idx_payments_date ON payments(payment_date)",
+                    "CREATE INDEX idx_payments_team ON payments(team_id)",
+                    "CREATE INDEX idx_users_team ON users(team_id)",
+                    "CREATE INDEX idx_audit_trail_payment ON audit_trail(payment_id)"
+            )),
+
+            new Migration(2, "Composite and partial indexes", List.of(
+                    // findSalaryPaidUserIds: user and type, then range on date
+                    "CREATE INDEX idx_payments_user_type_date ON payments(created_by_user_id, type, payment_date)",
+
+                    // findByUserId: filter by user, ORDER BY payment_date DESC straight from the index
+                    "CREATE INDEX idx_payments_user_date ON payments(created_by_user_id, payment_date DESC)",
+
+                    // Salary runs scan a whole month of SALARY payments only
+                    "CREATE INDEX idx_payments_salary_date ON payments(payment_date, created_by_user_id) WHERE type = 'SALARY'",
+
+                    // findByPaymentId: newest audit entries first
+                    "CREATE INDEX idx_audit_trail_payment_time ON audit_trail(payment_id, change_timestamp DESC)",
+
+                    // findUsersWithSalary
+                    "CREATE INDEX idx_users_salaried ON users(name) WHERE monthly_salary > 0 AND salary_effective_date IS NOT NULL",
+
+                    // Superseded by the composite indexes above, which share the same leading column
+                    "DROP INDEX idx_payments_created_by",
+                    "DROP INDEX idx_audit_trail_payment"
+            )),
+
+            new Migration(3, "Monthly range partitions for payments and audit_trail", List.of(
+                    // A foreign key into a partitioned table needs its partition column, which audit_trail lacks
+                    "ALTER TABLE audit_trail DROP CONSTRAINT IF EXISTS audit_trail_payment_id_fkey",
+
+                    "ALTER TABLE payments RENAME TO payments_unpartitioned",
+                    "ALTER TABLE payments_unpartitioned RENAME CONSTRAINT payments_pkey TO payments_unpartitioned_pkey",
+                    "ALTER SEQUENCE payments_payment_id_seq OWNED BY NONE",
+                    // The key must include the partition column, so payment_id is only unique through its sequence
+                    """
+            CREATE TABLE payments (
+                payment_id INTEGER NOT NULL DEFAULT nextval('payments_payment_id_seq'),
+                amount DECIMAL(15,2) NOT NULL,
+                type VARCHAR(50) NOT NULL,
+                payment_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                description TEXT,
+                category_id INTEGER NOT NULL,
+                status_id INTEGER NOT NULL,
+                created_by_user_id INTEGER NOT NULL,
+                team_id INTEGER,
+                PRIMARY KEY (payment_id, payment_date),
+                FOREIGN KEY (category_id) REFERENCES categories(category_id),
+                FOREIGN KEY (status_id) REFERENCES status(status_id),
+                FOREIGN KEY (created_by_user_id) REFERENCES users(user_id),
+                FOREIGN KEY (team_id) REFERENCES teams(team_id)
+            ) PARTITION BY RANGE (payment_date)
+            """,
+                    "ALTER SEQUENCE payments_payment_id_seq OWNED BY payments.payment_id",
+                    "CREATE TABLE payments_default PARTITION OF payments DEFAULT",
+                    monthlyPartitions("payments", "payment_date", "payments_unpartitioned"),
+                    """
+            INSERT INTO payments (payment_id, amount, type, payment_date, description,
+                                  category_id, status_id, created_by_user_id, team_id)
+            SELECT payment_id, amount, type, payment_date, description,
+                   category_id, status_id, created_by_user_id, team_id
+            FROM payments_unpartitioned
+            """,
+                    "DROP TABLE payments_unpartitioned",
 
-        try (Statement stmt = conn.createStatement()) {
-            conn.setAutoCommit(false); // Start transaction
+                    "ALTER TABLE audit_trail RENAME TO audit_trail_unpartitioned",
+                    "ALTER TABLE audit_trail_unpartitioned RENAME CONSTRAINT audit_trail_pkey TO audit_trail_unpartitioned_pkey",
+                    "ALTER SEQUENCE audit_trail_audit_id_seq OWNED BY NONE",
+                    """
+            CREATE TABLE audit_trail (
+                audit_id INTEGER NOT NULL DEFAULT nextval('audit_trail_audit_id_seq'),
+                payment_id INTEGER NOT NULL,
+                user_id INTEGER NOT NULL,
+                action VARCHAR(50) NOT NULL,
+                change_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                old_value TEXT,
+                new_value TEXT,
+                PRIMARY KEY (audit_id, change_timestamp),
+                FOREIGN KEY (user_id) REFERENCES users(user_id)
+            ) PARTITION BY RANGE (change_timestamp)
+            """,
+                    "ALTER SEQUENCE audit_trail_audit_id_seq OWNED BY audit_trail.audit_id",
+                    "CREATE TABLE audit_trail_default PARTITION OF audit_trail DEFAULT",
+                    monthlyPartitions("audit_trail", "change_timestamp", "audit_trail_unpartitioned"),
+                    """
+            INSERT INTO audit_trail (audit_id, payment_id, user_id, action, change_timestamp, old_value, new_value)
+            SELECT audit_id, payment_id, user_id, action, change_timestamp, old_value, new_value
+            FROM audit_trail_unpartitioned
+            """,
+                    "DROP TABLE audit_trail_unpartitioned",
+
+                    // Indexes on the parent cascade to every current and future partition
+                    "CREATE INDEX idx_payments_status ON payments(status_id)",
+                    "CREATE INDEX idx_payments_date ON payments(payment_date)",
+                    "CREATE INDEX idx_payments_team ON payments(team_id)",
+                    "CREATE INDEX idx_payments_user_type_date ON payments(created_by_user_id, type, payment_date)",
+                    "CREATE INDEX idx_payments_user_date ON payments(created_by_user_id, payment_date DESC)",
+                    "CREATE INDEX idx_payments_salary_date ON payments(payment_date, created_by_user_id) WHERE type = 'SALARY'",
+                    "CREATE INDEX idx_audit_trail_payment_time ON audit_trail(payment_id, change_timestamp DESC)"
+            )),
+
+            new Migration(4, "Running per-user and per-team balances", List.of(
+                    // Pin each payment to its creator's team so balance updates always hit the same row
+                    """
+            UPDATE payments p SET team_id = u.team_id
+            FROM users u
+            WHERE p.team_id IS NULL AND u.user_id = p.created_by_user_id AND u.team_id IS NOT NULL
+            """,
+                    // Derived data, rebuilt from payments, so no foreign keys to block user or team deletes
+                    """
+            CREATE TABLE user_balances (
+                user_id INTEGER NOT NULL,
+                balance_month DATE NOT NULL,
+                type VARCHAR(50) NOT NULL,
+                status_id INTEGER NOT NULL,
+                payment_count INTEGER NOT NULL,
+                total_amount DECIMAL(17,2) NOT NULL,
+                PRIMARY KEY (user_id, balance_month, type, status_id)
+            )
+            """,
+                    """
+            CREATE TABLE team_balances (
+                team_id INTEGER NOT NULL,
+                balance_month DATE NOT NULL,
+                type VARCHAR(50) NOT NULL,
+                status_id INTEGER NOT NULL,
+                payment_count INTEGER NOT NULL,
+                total_amount DECIMAL(17,2) NOT NULL,
+                PRIMARY KEY (team_id, balance_month, type, status_id)
+            )
+            """,
+                    """
+            INSERT INTO user_balances (user_id, balance_month, type, status_id, payment_count, total_amount)
+            SELECT created_by_user_id, date_trunc('month', payment_date)::date, type, status_id, COUNT(*), SUM(amount)
+            FROM payments
+            GROUP BY 1, 2, 3, 4
+            """,
+                    """
+            INSERT INTO team_balances (team_id, balance_month, type, status_id, payment_count, total_amount)
+            SELECT team_id, date_trunc('month', payment_date)::date, type, status_id, COUNT(*), SUM(amount)
+            FROM payments
+            WHERE team_id IS NOT NULL
+            GROUP BY 1, 2, 3, 4
+            """
+            )),
+
+            new Migration(5, "Background report jobs and their results", List.of(
+                    // result holds the gzipped JSON report once the job completes
+                    """
+            CREATE TABLE report_results (
+                job_id BIGSERIAL PRIMARY KEY,
+                report_type VARCHAR(20) NOT NULL,
+                start_month DATE NOT NULL,
+                end_month DATE NOT NULL,
+                requested_by_user_id INTEGER NOT NULL,
+                status VARCHAR(20) NOT NULL,
+                progress INTEGER NOT NULL DEFAULT 0,
+                error_message TEXT,
+                result BYTEA,
+                created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                completed_at TIMESTAMP,
+                expires_at TIMESTAMP
+            )
+            """,
+                    "CREATE INDEX idx_report_results_requested_by ON report_results(requested_by_user_id, created_at DESC)",
+                    "CREATE INDEX idx_report_results_expires ON report_results(expires_at) WHERE expires_at IS NOT NULL"
+            ))
+    );
+
+    /**
+     * One partition per month from the oldest row of the source table (at most ten years back)
+     * through PartitionManager's default lead of three months. Names must match PartitionManager.
+     */
+    private static String monthlyPartitions(String table, String column, String sourceTable) {
+        return """
+            DO $$
+            DECLARE
+                month_start DATE;
+            BEGIN
+                FOR month_start IN
+                    SELECT generate_series(
+                        GREATEST(date_trunc('month', COALESCE((SELECT MIN(%2$s) FROM %3$s), LOCALTIMESTAMP)),
+                                 date_trunc('month', LOCALTIMESTAMP) - INTERVAL '10 years'),
+                        date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months',
+                        INTERVAL '1 month')::date
+                LOOP
+                    EXECUTE format('CREATE TABLE IF NOT EXISTS %%I PARTITION OF %1$s FOR VALUES FROM (%%L) TO (%%L)',
+                            '%1$s_' || to_char(month_start, 'YYYY_MM'), month_start, month_start + INTERVAL '1 month');
+                END LOOP;
+            END $$
+            """.formatted(table, column, sourceTable);
+    }
 
-            for (String statement : schemaStatements) {
-                String trimmed = statement.trim();
-                if (!trimmed.isEmpty()) {
-                    stmt.executeUpdate(trimmed);
-                }
-            }
+    /**
+     * Create the target database. Only needed when connecting to it failed with SQLState 3D000.
+     */
+    public static void createDatabase(Properties dbProperties) throws SQLException {
+        String fullUrl = dbProperties.getProperty("db.url");
+        String username = dbProperties.getProperty("db.username");
+        String password = dbProperties.getProperty("db.password");
+
+        // Extract database name
+        String[] urlParts = fullUrl.split("/");
+        String databaseName = urlParts[urlParts.length - 1];
+        String postgresUrl = fullUrl.substring(0, fullUrl.lastIndexOf('/')) + "/postgres";
+
+        // Connect to postgres database to create target database
+        try (Connection conn = DriverManager.getConnection(postgresUrl, username, password);
+             Statement stmt = conn.createStatement()) {
+            System.out.println("Creating database: " + databaseName);
+            stmt.executeUpdate("CREATE DATABASE " + databaseName);
+            System.out.println("Database created successfully!");
+        }
+    }
+
+    /**
+     * Apply pending migrations on the given connection, creating the default admin user when the
+     * baseline schema was just created.
+     */
+    public static void initializeSchema(Connection conn) throws SQLException {
+        List<Integer> executed = new SchemaMigrator(MIGRATIONS).migrate(conn, DatabaseInitializer::schemaExists);
+        if (executed.contains(1)) {
+            // Create default admin user on first setup
+            createDefaultAdminUser(conn);
+        }
+    }
+
+    private static boolean schemaExists(Connection conn) throws SQLException {
+        String checkQuery = """
+            SELECT COUNT(*) FROM information_schema.tables 
+            WHERE table_schema = 'public' 
+            AND table_name IN ('roles', 'teams', 'users', 'categories', 'status', 'payments', 'audit_trail')
+            """;
 
-            conn.commit();
-            conn.setAutoCommit(true);
-        } catch (SQLException e) {
-            conn.rollback();
-            conn.setAutoCommit(true);
-            throw e;
+        try (Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery(checkQuery);
+            if (rs.next()) {
+                return rs.getInt(1) == 7; // All 7 tables must exist (including teams)
+            }
         }
+        return false;
     }
 
     private static void createDefaultAdminUser(Connection conn) throws SQLException {
@@ -0,0 +1,192 @@
+package miniproject1.paymentmanagementsystem.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal in-process metrics: latency timers with percentile estimates, counters and gauges.
+ * Timers bucket samples into roughly 20%-wide exponential buckets, so percentiles are accurate to one bucket width.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private ScheduledExecutorService dumpExecutor;
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, k -> new Timer());
+    }
+
+    /**
+     * Record the time elapsed since startNanos (taken from System.nanoTime()) against the named timer
+     */
+    public void recordTime(String name, long startNanos) {
+        timer(name).record(System.nanoTime() - startNanos);
+    }
+
+    public void increment(String name) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).increment();
+    }
+
+    public void increment(String name, long amount) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(amount);
+    }
+
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Dump all metrics every intervalSeconds, appending to the given file or to stdout when file is null or blank.
+     * An interval of zero or less disables the dump.
+     */
+    public synchronized void startPeriodicDump(long intervalSeconds, String file) {
+        if (intervalSeconds <= 0 || dumpExecutor != null) {
+            return;
+        }
+        Path target = file == null || file.isBlank() ? null : Paths.get(file);
+        dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumpExecutor.scheduleAtFixedRate(() -> writeDump(target), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (dumpExecutor != null) {
+            dumpExecutor.shutdown();
+            dumpExecutor = null;
+        }
+    }
+
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("==== Metrics ").append(LocalDateTime.now()).append(" ====\n");
+        new TreeMap<>(timers).forEach((name, timer) -> {
+            if (timer.getCount() > 0) {
+                sb.append(String.format("timer   %-45s count=%d mean=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms%n",
+                        name, timer.getCount(), timer.getMeanMillis(), timer.percentileMillis(0.50),
+                        timer.percentileMillis(0.95), timer.percentileMillis(0.99), timer.getMaxMillis()));
+            }
+        });
+        new TreeMap<>(counters).forEach((name, counter) ->
+                sb.append(String.format("counter %-45s %d%n", name, counter.sum())));
+        new TreeMap<>(gauges).forEach((name, gauge) ->
+                sb.append(String.format("gauge   %-45s %d%n", name, gauge.getAsLong())));
+        return sb.toString();
+    }
+
+    private void writeDump(Path target) {
+        try {
+            String report = dump();
+            if (target == null) {
+                System.out.print(report);
+            } else {
+                Files.writeString(target, report, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to write metrics dump: " + e.getMessage());
+        }
+    }
+
+    public static final class Timer {
+        // Upper bounds in microseconds, growing ~20% per bucket from 1us up to ~2 minutes
+        private static final long[] BUCKET_BOUNDS = buildBucketBounds();
+
+        private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Timer() {
+        }
+
+        public void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            int index = Arrays.binarySearch(BUCKET_BOUNDS, micros);
+            bucketCounts.incrementAndGet(index >= 0 ? index : -index - 1);
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getMeanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        /**
+         * Estimate the given quantile (0..1) as the upper bound of the bucket containing it
+         */
+        public double percentileMillis(double quantile) {
+            long total = 0;
+            for (int i = 0; i < bucketCounts.length(); i++) {
+                total += bucketCounts.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length(); i++) {
+                seen += bucketCounts.get(i);
+                if (seen >= rank) {
+                    // Never report more than the observed max, which also covers the overflow bucket
+                    double bound = i < BUCKET_BOUNDS.length ? BUCKET_BOUNDS[i] / 1000.0 : Double.MAX_VALUE;
+                    return Math.min(bound, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        private static long[] buildBucketBounds() {
+            List<Long> bounds = new ArrayList<>();
+            long bound = 1;
+            while (bound < 120_000_000L) {
+                bounds.add(bound);
+                bound = Math.max(bound + 1, (long) (bound * 1.2));
+            }
+            return bounds.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+}
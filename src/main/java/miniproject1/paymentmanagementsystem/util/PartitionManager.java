@@ -0,0 +1,219 @@
+package miniproject1.paymentmanagementsystem.util;
+
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+
+import java.sql.*;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the monthly partitions of payments and audit_trail ahead of the calendar and detaches the ones
+ * that fall out of the retention window. Detached partitions stay in the database as standalone tables
+ * (payments_2019_01 and so on) so they can be archived or dropped separately.
+ */
+public class PartitionManager {
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String[] PARTITIONED_TABLES = {"payments", "audit_trail"};
+    private static final String[] PARTITION_COLUMNS = {"payment_date", "change_timestamp"};
+
+    private final DatabaseConfig dbConfig;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private ScheduledExecutorService maintenanceExecutor;
+
+    public PartitionManager(DatabaseConfig dbConfig) {
+        this.dbConfig = dbConfig;
+        this.monthsAhead = dbConfig.getIntProperty("partition.months.ahead", 3);
+        this.retentionMonths = dbConfig.getIntProperty("partition.retention.months", 84);
+    }
+
+    /**
+     * Run maintenance now and then every intervalHours on a daemon thread
+     */
+    public synchronized void start(long intervalHours) {
+        maintain();
+        if (intervalHours <= 0 || maintenanceExecutor != null) {
+            return;
+        }
+        maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenanceExecutor.scheduleAtFixedRate(this::maintain, intervalHours, intervalHours, TimeUnit.HOURS);
+    }
+
+    public synchronized void shutdown() {
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdown();
+            maintenanceExecutor = null;
+        }
+    }
+
+    /**
+     * Create the months from now through monthsAhead that are missing and detach those past retention.
+     * Partitions are listed with one catalog query, so when they are all in place no DDL runs.
+     */
+    public void maintain() {
+        long startNanos = System.nanoTime();
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            Map<String, List<String>> partitions = findPartitions(conn);
+            YearMonth current = YearMonth.now();
+            createMissingPartitions(conn, partitions, current, current.plusMonths(monthsAhead));
+            if (retentionMonths > 0) {
+                List<String> detached = detachPartitionsBefore(conn, partitions, current.minusMonths(retentionMonths));
+                if (!detached.isEmpty()) {
+                    System.out.println("Detached partitions past retention: " + String.join(", ", detached));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Partition maintenance failed: " + e.getMessage());
+        } finally {
+            metrics.recordTime("partition.maintenance", startNanos);
+            dbConfig.returnConnection(conn);
+        }
+    }
+
+    /**
+     * Current partitions of each partitioned table, by parent table name
+     */
+    private Map<String, List<String>> findPartitions(Connection conn) throws SQLException {
+        String sql = """
+            SELECT p.relname, c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname::text = ANY (?)
+            ORDER BY c.relname
+            """;
+
+        Map<String, List<String>> partitions = new HashMap<>();
+        for (String table : PARTITIONED_TABLES) {
+            partitions.put(table, new ArrayList<>());
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("text", PARTITIONED_TABLES));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    partitions.get(rs.getString(1)).add(rs.getString(2));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Create the monthly partitions from first through last, inclusive, that are not in partitions.
+     * A month that fails is reported and skipped so the others are still created.
+     */
+    private void createMissingPartitions(Connection conn, Map<String, List<String>> partitions,
+                                         YearMonth first, YearMonth last) {
+        for (int i = 0; i < PARTITIONED_TABLES.length; i++) {
+            String table = PARTITIONED_TABLES[i];
+            List<String> existing = partitions.get(table);
+            for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                String partition = partitionName(table, month);
+                if (existing.contains(partition)) {
+                    continue;
+                }
+                try {
+                    createPartition(conn, table, PARTITION_COLUMNS[i], month);
+                    existing.add(partition);
+                } catch (SQLException e) {
+                    System.err.println("Failed to create partition " + partition + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Create one monthly partition in its own transaction. Postgres refuses to add a partition whose range
+     * already has rows in the default partition, so when the default holds rows for the month they are moved
+     * into a new standalone table first, which is then attached. The default stays locked against inserts
+     * until the month is attached, so no row can land there in between.
+     */
+    private void createPartition(Connection conn, String table, String column, YearMonth month) throws SQLException {
+        String partition = partitionName(table, month);
+        String defaultPartition = table + "_default";
+        String range = String.format("%s >= '%s' AND %s < '%s'",
+                column, month.atDay(1), column, month.plusMonths(1).atDay(1));
+        String bounds = String.format("FOR VALUES FROM ('%s') TO ('%s')", month.atDay(1), month.plusMonths(1).atDay(1));
+
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("LOCK TABLE " + defaultPartition + " IN EXCLUSIVE MODE");
+            boolean hasRows;
+            try (ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM " + defaultPartition + " WHERE " + range + ")")) {
+                hasRows = rs.next() && rs.getBoolean(1);
+            }
+
+            if (hasRows) {
+                stmt.executeUpdate("CREATE TABLE " + partition + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+                int moved = stmt.executeUpdate("INSERT INTO " + partition + " SELECT * FROM " + defaultPartition + " WHERE " + range);
+                stmt.executeUpdate("DELETE FROM " + defaultPartition + " WHERE " + range);
+                stmt.executeUpdate("ALTER TABLE " + table + " ATTACH PARTITION " + partition + " " + bounds);
+                System.out.println("Moved " + moved + " rows from " + defaultPartition + " into " + partition);
+            } else {
+                stmt.executeUpdate("CREATE TABLE " + partition + " PARTITION OF " + table + " " + bounds);
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Detach every monthly partition that ends on or before the start of the cutoff month
+     *
+     * @return names of the detached partitions
+     */
+    private List<String> detachPartitionsBefore(Connection conn, Map<String, List<String>> partitions,
+                                                YearMonth cutoff) throws SQLException {
+        List<String> detached = new ArrayList<>();
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : PARTITIONED_TABLES) {
+                for (String partition : partitions.get(table)) {
+                    YearMonth month = parseMonth(table, partition);
+                    if (month != null && month.isBefore(cutoff)) {
+                        stmt.executeUpdate("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                        detached.add(partition);
+                    }
+                }
+                partitions.get(table).removeAll(detached);
+            }
+        }
+        return detached;
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_" + month.format(SUFFIX);
+    }
+
+    /**
+     * Month encoded in a partition name, or null for the default partition and anything not created here
+     */
+    static YearMonth parseMonth(String table, String partition) {
+        String prefix = table + "_";
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
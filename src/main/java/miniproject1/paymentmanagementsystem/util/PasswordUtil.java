@@ -2,15 +2,104 @@ package miniproject1.paymentmanagementsystem.util;
 
 import org.mindrot.jbcrypt.BCrypt;
 
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class PasswordUtil {
-    private static final int SALT_ROUNDS = 12;
+    private static final int DEFAULT_SALT_ROUNDS = 12;
+
+    private static volatile int saltRounds = DEFAULT_SALT_ROUNDS;
+    private static volatile int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static volatile int queueCapacity = 64;
+    private static volatile ThreadPoolExecutor hashingExecutor;
+
+    /**
+     * Apply hashing settings from the application properties. Must be called before the first async hash.
+     */
+    public static void configure(Properties properties) {
+        saltRounds = Integer.parseInt(properties.getProperty("password.bcrypt.rounds", String.valueOf(DEFAULT_SALT_ROUNDS)));
+        poolSize = Integer.parseInt(properties.getProperty("password.hash.pool.size", String.valueOf(poolSize)));
+        queueCapacity = Integer.parseInt(properties.getProperty("password.hash.queue.capacity", String.valueOf(queueCapacity)));
+    }
 
     public static String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt(SALT_ROUNDS));
+        return BCrypt.hashpw(password, BCrypt.gensalt(saltRounds));
     }
 
     public static boolean verifyPassword(String password, String hash) {
         return BCrypt.checkpw(password, hash);
     }
-}
 
+    /**
+     * Hash on the bounded hashing pool. Completes exceptionally with RejectedExecutionException when the queue is full.
+     */
+    public static CompletableFuture<String> hashPasswordAsync(String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> hashPassword(password), getHashingExecutor());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Verify on the bounded hashing pool. Completes exceptionally with RejectedExecutionException when the queue is full.
+     */
+    public static CompletableFuture<Boolean> verifyPasswordAsync(String password, String hash) {
+        try {
+            return CompletableFuture.supplyAsync(() -> verifyPassword(password, hash), getHashingExecutor());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * True when the hash was produced with a different cost factor than the configured one
+     */
+    public static boolean needsRehash(String hash) {
+        // BCrypt hashes look like $2a$12$<salt+hash>; the cost is the second field
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$') {
+            return false;
+        }
+        try {
+            int costStart = hash.indexOf('$', 1) + 1;
+            int cost = Integer.parseInt(hash.substring(costStart, costStart + 2));
+            return cost != saltRounds;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static ThreadPoolExecutor getHashingExecutor() {
+        ThreadPoolExecutor executor = hashingExecutor;
+        if (executor == null) {
+            synchronized (PasswordUtil.class) {
+                executor = hashingExecutor;
+                if (executor == null) {
+                    AtomicInteger threadNumber = new AtomicInteger();
+                    executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(queueCapacity),
+                            runnable -> {
+                                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            },
+                            new ThreadPoolExecutor.AbortPolicy());
+                    hashingExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    public static void shutdown() {
+        ThreadPoolExecutor executor = hashingExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
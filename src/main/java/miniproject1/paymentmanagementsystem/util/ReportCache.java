@@ -0,0 +1,119 @@
+package miniproject1.paymentmanagementsystem.util;
+
+import miniproject1.paymentmanagementsystem.config.DatabaseConfig;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded LRU cache of reports for closed periods, i.e. ranges that end before the current month.
+ * Entries stay until evicted or until a payment write touches a month inside their range.
+ * Cached reports are shared between callers and must not be modified.
+ */
+public class ReportCache {
+    private static ReportCache instance;
+
+    private final Map<Key, Object> entries;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    // Bumped by every invalidation, so a report computed across one is not stored stale
+    private long generation;
+
+    public ReportCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static synchronized ReportCache getInstance() throws SQLException, IOException {
+        if (instance == null) {
+            instance = new ReportCache(DatabaseConfig.getInstance().getIntProperty("report.cache.max.entries", 256));
+        }
+        return instance;
+    }
+
+    public static boolean isClosed(YearMonth last) {
+        return last.isBefore(YearMonth.now());
+    }
+
+    public synchronized <T> T get(String kind, YearMonth first, YearMonth last, Class<T> type) {
+        Object report = entries.get(new Key(kind, first, last));
+        metrics.increment(report != null ? "report.cache.hits" : "report.cache.misses");
+        return type.cast(report);
+    }
+
+    /**
+     * Token to pass to put; take it before computing the report
+     */
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    /**
+     * Store a report computed after stamp was taken. Open periods, and reports that raced
+     * with an invalidation, are not stored.
+     */
+    public synchronized void put(String kind, YearMonth first, YearMonth last, Object report, long stamp) {
+        if (isClosed(last) && stamp == generation) {
+            entries.put(new Key(kind, first, last), report);
+        }
+    }
+
+    /**
+     * Drop every entry whose range contains the month
+     */
+    public synchronized void invalidate(YearMonth month) {
+        // Open months are never cached, and most writes land in the current month
+        if (!isClosed(month)) {
+            return;
+        }
+        generation++;
+        int before = entries.size();
+        entries.keySet().removeIf(key -> !month.isBefore(key.first) && !month.isAfter(key.last));
+        metrics.increment("report.cache.invalidations", before - entries.size());
+    }
+
+    /**
+     * Drop every entry whose range starts before the month
+     */
+    public synchronized void invalidateBefore(YearMonth month) {
+        generation++;
+        int before = entries.size();
+        entries.keySet().removeIf(key -> key.first.isBefore(month));
+        metrics.increment("report.cache.invalidations", before - entries.size());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Key {
+        private final String kind;
+        private final YearMonth first;
+        private final YearMonth last;
+
+        private Key(String kind, YearMonth first, YearMonth last) {
+            this.kind = kind;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return kind.equals(other.kind) && first.equals(other.first) && last.equals(other.last);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, first, last);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package miniproject1.paymentmanagementsystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Applies ordered schema migrations and records each one in schema_version with a checksum of its statements.
+ * When every migration is already recorded startup costs a single query; DDL only runs for missing versions.
+ * Applied migrations must never be edited: add a new version instead, a changed checksum fails startup.
+ */
+public class SchemaMigrator {
+    private static final String UNDEFINED_TABLE = "42P01";
+    // Arbitrary key so concurrent starts serialize on the slow path
+    private static final long MIGRATION_LOCK_KEY = 0x504d53L;
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort((a, b) -> Integer.compare(a.getVersion(), b.getVersion()));
+        this.migrations = sorted;
+    }
+
+    /**
+     * Bring the schema up to date. When schema_version is empty and legacySchema reports a database created
+     * before migrations existed, the first migration is recorded without running it.
+     *
+     * @return the versions that were actually executed
+     */
+    public List<Integer> migrate(Connection conn, LegacySchemaCheck legacySchema) throws SQLException {
+        Map<Integer, Long> applied = readAppliedVersions(conn);
+        if (applied != null && isCurrent(applied)) {
+            return List.of();
+        }
+
+        List<Integer> executed = new ArrayList<>();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT pg_advisory_xact_lock(" + MIGRATION_LOCK_KEY + ")");
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    checksum BIGINT NOT NULL,
+                    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                )
+                """);
+
+            // Re-read under the lock, another instance may have migrated in the meantime
+            applied = readAppliedVersions(conn);
+            if (applied.isEmpty() && !migrations.isEmpty() && legacySchema.exists(conn)) {
+                Migration baseline = migrations.get(0);
+                System.out.println("Baselining existing schema at version " + baseline.getVersion());
+                recordVersion(conn, baseline);
+                applied.put(baseline.getVersion(), baseline.getChecksum());
+            }
+
+            for (Migration migration : migrations) {
+                Long checksum = applied.get(migration.getVersion());
+                if (checksum != null) {
+                    verifyChecksum(migration, checksum);
+                    continue;
+                }
+                System.out.println("Applying migration V" + migration.getVersion() + ": " + migration.getDescription());
+                for (String statement : migration.getStatements()) {
+                    stmt.executeUpdate(statement);
+                }
+                recordVersion(conn, migration);
+                executed.add(migration.getVersion());
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return executed;
+    }
+
+    private boolean isCurrent(Map<Integer, Long> applied) throws SQLException {
+        boolean current = true;
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.getVersion());
+            if (checksum == null) {
+                current = false;
+            } else {
+                verifyChecksum(migration, checksum);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Applied versions and their checksums, or null when schema_version does not exist yet
+     */
+    private Map<Integer, Long> readAppliedVersions(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new TreeMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        } catch (SQLException e) {
+            if (UNDEFINED_TABLE.equals(e.getSQLState())) {
+                return null;
+            }
+            throw e;
+        }
+        return applied;
+    }
+
+    private void recordVersion(Connection conn, Migration migration) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.getVersion());
+            stmt.setString(2, migration.getDescription());
+            stmt.setLong(3, migration.getChecksum());
+            stmt.executeUpdate();
+        }
+    }
+
+    private void verifyChecksum(Migration migration, long recorded) throws SQLException {
+        if (recorded != migration.getChecksum()) {
+            throw new SQLException("Migration V" + migration.getVersion() + " was modified after being applied " +
+                    "(recorded checksum " + recorded + ", current " + migration.getChecksum() + ")");
+        }
+    }
+
+    @FunctionalInterface
+    public interface LegacySchemaCheck {
+        boolean exists(Connection conn) throws SQLException;
+    }
+
+    public static final class Migration {
+        private final int version;
+        private final String description;
+        private final List<String> statements;
+        private final long checksum;
+
+        public Migration(int version, String description, List<String> statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements.stream().map(String::trim).filter(s -> !s.isEmpty()).toList();
+            this.checksum = checksum(this.statements);
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public List<String> getStatements() {
+            return statements;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+
+        private static long checksum(List<String> statements) {
+            CRC32 crc = new CRC32();
+            for (String statement : statements) {
+                crc.update(statement.getBytes(StandardCharsets.UTF_8));
+                crc.update('\n');
+            }
+            return crc.getValue();
+        }
+    }
+}
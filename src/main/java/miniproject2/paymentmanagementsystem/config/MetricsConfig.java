@@ -0,0 +1,103 @@
+package miniproject2.paymentmanagementsystem.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import miniproject2.paymentmanagementsystem.service.LoginThrottleService;
+import miniproject2.paymentmanagementsystem.service.PasswordHashingService;
+import miniproject2.paymentmanagementsystem.util.DatabaseConcurrencyFilter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Repository call timers (spring.data.repository.invocations) and Hikari pool gauges are registered by
+ * Actuator auto-configuration; this adds @Timed support for services and the security-related meters.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder securityMetrics(LoginThrottleService loginThrottleService,
+                                       PasswordHashingService passwordHashingService) {
+        return registry -> {
+            FunctionCounter.builder("security.login.throttled", loginThrottleService, LoginThrottleService::getThrottledByEmail)
+                    .tag("key", "email")
+                    .description("Login attempts rejected by the per-email limit")
+                    .register(registry);
+            FunctionCounter.builder("security.login.throttled", loginThrottleService, LoginThrottleService::getThrottledByIp)
+                    .tag("key", "ip")
+                    .description("Login attempts rejected by the per-IP limit")
+                    .register(registry);
+            Gauge.builder("security.login.tracked.keys", loginThrottleService, LoginThrottleService::getTrackedKeys)
+                    .register(registry);
+            Gauge.builder("security.password.hashing.queue", passwordHashingService, PasswordHashingService::getQueueDepth)
+                    .description("Password hash/verify tasks waiting for a hashing thread")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Only registered while the filter exists, i.e. with web.db-concurrency.enabled=true
+     */
+    @Bean
+    public MeterBinder databaseConcurrencyMetrics(ObjectProvider<DatabaseConcurrencyFilter> databaseConcurrencyFilters) {
+        return registry -> databaseConcurrencyFilters.ifAvailable(databaseConcurrencyFilter -> {
+            Gauge.builder("web.db.concurrency.limit", databaseConcurrencyFilter, DatabaseConcurrencyFilter::getMaxConcurrent)
+                    .register(registry);
+            Gauge.builder("web.db.concurrency.waiting", databaseConcurrencyFilter, DatabaseConcurrencyFilter::getWaiting)
+                    .description("Requests waiting for a database slot")
+                    .register(registry);
+            FunctionCounter.builder("web.db.concurrency.rejected", databaseConcurrencyFilter, DatabaseConcurrencyFilter::getRejected)
+                    .description("Requests shed after waiting too long for a database slot")
+                    .register(registry);
+        });
+    }
+
+    /**
+     * Hit ratio (0..1) per second-level cache region, plus the natural-id and query caches
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String region : List.of("user", "payment")) {
+                registerHitRatio(registry, region, statistics, stats -> {
+                    CacheRegionStatistics regionStats = stats.getCacheRegionStatistics(region);
+                    return regionStats == null ? Double.NaN
+                            : hitRatio(regionStats.getHitCount(), regionStats.getMissCount());
+                });
+            }
+            registerHitRatio(registry, "user-natural-id", statistics,
+                    stats -> hitRatio(stats.getNaturalIdCacheHitCount(), stats.getNaturalIdCacheMissCount()));
+            registerHitRatio(registry, "query", statistics,
+                    stats -> hitRatio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()));
+        };
+    }
+
+    private static void registerHitRatio(MeterRegistry registry, String region, Statistics statistics,
+                                         ToDoubleFunction<Statistics> ratio) {
+        Gauge.builder("hibernate.cache.hit.ratio", statistics, ratio)
+                .tag("region", region)
+                .register(registry);
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? Double.NaN : (double) hits / total;
+    }
+}
@@ -1,4 +1,5 @@
 package miniproject2.paymentmanagementsystem.config;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -7,9 +8,13 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class PasswordEncoderConfig {
 
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // upgradeEncoding() compares stored hashes against this strength, which drives rehash-on-login
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 }
 
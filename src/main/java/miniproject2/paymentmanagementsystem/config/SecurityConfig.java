@@ -1,7 +1,10 @@
 package miniproject2.paymentmanagementsystem.config;
 
 import lombok.RequiredArgsConstructor;
+import miniproject2.paymentmanagementsystem.security.PooledPasswordEncoder;
+import miniproject2.paymentmanagementsystem.service.PasswordHashingService;
 import miniproject2.paymentmanagementsystem.util.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,8 +16,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -25,7 +28,11 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final UserDetailsService userDetailsService;
-    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final PasswordHashingService passwordHashingService;
+
+    @Value("${security.password.hashing.timeout-ms:5000}")
+    private long passwordHashingTimeoutMillis;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -33,8 +40,12 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Metrics reveal endpoints and pool state; scrapers authenticate with an admin token
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/users/**").hasRole("ADMIN")
                         .requestMatchers("/api/payments/**").hasAnyRole("ADMIN", "FINANCE_MANAGER", "VIEWER")
+                        .requestMatchers("/api/reports/**", "/api/report-jobs/**").hasAnyRole("ADMIN", "FINANCE_MANAGER")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -55,7 +66,9 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setPasswordEncoder(new PooledPasswordEncoder(passwordHashingService, passwordHashingTimeoutMillis));
+        // Re-hashes on successful login when the stored hash was made with an older BCrypt strength
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
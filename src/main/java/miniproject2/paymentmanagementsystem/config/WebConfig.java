@@ -0,0 +1,55 @@
+package miniproject2.paymentmanagementsystem.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Lets API clients ask for CBOR (Accept: application/cbor) or Smile (Accept: application/x-jackson-smile)
+ * instead of JSON, e.g. internal services polling /api/payments. The binary mappers come from the same
+ * builder as the JSON one, so dates, enums and nulls are written the same way in every format. JSON stays
+ * the default for clients that don't ask, and gzip above server.compression.min-response-size applies to
+ * all three.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    // Prototype bean: each getObject() is a fresh builder with Spring Boot's Jackson settings applied
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Added after the JSON converter, so Accept: */* still gets JSON
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // The same URL and ETag now have several representations; caches must key them by Accept
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
@@ -19,10 +19,11 @@ public class AuthController {
     private final AuthService authService;
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginRequestDTO loginRequest) {
+    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginRequestDTO loginRequest,
+                                                 HttpServletRequest request) {
         log.info("Login attempt for user: {}", loginRequest.getEmail());
         try {
-            AuthResponseDTO response = authService.authenticate(loginRequest);
+            AuthResponseDTO response = authService.authenticate(loginRequest, request.getRemoteAddr());
             log.info("Successful login for user: {}", loginRequest.getEmail());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
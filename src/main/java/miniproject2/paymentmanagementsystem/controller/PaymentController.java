@@ -2,18 +2,27 @@ package miniproject2.paymentmanagementsystem.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import miniproject2.paymentmanagementsystem.dto.BalanceDTO;
 import miniproject2.paymentmanagementsystem.dto.PaymentCreateDTO;
 import miniproject2.paymentmanagementsystem.dto.PaymentResponseDTO;
 import miniproject2.paymentmanagementsystem.dto.PaymentUpdateDTO;
 import miniproject2.paymentmanagementsystem.service.PaymentService;
+import miniproject2.paymentmanagementsystem.util.ETagUtil;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import lombok.extern.slf4j.Slf4j;
 
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -22,15 +31,18 @@ import java.util.List;
 @Slf4j
 public class PaymentController {
 
+    // Clients may keep a copy but must revalidate with If-None-Match before reusing it
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final PaymentService paymentService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
     public ResponseEntity<PaymentResponseDTO> createPayment(@Valid @RequestBody PaymentCreateDTO paymentCreateDTO) {
-        log.info("Creating payment for amount: {} with type: {}", paymentCreateDTO.getAmount(), paymentCreateDTO.getPaymentType());
+        log.debug("Creating payment for amount: {} with type: {}", paymentCreateDTO.getAmount(), paymentCreateDTO.getPaymentType());
         try {
             PaymentResponseDTO response = paymentService.createPayment(paymentCreateDTO);
-            log.info("Payment created successfully with ID: {}", response.getId());
+            log.debug("Payment created successfully with ID: {}", response.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (Exception e) {
             log.error("Failed to create payment for amount: {}", paymentCreateDTO.getAmount(), e);
@@ -41,10 +53,10 @@ public class PaymentController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER') or hasRole('VIEWER')")
     public ResponseEntity<List<PaymentResponseDTO>> getAllPayments() {
-        log.info("Fetching all payments");
+        log.debug("Fetching all payments");
         try {
             List<PaymentResponseDTO> payments = paymentService.getAllPayments();
-            log.info("Retrieved {} payments", payments.size());
+            log.debug("Retrieved {} payments", payments.size());
             return ResponseEntity.ok(payments);
         } catch (Exception e) {
             log.error("Failed to fetch all payments", e);
@@ -54,12 +66,20 @@ public class PaymentController {
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER') or hasRole('VIEWER')")
-    public ResponseEntity<PaymentResponseDTO> getPaymentById(@PathVariable Long id) {
-        log.info("Fetching payment with ID: {}", id);
+    public ResponseEntity<PaymentResponseDTO> getPaymentById(@PathVariable Long id, WebRequest webRequest) {
+        log.debug("Fetching payment with ID: {}", id);
         try {
+            String eTag = paymentService.getPaymentETag(id);
+            if (eTag != null && webRequest.checkNotModified(eTag)) {
+                log.debug("Payment not modified with ID: {}", id);
+                return notModified(eTag);
+            }
             PaymentResponseDTO payment = paymentService.getPaymentById(id);
-            log.info("Payment found with ID: {}", id);
-            return ResponseEntity.ok(payment);
+            log.debug("Payment found with ID: {}", id);
+            return ResponseEntity.ok()
+                    .cacheControl(REVALIDATE)
+                    .eTag(ETagUtil.forPayment(payment.getId(), payment.getUpdatedAt()))
+                    .body(payment);
         } catch (Exception e) {
             log.error("Failed to fetch payment with ID: {}", id, e);
             throw e;
@@ -71,10 +91,10 @@ public class PaymentController {
     public ResponseEntity<PaymentResponseDTO> updatePayment(
             @PathVariable Long id,
             @Valid @RequestBody PaymentUpdateDTO paymentUpdateDTO) {
-        log.info("Updating payment with ID: {}", id);
+        log.debug("Updating payment with ID: {}", id);
         try {
             PaymentResponseDTO response = paymentService.updatePayment(id, paymentUpdateDTO);
-            log.info("Payment updated successfully with ID: {}", id);
+            log.debug("Payment updated successfully with ID: {}", id);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.error("Failed to update payment with ID: {}", id, e);
@@ -85,10 +105,10 @@ public class PaymentController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deletePayment(@PathVariable Long id) {
-        log.info("Deleting payment with ID: {}", id);
+        log.debug("Deleting payment with ID: {}", id);
         try {
             paymentService.deletePayment(id);
-            log.info("Payment deleted successfully with ID: {}", id);
+            log.debug("Payment deleted successfully with ID: {}", id);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             log.error("Failed to delete payment with ID: {}", id, e);
@@ -96,17 +116,46 @@ public class PaymentController {
         }
     }
 
+    @GetMapping("/balances")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER') or hasRole('VIEWER')")
+    public ResponseEntity<List<BalanceDTO>> getMyBalances(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        YearMonth requested = month != null ? month : YearMonth.now();
+        log.debug("Fetching balances for current user in {}", requested);
+        return ResponseEntity.ok(paymentService.getCurrentUserBalances(requested));
+    }
+
     @GetMapping("/my-payments")
     @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER') or hasRole('VIEWER')")
-    public ResponseEntity<List<PaymentResponseDTO>> getMyPayments() {
-        log.info("Fetching payments for current user");
+    public ResponseEntity<List<PaymentResponseDTO>> getMyPayments(WebRequest webRequest) {
+        log.debug("Fetching payments for current user");
         try {
+            String eTag = paymentService.getCurrentUserPaymentsETag();
+            if (eTag != null && webRequest.checkNotModified(eTag)) {
+                log.debug("Payments not modified for current user");
+                return notModified(eTag);
+            }
             List<PaymentResponseDTO> payments = paymentService.getPaymentsByCurrentUser();
-            log.info("Retrieved {} payments for current user", payments.size());
-            return ResponseEntity.ok(payments);
+            log.debug("Retrieved {} payments for current user", payments.size());
+            LocalDateTime lastUpdated = payments.stream()
+                    .map(PaymentResponseDTO::getUpdatedAt)
+                    .filter(Objects::nonNull)
+                    .max(Comparator.naturalOrder())
+                    .orElse(null);
+            return ResponseEntity.ok()
+                    .cacheControl(REVALIDATE)
+                    .eTag(ETagUtil.forPaymentSet(payments.size(), lastUpdated))
+                    .body(payments);
         } catch (Exception e) {
             log.error("Failed to fetch payments for current user", e);
             throw e;
         }
     }
+
+    private <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(REVALIDATE)
+                .eTag(eTag)
+                .build();
+    }
 }
\ No newline at end of file
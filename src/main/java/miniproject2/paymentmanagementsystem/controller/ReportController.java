@@ -0,0 +1,69 @@
+package miniproject2.paymentmanagementsystem.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import miniproject2.paymentmanagementsystem.dto.PaymentSummaryDTO;
+import miniproject2.paymentmanagementsystem.dto.ReportTotalDTO;
+import miniproject2.paymentmanagementsystem.enums.ReportDimension;
+import miniproject2.paymentmanagementsystem.service.ReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Payment totals over an inclusive date range, e.g. /api/reports/by-category?from=2024-01-01&to=2024-03-31
+ */
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@Slf4j
+public class ReportController {
+
+    private final ReportService reportService;
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ResponseEntity<PaymentSummaryDTO> getSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.debug("Fetching payment summary for {} to {}", from, to);
+        return ResponseEntity.ok(reportService.getSummary(from, to));
+    }
+
+    @GetMapping("/by-status")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ResponseEntity<List<ReportTotalDTO>> getTotalsByStatus(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportService.getTotals(ReportDimension.STATUS, from, to));
+    }
+
+    @GetMapping("/by-category")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ResponseEntity<List<ReportTotalDTO>> getTotalsByCategory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportService.getTotals(ReportDimension.CATEGORY, from, to));
+    }
+
+    @GetMapping("/by-payment-type")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ResponseEntity<List<ReportTotalDTO>> getTotalsByPaymentType(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportService.getTotals(ReportDimension.PAYMENT_TYPE, from, to));
+    }
+
+    @GetMapping("/by-month")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ResponseEntity<List<ReportTotalDTO>> getTotalsByMonth(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportService.getTotals(ReportDimension.MONTH, from, to));
+    }
+}
@@ -0,0 +1,63 @@
+package miniproject2.paymentmanagementsystem.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import miniproject2.paymentmanagementsystem.dto.ReportJobDTO;
+import miniproject2.paymentmanagementsystem.dto.ReportJobRequestDTO;
+import miniproject2.paymentmanagementsystem.service.ReportJobService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/report-jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@Slf4j
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ResponseEntity<ReportJobDTO> submitReportJob(@Valid @RequestBody ReportJobRequestDTO request) {
+        log.debug("Submitting report job for {} to {}", request.getFrom(), request.getTo());
+        ReportJobDTO job = reportJobService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ResponseEntity<List<ReportJobDTO>> getMyReportJobs() {
+        return ResponseEntity.ok(reportJobService.getMyJobs());
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ResponseEntity<ReportJobDTO> getReportJob(@PathVariable Long id) {
+        return ResponseEntity.ok(reportJobService.getJob(id));
+    }
+
+    /**
+     * The stored result is gzipped JSON; clients that accept gzip get it without recompressing
+     */
+    @GetMapping("/{id}/result")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ResponseEntity<byte[]> getReportJobResult(@PathVariable Long id,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        byte[] compressed = reportJobService.getCompressedResult(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(compressed);
+        }
+        return response.body(ReportJobService.decompress(compressed));
+    }
+}
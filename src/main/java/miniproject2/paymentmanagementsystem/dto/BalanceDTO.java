@@ -0,0 +1,21 @@
+package miniproject2.paymentmanagementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import miniproject2.paymentmanagementsystem.enums.PaymentType;
+import miniproject2.paymentmanagementsystem.enums.Status;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDTO {
+    private YearMonth month;
+    private PaymentType paymentType;
+    private Status status;
+    private Long paymentCount;
+    private BigDecimal totalAmount;
+}
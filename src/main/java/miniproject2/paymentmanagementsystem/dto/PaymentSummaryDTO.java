@@ -0,0 +1,23 @@
+package miniproject2.paymentmanagementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSummaryDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private long paymentCount;
+    private BigDecimal totalAmount;
+    private List<ReportTotalDTO> byStatus;
+    private List<ReportTotalDTO> byCategory;
+    private List<ReportTotalDTO> byPaymentType;
+    private List<ReportTotalDTO> byMonth;
+}
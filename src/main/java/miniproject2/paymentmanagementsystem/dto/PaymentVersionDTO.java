@@ -0,0 +1,15 @@
+package miniproject2.paymentmanagementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentVersionDTO {
+    private LocalDateTime lastUpdated;
+    private Long total;
+}
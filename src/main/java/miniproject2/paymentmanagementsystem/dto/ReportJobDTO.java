@@ -0,0 +1,25 @@
+package miniproject2.paymentmanagementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import miniproject2.paymentmanagementsystem.enums.ReportJobStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+    private Long id;
+    private Long requestedBy;
+    private LocalDate from;
+    private LocalDate to;
+    private ReportJobStatus status;
+    private int progress;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,15 @@
+package miniproject2.paymentmanagementsystem.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class ReportJobRequestDTO {
+    @NotNull(message = "From date is required")
+    private LocalDate from;
+
+    @NotNull(message = "To date is required")
+    private LocalDate to;
+}
@@ -0,0 +1,27 @@
+package miniproject2.paymentmanagementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Count and total amount of the payments sharing one value of a report dimension, e.g. one status
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportTotalDTO {
+    private String key;
+    private long paymentCount;
+    private BigDecimal totalAmount;
+
+    /**
+     * Row of a per-month aggregate query; the key is the month as yyyy-MM
+     */
+    public ReportTotalDTO(Integer year, Integer month, Long paymentCount, BigDecimal totalAmount) {
+        this(YearMonth.of(year, month).toString(), paymentCount, totalAmount);
+    }
+}
@@ -9,6 +9,8 @@ import lombok.AllArgsConstructor;
 import miniproject2.paymentmanagementsystem.enums.Category;
 import miniproject2.paymentmanagementsystem.enums.PaymentType;
 import miniproject2.paymentmanagementsystem.enums.Status;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -16,7 +18,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        // findByCreatedByIdAndStatus
+        @Index(name = "idx_payments_created_by_status", columnList = "created_by, status"),
+        // findVersionByCreatorEmail reads MAX(updated_at) per creator
+        @Index(name = "idx_payments_created_by_updated_at", columnList = "created_by, updated_at"),
+        // findByDateBetween
+        @Index(name = "idx_payments_date", columnList = "date")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "payment")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,60 @@
+package miniproject2.paymentmanagementsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import miniproject2.paymentmanagementsystem.enums.ReportJobStatus;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A background report job and, once it completes, its report as gzipped JSON.
+ * Status reads go through projections in ReportResultRepository so polling never loads the result.
+ */
+@Entity
+@Table(name = "report_results", indexes = {
+        // cleanup of expired results
+        @Index(name = "idx_report_results_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "requested_by", nullable = false)
+    private Long requestedBy;
+
+    @Column(name = "from_date", nullable = false)
+    private LocalDate fromDate;
+
+    @Column(name = "to_date", nullable = false)
+    private LocalDate toDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReportJobStatus status;
+
+    @Column(nullable = false)
+    private int progress;
+
+    private String errorMessage;
+
+    @Column(name = "result")
+    private byte[] result;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -8,6 +8,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import miniproject2.paymentmanagementsystem.enums.Role;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +21,9 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-natural-id")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +39,7 @@ public class  User implements UserDetails {
 
     @Email(message = "Valid email is required")
     @NotBlank(message = "Email is required")
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String email;
 
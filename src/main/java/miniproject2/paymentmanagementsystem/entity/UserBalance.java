@@ -0,0 +1,49 @@
+package miniproject2.paymentmanagementsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import miniproject2.paymentmanagementsystem.enums.PaymentType;
+import miniproject2.paymentmanagementsystem.enums.Status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Running count and total of one user's payments for a month, payment type and status.
+ * Maintained by BalanceService alongside every payment write, never edited directly.
+ */
+@Entity
+@Table(name = "user_balances", uniqueConstraints = @UniqueConstraint(
+        name = "uk_user_balances_key", columnNames = {"user_id", "balance_month", "payment_type", "status"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // First day of the month
+    @Column(name = "balance_month", nullable = false)
+    private LocalDate balanceMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_type", nullable = false)
+    private PaymentType paymentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(name = "payment_count", nullable = false)
+    private Long paymentCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+}
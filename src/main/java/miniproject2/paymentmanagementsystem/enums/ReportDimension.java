@@ -0,0 +1,8 @@
+package miniproject2.paymentmanagementsystem.enums;
+
+public enum ReportDimension {
+    STATUS,
+    CATEGORY,
+    PAYMENT_TYPE,
+    MONTH
+}
@@ -0,0 +1,8 @@
+package miniproject2.paymentmanagementsystem.enums;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package miniproject2.paymentmanagementsystem.exception;
+
+public class LoginThrottledException extends RuntimeException {
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
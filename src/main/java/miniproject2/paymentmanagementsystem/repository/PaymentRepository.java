@@ -1,17 +1,22 @@
 package miniproject2.paymentmanagementsystem.repository;
 
+import miniproject2.paymentmanagementsystem.dto.PaymentVersionDTO;
+import miniproject2.paymentmanagementsystem.dto.ReportTotalDTO;
 import miniproject2.paymentmanagementsystem.entity.Payment;
 import miniproject2.paymentmanagementsystem.entity.User;
 import miniproject2.paymentmanagementsystem.enums.Category;
 import miniproject2.paymentmanagementsystem.enums.PaymentType;
 import miniproject2.paymentmanagementsystem.enums.Status;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
@@ -26,4 +31,38 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     @Query("SELECT p FROM Payment p WHERE p.createdBy.id = :userId AND p.status = :status")
     List<Payment> findByCreatedByIdAndStatus(@Param("userId") Long userId, @Param("status") Status status);
-}
\ No newline at end of file
+
+    /**
+     * Load a payment and hold its row lock until the transaction ends, so concurrent updates of the same
+     * payment apply one after the other and each sees the balance key the previous one left behind
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT p.updatedAt FROM Payment p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    @Query("SELECT new miniproject2.paymentmanagementsystem.dto.PaymentVersionDTO(MAX(p.updatedAt), COUNT(p)) " +
+            "FROM Payment p WHERE p.createdBy.email = :email")
+    PaymentVersionDTO findVersionByCreatorEmail(@Param("email") String email);
+
+    // Report aggregates over [from, to): grouped in the database, so no Payment entities are loaded
+
+    @Query("SELECT new miniproject2.paymentmanagementsystem.dto.ReportTotalDTO(CAST(p.status AS String), COUNT(p), SUM(p.amount)) " +
+            "FROM Payment p WHERE p.date >= :from AND p.date < :to GROUP BY p.status ORDER BY p.status")
+    List<ReportTotalDTO> sumByStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new miniproject2.paymentmanagementsystem.dto.ReportTotalDTO(CAST(p.category AS String), COUNT(p), SUM(p.amount)) " +
+            "FROM Payment p WHERE p.date >= :from AND p.date < :to GROUP BY p.category ORDER BY p.category")
+    List<ReportTotalDTO> sumByCategory(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new miniproject2.paymentmanagementsystem.dto.ReportTotalDTO(CAST(p.paymentType AS String), COUNT(p), SUM(p.amount)) " +
+            "FROM Payment p WHERE p.date >= :from AND p.date < :to GROUP BY p.paymentType ORDER BY p.paymentType")
+    List<ReportTotalDTO> sumByPaymentType(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new miniproject2.paymentmanagementsystem.dto.ReportTotalDTO(YEAR(p.date), MONTH(p.date), COUNT(p), SUM(p.amount)) " +
+            "FROM Payment p WHERE p.date >= :from AND p.date < :to " +
+            "GROUP BY YEAR(p.date), MONTH(p.date) ORDER BY YEAR(p.date), MONTH(p.date)")
+    List<ReportTotalDTO> sumByMonth(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,72 @@
+package miniproject2.paymentmanagementsystem.repository;
+
+import miniproject2.paymentmanagementsystem.dto.ReportJobDTO;
+import miniproject2.paymentmanagementsystem.entity.ReportResult;
+import miniproject2.paymentmanagementsystem.enums.ReportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportResultRepository extends JpaRepository<ReportResult, Long> {
+
+    String JOB_PROJECTION = "SELECT new miniproject2.paymentmanagementsystem.dto.ReportJobDTO(" +
+            "r.id, r.requestedBy, r.fromDate, r.toDate, r.status, r.progress, r.errorMessage, " +
+            "r.createdAt, r.completedAt, r.expiresAt) FROM ReportResult r ";
+
+    @Query(JOB_PROJECTION + "WHERE r.id = :id")
+    Optional<ReportJobDTO> findJobById(@Param("id") Long id);
+
+    @Query(JOB_PROJECTION + "WHERE r.requestedBy = :userId ORDER BY r.createdAt DESC")
+    List<ReportJobDTO> findJobsByRequester(@Param("userId") Long userId);
+
+    @Query("SELECT r.result FROM ReportResult r WHERE r.id = :id AND r.result IS NOT NULL AND r.expiresAt > :now")
+    Optional<byte[]> findResultById(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportResult r SET r.status = :status WHERE r.id = :id")
+    void updateStatus(@Param("id") Long id, @Param("status") ReportJobStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportResult r SET r.progress = :progress WHERE r.id = :id")
+    void updateProgress(@Param("id") Long id, @Param("progress") int progress);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportResult r SET r.status = miniproject2.paymentmanagementsystem.enums.ReportJobStatus.COMPLETED, " +
+            "r.progress = 100, r.result = :result, r.completedAt = :now, r.expiresAt = :expiresAt WHERE r.id = :id")
+    void complete(@Param("id") Long id, @Param("result") byte[] result,
+                  @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportResult r SET r.status = miniproject2.paymentmanagementsystem.enums.ReportJobStatus.FAILED, " +
+            "r.errorMessage = :errorMessage, r.completedAt = :now, r.expiresAt = :expiresAt WHERE r.id = :id")
+    void fail(@Param("id") Long id, @Param("errorMessage") String errorMessage,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Fail jobs a previous run left queued or running; their worker is gone
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportResult r SET r.status = miniproject2.paymentmanagementsystem.enums.ReportJobStatus.FAILED, " +
+            "r.errorMessage = :errorMessage, r.completedAt = :now, r.expiresAt = :expiresAt WHERE r.status IN :statuses")
+    int failAllInStatus(@Param("statuses") Collection<ReportJobStatus> statuses, @Param("errorMessage") String errorMessage,
+                        @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReportResult r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,49 @@
+package miniproject2.paymentmanagementsystem.repository;
+
+import miniproject2.paymentmanagementsystem.entity.UserBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserBalanceRepository extends JpaRepository<UserBalance, Long> {
+
+    List<UserBalance> findByUserIdAndBalanceMonthOrderByPaymentTypeAscStatusAsc(Long userId, LocalDate balanceMonth);
+
+    /**
+     * Add count and amount to a balance row in one statement, creating it on first use.
+     * A single upsert stays correct under concurrent payment writes without locking the row first.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_balances (user_id, balance_month, payment_type, status, payment_count, total_amount)
+            VALUES (:userId, :month, :paymentType, :status, :count, :amount)
+            ON CONFLICT (user_id, balance_month, payment_type, status) DO UPDATE
+            SET payment_count = user_balances.payment_count + EXCLUDED.payment_count,
+                total_amount = user_balances.total_amount + EXCLUDED.total_amount
+            """, nativeQuery = true)
+    void applyDelta(@Param("userId") Long userId,
+                    @Param("month") LocalDate month,
+                    @Param("paymentType") String paymentType,
+                    @Param("status") String status,
+                    @Param("count") long count,
+                    @Param("amount") BigDecimal amount);
+
+    /**
+     * Populate balances from the whole payment ledger. Only meant for an empty balance table.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_balances (user_id, balance_month, payment_type, status, payment_count, total_amount)
+            SELECT created_by, CAST(date_trunc('month', date) AS date), payment_type, status, COUNT(*), SUM(amount)
+            FROM payments
+            GROUP BY 1, 2, 3, 4
+            """, nativeQuery = true)
+    int insertFromPayments();
+}
@@ -0,0 +1,12 @@
+package miniproject2.paymentmanagementsystem.repository;
+
+import miniproject2.paymentmanagementsystem.entity.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+    /**
+     * Load by the email natural id, resolved through the natural-id and entity caches before querying
+     */
+    Optional<User> findByEmail(String email);
+}
@@ -1,16 +1,24 @@
 package miniproject2.paymentmanagementsystem.repository;
 
+import jakarta.persistence.QueryHint;
 import miniproject2.paymentmanagementsystem.entity.User;
 import miniproject2.paymentmanagementsystem.enums.Role;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
+    // Implemented by UserNaturalIdRepositoryImpl as a natural-id lookup, so the auth path is served from cache
+    @Override
     Optional<User> findByEmail(String email);
+
     List<User> findByRole(Role role);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByEmail(String email);
 }
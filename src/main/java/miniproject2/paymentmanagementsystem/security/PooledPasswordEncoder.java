@@ -0,0 +1,61 @@
+package miniproject2.paymentmanagementsystem.security;
+
+import miniproject2.paymentmanagementsystem.service.PasswordHashingService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PasswordEncoder for the authentication provider that routes every encode/verify through
+ * the bounded hashing pool, so concurrent BCrypt work never exceeds the pool size.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordHashingService passwordHashingService;
+    private final long timeoutMillis;
+
+    public PooledPasswordEncoder(PasswordHashingService passwordHashingService, long timeoutMillis) {
+        this.passwordHashingService = passwordHashingService;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(passwordHashingService.hash(rawPassword), timeoutMillis);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(passwordHashingService.verify(rawPassword, encodedPassword), timeoutMillis);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordHashingService.needsRehash(encodedPassword);
+    }
+
+    /**
+     * Wait for hashing work, rethrowing the pool's RejectedExecutionException (or a timeout as one)
+     * unwrapped, so callers outside the authentication provider also get it mapped to 503
+     */
+    public static <T> T await(CompletableFuture<T> future, long timeoutMillis) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new RejectedExecutionException("Timed out waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
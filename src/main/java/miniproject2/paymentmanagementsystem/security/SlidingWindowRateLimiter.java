@@ -0,0 +1,150 @@
+package miniproject2.paymentmanagementsystem.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory sliding-window attempt counter. Keys are spread over lock stripes, each holding a
+ * bounded LRU map, so memory stays capped no matter how many distinct keys an attacker sends.
+ * A full stripe first drops keys whose attempts have aged out of the window, then the key with
+ * the fewest attempts among its least recently used ones. A new key is always admitted, so a
+ * flood of made-up keys cannot lock real users out, and a locked-out key outlives keys with
+ * fewer attempts, so the flood cannot cheaply clear a lockout either. The two applications share
+ * no code, so this is kept identical to the LoginRateLimiter in miniproject1.
+ */
+public class SlidingWindowRateLimiter {
+    private static final int STRIPE_COUNT = 16;
+    // Least recently used keys weighed against each other when a stripe is full of live keys
+    private static final int EVICTION_CANDIDATES = 8;
+
+    private final int maxAttempts;
+    private final long windowMillis;
+    private final Stripe[] stripes;
+    private final AtomicLong throttledAttempts = new AtomicLong();
+
+    public SlidingWindowRateLimiter(int maxAttempts, long windowMillis, int maxTrackedKeys) {
+        this.maxAttempts = maxAttempts;
+        this.windowMillis = windowMillis;
+        this.stripes = new Stripe[STRIPE_COUNT];
+        int keysPerStripe = Math.max(1, maxTrackedKeys / STRIPE_COUNT);
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+    }
+
+    /**
+     * Count an attempt for the key. Returns false, without counting, when the key is already over the limit.
+     */
+    public boolean tryAcquire(String key) {
+        long now = System.currentTimeMillis();
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Window window = stripe.windows.get(key);
+            if (window == null) {
+                stripe.makeRoom(now, windowMillis);
+                window = new Window(now);
+                stripe.windows.put(key, window);
+            }
+            window.roll(now, windowMillis);
+            if (window.estimate(now, windowMillis) >= maxAttempts) {
+                throttledAttempts.incrementAndGet();
+                return false;
+            }
+            window.currentCount++;
+            return true;
+        }
+    }
+
+    public void reset(String key) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.windows.remove(key);
+        }
+    }
+
+    public long getThrottledAttempts() {
+        return throttledAttempts.get();
+    }
+
+    public int getTrackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.windows.size();
+            }
+        }
+        return total;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1)];
+    }
+
+    private static final class Stripe {
+        private final Map<String, Window> windows = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxKeys;
+
+        private Stripe(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        private void makeRoom(long now, long windowMillis) {
+            // Least recently used keys that have nothing left in the window go first; stop at the first live one
+            Iterator<Window> eldest = windows.values().iterator();
+            while (windows.size() >= maxKeys && eldest.hasNext()) {
+                Window window = eldest.next();
+                window.roll(now, windowMillis);
+                if (window.estimate(now, windowMillis) > 0) {
+                    break;
+                }
+                eldest.remove();
+            }
+            if (windows.size() < maxKeys) {
+                return;
+            }
+
+            // Every candidate is live: give up the one closest to a clean slate
+            Iterator<Map.Entry<String, Window>> candidates = windows.entrySet().iterator();
+            String victim = null;
+            double fewestAttempts = Double.MAX_VALUE;
+            for (int i = 0; i < EVICTION_CANDIDATES && candidates.hasNext(); i++) {
+                Map.Entry<String, Window> candidate = candidates.next();
+                candidate.getValue().roll(now, windowMillis);
+                double attempts = candidate.getValue().estimate(now, windowMillis);
+                if (attempts < fewestAttempts) {
+                    fewestAttempts = attempts;
+                    victim = candidate.getKey();
+                }
+            }
+            windows.remove(victim);
+        }
+    }
+
+    private static final class Window {
+        private long windowStart;
+        private int previousCount;
+        private int currentCount;
+
+        private Window(long now) {
+            this.windowStart = now;
+        }
+
+        private void roll(long now, long windowMillis) {
+            long elapsedWindows = (now - windowStart) / windowMillis;
+            if (elapsedWindows >= 1) {
+                previousCount = elapsedWindows == 1 ? currentCount : 0;
+                currentCount = 0;
+                windowStart += elapsedWindows * windowMillis;
+            }
+        }
+
+        // Weight the previous window by how much of it still overlaps the sliding window
+        private double estimate(long now, long windowMillis) {
+            double overlap = 1.0 - (double) (now - windowStart) / windowMillis;
+            return previousCount * overlap + currentCount;
+        }
+    }
+}
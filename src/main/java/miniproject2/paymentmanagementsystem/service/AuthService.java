@@ -1,5 +1,6 @@
 package miniproject2.paymentmanagementsystem.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import miniproject2.paymentmanagementsystem.security.JwtUtil;
 import miniproject2.paymentmanagementsystem.dto.AuthResponseDTO;
@@ -15,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 
 
 @Service
+@Timed("service.auth")
 @RequiredArgsConstructor
 @Slf4j
 public class AuthService {
@@ -23,10 +25,18 @@ public class AuthService {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final TokenBlacklistService tokenBlacklistService;
+    private final LoginThrottleService loginThrottleService;
 
     public AuthResponseDTO authenticate(LoginRequestDTO loginRequest) {
+        return authenticate(loginRequest, null);
+    }
+
+    public AuthResponseDTO authenticate(LoginRequestDTO loginRequest, String clientIp) {
         log.info("Attempting authentication for user: {}", loginRequest.getEmail());
 
+        // Shed over-limit attempts before any DB lookup or BCrypt verify
+        loginThrottleService.checkAllowed(loginRequest.getEmail(), clientIp);
+
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -41,6 +51,7 @@ public class AuthService {
                         return new UsernameNotFoundException("User not found");
                     });
 
+            loginThrottleService.recordSuccess(loginRequest.getEmail());
             String token = jwtUtil.generateToken(user);
             log.info("Successfully generated token for user: {}", user.getEmail());
 
@@ -0,0 +1,90 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import miniproject2.paymentmanagementsystem.dto.BalanceDTO;
+import miniproject2.paymentmanagementsystem.entity.Payment;
+import miniproject2.paymentmanagementsystem.enums.PaymentType;
+import miniproject2.paymentmanagementsystem.enums.Status;
+import miniproject2.paymentmanagementsystem.repository.UserBalanceRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps per-user monthly balances in step with payment writes, so reading a balance never sums the ledger.
+ * Runs inside the caller's transaction: a payment and its balance change commit or roll back together.
+ */
+@Service
+@Timed("service.balance")
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class BalanceService {
+
+    private final UserBalanceRepository userBalanceRepository;
+
+    public void recordAdded(Payment payment) {
+        applyDelta(BalanceKey.of(payment), 1);
+    }
+
+    public void recordRemoved(Payment payment) {
+        applyDelta(BalanceKey.of(payment), -1);
+    }
+
+    /**
+     * Move a payment's contribution from the balance it was counted in to the one it belongs to now
+     */
+    public void recordChanged(BalanceKey before, Payment after) {
+        BalanceKey current = BalanceKey.of(after);
+        if (current.equals(before)) {
+            return;
+        }
+        applyDelta(before, -1);
+        applyDelta(current, 1);
+    }
+
+    /**
+     * Backfill balances for payments that predate the balance table
+     */
+    public void rebuildIfEmpty() {
+        if (userBalanceRepository.count() == 0) {
+            int rows = userBalanceRepository.insertFromPayments();
+            if (rows > 0) {
+                log.info("Backfilled {} user balance rows from existing payments", rows);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<BalanceDTO> getBalances(Long userId, YearMonth month) {
+        return userBalanceRepository.findByUserIdAndBalanceMonthOrderByPaymentTypeAscStatusAsc(userId, month.atDay(1))
+                .stream()
+                .filter(balance -> balance.getPaymentCount() > 0)
+                .map(balance -> new BalanceDTO(month, balance.getPaymentType(), balance.getStatus(),
+                        balance.getPaymentCount(), balance.getTotalAmount()))
+                .collect(Collectors.toList());
+    }
+
+    private void applyDelta(BalanceKey key, int sign) {
+        log.debug("Applying balance delta {} for user {} in {}", sign, key.userId(), key.month());
+        userBalanceRepository.applyDelta(key.userId(), key.month().atDay(1), key.paymentType().name(),
+                key.status().name(), sign, sign > 0 ? key.amount() : key.amount().negate());
+    }
+
+    /**
+     * The fields of a payment that decide which balance row it counts towards, and by how much
+     */
+    public record BalanceKey(Long userId, YearMonth month, PaymentType paymentType, Status status, BigDecimal amount) {
+
+        public static BalanceKey of(Payment payment) {
+            return new BalanceKey(payment.getCreatedBy().getId(), YearMonth.from(payment.getDate()),
+                    payment.getPaymentType(), payment.getStatus(), payment.getAmount());
+        }
+    }
+}
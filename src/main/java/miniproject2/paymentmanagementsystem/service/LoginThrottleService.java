@@ -0,0 +1,61 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import lombok.extern.slf4j.Slf4j;
+import miniproject2.paymentmanagementsystem.exception.LoginThrottledException;
+import miniproject2.paymentmanagementsystem.security.SlidingWindowRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+@Service
+@Slf4j
+public class LoginThrottleService {
+
+    private final SlidingWindowRateLimiter emailLimiter;
+    private final SlidingWindowRateLimiter ipLimiter;
+
+    public LoginThrottleService(@Value("${security.login.max-attempts-per-email:5}") int maxAttemptsPerEmail,
+                                @Value("${security.login.max-attempts-per-ip:50}") int maxAttemptsPerIp,
+                                @Value("${security.login.window-seconds:300}") long windowSeconds,
+                                @Value("${security.login.max-tracked-keys:10000}") int maxTrackedKeys) {
+        long windowMillis = windowSeconds * 1000L;
+        this.emailLimiter = new SlidingWindowRateLimiter(maxAttemptsPerEmail, windowMillis, maxTrackedKeys);
+        this.ipLimiter = new SlidingWindowRateLimiter(maxAttemptsPerIp, windowMillis, maxTrackedKeys);
+    }
+
+    /**
+     * Count a login attempt, throwing LoginThrottledException when either the email or the client IP is over its limit.
+     * The IP limit is looser since several users can share one address behind NAT.
+     */
+    public void checkAllowed(String email, String clientIp) {
+        if (clientIp != null && !ipLimiter.tryAcquire(clientIp)) {
+            log.warn("Login throttled for client IP: {}", clientIp);
+            throw new LoginThrottledException("Too many login attempts. Please try again later");
+        }
+        if (email != null && !emailLimiter.tryAcquire(normalize(email))) {
+            log.warn("Login throttled for user: {}", email);
+            throw new LoginThrottledException("Too many login attempts. Please try again later");
+        }
+    }
+
+    public void recordSuccess(String email) {
+        emailLimiter.reset(normalize(email));
+    }
+
+    public long getThrottledByEmail() {
+        return emailLimiter.getThrottledAttempts();
+    }
+
+    public long getThrottledByIp() {
+        return ipLimiter.getThrottledAttempts();
+    }
+
+    public int getTrackedKeys() {
+        return emailLimiter.getTrackedKeys() + ipLimiter.getTrackedKeys();
+    }
+
+    private String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,73 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt work on a dedicated, bounded pool so login bursts queue here (or are rejected)
+ * instead of pinning request threads.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor hashingExecutor;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${security.password.hashing.pool-size:4}") int poolSize,
+                                  @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashingExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing pool started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    public CompletableFuture<String> hash(CharSequence rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), hashingExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing queue is full, rejecting hash request");
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public CompletableFuture<Boolean> verify(CharSequence rawPassword, String encodedPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.matches(rawPassword, encodedPassword), hashingExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing queue is full, rejecting verify request");
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public int getQueueDepth() {
+        return hashingExecutor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+}
@@ -1,14 +1,18 @@
 package miniproject2.paymentmanagementsystem.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import miniproject2.paymentmanagementsystem.dto.BalanceDTO;
 import miniproject2.paymentmanagementsystem.dto.PaymentCreateDTO;
 import miniproject2.paymentmanagementsystem.dto.PaymentResponseDTO;
 import miniproject2.paymentmanagementsystem.dto.PaymentUpdateDTO;
+import miniproject2.paymentmanagementsystem.dto.PaymentVersionDTO;
 import miniproject2.paymentmanagementsystem.entity.Payment;
 import miniproject2.paymentmanagementsystem.entity.User;
 import miniproject2.paymentmanagementsystem.enums.Role;
 import miniproject2.paymentmanagementsystem.repository.PaymentRepository;
 import miniproject2.paymentmanagementsystem.repository.UserRepository;
+import miniproject2.paymentmanagementsystem.util.ETagUtil;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,10 +21,12 @@ import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
 
+import java.time.YearMonth;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("service.payment")
 @RequiredArgsConstructor
 @Transactional
 @Slf4j
@@ -28,10 +34,12 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
+    private final BalanceService balanceService;
+    private final ReportService reportService;
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
     public PaymentResponseDTO createPayment(PaymentCreateDTO paymentCreateDTO) {
-        log.info("Creating payment with amount: {} and type: {}", paymentCreateDTO.getAmount(), paymentCreateDTO.getPaymentType());
+        log.debug("Creating payment with amount: {} and type: {}", paymentCreateDTO.getAmount(), paymentCreateDTO.getPaymentType());
         try {
             User currentUser = getCurrentUser();
             log.debug("Payment creation initiated by user: {}", currentUser.getEmail());
@@ -45,6 +53,8 @@ public class PaymentService {
             payment.setCreatedBy(currentUser);
 
             Payment savedPayment = paymentRepository.save(payment);
+            balanceService.recordAdded(savedPayment);
+            reportService.invalidate(YearMonth.from(savedPayment.getDate()));
             log.info("Payment created successfully with ID: {}", savedPayment.getId());
             return convertToResponseDTO(savedPayment);
         } catch (Exception e) {
@@ -56,14 +66,14 @@ public class PaymentService {
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER') or hasRole('VIEWER')")
     public List<PaymentResponseDTO> getAllPayments() {
-        log.info("Fetching all payments");
+        log.debug("Fetching all payments");
 
         try {
             List<PaymentResponseDTO> payments = paymentRepository.findAll()
                     .stream()
                     .map(this::convertToResponseDTO)
                     .collect(Collectors.toList());
-            log.info("Successfully retrieved {} payments", payments.size());
+            log.debug("Successfully retrieved {} payments", payments.size());
             return payments;
         } catch (Exception e) {
             log.error("Failed to fetch all payments", e);
@@ -74,14 +84,14 @@ public class PaymentService {
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER') or hasRole('VIEWER')")
     public PaymentResponseDTO getPaymentById(Long id) {
-        log.info("Fetching payment with ID: {}", id);
+        log.debug("Fetching payment with ID: {}", id);
         try {
             Payment payment = paymentRepository.findById(id)
                     .orElseThrow(() -> {
                         log.error("Payment not found with ID: {}", id);
                         return new RuntimeException("Payment not found with id: " + id);
                     });
-            log.info("Successfully retrieved payment with ID: {}", id);
+            log.debug("Successfully retrieved payment with ID: {}", id);
             return convertToResponseDTO(payment);
         } catch (Exception e) {
             log.error("Failed to fetch payment with ID: {}", id, e);
@@ -91,10 +101,10 @@ public class PaymentService {
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
     public PaymentResponseDTO updatePayment(Long id, PaymentUpdateDTO paymentUpdateDTO) {
-        log.info("Updating payment with ID: {}", id);
+        log.debug("Updating payment with ID: {}", id);
 
         try {
-            Payment payment = paymentRepository.findById(id)
+            Payment payment = paymentRepository.findByIdForUpdate(id)
                     .orElseThrow(() -> {
                         log.error("Payment not found for update with ID: {}", id);
                         return new RuntimeException("Payment not found with id: " + id);
@@ -108,6 +118,8 @@ public class PaymentService {
                 throw new RuntimeException("You can only update payments you created");
             }
 
+            BalanceService.BalanceKey balanceBefore = BalanceService.BalanceKey.of(payment);
+
             if (paymentUpdateDTO.getAmount() != null) {
                 payment.setAmount(paymentUpdateDTO.getAmount());
             }
@@ -128,6 +140,9 @@ public class PaymentService {
             }
 
             Payment updatedPayment = paymentRepository.save(payment);
+            balanceService.recordChanged(balanceBefore, updatedPayment);
+            reportService.invalidate(balanceBefore.month());
+            reportService.invalidate(YearMonth.from(updatedPayment.getDate()));
             log.info("Payment updated successfully with ID: {}", id);
             return convertToResponseDTO(updatedPayment);
         } catch (Exception e) {
@@ -138,15 +153,17 @@ public class PaymentService {
 
     @PreAuthorize("hasRole('ADMIN')")
     public void deletePayment(Long id) {
-        log.info("Deleting payment with ID: {}", id);
+        log.debug("Deleting payment with ID: {}", id);
         try {
-            Payment payment = paymentRepository.findById(id)
+            Payment payment = paymentRepository.findByIdForUpdate(id)
                     .orElseThrow(() -> {
                         log.error("Payment not found for deletion with ID: {}", id);
                         return new RuntimeException("Payment not found with id: " + id);
                     });
 
             paymentRepository.delete(payment);
+            balanceService.recordRemoved(payment);
+            reportService.invalidate(YearMonth.from(payment.getDate()));
             log.info("Payment deleted successfully with ID: {}", id);
         } catch (Exception e) {
             log.error("Failed to delete payment with ID: {}", id, e);
@@ -157,14 +174,14 @@ public class PaymentService {
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER') or hasRole('VIEWER')")
     public List<PaymentResponseDTO> getPaymentsByCurrentUser() {
-        log.info("Fetching payments for current user");
+        log.debug("Fetching payments for current user");
         try {
             User currentUser = getCurrentUser();
             List<PaymentResponseDTO> payments = paymentRepository.findByCreatedBy(currentUser)
                     .stream()
                     .map(this::convertToResponseDTO)
                     .collect(Collectors.toList());
-            log.info("Successfully retrieved {} payments for user: {}", payments.size(), currentUser.getEmail());
+            log.debug("Successfully retrieved {} payments for user: {}", payments.size(), currentUser.getEmail());
             return payments;
         } catch (Exception e) {
             log.error("Failed to fetch payments for current user", e);
@@ -172,6 +189,37 @@ public class PaymentService {
         }
     }
 
+    /**
+     * ETag of a single payment from its id and updatedAt only, or null when the payment does not exist
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER') or hasRole('VIEWER')")
+    public String getPaymentETag(Long id) {
+        return paymentRepository.findUpdatedAtById(id)
+                .map(updatedAt -> ETagUtil.forPayment(id, updatedAt))
+                .orElse(null);
+    }
+
+    /**
+     * ETag of the current user's payments from a single max(updatedAt)/count query, without loading any entity
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER') or hasRole('VIEWER')")
+    public String getCurrentUserPaymentsETag() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        PaymentVersionDTO version = paymentRepository.findVersionByCreatorEmail(email);
+        return ETagUtil.forPaymentSet(version.getTotal(), version.getLastUpdated());
+    }
+
+    /**
+     * The current user's running balances for a month, read from the balance table rather than summed
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER') or hasRole('VIEWER')")
+    public List<BalanceDTO> getCurrentUserBalances(YearMonth month) {
+        return balanceService.getBalances(getCurrentUser().getId(), month);
+    }
+
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
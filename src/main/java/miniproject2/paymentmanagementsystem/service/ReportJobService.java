@@ -0,0 +1,254 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import miniproject2.paymentmanagementsystem.dto.PaymentSummaryDTO;
+import miniproject2.paymentmanagementsystem.dto.ReportJobDTO;
+import miniproject2.paymentmanagementsystem.dto.ReportJobRequestDTO;
+import miniproject2.paymentmanagementsystem.dto.ReportTotalDTO;
+import miniproject2.paymentmanagementsystem.entity.ReportResult;
+import miniproject2.paymentmanagementsystem.entity.User;
+import miniproject2.paymentmanagementsystem.enums.ReportJobStatus;
+import miniproject2.paymentmanagementsystem.enums.Role;
+import miniproject2.paymentmanagementsystem.repository.ReportResultRepository;
+import miniproject2.paymentmanagementsystem.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs payment summary reports in the background. Jobs wait in a bounded queue for one of
+ * report.jobs.pool-size workers; each worker aggregates one month at a time in the database, so jobs
+ * never hold more than that many Hikari connections. Closed months already in the report cache are
+ * read from it, but job slices are never added to it. Results are kept as gzipped JSON in
+ * report_results until they expire.
+ */
+@Service
+@Timed("service.report.job")
+@Slf4j
+public class ReportJobService {
+
+    private final ReportResultRepository reportResultRepository;
+    private final ReportService reportService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor jobExecutor;
+    private final long resultTtlHours;
+
+    public ReportJobService(ReportResultRepository reportResultRepository,
+                            ReportService reportService,
+                            UserRepository userRepository,
+                            ObjectMapper objectMapper,
+                            @Value("${report.jobs.pool-size:2}") int poolSize,
+                            @Value("${report.jobs.queue-capacity:16}") int queueCapacity,
+                            @Value("${report.jobs.result-ttl-hours:24}") long resultTtlHours) {
+        this.reportResultRepository = reportResultRepository;
+        this.reportService = reportService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.resultTtlHours = resultTtlHours;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.jobExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Report job pool started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    @PostConstruct
+    public void failInterruptedJobs() {
+        int interrupted = reportResultRepository.failAllInStatus(EnumSet.of(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING),
+                "Interrupted by shutdown", LocalDateTime.now(), expiry());
+        if (interrupted > 0) {
+            log.info("Marked {} interrupted report jobs as failed", interrupted);
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ReportJobDTO submit(ReportJobRequestDTO request) {
+        if (request.getFrom().isAfter(request.getTo())) {
+            throw new RuntimeException("From date must not be after to date");
+        }
+
+        ReportResult job = new ReportResult();
+        job.setRequestedBy(getCurrentUser().getId());
+        job.setFromDate(request.getFrom());
+        job.setToDate(request.getTo());
+        job.setStatus(ReportJobStatus.QUEUED);
+        ReportResult saved = reportResultRepository.save(job);
+
+        try {
+            jobExecutor.execute(() -> runJob(saved.getId(), saved.getFromDate(), saved.getToDate()));
+        } catch (RejectedExecutionException e) {
+            log.warn("Report job queue is full, rejecting job {}", saved.getId());
+            reportResultRepository.fail(saved.getId(), "Report job queue is full", LocalDateTime.now(), expiry());
+            throw e;
+        }
+        log.info("Queued report job {} for {} to {}", saved.getId(), saved.getFromDate(), saved.getToDate());
+        return toDTO(saved);
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public ReportJobDTO getJob(Long id) {
+        ReportJobDTO job = reportResultRepository.findJobById(id)
+                .orElseThrow(() -> new RuntimeException("Report job not found with id: " + id));
+        User currentUser = getCurrentUser();
+        if (currentUser.getRole() != Role.ADMIN && !job.getRequestedBy().equals(currentUser.getId())) {
+            throw new RuntimeException("Report job not found with id: " + id);
+        }
+        return job;
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public List<ReportJobDTO> getMyJobs() {
+        return reportResultRepository.findJobsByRequester(getCurrentUser().getId());
+    }
+
+    /**
+     * The gzipped JSON PaymentSummaryDTO of a completed job, as stored
+     */
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public byte[] getCompressedResult(Long id) {
+        ReportJobDTO job = getJob(id);
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            throw new RuntimeException("Report job " + id + " is " + job.getStatus());
+        }
+        return reportResultRepository.findResultById(id, LocalDateTime.now())
+                .orElseThrow(() -> new RuntimeException("Result of report job " + id + " has expired"));
+    }
+
+    @Scheduled(fixedDelayString = "${report.jobs.cleanup-interval-ms:3600000}")
+    public void deleteExpiredResults() {
+        int deleted = reportResultRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired report results", deleted);
+        }
+    }
+
+    public static byte[] decompress(byte[] compressed) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void runJob(Long id, LocalDate from, LocalDate to) {
+        log.debug("Running report job {}", id);
+        try {
+            reportResultRepository.updateStatus(id, ReportJobStatus.RUNNING);
+            PaymentSummaryDTO summary = summarize(id, from, to);
+            reportResultRepository.complete(id, compress(summary), LocalDateTime.now(), expiry());
+            log.info("Report job {} completed with {} payments", id, summary.getPaymentCount());
+        } catch (Exception e) {
+            log.error("Report job {} failed", id, e);
+            reportResultRepository.fail(id, e.getMessage(), LocalDateTime.now(), expiry());
+        }
+    }
+
+    private PaymentSummaryDTO summarize(Long id, LocalDate from, LocalDate to) {
+        Map<String, ReportTotalDTO> byStatus = new TreeMap<>();
+        Map<String, ReportTotalDTO> byCategory = new TreeMap<>();
+        Map<String, ReportTotalDTO> byPaymentType = new TreeMap<>();
+        Map<String, ReportTotalDTO> byMonth = new TreeMap<>();
+        long paymentCount = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+
+        YearMonth first = YearMonth.from(from);
+        int totalMonths = (int) first.until(YearMonth.from(to), ChronoUnit.MONTHS) + 1;
+        int lastProgress = 0;
+        for (int i = 0; i < totalMonths; i++) {
+            YearMonth month = first.plusMonths(i);
+            LocalDate sliceStart = i == 0 ? from : month.atDay(1);
+            LocalDate sliceEnd = i == totalMonths - 1 ? to : month.atEndOfMonth();
+
+            PaymentSummaryDTO slice = reportService.summarize(sliceStart, sliceEnd);
+            paymentCount += slice.getPaymentCount();
+            totalAmount = totalAmount.add(slice.getTotalAmount());
+            addAll(byStatus, slice.getByStatus());
+            addAll(byCategory, slice.getByCategory());
+            addAll(byPaymentType, slice.getByPaymentType());
+            addAll(byMonth, slice.getByMonth());
+
+            // Progress moves in steps of at least 5% so long jobs don't flood the table with updates
+            int progress = (i + 1) * 99 / totalMonths;
+            if (progress - lastProgress >= 5) {
+                reportResultRepository.updateProgress(id, progress);
+                lastProgress = progress;
+            }
+        }
+
+        return new PaymentSummaryDTO(from, to, paymentCount, totalAmount, new ArrayList<>(byStatus.values()),
+                new ArrayList<>(byCategory.values()), new ArrayList<>(byPaymentType.values()), new ArrayList<>(byMonth.values()));
+    }
+
+    private void addAll(Map<String, ReportTotalDTO> totals, List<ReportTotalDTO> slice) {
+        // Slice rows may be shared with the report cache, so they are copied rather than updated
+        for (ReportTotalDTO row : slice) {
+            totals.merge(row.getKey(), new ReportTotalDTO(row.getKey(), row.getPaymentCount(), row.getTotalAmount()),
+                    (total, add) -> new ReportTotalDTO(total.getKey(), total.getPaymentCount() + add.getPaymentCount(),
+                            total.getTotalAmount().add(add.getTotalAmount())));
+        }
+    }
+
+    private byte[] compress(PaymentSummaryDTO summary) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(objectMapper.writeValueAsBytes(summary));
+        }
+        return bytes.toByteArray();
+    }
+
+    private LocalDateTime expiry() {
+        return LocalDateTime.now().plusHours(resultTtlHours);
+    }
+
+    private User getCurrentUser() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Current user not found"));
+    }
+
+    private ReportJobDTO toDTO(ReportResult job) {
+        return new ReportJobDTO(job.getId(), job.getRequestedBy(), job.getFromDate(), job.getToDate(), job.getStatus(),
+                job.getProgress(), job.getErrorMessage(), job.getCreatedAt(), job.getCompletedAt(), job.getExpiresAt());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+}
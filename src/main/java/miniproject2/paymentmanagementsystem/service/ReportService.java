@@ -0,0 +1,165 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import miniproject2.paymentmanagementsystem.dto.PaymentSummaryDTO;
+import miniproject2.paymentmanagementsystem.dto.ReportTotalDTO;
+import miniproject2.paymentmanagementsystem.enums.ReportDimension;
+import miniproject2.paymentmanagementsystem.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payment totals per status, category, payment type and month over a date range. Totals are grouped
+ * in the database, and totals for closed periods (ranges ending before the current month) are kept in
+ * a bounded LRU until a payment write touches one of their months.
+ */
+@Service
+@Timed("service.report")
+@Transactional(readOnly = true)
+@Slf4j
+public class ReportService {
+
+    private final PaymentRepository paymentRepository;
+    private final Map<ReportKey, List<ReportTotalDTO>> closedPeriodTotals;
+    // Bumped by every invalidation, so totals read across one are not stored stale
+    private long generation;
+
+    public ReportService(PaymentRepository paymentRepository,
+                         @Value("${report.cache.max-entries:256}") int maxCachedReports) {
+        this.paymentRepository = paymentRepository;
+        this.closedPeriodTotals = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ReportKey, List<ReportTotalDTO>> eldest) {
+                return size() > maxCachedReports;
+            }
+        };
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public List<ReportTotalDTO> getTotals(ReportDimension dimension, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return totals(dimension, from, to, true);
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE_MANAGER')")
+    public PaymentSummaryDTO getSummary(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return summarize(from, to, true);
+    }
+
+    /**
+     * Summary without the caller checks, for background report jobs that run outside a request. Cached
+     * totals are used but nothing is added: a multi-year job would otherwise store a slice for every
+     * month and push every interactive report out of the LRU.
+     */
+    public PaymentSummaryDTO summarize(LocalDate from, LocalDate to) {
+        return summarize(from, to, false);
+    }
+
+    private PaymentSummaryDTO summarize(LocalDate from, LocalDate to, boolean store) {
+        List<ReportTotalDTO> byStatus = totals(ReportDimension.STATUS, from, to, store);
+        // Every payment has exactly one status, so the status rows add up to the whole range
+        long paymentCount = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (ReportTotalDTO total : byStatus) {
+            paymentCount += total.getPaymentCount();
+            totalAmount = totalAmount.add(total.getTotalAmount());
+        }
+        return new PaymentSummaryDTO(from, to, paymentCount, totalAmount, byStatus,
+                totals(ReportDimension.CATEGORY, from, to, store),
+                totals(ReportDimension.PAYMENT_TYPE, from, to, store),
+                totals(ReportDimension.MONTH, from, to, store));
+    }
+
+    /**
+     * Drop cached totals that include the month, once the current transaction commits
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void invalidate(YearMonth month) {
+        // Open months are never cached, and most writes land in the current month
+        if (!month.isBefore(YearMonth.now())) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(month);
+                }
+            });
+        } else {
+            evict(month);
+        }
+    }
+
+    synchronized int cachedReportCount() {
+        return closedPeriodTotals.size();
+    }
+
+    private List<ReportTotalDTO> totals(ReportDimension dimension, LocalDate from, LocalDate to, boolean store) {
+        boolean closed = to.isBefore(YearMonth.now().atDay(1));
+        ReportKey key = new ReportKey(dimension, from, to);
+        long stamp;
+        synchronized (this) {
+            List<ReportTotalDTO> cached = closedPeriodTotals.get(key);
+            if (cached != null) {
+                log.debug("Serving {} totals for {} to {} from cache", dimension, from, to);
+                return cached;
+            }
+            stamp = generation;
+        }
+
+        List<ReportTotalDTO> totals = List.copyOf(query(dimension, from.atStartOfDay(), to.plusDays(1).atStartOfDay()));
+        if (closed && store) {
+            synchronized (this) {
+                if (stamp == generation) {
+                    closedPeriodTotals.put(key, totals);
+                }
+            }
+        }
+        return totals;
+    }
+
+    private List<ReportTotalDTO> query(ReportDimension dimension, LocalDateTime from, LocalDateTime to) {
+        switch (dimension) {
+            case STATUS:
+                return paymentRepository.sumByStatus(from, to);
+            case CATEGORY:
+                return paymentRepository.sumByCategory(from, to);
+            case PAYMENT_TYPE:
+                return paymentRepository.sumByPaymentType(from, to);
+            default:
+                return paymentRepository.sumByMonth(from, to);
+        }
+    }
+
+    private synchronized void evict(YearMonth month) {
+        generation++;
+        LocalDate monthStart = month.atDay(1);
+        LocalDate monthEnd = month.atEndOfMonth();
+        closedPeriodTotals.keySet().removeIf(key -> !key.from().isAfter(monthEnd) && !key.to().isBefore(monthStart));
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("From date must not be after to date");
+        }
+    }
+
+    private record ReportKey(ReportDimension dimension, LocalDate from, LocalDate to) {
+    }
+}
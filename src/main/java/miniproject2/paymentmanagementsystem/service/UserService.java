@@ -1,14 +1,17 @@
 package miniproject2.paymentmanagementsystem.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import miniproject2.paymentmanagementsystem.dto.UserCreateDTO;
 import miniproject2.paymentmanagementsystem.dto.UserResponseDTO;
 import miniproject2.paymentmanagementsystem.entity.User;
 import miniproject2.paymentmanagementsystem.repository.UserRepository;
+import miniproject2.paymentmanagementsystem.security.PooledPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
@@ -17,13 +20,17 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("service.user")
 @RequiredArgsConstructor
 @Transactional
 @Slf4j
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+
+    @Value("${security.password.hashing.timeout-ms:5000}")
+    private long passwordHashingTimeoutMillis;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -35,6 +42,15 @@ public class UserService implements UserDetailsService {
         });
     }
 
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newEncodedPassword) {
+        log.info("Upgrading password hash for user: {}", userDetails.getUsername());
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPassword(newEncodedPassword);
+        return userRepository.save(user);
+    }
+
     public UserResponseDTO createUser(UserCreateDTO userCreateDTO) {
         log.info("Creating new user with email: {}", userCreateDTO.getEmail());
         if (userRepository.existsByEmail(userCreateDTO.getEmail())) {
@@ -46,7 +62,8 @@ public class UserService implements UserDetailsService {
             User user = new User();
             user.setName(userCreateDTO.getName());
             user.setEmail(userCreateDTO.getEmail());
-            user.setPassword(passwordEncoder.encode(userCreateDTO.getPassword()));
+            user.setPassword(PooledPasswordEncoder.await(passwordHashingService.hash(userCreateDTO.getPassword()),
+                    passwordHashingTimeoutMillis));
             user.setRole(userCreateDTO.getRole());
             User savedUser = userRepository.save(user);
             log.info("User created successfully with ID: {} and email: {}", savedUser.getId(), savedUser.getEmail());
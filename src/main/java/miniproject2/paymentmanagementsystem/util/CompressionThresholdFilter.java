@@ -0,0 +1,188 @@
+package miniproject2.paymentmanagementsystem.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * Makes server.compression.min-response-size hold for streamed API responses. Tomcat only skips gzip
+ * for small responses whose Content-Length it knows, and message converters stream without one, so
+ * every JSON, CBOR or Smile body would be gzipped however small. This holds back the first
+ * min-response-size bytes: a body that ends within them is sent with its Content-Length, and Tomcat
+ * leaves it uncompressed; a larger one is released as soon as it crosses the threshold and streams on,
+ * compressed, without being buffered whole. Runs ahead of Spring Security and DatabaseConcurrencyFilter,
+ * so the small 401, 403 and 503 bodies they write are held too and go out uncompressed.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 2)
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final int thresholdBytes;
+
+    public CompressionThresholdFilter(@Value("${server.compression.enabled:false}") boolean enabled,
+                                      @Value("${server.compression.min-response-size:2KB}") DataSize threshold) {
+        this.enabled = enabled;
+        this.thresholdBytes = (int) threshold.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ThresholdResponse thresholdResponse = new ThresholdResponse(response, thresholdBytes);
+        try {
+            filterChain.doFilter(request, thresholdResponse);
+        } finally {
+            thresholdResponse.finish();
+        }
+    }
+
+    private static final class ThresholdResponse extends HttpServletResponseWrapper {
+        private final int thresholdBytes;
+        // Null once the threshold is crossed and writes go straight to the response
+        private ByteArrayOutputStream held = new ByteArrayOutputStream();
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        private ThresholdResponse(HttpServletResponse response, int thresholdBytes) {
+            super(response);
+            this.thresholdBytes = thresholdBytes;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called on this response");
+            }
+            if (outputStream == null) {
+                outputStream = new ThresholdOutputStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (outputStream != null && writer == null) {
+                throw new IllegalStateException("getOutputStream() has already been called on this response");
+            }
+            if (writer == null) {
+                outputStream = new ThresholdOutputStream();
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            // Flushing commits the response, which would fix its length as unknown
+            if (held == null) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (held != null) {
+                held.reset();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (held != null) {
+                held.reset();
+            }
+        }
+
+        private void release() throws IOException {
+            ByteArrayOutputStream bytes = held;
+            held = null;
+            bytes.writeTo(getResponse().getOutputStream());
+        }
+
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (held != null && held.size() > 0) {
+                if (!isCommitted()) {
+                    setContentLength(held.size());
+                }
+                release();
+            }
+        }
+
+        private final class ThresholdOutputStream extends ServletOutputStream {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (held == null) {
+                    getResponse().getOutputStream().write(b, off, len);
+                    return;
+                }
+                held.write(b, off, len);
+                if (held.size() > thresholdBytes) {
+                    release();
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (held == null) {
+                    getResponse().getOutputStream().flush();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                // Held bytes go to memory, which is always ready
+                if (held != null) {
+                    return true;
+                }
+                try {
+                    return getResponse().getOutputStream().isReady();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                // The container calls the listener back when its own stream can take more
+                try {
+                    getResponse().getOutputStream().setWriteListener(writeListener);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
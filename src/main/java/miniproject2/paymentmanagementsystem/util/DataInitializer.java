@@ -5,55 +5,69 @@ import lombok.extern.slf4j.Slf4j;
 import miniproject2.paymentmanagementsystem.entity.User;
 import miniproject2.paymentmanagementsystem.enums.Role;
 import miniproject2.paymentmanagementsystem.repository.UserRepository;
+import miniproject2.paymentmanagementsystem.service.BalanceService;
+import miniproject2.paymentmanagementsystem.service.PasswordHashingService;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final BalanceService balanceService;
 
     @Override
     public void run(String... args) throws Exception {
         createDefaultUsers();
+        balanceService.rebuildIfEmpty();
     }
 
     private void createDefaultUsers() {
+        // Start all missing hashes at once so the BCrypt work runs in parallel on the hashing pool
+        CompletableFuture<String> adminHash = hashIfMissing("admin@payment.com", "admin123");
+        CompletableFuture<String> financeHash = hashIfMissing("finance@payment.com", "finance123");
+        CompletableFuture<String> viewerHash = hashIfMissing("viewer@payment.com", "viewer123");
+
         // Create Admin user if not exists
-        if (!userRepository.existsByEmail("admin@payment.com")) {
+        if (adminHash != null) {
             User admin = new User();
             admin.setName("System Admin");
             admin.setEmail("admin@payment.com");
-            admin.setPassword(passwordEncoder.encode("admin123"));
+            admin.setPassword(adminHash.join());
             admin.setRole(Role.ADMIN);
             userRepository.save(admin);
             log.info("Created default admin user: admin@payment.com");
         }
 
         // Create Finance Manager user if not exists
-        if (!userRepository.existsByEmail("finance@payment.com")) {
+        if (financeHash != null) {
             User financeManager = new User();
             financeManager.setName("Finance Manager");
             financeManager.setEmail("finance@payment.com");
-            financeManager.setPassword(passwordEncoder.encode("finance123"));
+            financeManager.setPassword(financeHash.join());
             financeManager.setRole(Role.FINANCE_MANAGER);
             userRepository.save(financeManager);
             log.info("Created default finance manager user: finance@payment.com");
         }
 
         // Create Viewer user if not exists
-        if (!userRepository.existsByEmail("viewer@payment.com")) {
+        if (viewerHash != null) {
             User viewer = new User();
             viewer.setName("Payment Viewer");
             viewer.setEmail("viewer@payment.com");
-            viewer.setPassword(passwordEncoder.encode("viewer123"));
+            viewer.setPassword(viewerHash.join());
             viewer.setRole(Role.VIEWER);
             userRepository.save(viewer);
             log.info("Created default viewer user: viewer@payment.com");
         }
     }
+
+    private CompletableFuture<String> hashIfMissing(String email, String rawPassword) {
+        return userRepository.existsByEmail(email) ? null : passwordHashingService.hash(rawPassword);
+    }
 }
\ No newline at end of file
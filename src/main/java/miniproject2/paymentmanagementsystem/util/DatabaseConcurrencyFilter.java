@@ -0,0 +1,117 @@
+package miniproject2.paymentmanagementsystem.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import miniproject2.paymentmanagementsystem.exception.ErrorResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets at most as many /api requests run as the Hikari pool has connections; the rest wait here, in
+ * arrival order, and are shed with 503 after the acquire timeout. Open-in-view keeps a request's
+ * connection until the response is written, so this matches the pool one to one. Off by default, and
+ * then not even a bean: Tomcat's 200 platform threads already bound the wait in Hikari's queue, and
+ * shedding would only turn slow requests into 503s. Turn it on with web.db-concurrency.enabled=true when
+ * request threads stop being capped, e.g. with virtual threads once the project runs on Java 21. Runs
+ * ahead of Spring Security so the user lookup in JwtAuthenticationFilter is counted too.
+ */
+@Component
+@ConditionalOnProperty(name = "web.db-concurrency.enabled", havingValue = "true")
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@Slf4j
+public class DatabaseConcurrencyFilter extends OncePerRequestFilter {
+
+    private final int maxConcurrent;
+    private final long acquireTimeoutMillis;
+    private final Semaphore permits;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public DatabaseConcurrencyFilter(DataSource dataSource,
+                                     ObjectMapper objectMapper,
+                                     @Value("${web.db-concurrency.max-concurrent:0}") int maxConcurrent,
+                                     @Value("${web.db-concurrency.acquire-timeout-ms:5000}") long acquireTimeoutMillis) {
+        // 0 means the size of the connection pool
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent
+                : dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        this.objectMapper = objectMapper;
+        log.info("Database concurrency limit enabled with {} concurrent requests and {} ms acquire timeout",
+                this.maxConcurrent, acquireTimeoutMillis);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.incrementAndGet();
+            log.warn("Request shed after waiting {} ms for a database slot: {} {}",
+                    acquireTimeoutMillis, request.getMethod(), request.getRequestURI());
+            writeServiceUnavailable(response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private void writeServiceUnavailable(HttpServletResponse response) throws IOException {
+        ErrorResponse errorResponse = new ErrorResponse(
+                "Service is busy, please retry shortly",
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                LocalDateTime.now(),
+                null
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
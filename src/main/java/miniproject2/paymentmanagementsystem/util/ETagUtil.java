@@ -0,0 +1,33 @@
+package miniproject2.paymentmanagementsystem.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Weak ETags for payment resources. Timestamps are reduced to microseconds, the precision PostgreSQL stores,
+ * so a tag built from a freshly loaded entity matches one built from a version query.
+ */
+public final class ETagUtil {
+
+    private ETagUtil() {
+    }
+
+    public static String forPayment(Long id, LocalDateTime updatedAt) {
+        return "W/\"payment-" + id + "-" + toMicrosHex(updatedAt) + "\"";
+    }
+
+    /**
+     * Tag for a filtered set: any insert or update moves the max timestamp and any delete changes the count
+     */
+    public static String forPaymentSet(long count, LocalDateTime lastUpdated) {
+        return "W/\"payments-" + count + "-" + toMicrosHex(lastUpdated) + "\"";
+    }
+
+    private static String toMicrosHex(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return "0";
+        }
+        long micros = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+        return Long.toHexString(micros);
+    }
+}
@@ -1,5 +1,7 @@
 package miniproject2.paymentmanagementsystem.util;
 
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,6 +31,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -47,16 +52,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Check if token is blacklisted
         if (tokenBlacklistService.isTokenBlacklisted(jwt)) {
+            meterRegistry.counter("security.jwt.blacklist.hits").increment();
             filterChain.doFilter(request, response);
             return;
         }
 
-        userEmail = jwtUtil.extractUsername(jwt);
+        try {
+            userEmail = jwtUtil.extractUsername(jwt);
+        } catch (JwtException e) {
+            recordValidation("invalid");
+            throw e;
+        }
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            boolean valid = jwtUtil.validateToken(jwt, userDetails);
+            recordValidation(valid ? "valid" : "invalid");
+            if (valid) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -69,4 +82,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private void recordValidation(String result) {
+        meterRegistry.counter("security.jwt.validations", "result", result).increment();
+    }
+}
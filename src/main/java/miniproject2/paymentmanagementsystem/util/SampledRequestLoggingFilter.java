@@ -0,0 +1,51 @@
+package miniproject2.paymentmanagementsystem.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs one line per request for a random sample of traffic, plus every request slower than the threshold,
+ * instead of INFO lines on entry and exit of every controller and service call.
+ */
+@Component
+@Slf4j
+public class SampledRequestLoggingFilter extends OncePerRequestFilter {
+
+    private final double sampleRate;
+    private final long slowThresholdMillis;
+
+    public SampledRequestLoggingFilter(@Value("${request.logging.sample-rate:0.01}") double sampleRate,
+                                       @Value("${request.logging.slow-threshold-ms:1000}") long slowThresholdMillis) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long startNanos = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            if (elapsedMillis >= slowThresholdMillis) {
+                log.warn("Slow request {} {} -> {} in {} ms",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), elapsedMillis);
+            } else if (log.isInfoEnabled() && sampleRate > 0
+                    && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+                log.info("{} {} -> {} in {} ms",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), elapsedMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package miniproject1.paymentmanagementsystem.benchmark;
+
+import miniproject1.paymentmanagementsystem.model.Category;
+import miniproject1.paymentmanagementsystem.model.Payment;
+import miniproject1.paymentmanagementsystem.model.Status;
+import miniproject1.paymentmanagementsystem.repository.PaymentColumnStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares monthly report aggregation over Payment objects (the rows findByDateRange returns for the
+ * month, as ReportService used to aggregate them) against a single pass over PaymentColumnStore holding
+ * every payment.
+ * The object path is measured without the database round trip that produces its list, so it is flattered.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args=ReportBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+
+    private static final String[] TYPES = {"SALARY", "VENDOR", "CLIENT_INVOICE"};
+    private static final String[] STATUSES = {"PENDING", "PROCESSING", "COMPLETED"};
+    private static final String[] CATEGORIES = {"Salary", "Vendor Payment", "Client Invoice", "Miscellaneous"};
+    private static final int MONTHS = 24;
+
+    @Param({"100000", "1000000"})
+    public int payments;
+
+    private final YearMonth reportMonth = YearMonth.of(2024, 6);
+    private List<Payment> monthPayments;
+    private PaymentColumnStore columnStore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        YearMonth firstMonth = reportMonth.minusMonths(MONTHS / 2);
+
+        Status[] statuses = new Status[STATUSES.length];
+        Category[] categories = new Category[CATEGORIES.length];
+        columnStore = new PaymentColumnStore();
+        for (int i = 0; i < STATUSES.length; i++) {
+            statuses[i] = new Status(STATUSES[i]);
+            statuses[i].setStatusId(i + 1);
+            columnStore.putStatusName(i + 1, STATUSES[i]);
+        }
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            categories[i] = new Category(CATEGORIES[i]);
+            categories[i].setCategoryId(i + 1);
+            columnStore.putCategoryName(i + 1, CATEGORIES[i]);
+        }
+
+        monthPayments = new ArrayList<>();
+        for (int id = 1; id <= payments; id++) {
+            YearMonth month = firstMonth.plusMonths(random.nextInt(MONTHS));
+            LocalDateTime date = month.atDay(1 + random.nextInt(month.lengthOfMonth())).atTime(12, 0);
+            BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2);
+            Status status = statuses[random.nextInt(statuses.length)];
+            Category category = categories[random.nextInt(categories.length)];
+            String type = TYPES[random.nextInt(TYPES.length)];
+            int userId = 1 + random.nextInt(500);
+
+            columnStore.upsert(id, amount, date.toLocalDate(), type, status.getStatusId(),
+                    category.getCategoryId(), userId, 1 + userId % 20);
+
+            if (month.equals(reportMonth)) {
+                Payment payment = new Payment(amount, type, "Benchmark payment " + id,
+                        category.getCategoryId(), status.getStatusId(), userId);
+                payment.setPaymentId(id);
+                payment.setPaymentDate(date);
+                payment.setStatus(status);
+                payment.setCategory(category);
+                monthPayments.add(payment);
+            }
+        }
+    }
+
+    /**
+     * Aggregates the month's Payment objects the way the report did before bucketing moved into SQL
+     */
+    @Benchmark
+    public void objectPath(Blackhole blackhole) {
+        BigDecimal totalAmount = monthPayments.stream()
+                .map(Payment::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Map<String, Integer> paymentsByStatus = new HashMap<>();
+        Map<String, BigDecimal> amountsByStatus = new HashMap<>();
+        for (Payment payment : monthPayments) {
+            String status = payment.getStatus().getStatusName();
+            paymentsByStatus.merge(status, 1, Integer::sum);
+            amountsByStatus.merge(status, payment.getAmount(), BigDecimal::add);
+        }
+
+        Map<String, Integer> paymentsByType = new HashMap<>();
+        Map<String, BigDecimal> amountsByType = new HashMap<>();
+        for (Payment payment : monthPayments) {
+            String type = payment.getType();
+            paymentsByType.merge(type, 1, Integer::sum);
+            amountsByType.merge(type, payment.getAmount(), BigDecimal::add);
+        }
+
+        Map<String, Integer> paymentsByCategory = new HashMap<>();
+        Map<String, BigDecimal> amountsByCategory = new HashMap<>();
+        for (Payment payment : monthPayments) {
+            String category = payment.getCategory().getCategoryName();
+            paymentsByCategory.merge(category, 1, Integer::sum);
+            amountsByCategory.merge(category, payment.getAmount(), BigDecimal::add);
+        }
+
+        blackhole.consume(totalAmount);
+        blackhole.consume(amountsByStatus);
+        blackhole.consume(amountsByType);
+        blackhole.consume(amountsByCategory);
+    }
+
+    @Benchmark
+    public void columnarPath(Blackhole blackhole) {
+        blackhole.consume(columnStore.summarizeMonths(reportMonth, reportMonth));
+    }
+}
@@ -0,0 +1,275 @@
+package miniproject1.paymentmanagementsystem.repository;
+
+import miniproject1.paymentmanagementsystem.model.AuditTrail;
+import miniproject1.paymentmanagementsystem.model.Category;
+import miniproject1.paymentmanagementsystem.model.Payment;
+import miniproject1.paymentmanagementsystem.model.Status;
+import miniproject1.paymentmanagementsystem.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentArchiveTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2023, 3);
+    private static final int HEADER_BYTES = 32;
+
+    @TempDir
+    Path directory;
+
+    private PaymentArchive archive;
+    private Path paymentFile;
+
+    @BeforeEach
+    void setUp() {
+        archive = new PaymentArchive(directory);
+        paymentFile = directory.resolve("payments-" + MONTH + ".pma");
+    }
+
+    @Test
+    void findPayment_ShouldRoundTripEveryColumn() throws IOException {
+        // Given
+        Payment full = payment(7, new BigDecimal("-1234567890123.45"));
+        full.setDescription("Invoice 7 – café");
+        full.setTeamId(3);
+        Payment sparse = payment(8, new BigDecimal("0.5"));
+        sparse.setDescription(null);
+        sparse.setTeamId(null);
+        sparse.setCategory(null);
+        sparse.setStatus(null);
+        sparse.setCreatedBy(null);
+
+        // When
+        archive.appendPayments(MONTH, List.of(full, sparse));
+
+        // Then
+        Payment found = archive.findPayment(7).orElseThrow();
+        assertEquals(full.getAmount(), found.getAmount());
+        assertEquals(full.getType(), found.getType());
+        assertEquals(full.getPaymentDate(), found.getPaymentDate());
+        assertEquals(full.getDescription(), found.getDescription());
+        assertEquals(full.getCategoryId(), found.getCategoryId());
+        assertEquals(full.getStatusId(), found.getStatusId());
+        assertEquals(full.getCreatedByUserId(), found.getCreatedByUserId());
+        assertEquals(3, found.getTeamId());
+        assertEquals("Office", found.getCategory().getCategoryName());
+        assertEquals("APPROVED", found.getStatus().getStatusName());
+        assertEquals("Alice", found.getCreatedBy().getName());
+
+        Payment foundSparse = archive.findPayment(8).orElseThrow();
+        assertEquals(new BigDecimal("0.5"), foundSparse.getAmount());
+        assertNull(foundSparse.getDescription());
+        assertNull(foundSparse.getTeamId());
+        assertNull(foundSparse.getCategory().getCategoryName());
+        assertTrue(archive.findPayment(9).isEmpty());
+    }
+
+    @Test
+    void findAuditTrails_ShouldReturnEntriesAcrossChunks_NewestFirst() throws IOException {
+        // Given
+        archive.appendAuditTrails(MONTH, List.of(auditTrail(1, 5, 1), auditTrail(2, 6, 2)));
+        archive.appendAuditTrails(MONTH, List.of(auditTrail(3, 5, 3)));
+
+        // When
+        List<AuditTrail> history = archive.findAuditTrails(5);
+
+        // Then
+        assertEquals(List.of(3, 1), history.stream().map(AuditTrail::getAuditId).toList());
+        assertEquals("PENDING", history.get(1).getOldValue());
+        assertTrue(archive.findAuditTrails(99).isEmpty());
+    }
+
+    @Test
+    void findPayment_ShouldOnlyReadChunksCoveringTheId() throws IOException {
+        // Given - a damaged chunk for ids 1-3 and an intact one for ids 4-6
+        archive.appendPayments(MONTH, payments(1, 3));
+        long firstChunkEnd = Files.size(paymentFile);
+        archive.appendPayments(MONTH, payments(4, 6));
+        flipByte(paymentFile, firstChunkEnd - 1);
+
+        // When
+        Optional<Payment> found = archive.findPayment(5);
+
+        // Then
+        assertTrue(found.isPresent());
+        assertThrows(IOException.class, () -> archive.findPayment(2));
+    }
+
+    @Test
+    void appendPayments_ShouldTruncateTornChunk_BeforeAppending() throws IOException {
+        // Given - the second chunk was cut short by a crash
+        archive.appendPayments(MONTH, payments(1, 3));
+        long firstChunkEnd = Files.size(paymentFile);
+        archive.appendPayments(MONTH, payments(4, 6));
+        truncate(paymentFile, Files.size(paymentFile) - 10);
+        assertTrue(archive.findPayment(2).isPresent());
+        assertTrue(archive.findPayment(5).isEmpty());
+
+        // When - a restarted archiver appends again
+        PaymentArchive restarted = new PaymentArchive(directory);
+        restarted.appendPayments(MONTH, payments(7, 9));
+
+        // Then
+        assertTrue(archive.findPayment(2).isPresent());
+        assertTrue(archive.findPayment(8).isPresent());
+        assertTrue(archive.findPayment(5).isEmpty());
+        Path reference = Files.createDirectory(directory.resolve("reference"));
+        new PaymentArchive(reference).appendPayments(MONTH, payments(7, 9));
+        assertEquals(firstChunkEnd + Files.size(reference.resolve(paymentFile.getFileName())), Files.size(paymentFile));
+    }
+
+    @Test
+    void appendPayments_ShouldDropLastChunk_WhenItsChecksumFails() throws IOException {
+        // Given
+        archive.appendPayments(MONTH, payments(1, 3));
+        archive.appendPayments(MONTH, payments(4, 6));
+        flipByte(paymentFile, Files.size(paymentFile) - 1);
+
+        // When
+        new PaymentArchive(directory).appendPayments(MONTH, payments(7, 9));
+
+        // Then
+        assertTrue(archive.findPayment(1).isPresent());
+        assertTrue(archive.findPayment(9).isPresent());
+        assertTrue(archive.findPayment(4).isEmpty());
+    }
+
+    @Test
+    void appendPayments_ShouldRefuse_WhenCorruptChunkIsFollowedByIntactOnes() throws IOException {
+        // Given
+        archive.appendPayments(MONTH, payments(1, 3));
+        long firstChunkEnd = Files.size(paymentFile);
+        archive.appendPayments(MONTH, payments(4, 6));
+        long sizeBefore = Files.size(paymentFile);
+        flipByte(paymentFile, firstChunkEnd - 1);
+
+        // When / Then
+        assertThrows(IOException.class, () -> new PaymentArchive(directory).appendPayments(MONTH, payments(7, 9)));
+        assertEquals(sizeBefore, Files.size(paymentFile));
+    }
+
+    @Test
+    void findPayment_ShouldFail_WhenDeflateStreamIsCutShort() throws IOException {
+        // Given - a chunk whose compressed payload lost its second half but carries a matching checksum
+        archive.appendPayments(MONTH, payments(1, 50));
+        byte[] file = Files.readAllBytes(paymentFile);
+        int compressedLength = (file.length - HEADER_BYTES) / 2;
+        byte[] compressed = Arrays.copyOfRange(file, HEADER_BYTES, HEADER_BYTES + compressedLength);
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+        ByteBuffer rewritten = ByteBuffer.allocate(HEADER_BYTES + compressedLength)
+                .put(file, 0, 20)
+                .putInt(compressedLength)
+                .putLong(crc.getValue())
+                .put(compressed);
+        Files.write(paymentFile, rewritten.array());
+
+        // When / Then
+        PaymentArchive reader = new PaymentArchive(directory);
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IOException.class, () -> reader.findPayment(10)));
+    }
+
+    @Test
+    void appendPayments_ShouldNotInterleave_WhenArchiversAppendConcurrently() throws Exception {
+        // Given - two archivers, as two console instances would run
+        PaymentArchive other = new PaymentArchive(directory);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // When
+        try {
+            List<Future<?>> appends = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                int firstId = i * 10 + 1;
+                PaymentArchive writer = i % 2 == 0 ? archive : other;
+                appends.add(executor.submit(() -> {
+                    writer.appendPayments(MONTH, payments(firstId, firstId + 9));
+                    return null;
+                }));
+            }
+            for (Future<?> append : appends) {
+                append.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        for (int id = 1; id <= 200; id++) {
+            assertTrue(archive.findPayment(id).isPresent(), "payment " + id);
+        }
+        assertDoesNotThrow(() -> new PaymentArchive(directory).appendPayments(MONTH, payments(201, 203)));
+    }
+
+    private static List<Payment> payments(int firstId, int lastId) {
+        List<Payment> payments = new ArrayList<>();
+        for (int id = firstId; id <= lastId; id++) {
+            payments.add(payment(id, BigDecimal.valueOf(1000 + id * 25L, 2)));
+        }
+        return payments;
+    }
+
+    private static Payment payment(int id, BigDecimal amount) {
+        Payment payment = new Payment();
+        payment.setPaymentId(id);
+        payment.setAmount(amount);
+        payment.setType("OUTGOING");
+        payment.setPaymentDate(LocalDateTime.of(2023, 3, 1, 9, 30, 15, 123_456_000).plusHours(id));
+        payment.setDescription("Payment " + id);
+        payment.setCategoryId(2);
+        payment.setStatusId(3);
+        payment.setCreatedByUserId(4);
+        Category category = new Category();
+        category.setCategoryName("Office");
+        payment.setCategory(category);
+        Status status = new Status();
+        status.setStatusName("APPROVED");
+        payment.setStatus(status);
+        User createdBy = new User();
+        createdBy.setName("Alice");
+        payment.setCreatedBy(createdBy);
+        return payment;
+    }
+
+    private static AuditTrail auditTrail(int auditId, int paymentId, int hour) {
+        AuditTrail auditTrail = new AuditTrail();
+        auditTrail.setAuditId(auditId);
+        auditTrail.setPaymentId(paymentId);
+        auditTrail.setUserId(1);
+        auditTrail.setAction("STATUS_CHANGE");
+        auditTrail.setChangeTimestamp(LocalDateTime.of(2023, 3, 1, hour, 0));
+        auditTrail.setOldValue("PENDING");
+        auditTrail.setNewValue("APPROVED");
+        return auditTrail;
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[(int) position] ^= 0x5a;
+        Files.write(file, bytes);
+    }
+
+    private static void truncate(Path file, long length) throws IOException {
+        Files.write(file, Arrays.copyOf(Files.readAllBytes(file), (int) length));
+    }
+}
@@ -0,0 +1,66 @@
+package miniproject1.paymentmanagementsystem.repository;
+
+import miniproject1.paymentmanagementsystem.util.AmountSketch;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentColumnStoreTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 2);
+
+    @Test
+    void summarizeMonths_ShouldGiveSketchesTheRealExtremes_ByCategoryAndTeam() {
+        // Given
+        PaymentColumnStore store = new PaymentColumnStore();
+        store.putStatusName(1, "PENDING");
+        store.putCategoryName(2, "Office");
+        store.putCategoryName(3, "Travel");
+        store.putTeamName(5, "Operations");
+        store.upsert(1, new BigDecimal("123.45"), MONTH.atDay(3), "OUTGOING", 1, 2, 1, 5);
+        store.upsert(2, new BigDecimal("9876.54"), MONTH.atDay(4), "OUTGOING", 1, 2, 1, 5);
+        store.upsert(3, new BigDecimal("150.00"), MONTH.atDay(5), "OUTGOING", 1, 3, 1, null);
+        store.upsert(4, new BigDecimal("77.77"), LocalDate.of(2024, 3, 1), "OUTGOING", 1, 3, 1, 5);
+
+        // When
+        List<PaymentColumnStore.Summary> summaries = store.summarizeMonths(MONTH, MONTH);
+
+        // Then
+        assertEquals(1, summaries.size());
+        PaymentColumnStore.Summary summary = summaries.get(0);
+        AmountSketch office = summary.getAmountSketchesByCategory().get("Office");
+        assertEquals(12345, office.getMinCents());
+        assertEquals(987654, office.getMaxCents());
+        assertEquals(2, office.getCount());
+        AmountSketch operations = summary.getAmountSketchesByTeam().get("Operations");
+        assertEquals(12345, operations.getMinCents());
+        assertEquals(987654, operations.getMaxCents());
+        AmountSketch unassigned = summary.getAmountSketchesByTeam().get("Unassigned");
+        assertEquals(15000, unassigned.getMinCents());
+        assertEquals(15000, unassigned.getMaxCents());
+        assertEquals(new BigDecimal("150.00"), unassigned.getP50());
+    }
+
+    @Test
+    void upsert_ShouldRoundToCents_LikeTheAmountColumn() {
+        // Given
+        PaymentColumnStore store = new PaymentColumnStore();
+        store.putStatusName(1, "PENDING");
+        store.putCategoryName(2, "Office");
+
+        // When
+        store.upsert(1, new BigDecimal("10.005"), MONTH.atDay(3), "OUTGOING", 1, 2, 1, null);
+        store.upsert(2, new BigDecimal("0.3333"), MONTH.atDay(4), "OUTGOING", 1, 2, 1, null);
+
+        // Then
+        PaymentColumnStore.Summary summary = store.summarizeMonths(MONTH, MONTH).get(0);
+        assertEquals(new BigDecimal("10.34"), summary.getTotalAmount());
+        assertEquals(33, summary.getAmountSketchesByCategory().get("Office").getMinCents());
+        assertEquals(1001, summary.getAmountSketchesByCategory().get("Office").getMaxCents());
+    }
+}
@@ -0,0 +1,102 @@
+package miniproject1.paymentmanagementsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountSketchTest {
+
+    @Test
+    void bucketIndex_ShouldCountCentsExactly_BelowSubBucketRange() {
+        assertEquals(0, AmountSketch.bucketIndex(-500));
+        assertEquals(0, AmountSketch.bucketIndex(0));
+        assertEquals(1, AmountSketch.bucketIndex(1));
+        assertEquals(127, AmountSketch.bucketIndex(127));
+        assertEquals(128, AmountSketch.bucketIndex(128));
+        assertEquals(255, AmountSketch.bucketIndex(255));
+        // From 256 cents on each bucket spans two cents, from 512 four, and so on
+        assertEquals(256, AmountSketch.bucketIndex(256));
+        assertEquals(256, AmountSketch.bucketIndex(257));
+        assertEquals(257, AmountSketch.bucketIndex(258));
+    }
+
+    @Test
+    void bucketIndex_ShouldPlaceEveryAmountWithinItsBucketBounds() {
+        int previous = 0;
+        for (long cents = 0; cents < 5_000_000; cents += 7) {
+            int index = AmountSketch.bucketIndex(cents);
+            assertTrue(index >= previous, "indexes must not decrease, at " + cents);
+            assertTrue(AmountSketch.bucketLowerCents(index) <= cents, "lower bound above " + cents);
+            assertTrue(AmountSketch.bucketUpperCents(index) >= cents, "upper bound below " + cents);
+            previous = index;
+        }
+        assertEquals(AmountSketch.bucketUpperCents(300) + 1, AmountSketch.bucketLowerCents(301));
+        long large = 987_654_321_012L;
+        int index = AmountSketch.bucketIndex(large);
+        assertTrue(AmountSketch.bucketLowerCents(index) <= large && large <= AmountSketch.bucketUpperCents(index));
+    }
+
+    @Test
+    void merge_ShouldMatchOneSketchOfEveryAmount_AndLeaveInputsUnchanged() {
+        // Given
+        Random random = new Random(42);
+        AmountSketch january = new AmountSketch();
+        AmountSketch february = new AmountSketch();
+        AmountSketch both = new AmountSketch();
+        for (int i = 0; i < 5_000; i++) {
+            long cents = 100 + random.nextInt(2_000_000);
+            (i % 3 == 0 ? january : february).addCents(cents);
+            both.addCents(cents);
+        }
+        long januaryCount = january.getCount();
+
+        // When
+        AmountSketch merged = AmountSketch.merge(january, february);
+
+        // Then
+        assertEquals(both.getCounts(), merged.getCounts());
+        assertEquals(both.getCount(), merged.getCount());
+        assertEquals(both.getMinCents(), merged.getMinCents());
+        assertEquals(both.getMaxCents(), merged.getMaxCents());
+        assertEquals(both.getP95(), merged.getP95());
+        assertEquals(januaryCount, january.getCount());
+        assertEquals(januaryCount, january.getCounts().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void quantile_ShouldStayWithinBucketPrecision_OfTheExactPercentile() {
+        // Given - skewed amounts, like payments: many small ones and a long tail
+        Random random = new Random(7);
+        long[] amounts = new long[20_000];
+        AmountSketch sketch = new AmountSketch();
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = (long) Math.exp(4 + random.nextDouble() * 12);
+            sketch.addCents(amounts[i]);
+        }
+        Arrays.sort(amounts);
+
+        // When / Then
+        for (double q : new double[] {0.01, 0.25, 0.50, 0.90, 0.95, 0.99, 1.0}) {
+            long exact = amounts[(int) Math.ceil(q * amounts.length) - 1];
+            long estimate = sketch.quantile(q).movePointRight(2).longValueExact();
+            assertTrue(Math.abs(estimate - exact) <= exact / 256 + 1,
+                    "p" + q + ": estimate " + estimate + " vs exact " + exact);
+        }
+    }
+
+    @Test
+    void quantile_ShouldClampToTheRealExtremes() {
+        // Given
+        AmountSketch sketch = new AmountSketch();
+        sketch.add(new BigDecimal("1000.01"));
+
+        // When / Then - the bucket's middle lies above the only amount
+        assertEquals(new BigDecimal("1000.01"), sketch.getP50());
+        assertEquals(new BigDecimal("1000.01"), sketch.getP99());
+        assertNull(new AmountSketch().getP50());
+    }
+}
@@ -0,0 +1,108 @@
+package miniproject2.paymentmanagementsystem.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of the old per-request logging (INFO on entry and exit, written synchronously)
+ * against the prod profile: entry/exit at DEBUG with INFO lines going through an AsyncAppender.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args=LoggingBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%15.15t] %-40.40logger{39} : %m%n";
+
+    @Param({"SYNC_INFO", "ASYNC_INFO", "DEBUG_DISABLED"})
+    public String mode;
+
+    private LoggerContext loggerContext;
+    private Logger logger;
+    private File logFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        logFile = File.createTempFile("logging-benchmark", ".log");
+        loggerContext = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(loggerContext);
+        fileAppender.setFile(logFile.getAbsolutePath());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if ("ASYNC_INFO".equals(mode)) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(loggerContext);
+            asyncAppender.setQueueSize(8192);
+            asyncAppender.setNeverBlock(true);
+            asyncAppender.addAppender(fileAppender);
+            asyncAppender.start();
+            appender = asyncAppender;
+        }
+
+        logger = loggerContext.getLogger("miniproject2.paymentmanagementsystem.controller.PaymentController");
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        logger.setLevel("DEBUG_DISABLED".equals(mode) ? ch.qos.logback.classic.Level.INFO : ch.qos.logback.classic.Level.DEBUG);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loggerContext.stop();
+        logFile.delete();
+    }
+
+    /**
+     * Mirrors a getPaymentById call: controller and service entry/exit lines around a trivial lookup
+     */
+    @Benchmark
+    public void handleRequest(Blackhole blackhole) {
+        long id = 42L;
+        BigDecimal amount = new BigDecimal("1250.00");
+        boolean verbose = !"DEBUG_DISABLED".equals(mode);
+
+        if (verbose) {
+            logger.info("Fetching payment with ID: {}", id);
+            logger.info("Fetching payment with ID: {}", id);
+        } else {
+            logger.debug("Fetching payment with ID: {}", id);
+            logger.debug("Fetching payment with ID: {}", id);
+        }
+
+        blackhole.consume(amount.multiply(BigDecimal.TEN));
+
+        if (verbose) {
+            logger.info("Successfully retrieved payment with ID: {}", id);
+            logger.info("Payment found with ID: {}", id);
+        } else {
+            logger.debug("Successfully retrieved payment with ID: {}", id);
+            logger.debug("Payment found with ID: {}", id);
+        }
+    }
+}
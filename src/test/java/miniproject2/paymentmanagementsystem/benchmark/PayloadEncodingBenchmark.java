@@ -0,0 +1,97 @@
+package miniproject2.paymentmanagementsystem.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import miniproject2.paymentmanagementsystem.dto.PaymentResponseDTO;
+import miniproject2.paymentmanagementsystem.enums.Category;
+import miniproject2.paymentmanagementsystem.enums.PaymentType;
+import miniproject2.paymentmanagementsystem.enums.Status;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode time of a 10k-payment /api/payments page as JSON, CBOR and Smile, with mappers
+ * configured like WebConfig's. Serialized sizes, raw and gzipped, are printed once per format at setup.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args=PayloadEncodingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadEncodingBenchmark {
+
+    private static final int PAGE_SIZE = 10_000;
+    private static final TypeReference<List<PaymentResponseDTO>> PAGE_TYPE = new TypeReference<>() {};
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private List<PaymentResponseDTO> page;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // ISO dates, as Spring Boot configures the application's builder
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if ("CBOR".equals(format)) {
+            builder.factory(new CBORFactory());
+        } else if ("SMILE".equals(format)) {
+            builder.factory(new SmileFactory());
+        }
+        objectMapper = builder.build();
+
+        Category[] categories = Category.values();
+        Status[] statuses = Status.values();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            PaymentResponseDTO payment = new PaymentResponseDTO();
+            payment.setId((long) i + 1);
+            payment.setAmount(BigDecimal.valueOf(10_000 + i * 37L, 2));
+            payment.setPaymentType(i % 3 == 0 ? PaymentType.INCOMING : PaymentType.OUTGOING);
+            payment.setCategory(categories[i % categories.length]);
+            payment.setStatus(statuses[i % statuses.length]);
+            payment.setDate(start.plusMinutes(i * 17L));
+            payment.setDescription("Invoice " + (100_000 + i) + " for services rendered");
+            payment.setCreatedById((long) (i % 50) + 1);
+            payment.setCreatedByName("User " + ((i % 50) + 1));
+            payment.setCreatedAt(start.plusMinutes(i * 17L));
+            payment.setUpdatedAt(start.plusMinutes(i * 17L + 5));
+            page.add(payment);
+        }
+
+        encoded = objectMapper.writeValueAsBytes(page);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(encoded);
+        }
+        System.out.printf("%n%s: %,d bytes, %,d bytes gzipped%n", format, encoded.length, gzipped.size());
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<PaymentResponseDTO> decode() throws IOException {
+        return objectMapper.readValue(encoded, PAGE_TYPE);
+    }
+}
@@ -0,0 +1,140 @@
+package miniproject2.paymentmanagementsystem.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import miniproject2.paymentmanagementsystem.PaymentManagementSystem;
+import miniproject2.paymentmanagementsystem.entity.Payment;
+import miniproject2.paymentmanagementsystem.entity.User;
+import miniproject2.paymentmanagementsystem.enums.Category;
+import miniproject2.paymentmanagementsystem.enums.PaymentType;
+import miniproject2.paymentmanagementsystem.enums.Status;
+import miniproject2.paymentmanagementsystem.repository.PaymentRepository;
+import miniproject2.paymentmanagementsystem.repository.UserRepository;
+import miniproject2.paymentmanagementsystem.util.DatabaseConcurrencyFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of GET /api/payments/my-payments with 2000 concurrent clients, each a JMH thread sending
+ * requests back to back. The app runs on an in-memory H2 database with a 10-connection Hikari pool.
+ * Throughput mode gives requests per second, SampleTime mode gives p99 latency; both are compared
+ * with and without DatabaseConcurrencyFilter. Non-200 responses (shed requests and pool timeouts) are
+ * printed after each trial.
+ *
+ * Requests run on Tomcat's platform threads only. The project targets Java 17, where Spring Boot ignores
+ * spring.threads.virtual.enabled, so there is no virtual-thread variant to compare until it moves to 21.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args=RequestConcurrencyBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xss512k", "-Xmx2g"})
+@Threads(2000)
+@State(Scope.Benchmark)
+public class RequestConcurrencyBenchmark {
+
+    private static final int PAYMENTS = 200;
+    private static final int POOL_SIZE = 10;
+
+    @Param({"true", "false"})
+    public boolean limited;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+    private final AtomicLong failed = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Command-line arguments, so they win over application.properties
+        context = new SpringApplicationBuilder(PaymentManagementSystem.class).run(
+                "--server.port=0",
+                "--server.tomcat.max-connections=4096",
+                "--spring.datasource.url=jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--web.db-concurrency.enabled=" + limited,
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.miniproject2.paymentmanagementsystem=WARN",
+                "--request.logging.sample-rate=0");
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> seedPayments());
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/payments/my-payments"))
+                .header("Authorization", "Bearer " + login(baseUrl))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nLimiter %s: %d non-200 responses, %d shed by the limiter%n",
+                limited ? "on" : "off", failed.get(),
+                limited ? context.getBean(DatabaseConcurrencyFilter.class).getRejected() : 0);
+        context.close();
+    }
+
+    @Benchmark
+    public int getMyPayments() throws Exception {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            failed.incrementAndGet();
+        }
+        return response.statusCode();
+    }
+
+    private void seedPayments() {
+        User admin = context.getBean(UserRepository.class).findByEmail("admin@payment.com").orElseThrow();
+        Category[] categories = Category.values();
+        List<Payment> payments = new ArrayList<>(PAYMENTS);
+        for (int i = 0; i < PAYMENTS; i++) {
+            Payment payment = new Payment();
+            payment.setAmount(BigDecimal.valueOf(1000 + i * 25L, 2));
+            payment.setPaymentType(i % 2 == 0 ? PaymentType.OUTGOING : PaymentType.INCOMING);
+            payment.setCategory(categories[i % categories.length]);
+            payment.setStatus(Status.COMPLETED);
+            payment.setDate(LocalDateTime.now().minusDays(i));
+            payment.setDescription("Load test payment " + i);
+            payment.setCreatedBy(admin);
+            payments.add(payment);
+        }
+        context.getBean(PaymentRepository.class).saveAll(payments);
+    }
+
+    private String login(String baseUrl) throws Exception {
+        HttpRequest loginRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"admin@payment.com\",\"password\":\"admin123\"}"))
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(loginRequest, HttpResponse.BodyHandlers.ofString());
+        JsonNode body = new ObjectMapper().readTree(response.body());
+        return body.get("token").asText();
+    }
+}
@@ -53,7 +53,7 @@ class AuthControllerTest {
     @Test
     void login_ShouldReturnAuthResponseDTO_WhenCredentialsAreValid() throws Exception {
         // Given
-        when(authService.authenticate(any(LoginRequestDTO.class))).thenReturn(authResponseDTO);
+        when(authService.authenticate(any(LoginRequestDTO.class), any())).thenReturn(authResponseDTO);
 
         // When & Then
         mockMvc.perform(post("/api/auth/login")
@@ -181,7 +181,7 @@ class AuthControllerTest {
     @Test
     void login_ShouldReturnUnauthorized_WhenAuthenticationFails() throws Exception {
         // Given
-        when(authService.authenticate(any(LoginRequestDTO.class)))
+        when(authService.authenticate(any(LoginRequestDTO.class), any()))
                 .thenThrow(new RuntimeException("Invalid credentials"));
 
         // When & Then
@@ -195,7 +195,7 @@ class AuthControllerTest {
     @Test
     void login_ShouldReturnCorrectContentType() throws Exception {
         // Given
-        when(authService.authenticate(any(LoginRequestDTO.class))).thenReturn(authResponseDTO);
+        when(authService.authenticate(any(LoginRequestDTO.class), any())).thenReturn(authResponseDTO);
 
         // When & Then
         mockMvc.perform(post("/api/auth/login")
@@ -212,7 +212,7 @@ class AuthControllerTest {
         AuthResponseDTO financeManagerResponse = new AuthResponseDTO(
                 "jwt.token.here", 2L, "Finance Manager", "fm@example.com", Role.FINANCE_MANAGER);
 
-        when(authService.authenticate(any(LoginRequestDTO.class))).thenReturn(financeManagerResponse);
+        when(authService.authenticate(any(LoginRequestDTO.class), any())).thenReturn(financeManagerResponse);
 
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package miniproject2.paymentmanagementsystem.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import miniproject2.paymentmanagementsystem.dto.ReportTotalDTO;
+import miniproject2.paymentmanagementsystem.entity.Payment;
+import miniproject2.paymentmanagementsystem.entity.User;
+import miniproject2.paymentmanagementsystem.enums.Category;
+import miniproject2.paymentmanagementsystem.enums.PaymentType;
+import miniproject2.paymentmanagementsystem.enums.Role;
+import miniproject2.paymentmanagementsystem.enums.Status;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the report aggregate queries on H2 and checks, through Hibernate statistics, that they return
+ * projections only and never load Payment entities
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class PaymentRepositoryReportTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setName("Report User");
+        user.setEmail("report@example.com");
+        user.setPassword("hashed");
+        user.setRole(Role.FINANCE_MANAGER);
+        entityManager.persist(user);
+
+        persistPayment(user, "100.00", Category.SALARY, Status.COMPLETED, PaymentType.OUTGOING, LocalDateTime.of(2024, 1, 10, 9, 0));
+        persistPayment(user, "50.00", Category.VENDOR, Status.PENDING, PaymentType.OUTGOING, LocalDateTime.of(2024, 1, 31, 23, 59));
+        persistPayment(user, "25.00", Category.SALARY, Status.PENDING, PaymentType.INCOMING, LocalDateTime.of(2024, 3, 5, 12, 0));
+        // Outside [FROM, TO)
+        persistPayment(user, "999.00", Category.INVOICE, Status.COMPLETED, PaymentType.INCOMING, LocalDateTime.of(2024, 4, 1, 0, 0));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void sumByStatus_ShouldGroupInDatabase_WithoutLoadingPayments() {
+        List<ReportTotalDTO> totals = paymentRepository.sumByStatus(FROM, TO);
+
+        assertEquals(2, totals.size());
+        assertTotal(totals.get(0), "COMPLETED", 1, "100.00");
+        assertTotal(totals.get(1), "PENDING", 2, "75.00");
+        assertNoEntitiesLoaded();
+    }
+
+    @Test
+    void sumByCategory_ShouldGroupInDatabase_WithoutLoadingPayments() {
+        List<ReportTotalDTO> totals = paymentRepository.sumByCategory(FROM, TO);
+
+        assertEquals(2, totals.size());
+        assertTotal(totals.get(0), "SALARY", 2, "125.00");
+        assertTotal(totals.get(1), "VENDOR", 1, "50.00");
+        assertNoEntitiesLoaded();
+    }
+
+    @Test
+    void sumByPaymentType_ShouldGroupInDatabase_WithoutLoadingPayments() {
+        List<ReportTotalDTO> totals = paymentRepository.sumByPaymentType(FROM, TO);
+
+        assertEquals(2, totals.size());
+        assertTotal(totals.get(0), "INCOMING", 1, "25.00");
+        assertTotal(totals.get(1), "OUTGOING", 2, "150.00");
+        assertNoEntitiesLoaded();
+    }
+
+    @Test
+    void sumByMonth_ShouldGroupInDatabase_WithoutLoadingPayments() {
+        List<ReportTotalDTO> totals = paymentRepository.sumByMonth(FROM, TO);
+
+        assertEquals(2, totals.size());
+        assertTotal(totals.get(0), "2024-01", 2, "150.00");
+        assertTotal(totals.get(1), "2024-03", 1, "25.00");
+        assertNoEntitiesLoaded();
+    }
+
+    private void persistPayment(User user, String amount, Category category, Status status, PaymentType type,
+                                LocalDateTime date) {
+        Payment payment = new Payment();
+        payment.setAmount(new BigDecimal(amount));
+        payment.setCategory(category);
+        payment.setStatus(status);
+        payment.setPaymentType(type);
+        payment.setDate(date);
+        payment.setCreatedBy(user);
+        entityManager.persist(payment);
+    }
+
+    private void assertTotal(ReportTotalDTO total, String key, long count, String amount) {
+        assertEquals(key, total.getKey());
+        assertEquals(count, total.getPaymentCount());
+        assertEquals(0, new BigDecimal(amount).compareTo(total.getTotalAmount()));
+    }
+
+    private void assertNoEntitiesLoaded() {
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+    }
+}
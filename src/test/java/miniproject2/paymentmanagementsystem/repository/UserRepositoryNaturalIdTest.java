@@ -0,0 +1,76 @@
+package miniproject2.paymentmanagementsystem.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import miniproject2.paymentmanagementsystem.entity.User;
+import miniproject2.paymentmanagementsystem.enums.Role;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calls findByEmail outside a test transaction, as JwtAuthenticationFilter does, and checks through
+ * Hibernate statistics that a repeat lookup is answered by the natural-id and entity caches
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryNaturalIdTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setName("Cached User");
+        user.setEmail("cached@example.com");
+        user.setPassword("hashed");
+        user.setRole(Role.VIEWER);
+        userRepository.save(user);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void findByEmail_ShouldHitNaturalIdCache_OnRepeatLookup() {
+        // Given - the first lookup resolves the id and fills the caches
+        Optional<User> first = userRepository.findByEmail("cached@example.com");
+        assertTrue(first.isPresent());
+        long naturalIdQueries = statistics.getNaturalIdQueryExecutionCount();
+        long statementsAfterFirst = statistics.getPrepareStatementCount();
+
+        // When
+        Optional<User> second = userRepository.findByEmail("cached@example.com");
+
+        // Then
+        assertTrue(second.isPresent());
+        assertEquals(first.get().getId(), second.get().getId());
+        assertTrue(statistics.getNaturalIdCacheHitCount() >= 1);
+        assertEquals(naturalIdQueries, statistics.getNaturalIdQueryExecutionCount());
+        assertEquals(statementsAfterFirst, statistics.getPrepareStatementCount());
+    }
+}
@@ -4,6 +4,7 @@ import miniproject2.paymentmanagementsystem.dto.AuthResponseDTO;
 import miniproject2.paymentmanagementsystem.dto.LoginRequestDTO;
 import miniproject2.paymentmanagementsystem.entity.User;
 import miniproject2.paymentmanagementsystem.enums.Role;
+import miniproject2.paymentmanagementsystem.exception.LoginThrottledException;
 import miniproject2.paymentmanagementsystem.repository.UserRepository;
 import miniproject2.paymentmanagementsystem.security.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +40,9 @@ class AuthServiceTest {
     @Mock
     private TokenBlacklistService tokenBlacklistService;
 
+    @Mock
+    private LoginThrottleService loginThrottleService;
+
     @Mock
     private Authentication authentication;
 
@@ -105,6 +109,21 @@ class AuthServiceTest {
         verify(jwtUtil, never()).generateToken(any());
     }
 
+    @Test
+    void authenticate_ShouldSkipCredentialCheck_WhenThrottled() {
+        // Given
+        doThrow(new LoginThrottledException("Too many login attempts. Please try again later"))
+                .when(loginThrottleService).checkAllowed(loginRequest.getEmail(), "10.0.0.1");
+
+        // When & Then
+        assertThrows(LoginThrottledException.class, () -> {
+            authService.authenticate(loginRequest, "10.0.0.1");
+        });
+
+        verify(authenticationManager, never()).authenticate(any());
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
     @Test
     void logout_ShouldBlacklistToken_WhenTokenHasBearerPrefix() {
         // Given
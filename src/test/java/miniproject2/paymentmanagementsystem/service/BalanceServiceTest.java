@@ -0,0 +1,135 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import miniproject2.paymentmanagementsystem.dto.BalanceDTO;
+import miniproject2.paymentmanagementsystem.entity.Payment;
+import miniproject2.paymentmanagementsystem.entity.User;
+import miniproject2.paymentmanagementsystem.entity.UserBalance;
+import miniproject2.paymentmanagementsystem.enums.Category;
+import miniproject2.paymentmanagementsystem.enums.PaymentType;
+import miniproject2.paymentmanagementsystem.enums.Status;
+import miniproject2.paymentmanagementsystem.repository.UserBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceServiceTest {
+
+    @Mock
+    private UserBalanceRepository userBalanceRepository;
+
+    @InjectMocks
+    private BalanceService balanceService;
+
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(7L);
+
+        payment = new Payment();
+        payment.setId(1L);
+        payment.setAmount(new BigDecimal("250.00"));
+        payment.setPaymentType(PaymentType.OUTGOING);
+        payment.setCategory(Category.VENDOR);
+        payment.setStatus(Status.PENDING);
+        payment.setDate(LocalDateTime.of(2025, 3, 14, 10, 30));
+        payment.setCreatedBy(user);
+    }
+
+    @Test
+    void recordAdded_ShouldAddPaymentToItsMonthlyBalance() {
+        // When
+        balanceService.recordAdded(payment);
+
+        // Then
+        verify(userBalanceRepository).applyDelta(7L, LocalDate.of(2025, 3, 1), "OUTGOING", "PENDING",
+                1, new BigDecimal("250.00"));
+    }
+
+    @Test
+    void recordRemoved_ShouldSubtractPaymentFromItsMonthlyBalance() {
+        // When
+        balanceService.recordRemoved(payment);
+
+        // Then
+        verify(userBalanceRepository).applyDelta(7L, LocalDate.of(2025, 3, 1), "OUTGOING", "PENDING",
+                -1, new BigDecimal("-250.00"));
+    }
+
+    @Test
+    void recordChanged_ShouldMoveAmountBetweenStatuses() {
+        // Given
+        BalanceService.BalanceKey before = BalanceService.BalanceKey.of(payment);
+        payment.setStatus(Status.COMPLETED);
+        payment.setAmount(new BigDecimal("300.00"));
+
+        // When
+        balanceService.recordChanged(before, payment);
+
+        // Then
+        verify(userBalanceRepository).applyDelta(7L, LocalDate.of(2025, 3, 1), "OUTGOING", "PENDING",
+                -1, new BigDecimal("-250.00"));
+        verify(userBalanceRepository).applyDelta(7L, LocalDate.of(2025, 3, 1), "OUTGOING", "COMPLETED",
+                1, new BigDecimal("300.00"));
+    }
+
+    @Test
+    void recordChanged_ShouldDoNothing_WhenBalanceFieldsAreUnchanged() {
+        // Given
+        BalanceService.BalanceKey before = BalanceService.BalanceKey.of(payment);
+        payment.setDescription("Only the description changed");
+
+        // When
+        balanceService.recordChanged(before, payment);
+
+        // Then
+        verifyNoInteractions(userBalanceRepository);
+    }
+
+    @Test
+    void getBalances_ShouldSkipEmptyRows() {
+        // Given
+        UserBalance pending = new UserBalance(1L, 7L, LocalDate.of(2025, 3, 1), PaymentType.OUTGOING,
+                Status.PENDING, 0L, BigDecimal.ZERO);
+        UserBalance completed = new UserBalance(2L, 7L, LocalDate.of(2025, 3, 1), PaymentType.OUTGOING,
+                Status.COMPLETED, 2L, new BigDecimal("550.00"));
+        when(userBalanceRepository.findByUserIdAndBalanceMonthOrderByPaymentTypeAscStatusAsc(7L, LocalDate.of(2025, 3, 1)))
+                .thenReturn(List.of(pending, completed));
+
+        // When
+        List<BalanceDTO> balances = balanceService.getBalances(7L, YearMonth.of(2025, 3));
+
+        // Then
+        assertEquals(1, balances.size());
+        assertEquals(Status.COMPLETED, balances.get(0).getStatus());
+        assertEquals(2L, balances.get(0).getPaymentCount());
+        assertEquals(new BigDecimal("550.00"), balances.get(0).getTotalAmount());
+    }
+
+    @Test
+    void rebuildIfEmpty_ShouldOnlyBackfillEmptyTable() {
+        // Given
+        when(userBalanceRepository.count()).thenReturn(3L);
+
+        // When
+        balanceService.rebuildIfEmpty();
+
+        // Then
+        verify(userBalanceRepository, never()).insertFromPayments();
+    }
+}
@@ -0,0 +1,112 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import miniproject2.paymentmanagementsystem.exception.LoginThrottledException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleServiceTest {
+
+    private LoginThrottleService loginThrottleService;
+
+    @BeforeEach
+    void setUp() {
+        loginThrottleService = new LoginThrottleService(3, 10, 300, 1000);
+    }
+
+    @Test
+    void checkAllowed_ShouldThrow_WhenEmailExceedsLimit() {
+        // When
+        for (int i = 0; i < 3; i++) {
+            loginThrottleService.checkAllowed("test@example.com", "10.0.0.1");
+        }
+
+        // Then
+        assertThrows(LoginThrottledException.class,
+                () -> loginThrottleService.checkAllowed("TEST@example.com", "10.0.0.2"));
+        assertEquals(1, loginThrottleService.getThrottledByEmail());
+        assertDoesNotThrow(() -> loginThrottleService.checkAllowed("other@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void checkAllowed_ShouldThrow_WhenIpExceedsLimit() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            loginThrottleService.checkAllowed("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        // Then
+        assertThrows(LoginThrottledException.class,
+                () -> loginThrottleService.checkAllowed("fresh@example.com", "10.0.0.1"));
+        assertEquals(1, loginThrottleService.getThrottledByIp());
+    }
+
+    @Test
+    void recordSuccess_ShouldResetEmailCounter() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginThrottleService.checkAllowed("test@example.com", null);
+        }
+
+        // When
+        loginThrottleService.recordSuccess("test@example.com");
+
+        // Then
+        assertDoesNotThrow(() -> loginThrottleService.checkAllowed("test@example.com", null));
+    }
+
+    @Test
+    void checkAllowed_ShouldKeepLockout_WhenFloodedWithNewEmails() {
+        // Given - four tracked keys per stripe, and a locked-out victim
+        LoginThrottleService smallThrottle = new LoginThrottleService(3, 10, 300, 64);
+        for (int i = 0; i < 3; i++) {
+            smallThrottle.checkAllowed("victim@example.com", null);
+        }
+
+        // When - every new email is admitted, evicting a key with fewer attempts than the victim's
+        for (String email : emailsInStripeOf("victim@example.com", 1000)) {
+            smallThrottle.checkAllowed(email, null);
+        }
+
+        // Then
+        assertThrows(LoginThrottledException.class,
+                () -> smallThrottle.checkAllowed("victim@example.com", null));
+        assertTrue(smallThrottle.getTrackedKeys() <= 64);
+    }
+
+    @Test
+    void checkAllowed_ShouldAdmitNewEmail_WhenItsStripeIsFullOfLiveKeys() {
+        // Given - the attacker fills the stripe the real user hashes to
+        LoginThrottleService smallThrottle = new LoginThrottleService(3, 10, 300, 64);
+        for (String email : emailsInStripeOf("real.user@example.com", 200)) {
+            smallThrottle.checkAllowed(email, null);
+            smallThrottle.checkAllowed(email, null);
+        }
+
+        // When / Then
+        assertDoesNotThrow(() -> smallThrottle.checkAllowed("real.user@example.com", null));
+        assertDoesNotThrow(() -> smallThrottle.checkAllowed("real.user@example.com", null));
+        assertEquals(0, smallThrottle.getThrottledByEmail());
+    }
+
+    // Distinct emails that land in the same limiter stripe as the given one
+    private static List<String> emailsInStripeOf(String email, int count) {
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; emails.size() < count; i++) {
+            String candidate = "flood" + i + "@example.com";
+            if (stripe(candidate) == stripe(email)) {
+                emails.add(candidate);
+            }
+        }
+        return emails;
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & 15;
+    }
+}
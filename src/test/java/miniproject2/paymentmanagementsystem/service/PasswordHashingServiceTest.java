@@ -0,0 +1,74 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    void tearDown() {
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
+        }
+    }
+
+    @Test
+    void hashAndVerify_ShouldRoundTrip() {
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), 2, 8);
+
+        String hash = passwordHashingService.hash("secret123").join();
+
+        assertTrue(passwordHashingService.verify("secret123", hash).join());
+        assertFalse(passwordHashingService.verify("wrong", hash).join());
+    }
+
+    @Test
+    void needsRehash_ShouldBeTrue_WhenHashUsesDifferentStrength() {
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(5), 1, 1);
+        String weakHash = new BCryptPasswordEncoder(4).encode("secret123");
+        String currentHash = new BCryptPasswordEncoder(5).encode("secret123");
+
+        assertTrue(passwordHashingService.needsRehash(weakHash));
+        assertFalse(passwordHashingService.needsRehash(currentHash));
+    }
+
+    @Test
+    void hash_ShouldReject_WhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        passwordHashingService = new PasswordHashingService(slowEncoder, 1, 1);
+
+        CompletableFuture<String> running = passwordHashingService.hash("a");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = passwordHashingService.hash("b");
+        CompletableFuture<String> rejected = passwordHashingService.hash("c");
+
+        CompletionException thrown = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, thrown.getCause());
+
+        release.countDown();
+        assertEquals("hash", running.join());
+        assertEquals("hash", queued.join());
+    }
+}
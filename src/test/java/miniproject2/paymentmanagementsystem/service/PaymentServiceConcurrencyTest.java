@@ -0,0 +1,138 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import miniproject2.paymentmanagementsystem.dto.PaymentUpdateDTO;
+import miniproject2.paymentmanagementsystem.entity.Payment;
+import miniproject2.paymentmanagementsystem.entity.User;
+import miniproject2.paymentmanagementsystem.enums.Category;
+import miniproject2.paymentmanagementsystem.enums.PaymentType;
+import miniproject2.paymentmanagementsystem.enums.Role;
+import miniproject2.paymentmanagementsystem.enums.Status;
+import miniproject2.paymentmanagementsystem.repository.PaymentRepository;
+import miniproject2.paymentmanagementsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Two updates of the same payment racing on H2. The first one stalls inside its transaction after
+ * moving the balance; the second must wait for its commit and then move the balance from the amount
+ * the first one wrote, not from the amount both of them originally read.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(PaymentService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentServiceConcurrencyTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private BalanceService balanceService;
+
+    @MockitoBean
+    private ReportService reportService;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private Long paymentId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setName("Finance User");
+        user.setEmail("finance@example.com");
+        user.setPassword("hashed");
+        user.setRole(Role.FINANCE_MANAGER);
+        userRepository.save(user);
+
+        Payment payment = new Payment();
+        payment.setAmount(new BigDecimal("100.00"));
+        payment.setPaymentType(PaymentType.OUTGOING);
+        payment.setCategory(Category.VENDOR);
+        payment.setStatus(Status.PENDING);
+        payment.setDate(LocalDateTime.of(2024, 5, 10, 9, 0));
+        payment.setCreatedBy(user);
+        paymentId = paymentRepository.save(payment).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        paymentRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void updatePayment_ShouldSerializeConcurrentUpdates_OfTheSamePayment() throws Exception {
+        // Given - the first update holds its transaction open until the second one has started
+        List<BalanceService.BalanceKey> balancesMovedFrom = new CopyOnWriteArrayList<>();
+        CountDownLatch firstInsideTransaction = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            balancesMovedFrom.add(invocation.getArgument(0));
+            if (balancesMovedFrom.size() == 1) {
+                firstInsideTransaction.countDown();
+                assertTrue(secondStarted.await(5, TimeUnit.SECONDS));
+                Thread.sleep(300); // long enough for the second update to reach the row
+            }
+            return null;
+        }).when(balanceService).recordChanged(any(), any());
+
+        // When
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> update("200.00"), executor);
+        assertTrue(firstInsideTransaction.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            secondStarted.countDown();
+            update("300.00");
+        }, executor);
+        CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(2, balancesMovedFrom.size());
+        assertEquals(0, new BigDecimal("100.00").compareTo(balancesMovedFrom.get(0).amount()));
+        assertEquals(0, new BigDecimal("200.00").compareTo(balancesMovedFrom.get(1).amount()));
+        assertEquals(0, new BigDecimal("300.00").compareTo(paymentRepository.findById(paymentId).orElseThrow().getAmount()));
+    }
+
+    private void update(String amount) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("finance@example.com", null, List.of()));
+        try {
+            PaymentUpdateDTO updateDTO = new PaymentUpdateDTO();
+            updateDTO.setAmount(new BigDecimal(amount));
+            paymentService.updatePayment(paymentId, updateDTO);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
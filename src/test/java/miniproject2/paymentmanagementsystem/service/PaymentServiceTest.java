@@ -3,6 +3,7 @@ package miniproject2.paymentmanagementsystem.service;
 import miniproject2.paymentmanagementsystem.dto.PaymentCreateDTO;
 import miniproject2.paymentmanagementsystem.dto.PaymentResponseDTO;
 import miniproject2.paymentmanagementsystem.dto.PaymentUpdateDTO;
+import miniproject2.paymentmanagementsystem.dto.PaymentVersionDTO;
 import miniproject2.paymentmanagementsystem.entity.Payment;
 import miniproject2.paymentmanagementsystem.entity.User;
 import miniproject2.paymentmanagementsystem.enums.Category;
@@ -25,6 +26,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -42,6 +44,12 @@ class PaymentServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private BalanceService balanceService;
+
+    @Mock
+    private ReportService reportService;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -118,6 +126,8 @@ class PaymentServiceTest {
             assertEquals(testPayment.getStatus(), result.getStatus());
 
             verify(paymentRepository).save(any(Payment.class));
+            verify(balanceService).recordAdded(testPayment);
+            verify(reportService).invalidate(YearMonth.from(testPayment.getDate()));
         }
     }
 
@@ -188,7 +198,7 @@ class PaymentServiceTest {
             when(securityContext.getAuthentication()).thenReturn(authentication);
             when(authentication.getName()).thenReturn(testUser.getEmail());
             when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-            when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
+            when(paymentRepository.findByIdForUpdate(paymentId)).thenReturn(Optional.of(testPayment));
             when(paymentRepository.save(any(Payment.class))).thenReturn(testPayment);
 
             // When
@@ -196,7 +206,7 @@ class PaymentServiceTest {
 
             // Then
             assertNotNull(result);
-            verify(paymentRepository).findById(paymentId);
+            verify(paymentRepository).findByIdForUpdate(paymentId);
             verify(paymentRepository).save(any(Payment.class));
         }
     }
@@ -210,7 +220,7 @@ class PaymentServiceTest {
             when(securityContext.getAuthentication()).thenReturn(authentication);
             when(authentication.getName()).thenReturn(adminUser.getEmail());
             when(userRepository.findByEmail(adminUser.getEmail())).thenReturn(Optional.of(adminUser));
-            when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
+            when(paymentRepository.findByIdForUpdate(paymentId)).thenReturn(Optional.of(testPayment));
             when(paymentRepository.save(any(Payment.class))).thenReturn(testPayment);
 
             // When
@@ -218,11 +228,34 @@ class PaymentServiceTest {
 
             // Then
             assertNotNull(result);
-            verify(paymentRepository).findById(paymentId);
+            verify(paymentRepository).findByIdForUpdate(paymentId);
             verify(paymentRepository).save(any(Payment.class));
         }
     }
 
+    @Test
+    void updatePayment_ShouldMoveBalance_FromPreviousStatusAndAmount() {
+        // Given
+        Long paymentId = 1L;
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContextHolder = mockStatic(SecurityContextHolder.class)) {
+            mockedSecurityContextHolder.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getName()).thenReturn(testUser.getEmail());
+            when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+            when(paymentRepository.findByIdForUpdate(paymentId)).thenReturn(Optional.of(testPayment));
+            when(paymentRepository.save(any(Payment.class))).thenReturn(testPayment);
+            BalanceService.BalanceKey before = BalanceService.BalanceKey.of(testPayment);
+
+            // When
+            paymentService.updatePayment(paymentId, paymentUpdateDTO);
+
+            // Then
+            verify(balanceService).recordChanged(before, testPayment);
+            assertEquals(Status.PENDING, before.status());
+            assertEquals(new BigDecimal("1000.00"), before.amount());
+        }
+    }
+
     @Test
     void updatePayment_ShouldThrowRuntimeException_WhenUserIsNotCreatorOrAdmin() {
         // Given
@@ -237,7 +270,7 @@ class PaymentServiceTest {
             when(securityContext.getAuthentication()).thenReturn(authentication);
             when(authentication.getName()).thenReturn(otherUser.getEmail());
             when(userRepository.findByEmail(otherUser.getEmail())).thenReturn(Optional.of(otherUser));
-            when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
+            when(paymentRepository.findByIdForUpdate(paymentId)).thenReturn(Optional.of(testPayment));
 
             // When & Then
             RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -245,8 +278,9 @@ class PaymentServiceTest {
             });
 
             assertEquals("You can only update payments you created", exception.getMessage());
-            verify(paymentRepository).findById(paymentId);
+            verify(paymentRepository).findByIdForUpdate(paymentId);
             verify(paymentRepository, never()).save(any(Payment.class));
+            verifyNoInteractions(balanceService);
         }
     }
 
@@ -254,21 +288,22 @@ class PaymentServiceTest {
     void deletePayment_ShouldDeletePayment_WhenPaymentExists() {
         // Given
         Long paymentId = 1L;
-        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
+        when(paymentRepository.findByIdForUpdate(paymentId)).thenReturn(Optional.of(testPayment));
 
         // When
         paymentService.deletePayment(paymentId);
 
         // Then
-        verify(paymentRepository).findById(paymentId);
+        verify(paymentRepository).findByIdForUpdate(paymentId);
         verify(paymentRepository).delete(testPayment);
+        verify(balanceService).recordRemoved(testPayment);
     }
 
     @Test
     void deletePayment_ShouldThrowRuntimeException_WhenPaymentNotExists() {
         // Given
         Long paymentId = 999L;
-        when(paymentRepository.findById(paymentId)).thenReturn(Optional.empty());
+        when(paymentRepository.findByIdForUpdate(paymentId)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -276,7 +311,7 @@ class PaymentServiceTest {
         });
 
         assertEquals("Payment not found with id: " + paymentId, exception.getMessage());
-        verify(paymentRepository).findById(paymentId);
+        verify(paymentRepository).findByIdForUpdate(paymentId);
         verify(paymentRepository, never()).delete(any(Payment.class));
     }
 
@@ -302,4 +337,52 @@ class PaymentServiceTest {
             verify(paymentRepository).findByCreatedBy(testUser);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void getPaymentETag_ShouldChange_WhenPaymentIsUpdated() {
+        // Given
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(paymentRepository.findUpdatedAtById(1L))
+                .thenReturn(Optional.of(updatedAt))
+                .thenReturn(Optional.of(updatedAt.plusSeconds(1)));
+
+        // When
+        String before = paymentService.getPaymentETag(1L);
+        String after = paymentService.getPaymentETag(1L);
+
+        // Then
+        assertTrue(before.startsWith("W/\""));
+        assertNotEquals(before, after);
+        verify(paymentRepository, never()).findById(any());
+    }
+
+    @Test
+    void getPaymentETag_ShouldReturnNull_WhenPaymentNotExists() {
+        // Given
+        when(paymentRepository.findUpdatedAtById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertNull(paymentService.getPaymentETag(999L));
+    }
+
+    @Test
+    void getCurrentUserPaymentsETag_ShouldUseVersionQueryOnly() {
+        // Given
+        LocalDateTime lastUpdated = LocalDateTime.of(2024, 5, 1, 10, 0);
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContextHolder = mockStatic(SecurityContextHolder.class)) {
+            mockedSecurityContextHolder.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getName()).thenReturn(testUser.getEmail());
+            when(paymentRepository.findVersionByCreatorEmail(testUser.getEmail()))
+                    .thenReturn(new PaymentVersionDTO(lastUpdated, 3L));
+
+            // When
+            String eTag = paymentService.getCurrentUserPaymentsETag();
+
+            // Then
+            assertNotNull(eTag);
+            verify(paymentRepository, never()).findByCreatedBy(any());
+            verify(userRepository, never()).findByEmail(any());
+        }
+    }
+}
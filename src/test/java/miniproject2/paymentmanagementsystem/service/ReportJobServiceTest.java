@@ -0,0 +1,178 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import miniproject2.paymentmanagementsystem.dto.PaymentSummaryDTO;
+import miniproject2.paymentmanagementsystem.dto.ReportJobDTO;
+import miniproject2.paymentmanagementsystem.dto.ReportTotalDTO;
+import miniproject2.paymentmanagementsystem.entity.User;
+import miniproject2.paymentmanagementsystem.enums.ReportJobStatus;
+import miniproject2.paymentmanagementsystem.enums.Role;
+import miniproject2.paymentmanagementsystem.repository.ReportResultRepository;
+import miniproject2.paymentmanagementsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobServiceTest {
+
+    @Mock
+    private ReportResultRepository reportResultRepository;
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void setUp() {
+        reportJobService = new ReportJobService(reportResultRepository, reportService, userRepository,
+                objectMapper, 1, 1, 24);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.shutdown();
+    }
+
+    @Test
+    void runJob_ShouldStoreCompressedSummary_WhenMonthsSummarized() throws Exception {
+        // Given
+        LocalDate from = LocalDate.of(2024, 1, 15);
+        LocalDate to = LocalDate.of(2024, 2, 10);
+        when(reportService.summarize(from, LocalDate.of(2024, 1, 31)))
+                .thenReturn(summary(from, LocalDate.of(2024, 1, 31), "2024-01",
+                        total("COMPLETED", 1, "100.00"), total("PENDING", 1, "50.00")));
+        when(reportService.summarize(LocalDate.of(2024, 2, 1), to))
+                .thenReturn(summary(LocalDate.of(2024, 2, 1), to, "2024-02", total("PENDING", 1, "25.00")));
+
+        // When
+        reportJobService.runJob(7L, from, to);
+
+        // Then
+        ArgumentCaptor<byte[]> result = ArgumentCaptor.forClass(byte[].class);
+        verify(reportResultRepository).updateStatus(7L, ReportJobStatus.RUNNING);
+        verify(reportResultRepository).complete(eq(7L), result.capture(), any(LocalDateTime.class), any(LocalDateTime.class));
+
+        PaymentSummaryDTO summary = objectMapper.readValue(ReportJobService.decompress(result.getValue()), PaymentSummaryDTO.class);
+        assertEquals(3, summary.getPaymentCount());
+        assertEquals(0, new BigDecimal("175.00").compareTo(summary.getTotalAmount()));
+        assertEquals(2, summary.getByMonth().size());
+        assertEquals("2024-01", summary.getByMonth().get(0).getKey());
+        assertEquals(0, new BigDecimal("150.00").compareTo(summary.getByMonth().get(0).getTotalAmount()));
+        assertEquals("PENDING", summary.getByStatus().get(1).getKey());
+        assertEquals(2, summary.getByStatus().get(1).getPaymentCount());
+        assertEquals(0, new BigDecimal("75.00").compareTo(summary.getByStatus().get(1).getTotalAmount()));
+    }
+
+    @Test
+    void runJob_ShouldMarkJobFailed_WhenQueryFails() {
+        // Given
+        when(reportService.summarize(any(LocalDate.class), any(LocalDate.class)))
+                .thenThrow(new RuntimeException("connection refused"));
+
+        // When
+        reportJobService.runJob(8L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+        // Then
+        verify(reportResultRepository).fail(eq(8L), eq("connection refused"), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(reportResultRepository, never()).complete(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void getJob_ShouldThrowException_WhenJobBelongsToAnotherUser() {
+        // Given
+        User financeManager = new User();
+        financeManager.setId(1L);
+        financeManager.setEmail("finance@example.com");
+        financeManager.setRole(Role.FINANCE_MANAGER);
+        ReportJobDTO job = new ReportJobDTO(5L, 2L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31),
+                ReportJobStatus.COMPLETED, 100, null, LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now().plusHours(1));
+
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContextHolder = mockStatic(SecurityContextHolder.class)) {
+            mockedSecurityContextHolder.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getName()).thenReturn(financeManager.getEmail());
+            when(userRepository.findByEmail(financeManager.getEmail())).thenReturn(Optional.of(financeManager));
+            when(reportResultRepository.findJobById(5L)).thenReturn(Optional.of(job));
+
+            // When & Then
+            RuntimeException exception = assertThrows(RuntimeException.class, () -> reportJobService.getJob(5L));
+            assertEquals("Report job not found with id: 5", exception.getMessage());
+        }
+    }
+
+    @Test
+    void deleteExpiredResults_ShouldDeleteExpiredRows() {
+        // Given
+        when(reportResultRepository.deleteExpired(any(LocalDateTime.class))).thenReturn(3);
+
+        // When
+        reportJobService.deleteExpiredResults();
+
+        // Then
+        verify(reportResultRepository).deleteExpired(any(LocalDateTime.class));
+    }
+
+    @Test
+    void failInterruptedJobs_ShouldFailQueuedAndRunningJobs() {
+        // Given
+        when(reportResultRepository.failAllInStatus(any(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(2);
+
+        // When
+        reportJobService.failInterruptedJobs();
+
+        // Then
+        verify(reportResultRepository).failAllInStatus(
+                eq(EnumSet.of(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING)),
+                anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    private PaymentSummaryDTO summary(LocalDate from, LocalDate to, String month, ReportTotalDTO... byStatus) {
+        long count = 0;
+        BigDecimal amount = BigDecimal.ZERO;
+        for (ReportTotalDTO total : byStatus) {
+            count += total.getPaymentCount();
+            amount = amount.add(total.getTotalAmount());
+        }
+        return new PaymentSummaryDTO(from, to, count, amount, List.of(byStatus), List.of(total("SALARY", count, amount.toPlainString())),
+                List.of(total("OUTGOING", count, amount.toPlainString())), List.of(total(month, count, amount.toPlainString())));
+    }
+
+    private ReportTotalDTO total(String key, long count, String amount) {
+        return new ReportTotalDTO(key, count, new BigDecimal(amount));
+    }
+}
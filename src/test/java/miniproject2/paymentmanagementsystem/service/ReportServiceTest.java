@@ -0,0 +1,133 @@
+package miniproject2.paymentmanagementsystem.service;
+
+import miniproject2.paymentmanagementsystem.dto.PaymentSummaryDTO;
+import miniproject2.paymentmanagementsystem.dto.ReportTotalDTO;
+import miniproject2.paymentmanagementsystem.enums.ReportDimension;
+import miniproject2.paymentmanagementsystem.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private ReportService reportService;
+
+    private final LocalDate closedFrom = YearMonth.now().minusMonths(3).atDay(1);
+    private final LocalDate closedTo = YearMonth.now().minusMonths(2).atEndOfMonth();
+
+    @BeforeEach
+    void setUp() {
+        reportService = new ReportService(paymentRepository, 16);
+    }
+
+    @Test
+    void getTotals_ShouldQueryOnce_WhenPeriodIsClosed() {
+        // Given
+        when(paymentRepository.sumByCategory(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new ReportTotalDTO("SALARY", 2, new BigDecimal("300.00"))));
+
+        // When
+        List<ReportTotalDTO> first = reportService.getTotals(ReportDimension.CATEGORY, closedFrom, closedTo);
+        List<ReportTotalDTO> second = reportService.getTotals(ReportDimension.CATEGORY, closedFrom, closedTo);
+
+        // Then
+        assertEquals(first, second);
+        assertEquals(1, reportService.cachedReportCount());
+        verify(paymentRepository, times(1)).sumByCategory(closedFrom.atStartOfDay(), closedTo.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    void getTotals_ShouldNotCache_WhenPeriodIncludesCurrentMonth() {
+        // Given
+        LocalDate from = YearMonth.now().atDay(1);
+        when(paymentRepository.sumByStatus(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+
+        // When
+        reportService.getTotals(ReportDimension.STATUS, from, from);
+        reportService.getTotals(ReportDimension.STATUS, from, from);
+
+        // Then
+        assertEquals(0, reportService.cachedReportCount());
+        verify(paymentRepository, times(2)).sumByStatus(any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void invalidate_ShouldEvictOnlyPeriodsContainingMonth() {
+        // Given
+        LocalDate otherFrom = YearMonth.now().minusMonths(6).atDay(1);
+        LocalDate otherTo = YearMonth.now().minusMonths(5).atEndOfMonth();
+        when(paymentRepository.sumByMonth(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+        reportService.getTotals(ReportDimension.MONTH, closedFrom, closedTo);
+        reportService.getTotals(ReportDimension.MONTH, otherFrom, otherTo);
+
+        // When
+        reportService.invalidate(YearMonth.from(closedTo));
+
+        // Then
+        assertEquals(1, reportService.cachedReportCount());
+        reportService.getTotals(ReportDimension.MONTH, otherFrom, otherTo);
+        reportService.getTotals(ReportDimension.MONTH, closedFrom, closedTo);
+        verify(paymentRepository, times(3)).sumByMonth(any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void summarize_ShouldReadCacheButNotFillIt_ForReportJobs() {
+        // Given - one interactive report cached
+        when(paymentRepository.sumByCategory(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new ReportTotalDTO("SALARY", 2, new BigDecimal("300.00"))));
+        when(paymentRepository.sumByStatus(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+        when(paymentRepository.sumByPaymentType(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+        when(paymentRepository.sumByMonth(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+        reportService.getTotals(ReportDimension.CATEGORY, closedFrom, closedTo);
+
+        // When - a job summarizes the same range and a month of its own
+        reportService.summarize(closedFrom, closedTo);
+        reportService.summarize(closedFrom.minusMonths(1), closedFrom.minusDays(1));
+
+        // Then
+        assertEquals(1, reportService.cachedReportCount());
+        verify(paymentRepository, times(1)).sumByCategory(closedFrom.atStartOfDay(), closedTo.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    void getSummary_ShouldAddUpStatusTotals() {
+        // Given
+        when(paymentRepository.sumByStatus(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new ReportTotalDTO("COMPLETED", 2, new BigDecimal("300.00")),
+                        new ReportTotalDTO("PENDING", 1, new BigDecimal("50.50"))));
+
+        // When
+        PaymentSummaryDTO summary = reportService.getSummary(closedFrom, closedTo);
+
+        // Then
+        assertEquals(3, summary.getPaymentCount());
+        assertEquals(new BigDecimal("350.50"), summary.getTotalAmount());
+        assertEquals(2, summary.getByStatus().size());
+        assertTrue(summary.getByCategory().isEmpty());
+    }
+
+    @Test
+    void getTotals_ShouldThrowException_WhenFromIsAfterTo() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> reportService.getTotals(ReportDimension.STATUS, closedTo, closedFrom));
+        assertEquals("From date must not be after to date", exception.getMessage());
+        verifyNoInteractions(paymentRepository);
+    }
+}
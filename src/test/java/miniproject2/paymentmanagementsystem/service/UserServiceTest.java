@@ -11,6 +11,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import miniproject2.paymentmanagementsystem.exception.ErrorResponse;
+import miniproject2.paymentmanagementsystem.exception.GlobalExceptionHandler;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,6 +22,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,7 +39,7 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @InjectMocks
     private UserService userService;
@@ -80,7 +88,8 @@ class UserServiceTest {
     @Test
     void createUser_ShouldReturnUserResponseDTO_WhenUserDoesNotExist() {
         when(userRepository.existsByEmail(userCreateDTO.getEmail())).thenReturn(false);
-        when(passwordEncoder.encode(userCreateDTO.getPassword())).thenReturn("encodedPassword");
+        when(passwordHashingService.hash(userCreateDTO.getPassword()))
+                .thenReturn(CompletableFuture.completedFuture("encodedPassword"));
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
         UserResponseDTO result = userService.createUser(userCreateDTO);
@@ -92,7 +101,7 @@ class UserServiceTest {
         assertEquals(testUser.getRole(), result.getRole());
 
         verify(userRepository).existsByEmail(userCreateDTO.getEmail());
-        verify(passwordEncoder).encode(userCreateDTO.getPassword());
+        verify(passwordHashingService).hash(userCreateDTO.getPassword());
         verify(userRepository).save(any(User.class));
     }
 
@@ -189,4 +198,46 @@ class UserServiceTest {
         assertEquals("User not found with email: " + email, exception.getMessage());
         verify(userRepository).findByEmail(email);
     }
-}
\ No newline at end of file
+
+    @Test
+    void updatePassword_ShouldPersistNewHash_WhenUserExists() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        UserDetails result = userService.updatePassword(testUser, "rehashedPassword");
+
+        assertEquals("rehashedPassword", result.getPassword());
+        verify(userRepository).save(testUser);
+    }
+
+    @Test
+    void createUser_ShouldRejectWith503_WhenHashingQueueIsFull() throws Exception {
+        // One hashing thread, blocked, and a queue of one, already taken
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        PasswordHashingService saturatedHashing = new PasswordHashingService(slowEncoder, 1, 1);
+        try {
+            saturatedHashing.hash("first");
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            saturatedHashing.hash("second");
+            when(userRepository.existsByEmail(userCreateDTO.getEmail())).thenReturn(false);
+            UserService saturatedUserService = new UserService(userRepository, saturatedHashing);
+
+            RejectedExecutionException exception = assertThrows(RejectedExecutionException.class,
+                    () -> saturatedUserService.createUser(userCreateDTO));
+
+            ResponseEntity<ErrorResponse> response = new GlobalExceptionHandler().handleRejectedExecutionException(exception);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            verify(userRepository, never()).save(any(User.class));
+        } finally {
+            release.countDown();
+            saturatedHashing.shutdown();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package miniproject2.paymentmanagementsystem.util;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CompressionThresholdFilterTest {
+
+    private static final int THRESHOLD = 2048;
+
+    private final CompressionThresholdFilter filter =
+            new CompressionThresholdFilter(true, DataSize.ofKilobytes(2));
+
+    @Test
+    void doFilter_ShouldSetContentLength_WhenBodyEndsWithinThreshold() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(apiRequest(), response, chainWriting(THRESHOLD));
+
+        // Then
+        assertEquals(String.valueOf(THRESHOLD), response.getHeader("Content-Length"));
+        assertEquals(THRESHOLD, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void doFilter_ShouldStreamWithoutContentLength_WhenBodyCrossesThreshold() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(apiRequest(), response, chainWriting(THRESHOLD + 1));
+
+        // Then
+        assertNull(response.getHeader("Content-Length"));
+        assertEquals(THRESHOLD + 1, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void doFilter_ShouldHoldWriterOutput_LikeStreamOutput() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding("UTF-8");
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.getWriter().write("{\"error\":\"Forbidden\"}");
+            }
+        };
+
+        // When
+        filter.doFilter(apiRequest(), response, new MockFilterChain(servlet));
+
+        // Then
+        assertEquals("21", response.getHeader("Content-Length"));
+        assertEquals("{\"error\":\"Forbidden\"}", response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_ShouldPassWriteListenerToTheContainerStream() throws Exception {
+        // Given
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ServletOutputStream containerStream = mock(ServletOutputStream.class);
+        when(response.getOutputStream()).thenReturn(containerStream);
+        WriteListener listener = mock(WriteListener.class);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.getOutputStream().setWriteListener(listener);
+            }
+        };
+
+        // When
+        filter.doFilter(apiRequest(), response, new MockFilterChain(servlet));
+
+        // Then
+        verify(containerStream).setWriteListener(listener);
+    }
+
+    @Test
+    void doFilter_ShouldLeaveNonApiResponsesAlone() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, chainWriting(100));
+
+        // Then
+        assertNull(response.getHeader("Content-Length"));
+        assertEquals(100, response.getContentAsByteArray().length);
+    }
+
+    private static MockHttpServletRequest apiRequest() {
+        return new MockHttpServletRequest("GET", "/api/payments");
+    }
+
+    private static MockFilterChain chainWriting(int bytes) {
+        byte[] body = new byte[bytes];
+        Arrays.fill(body, (byte) 'a');
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                // In pieces, the way a message converter streams
+                for (int offset = 0; offset < body.length; offset += 500) {
+                    resp.getOutputStream().write(body, offset, Math.min(500, body.length - offset));
+                }
+            }
+        });
+    }
+}